@@ -30,6 +30,7 @@ public interface ProtocolEvaluator<ResourcePoolT extends ResourcePool> {
 
     private final int nativeProtocols;
     private final int batches;
+    private final int batchSize;
 
     /**
      * Createes a new statistics object.
@@ -38,9 +39,21 @@ public interface ProtocolEvaluator<ResourcePoolT extends ResourcePool> {
      * @param batches the total of batches in the evaluation
      */
     public EvaluationStatistics(int nativeProtocols, int batches) {
+      this(nativeProtocols, batches, 0);
+    }
 
+    /**
+     * Creates a new statistics object including the batch size used.
+     *
+     * @param nativeProtocols the total number of native protocols in evaluation
+     * @param batches the total of batches in the evaluation
+     * @param batchSize the maximum number of native protocols in a batch at the end of the
+     *     evaluation
+     */
+    public EvaluationStatistics(int nativeProtocols, int batches, int batchSize) {
       this.nativeProtocols = nativeProtocols;
       this.batches = batches;
+      this.batchSize = batchSize;
     }
 
     /**
@@ -60,5 +73,14 @@ public interface ProtocolEvaluator<ResourcePoolT extends ResourcePool> {
     public int getBatches() {
       return batches;
     }
+
+    /**
+     * Returns the maximum number of native protocols in a batch at the end of the evaluation.
+     *
+     * @return the batch size or 0 if not known
+     */
+    public int getBatchSize() {
+      return batchSize;
+    }
   }
 }
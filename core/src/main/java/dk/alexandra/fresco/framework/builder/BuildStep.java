@@ -32,9 +32,12 @@ public final class BuildStep<
   private NextStepBuilder<BuilderT, OutputT, InputT> stepBuilder;
   private BuildStep<OutputT, BuilderT, ?> next;
   private DRes<OutputT> output;
+  private final ComputationStack computationStack;
 
-  BuildStep(NextStepBuilder<BuilderT, OutputT, InputT> stepBuilder) {
+  BuildStep(NextStepBuilder<BuilderT, OutputT, InputT> stepBuilder,
+      ComputationStack computationStack) {
     this.stepBuilder = stepBuilder;
+    this.computationStack = computationStack;
   }
 
   /**
@@ -46,7 +49,8 @@ public final class BuildStep<
   public <NextOutputT> BuildStep<OutputT, BuilderT, NextOutputT> seq(
       FrescoLambda<OutputT, BuilderT, NextOutputT> function) {
     BuildStep<OutputT, BuilderT, NextOutputT> localChild =
-        new BuildStep<>(new BuildStepSingle<>(function, false));
+        new BuildStep<>(
+            new BuildStepSingle<>(function, false, computationStack), computationStack);
     this.next = localChild;
     return localChild;
   }
@@ -61,7 +65,8 @@ public final class BuildStep<
   public <NextOutputT> BuildStep<OutputT, BuilderT, NextOutputT> par(
       FrescoLambdaParallel<OutputT, BuilderT, NextOutputT> function) {
     BuildStep<OutputT, BuilderT, NextOutputT> localChild =
-        new BuildStep<>(new BuildStepSingle<>(function, true));
+        new BuildStep<>(
+            new BuildStepSingle<>(function, true, computationStack), computationStack);
     this.next = localChild;
     return localChild;
   }
@@ -78,7 +83,8 @@ public final class BuildStep<
       Predicate<OutputT> test,
       FrescoLambda<OutputT, BuilderT, OutputT> function) {
     BuildStep<OutputT, BuilderT, OutputT> localChild =
-        new BuildStep<>(new BuildStepLooping<>(test, function));
+        new BuildStep<>(
+            new BuildStepLooping<>(test, function, computationStack), computationStack);
     this.next = localChild;
     return localChild;
   }
@@ -107,8 +113,7 @@ public final class BuildStep<
                   builder.seq(
                       seq -> secondFunction.buildComputation(seq, output1));
               return () -> new Pair<>(firstOutput.out(), secondOutput.out());
-            }, true)
-    );
+            }, true, computationStack), computationStack);
     this.next = localChild;
     return localChild;
   }
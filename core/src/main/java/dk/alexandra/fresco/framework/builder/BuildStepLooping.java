@@ -14,11 +14,14 @@ class BuildStepLooping<BuilderT extends ProtocolBuilderImpl<BuilderT>, InputT>
 
   private final Predicate<InputT> predicate;
   private final FrescoLambda<InputT, BuilderT, InputT> function;
+  private final ComputationStack computationStack;
 
-  BuildStepLooping(Predicate<InputT> predicate, FrescoLambda<InputT, BuilderT, InputT> function) {
+  BuildStepLooping(Predicate<InputT> predicate, FrescoLambda<InputT, BuilderT, InputT> function,
+      ComputationStack computationStack) {
     super();
     this.predicate = predicate;
     this.function = function;
+    this.computationStack = computationStack;
   }
 
   public Pair<ProtocolProducer, DRes<InputT>> createNextStep(
@@ -26,7 +29,7 @@ class BuildStepLooping<BuilderT extends ProtocolBuilderImpl<BuilderT>, InputT>
       BuilderFactory<BuilderT> factory,
       BuildStep<InputT, BuilderT, ?> next) {
     LoopProtocolProducer<BuilderT, InputT> loopProtocolProducer =
-        new LoopProtocolProducer<>(factory, input, predicate, function, next);
+        new LoopProtocolProducer<>(factory, input, predicate, function, next, computationStack);
     return new Pair<>(loopProtocolProducer, loopProtocolProducer);
   }
 
@@ -43,14 +46,17 @@ class BuildStepLooping<BuilderT extends ProtocolBuilderImpl<BuilderT>, InputT>
     private Predicate<InputT> predicate;
     private FrescoLambda<InputT, BuilderT, InputT> function;
     private BuildStep<InputT, BuilderT, ?> next;
+    private final ComputationStack computationStack;
 
     LoopProtocolProducer(
         BuilderFactory<BuilderT> factory,
         InputT input,
         Predicate<InputT> predicate,
         FrescoLambda<InputT, BuilderT, InputT> function,
-        BuildStep<InputT, BuilderT, ?> next) {
+        BuildStep<InputT, BuilderT, ?> next,
+        ComputationStack computationStack) {
       this.factory = factory;
+      this.computationStack = computationStack;
       this.predicate = predicate;
       this.function = function;
       this.next = next;
@@ -79,6 +85,7 @@ class BuildStepLooping<BuilderT extends ProtocolBuilderImpl<BuilderT>, InputT>
       } else {
         if (predicate.test(input)) {
           BuilderT builder = factory.createSequential();
+          builder.setComputationStack(computationStack);
           currentResult = function.buildComputation(builder, input);
           currentProducer = builder.build();
         } else {
@@ -14,11 +14,14 @@ class BuildStepSingle<BuilderT extends ProtocolBuilderImpl<BuilderT>, OutputT, I
 
   private boolean parallel;
   private FrescoLambda<InputT, BuilderT, OutputT> function;
+  private final ComputationStack computationStack;
 
-  BuildStepSingle(FrescoLambda<InputT, BuilderT, OutputT> function, boolean parallel) {
+  BuildStepSingle(FrescoLambda<InputT, BuilderT, OutputT> function, boolean parallel,
+      ComputationStack computationStack) {
     super();
     this.function = function;
     this.parallel = parallel;
+    this.computationStack = computationStack;
   }
 
   public Pair<ProtocolProducer, DRes<OutputT>> createNextStep(
@@ -27,6 +30,7 @@ class BuildStepSingle<BuilderT extends ProtocolBuilderImpl<BuilderT>, OutputT, I
       BuildStep<OutputT, BuilderT, ?> next) {
 
     BuilderT builder = createBuilder(factory);
+    builder.setComputationStack(computationStack);
     DRes<OutputT> output = function.buildComputation(builder, input);
     if (next != null) {
       List<ProtocolProducer> protocols = Arrays.asList(
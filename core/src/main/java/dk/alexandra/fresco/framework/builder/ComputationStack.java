@@ -0,0 +1,150 @@
+package dk.alexandra.fresco.framework.builder;
+
+import dk.alexandra.fresco.framework.NativeProtocol;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * The stack of {@link Computation} classes enclosing a builder, used to attribute native protocols
+ * to the computations that created them.
+ *
+ * <p>Builders do not carry a stack unless one is attached to the root builder (see
+ * {@link #attachTo(ProtocolBuilderImpl)}), typically by a profiling builder factory. When a stack
+ * is attached, each computation given to {@link ProtocolBuilderImpl#seq(Computation)} or
+ * {@link ProtocolBuilderImpl#par(ComputationParallel)} pushes its class onto the stack of the
+ * nested builder, and each native protocol appended to a builder is reported to the
+ * {@link Listener} of its stack.</p>
+ *
+ * <p>Lambdas are named by the class defining them, and a computation with the same name as the top
+ * of the stack does not push a new frame. Hence the lambdas used within a computation are
+ * attributed to the computation itself.</p>
+ */
+public final class ComputationStack {
+
+  /**
+   * Receives the native protocols appended to builders with a stack attached.
+   */
+  public interface Listener {
+
+    /**
+     * Called when a native protocol is appended to a builder.
+     *
+     * @param protocol the native protocol
+     * @param stack the stack of the builder it was appended to
+     */
+    void nativeProtocolAppended(NativeProtocol<?, ?> protocol, ComputationStack stack);
+  }
+
+  private static final String LAMBDA_MARKER = "$$Lambda";
+
+  private final ComputationStack parent;
+  private final String name;
+  private final Listener listener;
+  private String folded;
+
+  private ComputationStack(ComputationStack parent, String name, Listener listener) {
+    this.parent = parent;
+    this.name = name;
+    this.listener = listener;
+  }
+
+  /**
+   * Creates a new stack holding a single frame.
+   *
+   * @param name the name of the root frame
+   * @param listener the listener to report appended native protocols to
+   * @return the new stack
+   */
+  public static ComputationStack root(String name, Listener listener) {
+    return new ComputationStack(null, name, listener);
+  }
+
+  /**
+   * Attaches this stack to a builder, such that the native protocols appended to the builder and
+   * to the builders nested within it are reported to the listener of this stack.
+   *
+   * @param builder the builder, usually a root builder just created by a builder factory
+   * @param <BuilderT> the type of the builder
+   * @return the given builder
+   */
+  public <BuilderT extends ProtocolBuilderImpl<BuilderT>> BuilderT attachTo(BuilderT builder) {
+    builder.setComputationStack(this);
+    return builder;
+  }
+
+  /**
+   * Gets the name of the top frame of this stack.
+   *
+   * @return the name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the stack below the top frame.
+   *
+   * @return the parent stack or null if this is a root
+   */
+  public ComputationStack getParent() {
+    return parent;
+  }
+
+  /**
+   * Gets the names of the frames of this stack from the root to the top.
+   *
+   * @return the names
+   */
+  public List<String> getNames() {
+    LinkedList<String> names = new LinkedList<>();
+    for (ComputationStack frame = this; frame != null; frame = frame.parent) {
+      names.addFirst(frame.name);
+    }
+    return names;
+  }
+
+  /**
+   * Gets the names of the frames from the root to the top separated by semicolons, i.e., in the
+   * collapsed format used by flame graph tools.
+   *
+   * @return the folded stack
+   */
+  public String toFoldedString() {
+    if (folded == null) {
+      folded = parent == null ? name : parent.toFoldedString() + ";" + name;
+    }
+    return folded;
+  }
+
+  @Override
+  public String toString() {
+    return toFoldedString();
+  }
+
+  ComputationStack push(Object computation) {
+    String className = computation.getClass().getName();
+    int lambdaIdx = className.indexOf(LAMBDA_MARKER);
+    if (lambdaIdx >= 0) {
+      className = className.substring(0, lambdaIdx);
+      if (isBuilderClass(className)) {
+        // lambdas of the builders themselves, e.g. in pairInPar, are not computations of the user
+        return this;
+      }
+    }
+    String frameName = className.substring(className.lastIndexOf('.') + 1);
+    if (frameName.equals(name)) {
+      return this;
+    }
+    return new ComputationStack(this, frameName, listener);
+  }
+
+  void appended(NativeProtocol<?, ?> protocol) {
+    listener.nativeProtocolAppended(protocol, this);
+  }
+
+  private static boolean isBuilderClass(String className) {
+    String packageName = ComputationStack.class.getPackage().getName();
+    return className.lastIndexOf('.') == packageName.length()
+        && className.startsWith(packageName);
+  }
+}
@@ -17,6 +17,7 @@ public abstract class ProtocolBuilderImpl<BuilderT extends ProtocolBuilderImpl<B
   private final boolean parallel;
   private List<ProtocolProducer> protocols;
   private BuilderFactory<BuilderT> factory;
+  private ComputationStack computationStack;
 
   protected ProtocolBuilderImpl(
       BuilderFactory<BuilderT> factory,
@@ -26,6 +27,10 @@ public abstract class ProtocolBuilderImpl<BuilderT extends ProtocolBuilderImpl<B
     this.factory = factory;
   }
 
+  void setComputationStack(ComputationStack computationStack) {
+    this.computationStack = computationStack;
+  }
+
   private void createAndAppend(ProtocolProducer producer) {
     if (protocols == null) {
       throw new IllegalStateException("Cannot build this twice, it has all ready been constructed");
@@ -44,6 +49,9 @@ public abstract class ProtocolBuilderImpl<BuilderT extends ProtocolBuilderImpl<B
   public <T> DRes<T> append(NativeProtocol<T, ?> nativeProtocol) {
     SingleProtocolProducer<T> producer = new SingleProtocolProducer<>(nativeProtocol);
     createAndAppend(producer);
+    if (computationStack != null) {
+      computationStack.appended(nativeProtocol);
+    }
     return producer;
   }
 
@@ -74,8 +82,8 @@ public abstract class ProtocolBuilderImpl<BuilderT extends ProtocolBuilderImpl<B
   public <R> BuildStep<Void, BuilderT, R> seq(Computation<R, BuilderT> function) {
     FrescoLambda<Void, BuilderT, R> innerBuilder =
         (inner, ignored) -> function.buildComputation(inner);
-    BuildStep<Void, BuilderT, R> builder =
-        new BuildStep<>(new BuildStepSingle<>(innerBuilder, false));
+    BuildStep<Void, BuilderT, R> builder = new BuildStep<>(
+        new BuildStepSingle<>(innerBuilder, false, pushComputation(function)), computationStack);
     createAndAppend(new LazyProtocolProducerDecorator(() -> builder.createProducer(null, factory)));
     return builder;
   }
@@ -88,9 +96,16 @@ public abstract class ProtocolBuilderImpl<BuilderT extends ProtocolBuilderImpl<B
    */
   public <R> BuildStep<Void, BuilderT, R> par(ComputationParallel<R, BuilderT> f) {
     FrescoLambda<Void, BuilderT, R> innerBuilder = (inner, ignored) -> f.buildComputation(inner);
-    BuildStep<Void, BuilderT, R> builder =
-        new BuildStep<>(new BuildStepSingle<>(innerBuilder, true));
+    BuildStep<Void, BuilderT, R> builder = new BuildStep<>(
+        new BuildStepSingle<>(innerBuilder, true, pushComputation(f)), computationStack);
     createAndAppend(new LazyProtocolProducerDecorator(() -> builder.createProducer(null, factory)));
     return builder;
   }
+
+  private ComputationStack pushComputation(Object computation) {
+    if (computationStack == null) {
+      return null;
+    }
+    return computationStack.push(computation);
+  }
 }
@@ -6,6 +6,7 @@ import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.util.RowPairD;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.collections.Matrix;
+import dk.alexandra.fresco.lib.collections.relational.AggregationType;
 import java.math.BigInteger;
 import java.util.List;
 
@@ -153,6 +154,19 @@ public interface Collections extends ComputationDirectory {
    */
   DRes<Matrix<DRes<SInt>>> shuffle(DRes<Matrix<DRes<SInt>>> values);
 
+  // Sorting
+
+  /**
+   * Sorts the rows of <code>values</code> in ascending order of the values in column
+   * <code>keyColIdx</code>. Rows are shuffled before they are sorted, so the order of rows with
+   * equal keys is random. Supports any number of rows.
+   *
+   * @param values rows to sort
+   * @param keyColIdx column to sort by
+   * @return sorted rows
+   */
+  DRes<Matrix<DRes<SInt>>> sort(DRes<Matrix<DRes<SInt>>> values, int keyColIdx);
+
   // Relational (SQL-like) operators
 
   /**
@@ -169,4 +183,36 @@ public interface Collections extends ComputationDirectory {
   DRes<Matrix<DRes<SInt>>> leakyAggregateSum(DRes<Matrix<DRes<SInt>>> values,
       int groupColIdx, int aggColIdx);
 
+  /**
+   * Performs a SQL-like group-by operation. Groups rows by column <code>groupColIdx</code> and
+   * computes the given aggregates over the resulting groups. Each row of the result holds a group
+   * key followed by the aggregates in the order given. <br> NOTE: this implementation leaks only
+   * the size of the result, i.e., the number of distinct values in column
+   * <code>groupColIdx</code>.
+   *
+   * @param values rows to be aggregated
+   * @param groupColIdx column to group by
+   * @param aggregations pairs of the column to aggregate and the aggregate function to use
+   * @return aggregated result
+   */
+  DRes<Matrix<DRes<SInt>>> aggregate(DRes<Matrix<DRes<SInt>>> values, int groupColIdx,
+      List<Pair<Integer, AggregationType>> aggregations);
+
+  /**
+   * Performs a SQL-like inner equi-join of two tables on column <code>leftKeyColIdx</code> of
+   * <code>left</code> and column <code>rightKeyColIdx</code> of <code>right</code>. Each row of
+   * the result holds the columns of a left row followed by the columns of a matching right row
+   * except its key column. A private set intersection is a join of two single column tables. <br>
+   * NOTE: this implementation leaks the equality pattern of the join keys across and within the
+   * tables and thus the size of the result, but not which input rows are joined.
+   *
+   * @param left the left table
+   * @param leftKeyColIdx column of the left table to join on
+   * @param right the right table
+   * @param rightKeyColIdx column of the right table to join on
+   * @return joined rows
+   */
+  DRes<Matrix<DRes<SInt>>> leakyJoin(DRes<Matrix<DRes<SInt>>> left, int leftKeyColIdx,
+      DRes<Matrix<DRes<SInt>>> right, int rightKeyColIdx);
+
 }
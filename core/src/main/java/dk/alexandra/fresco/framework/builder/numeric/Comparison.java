@@ -3,6 +3,8 @@ package dk.alexandra.fresco.framework.builder.numeric;
 import dk.alexandra.fresco.framework.DRes;
 import dk.alexandra.fresco.framework.builder.ComputationDirectory;
 import dk.alexandra.fresco.framework.value.SInt;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Interface for comparing numeric values.
@@ -35,6 +37,39 @@ public interface Comparison extends ComputationDirectory {
    */
   DRes<SInt> compareLEQ(DRes<SInt> x1, DRes<SInt> x2);
 
+  /**
+   * Computes if x1 <= x2 using a protocol with a number of rounds logarithmic in the maximum bit
+   * length.
+   *
+   * @param x1 input
+   * @param x2 input
+   * @return A deferred result computing x1 <= x2. Result will be either [1] (true) or [0] (false).
+   */
+  DRes<SInt> compareLEQLogRounds(DRes<SInt> x1, DRes<SInt> x2);
+
+  /**
+   * Computes x1[i] <= x2[i] for all pairs of elements in the two lists using
+   * {@link #compareLEQLogRounds(DRes, DRes)}.
+   *
+   * <p>When called on a parallel builder the comparisons are all evaluated in parallel, i.e.,
+   * comparing many pairs takes the same number of rounds as comparing a single pair.</p>
+   *
+   * @param x1 the left hand sides of the comparisons
+   * @param x2 the right hand sides of the comparisons, must have the same size as x1
+   * @return A deferred result computing the list of x1[i] <= x2[i]. Each result will be either [1]
+   *         (true) or [0] (false).
+   */
+  default DRes<List<DRes<SInt>>> compareLEQ(List<DRes<SInt>> x1, List<DRes<SInt>> x2) {
+    if (x1.size() != x2.size()) {
+      throw new IllegalArgumentException("Lists to compare must have the same size");
+    }
+    List<DRes<SInt>> result = new ArrayList<>(x1.size());
+    for (int i = 0; i < x1.size(); i++) {
+      result.add(compareLEQLogRounds(x1.get(i), x2.get(i)));
+    }
+    return () -> result;
+  }
+
   /**
    * Compares if x1 <= x2, but with twice the possible bit-length.
    * Requires that the maximum bit length is set to something that can handle
@@ -12,8 +12,12 @@ import dk.alexandra.fresco.lib.collections.io.OpenMatrix;
 import dk.alexandra.fresco.lib.collections.io.OpenPair;
 import dk.alexandra.fresco.lib.collections.io.OpenRowPair;
 import dk.alexandra.fresco.lib.collections.permute.PermuteRows;
+import dk.alexandra.fresco.lib.collections.relational.AggregationType;
 import dk.alexandra.fresco.lib.collections.relational.MiMCAggregation;
+import dk.alexandra.fresco.lib.collections.relational.MiMCJoin;
+import dk.alexandra.fresco.lib.collections.relational.SortingAggregation;
 import dk.alexandra.fresco.lib.collections.shuffle.ShuffleRows;
+import dk.alexandra.fresco.lib.collections.sort.QuickSortRows;
 import dk.alexandra.fresco.lib.conditional.ConditionalSelectRow;
 import dk.alexandra.fresco.lib.conditional.SwapNeighborsIf;
 import dk.alexandra.fresco.lib.conditional.SwapRowsIf;
@@ -106,10 +110,27 @@ public class DefaultCollections implements Collections {
     return builder.seq(new ShuffleRows(values));
   }
 
+  @Override
+  public DRes<Matrix<DRes<SInt>>> sort(DRes<Matrix<DRes<SInt>>> values, int keyColIdx) {
+    return builder.seq(new QuickSortRows(values, keyColIdx));
+  }
+
   @Override
   public DRes<Matrix<DRes<SInt>>> leakyAggregateSum(DRes<Matrix<DRes<SInt>>> values,
       int groupColIdx, int aggColIdx) {
     return builder.seq(new MiMCAggregation(values, groupColIdx, aggColIdx));
   }
 
+  @Override
+  public DRes<Matrix<DRes<SInt>>> aggregate(DRes<Matrix<DRes<SInt>>> values, int groupColIdx,
+      List<Pair<Integer, AggregationType>> aggregations) {
+    return builder.seq(new SortingAggregation(values, groupColIdx, aggregations));
+  }
+
+  @Override
+  public DRes<Matrix<DRes<SInt>>> leakyJoin(DRes<Matrix<DRes<SInt>>> left, int leftKeyColIdx,
+      DRes<Matrix<DRes<SInt>>> right, int rightKeyColIdx) {
+    return builder.seq(new MiMCJoin(left, leftKeyColIdx, right, rightKeyColIdx));
+  }
+
 }
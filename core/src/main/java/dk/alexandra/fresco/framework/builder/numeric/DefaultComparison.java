@@ -4,6 +4,7 @@ import dk.alexandra.fresco.framework.DRes;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.compare.eq.Equality;
 import dk.alexandra.fresco.lib.compare.gt.LessThanOrEquals;
+import dk.alexandra.fresco.lib.compare.lt.LessThanOrEqualsLogRounds;
 import dk.alexandra.fresco.lib.compare.zerotest.ZeroTest;
 import java.math.BigInteger;
 
@@ -52,6 +53,12 @@ public class DefaultComparison implements Comparison {
         new LessThanOrEquals(bitLength, magicSecureNumber, x, y));
   }
 
+  @Override
+  public DRes<SInt> compareLEQLogRounds(DRes<SInt> x, DRes<SInt> y) {
+    int bitLength = factoryNumeric.getBasicNumericContext().getMaxBitLength();
+    return builder.seq(new LessThanOrEqualsLogRounds(bitLength, magicSecureNumber, x, y));
+  }
+
   @Override
   public DRes<SInt> sign(DRes<SInt> x) {
     Numeric input = builder.numeric();
@@ -55,4 +55,30 @@ public class DefaultPreprocessedValues implements PreprocessedValues {
       });
     }
   }
+
+  /**
+   * Returns a number of exponentiation pipes, each of the form returned by {@link
+   * #getExponentiationPipe(int)}.
+   *
+   * <p>The pipes are computed in parallel, so their openings are batched together and the batch
+   * takes as many rounds as a single pipe. This is much cheaper than computing the pipes one at a
+   * time when they are preprocessed in bulk.</p>
+   *
+   * @param pipeLength the length of each exponentiation pipe
+   * @param numberOfPipes the number of pipes to compute
+   * @return the exponentiation pipes
+   */
+  public DRes<List<DRes<List<DRes<SInt>>>>> getExponentiationPipes(int pipeLength,
+      int numberOfPipes) {
+    if (numberOfPipes < 0) {
+      throw new IllegalArgumentException("Can not create less than 0 exponentiation pipes");
+    }
+    return builder.par(par -> {
+      List<DRes<List<DRes<SInt>>>> pipes = new ArrayList<>(numberOfPipes);
+      for (int i = 0; i < numberOfPipes; i++) {
+        pipes.add(new DefaultPreprocessedValues(par).getExponentiationPipe(pipeLength));
+      }
+      return () -> pipes;
+    });
+  }
 }
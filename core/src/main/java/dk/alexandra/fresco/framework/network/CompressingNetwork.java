@@ -0,0 +1,247 @@
+package dk.alexandra.fresco.framework.network;
+
+import dk.alexandra.fresco.framework.util.ExceptionConverter;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Network decorator compressing messages using deflate.
+ *
+ * <p>Messages are often much larger than their information content, e.g., when the values shared
+ * in an opening are much smaller than the modulus they are serialized for. On bandwidth limited
+ * links compressing the messages may then reduce the time spent communicating. Messages shorter
+ * than a given threshold, or which do not shrink, are sent as they are. In both cases the message
+ * is prefixed by a single byte telling the receiver whether it is compressed.</p>
+ *
+ * <p>Compression is only used with the parties given when creating the network, which must agree
+ * on using it (e.g., as negotiated by
+ * {@link dk.alexandra.fresco.framework.network.socket.Connector}). The network is intended to be
+ * placed below the {@link dk.alexandra.fresco.framework.sce.evaluator.NetworkBatchDecorator} of
+ * the evaluator, i.e., it should wrap the network connecting the parties, such that each batch
+ * is compressed as a whole.</p>
+ *
+ * <p>The length of a compressed message after decompression is given by the sender. A receiver
+ * rejects lengths above a configurable maximum before allocating room for the message, so a
+ * faulty or malicious party cannot make it allocate an arbitrary amount of memory.</p>
+ */
+public class CompressingNetwork implements CloseableNetwork, CompressionStatistics {
+
+  public static final int DEFAULT_THRESHOLD = 512;
+  public static final int DEFAULT_MAX_LENGTH = 1 << 28;
+  private static final byte UNCOMPRESSED = 0;
+  private static final byte COMPRESSED = 1;
+  private static final int COMPRESSED_HEADER_LENGTH = 1 + Integer.BYTES;
+
+  private final Network network;
+  private final int threshold;
+  private final int level;
+  private final int maxLength;
+  private final Set<Integer> compressedParties;
+  private final AtomicLong bytesSent;
+  private final AtomicLong bytesSentUncompressed;
+  private final AtomicLong bytesReceived;
+  private final AtomicLong bytesReceivedUncompressed;
+
+  /**
+   * Creates a new compressing network using the default threshold and the fastest compression.
+   *
+   * @param network the network to compress messages sent over
+   * @param compressedParties the ids of the parties to compress messages to and from
+   */
+  public CompressingNetwork(Network network, Set<Integer> compressedParties) {
+    this(network, compressedParties, DEFAULT_THRESHOLD, Deflater.BEST_SPEED);
+  }
+
+  /**
+   * Creates a new compressing network.
+   *
+   * @param network the network to compress messages sent over
+   * @param compressedParties the ids of the parties to compress messages to and from
+   * @param threshold the length in bytes of the shortest message to compress
+   * @param level the compression level, see {@link Deflater#setLevel(int)}
+   */
+  public CompressingNetwork(Network network, Set<Integer> compressedParties, int threshold,
+      int level) {
+    this(network, compressedParties, threshold, level, DEFAULT_MAX_LENGTH);
+  }
+
+  /**
+   * Creates a new compressing network.
+   *
+   * @param network the network to compress messages sent over
+   * @param compressedParties the ids of the parties to compress messages to and from
+   * @param threshold the length in bytes of the shortest message to compress
+   * @param level the compression level, see {@link Deflater#setLevel(int)}
+   * @param maxLength the length in bytes of the longest message accepted after decompression
+   */
+  public CompressingNetwork(Network network, Set<Integer> compressedParties, int threshold,
+      int level, int maxLength) {
+    if (threshold < 0) {
+      throw new IllegalArgumentException("Threshold must be non-negative, was " + threshold);
+    }
+    if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+      throw new IllegalArgumentException("Invalid compression level " + level);
+    }
+    if (maxLength < 0) {
+      throw new IllegalArgumentException("Maximum length must be non-negative, was " + maxLength);
+    }
+    this.network = network;
+    this.compressedParties = Collections.unmodifiableSet(new HashSet<>(compressedParties));
+    this.threshold = threshold;
+    this.level = level;
+    this.maxLength = maxLength;
+    this.bytesSent = new AtomicLong();
+    this.bytesSentUncompressed = new AtomicLong();
+    this.bytesReceived = new AtomicLong();
+    this.bytesReceivedUncompressed = new AtomicLong();
+  }
+
+  @Override
+  public void send(int partyId, byte[] data) {
+    if (!compressedParties.contains(partyId)) {
+      network.send(partyId, data);
+      return;
+    }
+    byte[] message = data.length >= threshold ? compress(data) : uncompressed(data);
+    network.send(partyId, message);
+    bytesSent.addAndGet(message.length);
+    bytesSentUncompressed.addAndGet(data.length);
+  }
+
+  @Override
+  public byte[] receive(int partyId) {
+    byte[] message = network.receive(partyId);
+    if (!compressedParties.contains(partyId)) {
+      return message;
+    }
+    byte[] data;
+    if (message[0] == COMPRESSED) {
+      data = decompress(message);
+    } else {
+      data = new byte[message.length - 1];
+      System.arraycopy(message, 1, data, 0, data.length);
+    }
+    bytesReceived.addAndGet(message.length);
+    bytesReceivedUncompressed.addAndGet(data.length);
+    return data;
+  }
+
+  @Override
+  public int getNoOfParties() {
+    return network.getNoOfParties();
+  }
+
+  /**
+   * Closes the underlying network if it is closeable.
+   */
+  @Override
+  public void close() throws IOException {
+    if (network instanceof Closeable) {
+      ((Closeable) network).close();
+    }
+  }
+
+  @Override
+  public long getBytesSent() {
+    return bytesSent.get();
+  }
+
+  @Override
+  public long getBytesSentUncompressed() {
+    return bytesSentUncompressed.get();
+  }
+
+  @Override
+  public long getBytesReceived() {
+    return bytesReceived.get();
+  }
+
+  @Override
+  public long getBytesReceivedUncompressed() {
+    return bytesReceivedUncompressed.get();
+  }
+
+  @Override
+  public void resetStatistics() {
+    bytesSent.set(0);
+    bytesSentUncompressed.set(0);
+    bytesReceived.set(0);
+    bytesReceivedUncompressed.set(0);
+  }
+
+  private byte[] compress(byte[] data) {
+    Deflater deflater = new Deflater(level);
+    try {
+      deflater.setInput(data);
+      deflater.finish();
+      ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 16);
+      out.write(COMPRESSED);
+      out.write(ByteBuffer.allocate(Integer.BYTES).putInt(data.length).array(), 0,
+          Integer.BYTES);
+      byte[] buffer = new byte[Math.min(data.length, 1 << 16) + 16];
+      while (!deflater.finished()) {
+        int length = deflater.deflate(buffer);
+        out.write(buffer, 0, length);
+        if (out.size() >= data.length + 1) {
+          // compression does not pay off compared to sending the message uncompressed
+          return uncompressed(data);
+        }
+      }
+      return out.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private byte[] decompress(byte[] message) {
+    if (message.length < COMPRESSED_HEADER_LENGTH) {
+      throw new IllegalStateException("Compressed message of " + message.length + " bytes is "
+          + "shorter than its header");
+    }
+    int length = ByteBuffer.wrap(message, 1, Integer.BYTES).getInt();
+    if (length < 0 || length > maxLength) {
+      throw new IllegalStateException(
+          "Decompressed length " + length + " is not in [0, " + maxLength + "]");
+    }
+    byte[] data = new byte[length];
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(message, COMPRESSED_HEADER_LENGTH,
+          message.length - COMPRESSED_HEADER_LENGTH);
+      int read = ExceptionConverter.safe(() -> {
+        int total = 0;
+        while (total < length && !inflater.finished()) {
+          int inflated = inflater.inflate(data, total, length - total);
+          if (inflated == 0 && inflater.needsInput()) {
+            throw new DataFormatException("Truncated message");
+          }
+          total += inflated;
+        }
+        return total;
+      }, "Unable to decompress message");
+      if (read != length) {
+        throw new IllegalStateException(
+            "Decompressed " + read + " bytes, but expected " + length);
+      }
+      return data;
+    } finally {
+      inflater.end();
+    }
+  }
+
+  private static byte[] uncompressed(byte[] data) {
+    byte[] message = new byte[data.length + 1];
+    message[0] = UNCOMPRESSED;
+    System.arraycopy(data, 0, message, 1, data.length);
+    return message;
+  }
+}
@@ -0,0 +1,44 @@
+package dk.alexandra.fresco.framework.network;
+
+/**
+ * Statistics of a network compressing the messages exchanged with some of the parties, e.g., to be
+ * reported by {@link dk.alexandra.fresco.logging.NetworkLoggingDecorator}.
+ *
+ * <p>All counts are of messages exchanged with the parties using compression only. The compressed
+ * counts are as sent over the network, i.e., including any headers.</p>
+ */
+public interface CompressionStatistics {
+
+  /**
+   * Gets the number of bytes sent, as sent over the network.
+   *
+   * @return the number of bytes
+   */
+  long getBytesSent();
+
+  /**
+   * Gets the number of bytes sent, before compression.
+   *
+   * @return the number of bytes
+   */
+  long getBytesSentUncompressed();
+
+  /**
+   * Gets the number of bytes received, as sent over the network.
+   *
+   * @return the number of bytes
+   */
+  long getBytesReceived();
+
+  /**
+   * Gets the number of bytes received, after decompression.
+   *
+   * @return the number of bytes
+   */
+  long getBytesReceivedUncompressed();
+
+  /**
+   * Resets all counts.
+   */
+  void resetStatistics();
+}
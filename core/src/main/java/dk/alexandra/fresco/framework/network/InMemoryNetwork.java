@@ -0,0 +1,168 @@
+package dk.alexandra.fresco.framework.network;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Network connecting a number of parties running in the same JVM.
+ *
+ * <p>Messages are handed over by reference through a lock-free queue for each pair of parties,
+ * i.e., they are neither copied nor serialized, and no threads other than those of the parties
+ * are involved. This makes the network suited for local simulations and for benchmarking the
+ * computation done by a protocol suite without the noise of a real network.</p>
+ *
+ * <p>As messages are not copied, the array given to {@link #send(int, byte[])} must not be
+ * modified afterwards, and the array returned by {@link #receive(int)} is the one sent. The
+ * networks of all parties are created together by {@link #createNetworks(int)}.</p>
+ *
+ * <p>As for other networks, messages from a single party must be received by a single thread at
+ * a time, while sending may be done concurrently.</p>
+ */
+public class InMemoryNetwork implements CloseableNetwork {
+
+  /**
+   * Spinning only helps if the sender runs on a different core.
+   */
+  private static final int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 1000 : 0;
+  private final int myId;
+  private final Channel[] incoming;
+  private final Channel[] outgoing;
+  private volatile boolean closed;
+
+  private InMemoryNetwork(int myId, Channel[] incoming, Channel[] outgoing) {
+    this.myId = myId;
+    this.incoming = incoming;
+    this.outgoing = outgoing;
+    this.closed = false;
+  }
+
+  /**
+   * Creates the connected networks of a number of parties.
+   *
+   * @param noOfParties the number of parties
+   * @return the network of each party indexed by the id of the party
+   */
+  public static Map<Integer, CloseableNetwork> createNetworks(int noOfParties) {
+    if (noOfParties < 1) {
+      throw new IllegalArgumentException(
+          "Number of parties must be positive, was " + noOfParties);
+    }
+    Channel[][] channels = new Channel[noOfParties][noOfParties];
+    for (int from = 0; from < noOfParties; from++) {
+      for (int to = 0; to < noOfParties; to++) {
+        channels[from][to] = new Channel();
+      }
+    }
+    Map<Integer, CloseableNetwork> networks = new HashMap<>(noOfParties);
+    for (int i = 0; i < noOfParties; i++) {
+      Channel[] incoming = new Channel[noOfParties];
+      for (int from = 0; from < noOfParties; from++) {
+        incoming[from] = channels[from][i];
+      }
+      networks.put(i + 1, new InMemoryNetwork(i + 1, incoming, channels[i]));
+    }
+    return Collections.unmodifiableMap(networks);
+  }
+
+  @Override
+  public void send(int partyId, byte[] data) {
+    inRange(partyId);
+    if (closed) {
+      throw new IllegalStateException(
+          "P" + myId + ": Unable to send to P" + partyId + ". Network is closed");
+    }
+    outgoing[partyId - 1].offer(data);
+  }
+
+  @Override
+  public byte[] receive(int partyId) {
+    inRange(partyId);
+    Channel channel = incoming[partyId - 1];
+    for (int i = 0; i < SPINS; i++) {
+      byte[] data = channel.queue.poll();
+      if (data != null) {
+        return data;
+      }
+    }
+    channel.waitingReceiver = Thread.currentThread();
+    try {
+      // the queue is checked after announcing that the receiver is waiting, so a message sent
+      // concurrently either is seen here or unparks the receiver
+      byte[] data = channel.queue.poll();
+      while (data == null) {
+        if (closed) {
+          throw new IllegalStateException(
+              "P" + myId + ": Unable to receive from P" + partyId + ". Network is closed");
+        }
+        if (channel.closed) {
+          throw new IllegalStateException(
+              "P" + myId + ": Unable to receive from P" + partyId + ". P" + partyId
+                  + " has closed the network");
+        }
+        LockSupport.park(this);
+        if (Thread.interrupted()) {
+          throw new RuntimeException(
+              "P" + myId + ": Interrupted while receiving from P" + partyId);
+        }
+        data = channel.queue.poll();
+      }
+      return data;
+    } finally {
+      channel.waitingReceiver = null;
+    }
+  }
+
+  @Override
+  public int getNoOfParties() {
+    return incoming.length;
+  }
+
+  /**
+   * Closes the network. Threads of this party waiting to receive, as well as threads of other
+   * parties waiting for messages from this party, fail rather than wait forever.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    for (Channel channel : incoming) {
+      channel.wakeUp();
+    }
+    for (Channel channel : outgoing) {
+      channel.closed = true;
+      channel.wakeUp();
+    }
+  }
+
+  private void inRange(final int partyId) {
+    if (!(0 < partyId && partyId < getNoOfParties() + 1)) {
+      throw new IllegalArgumentException(
+          "Party id " + partyId + " not in range 1 ... " + getNoOfParties());
+    }
+  }
+
+  /**
+   * The messages sent from one party to another.
+   */
+  private static class Channel {
+
+    private final Queue<byte[]> queue = new ConcurrentLinkedQueue<>();
+    private volatile Thread waitingReceiver;
+    private volatile boolean closed;
+
+    private void offer(byte[] data) {
+      queue.offer(data);
+      wakeUp();
+    }
+
+    private void wakeUp() {
+      Thread receiver = waitingReceiver;
+      if (receiver != null) {
+        LockSupport.unpark(receiver);
+      }
+    }
+  }
+}
@@ -0,0 +1,185 @@
+package dk.alexandra.fresco.framework.network;
+
+import dk.alexandra.fresco.framework.util.ExceptionConverter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Multiplexes a number of logical channels over a single network, such that several applications
+ * can be evaluated concurrently using the same connections to the other parties.
+ *
+ * <p>Each message sent on a channel is prefixed by the id of the channel. A message received for
+ * a channel other than the one currently receiving is queued until received on its own channel.
+ * Hence, all parties must use the same channel id for the same application, and messages sent on
+ * a channel that is never received from are kept indefinitely.</p>
+ *
+ * <p>Each channel may be used by a single thread at a time while different channels may be used
+ * concurrently. The underlying network is only received from by a single thread at a time for
+ * each party. Waiting threads do not hold monitors, so the channels may be used from virtual
+ * threads without pinning their carrier threads.</p>
+ */
+public class MultiplexedNetwork implements Closeable {
+
+  private static final int HEADER_LENGTH = Integer.BYTES;
+
+  private final Network network;
+  private final Map<Integer, Demultiplexer> demultiplexers;
+
+  /**
+   * Creates a new multiplexer on top of a network.
+   *
+   * @param network the network to multiplex, must support concurrent calls to send
+   */
+  public MultiplexedNetwork(Network network) {
+    this.network = network;
+    this.demultiplexers = new HashMap<>(network.getNoOfParties());
+    for (int i = 1; i <= network.getNoOfParties(); i++) {
+      demultiplexers.put(i, new Demultiplexer(i));
+    }
+  }
+
+  /**
+   * Gets a view of a single channel of this network.
+   *
+   * @param channelId the id of the channel
+   * @return the channel
+   */
+  public Network getChannel(int channelId) {
+    if (channelId < 0) {
+      throw new IllegalArgumentException("Channel id must be non-negative, was " + channelId);
+    }
+    return new Channel(channelId);
+  }
+
+  /**
+   * Closes the underlying network if it is closeable.
+   */
+  @Override
+  public void close() throws IOException {
+    if (network instanceof Closeable) {
+      ((Closeable) network).close();
+    }
+  }
+
+  private void send(int channelId, int partyId, byte[] data) {
+    byte[] frame = new byte[HEADER_LENGTH + data.length];
+    ByteBuffer.wrap(frame).putInt(channelId).put(data);
+    network.send(partyId, frame);
+  }
+
+  private byte[] receive(int channelId, int partyId) {
+    Demultiplexer demultiplexer = demultiplexers.get(partyId);
+    if (demultiplexer == null) {
+      throw new IllegalArgumentException(
+          "Party id " + partyId + " not in range 1 ... " + network.getNoOfParties());
+    }
+    return demultiplexer.receive(channelId);
+  }
+
+  /**
+   * Dispatches the messages received from a single party to the queues of the channels.
+   */
+  private class Demultiplexer {
+
+    private final int partyId;
+    private final Map<Integer, Queue<byte[]>> queues;
+    private final Lock lock;
+    private final Condition changed;
+    private boolean receiving;
+
+    private Demultiplexer(int partyId) {
+      this.partyId = partyId;
+      this.queues = new HashMap<>();
+      this.lock = new ReentrantLock();
+      this.changed = lock.newCondition();
+      this.receiving = false;
+    }
+
+    private byte[] receive(int channelId) {
+      lock.lock();
+      try {
+        while (true) {
+          byte[] queued = getQueue(channelId).poll();
+          if (queued != null) {
+            return queued;
+          }
+          if (!receiving) {
+            receiving = true;
+            break;
+          }
+          ExceptionConverter.safe(() -> {
+            changed.await();
+            return null;
+          }, "Interrupted while waiting for P" + partyId + " on channel " + channelId);
+        }
+      } finally {
+        lock.unlock();
+      }
+      // this thread is now the only one receiving from the party, so it receives on behalf of all
+      // channels until it gets a message of its own
+      try {
+        while (true) {
+          byte[] frame = network.receive(partyId);
+          ByteBuffer buffer = ByteBuffer.wrap(frame);
+          int frameChannelId = buffer.getInt();
+          byte[] data = new byte[buffer.remaining()];
+          buffer.get(data);
+          if (frameChannelId == channelId) {
+            return data;
+          }
+          lock.lock();
+          try {
+            getQueue(frameChannelId).add(data);
+            changed.signalAll();
+          } finally {
+            lock.unlock();
+          }
+        }
+      } finally {
+        lock.lock();
+        try {
+          receiving = false;
+          changed.signalAll();
+        } finally {
+          lock.unlock();
+        }
+      }
+    }
+
+    private Queue<byte[]> getQueue(int channelId) {
+      return queues.computeIfAbsent(channelId, id -> new ArrayDeque<>());
+    }
+  }
+
+  private class Channel implements Network {
+
+    private final int channelId;
+
+    private Channel(int channelId) {
+      this.channelId = channelId;
+    }
+
+    @Override
+    public void send(int partyId, byte[] data) {
+      MultiplexedNetwork.this.send(channelId, partyId, data);
+    }
+
+    @Override
+    public byte[] receive(int partyId) {
+      return MultiplexedNetwork.this.receive(channelId, partyId);
+    }
+
+    @Override
+    public int getNoOfParties() {
+      return network.getNoOfParties();
+    }
+  }
+}
@@ -0,0 +1,293 @@
+package dk.alexandra.fresco.framework.network.socket;
+
+import dk.alexandra.fresco.framework.MaliciousException;
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.network.CloseableNetwork;
+import dk.alexandra.fresco.framework.util.ExceptionConverter;
+import java.io.Closeable;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.SSLSocket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the connections to the other parties open between applications, such that each
+ * application does not have to connect the network.
+ *
+ * <p>Connecting a network takes at least a round trip to each party, and for TLS a full handshake
+ * with each party, which may well dominate the running time of a short application. Instead the
+ * pool connects once and hands out the same {@link SocketNetwork} to one application at a time
+ * through {@link #acquire()}. The sockets are kept alive using TCP keep-alive while idle.</p>
+ *
+ * <p>Each time the network is acquired the parties exchange a synchronization marker followed by an
+ * acknowledgement. A party reconnects if its connection to any party has failed, if it receives
+ * anything but the expected marker, e.g., messages left over by an application that failed, or if
+ * the previous application failed while using the network. It then closes its connections before
+ * reconnecting, which makes the exchange fail at all other parties as well, so the parties always
+ * agree on reconnecting. When using TLS all
+ * connections are made using the same {@link SSLContext}, so reconnecting resumes the previous
+ * TLS sessions (if not expired from the session caches of the context) rather than doing full
+ * handshakes.</p>
+ *
+ * <p>All parties must acquire and release the network in the same order.</p>
+ */
+public class ConnectionPool implements Closeable {
+
+  private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+  private static final long MARKER = 0x46524553434f504cL;
+  private static final byte SYNC = 0;
+  private static final byte ACK = 1;
+  private final NetworkConfiguration conf;
+  private final Supplier<Map<Integer, Socket>> connector;
+  private final Semaphore lease;
+  private SocketNetwork network;
+  private Map<Integer, Socket> socketMap;
+  private int connects;
+  private int leases;
+  private boolean closed;
+
+  /**
+   * Creates a pool connecting the parties with plain sockets.
+   *
+   * @param conf the network configuration
+   * @param timeout the time to wait for the network to connect
+   */
+  public ConnectionPool(NetworkConfiguration conf, Duration timeout) {
+    this(conf, () -> new Connector(conf, timeout).getSocketMap());
+  }
+
+  /**
+   * Creates a pool connecting the parties with TLS using client authentication.
+   *
+   * @param conf the network configuration
+   * @param timeout the time to wait for the network to connect
+   * @param context the context to create TLS sockets and to cache sessions in
+   * @param expectedPeers gives the principal expected to be authenticated by the certificate of a
+   *     party given its id
+   */
+  public ConnectionPool(NetworkConfiguration conf, Duration timeout, SSLContext context,
+      IntFunction<Principal> expectedPeers) {
+    this(conf, () -> {
+      Connector connector = new Connector(conf, timeout, context.getSocketFactory(),
+          new ClientAuthSslSocketFactory(context.getServerSocketFactory()));
+      verifyPeers(connector.getSocketMap(), expectedPeers);
+      return connector.getSocketMap();
+    });
+  }
+
+  ConnectionPool(NetworkConfiguration conf, Supplier<Map<Integer, Socket>> connector) {
+    this.conf = Objects.requireNonNull(conf);
+    this.connector = Objects.requireNonNull(connector);
+    this.lease = new Semaphore(1);
+    this.connects = 0;
+    this.leases = 0;
+    this.closed = false;
+  }
+
+  /**
+   * Acquires the network, waiting until released by the application currently using it. The
+   * network is connected if this is the first time it is acquired, or if the parties fail to
+   * synchronize the existing connections.
+   *
+   * <p>Closing the returned network releases it to the pool. It must not be used afterwards.</p>
+   *
+   * @return the network
+   */
+  public CloseableNetwork acquire() {
+    ExceptionConverter.safe(() -> {
+      lease.acquire();
+      return null;
+    }, "Interrupted while waiting for the network");
+    try {
+      return new Lease(getConnectedNetwork());
+    } catch (RuntimeException e) {
+      lease.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Gets the number of times the pool has connected the network.
+   *
+   * @return the number of connects
+   */
+  public synchronized int getConnects() {
+    return connects;
+  }
+
+  /**
+   * Closes the connections to the other parties.
+   */
+  @Override
+  public synchronized void close() {
+    closed = true;
+    disconnect();
+  }
+
+  synchronized Map<Integer, Socket> getSocketMap() {
+    return socketMap;
+  }
+
+  /**
+   * Closes the current connections, e.g., to have them reconnected by the next application.
+   */
+  synchronized void disconnect() {
+    if (network != null) {
+      network.close();
+      network = null;
+      socketMap = null;
+    }
+  }
+
+  private synchronized SocketNetwork getConnectedNetwork() {
+    if (closed) {
+      throw new IllegalStateException("Connection pool is closed");
+    }
+    leases++;
+    if (network != null && !synchronize()) {
+      logger.info("P{}: connections out of sync, reconnecting", conf.getMyId());
+      disconnect();
+    }
+    if (network == null) {
+      socketMap = connector.get();
+      for (Socket socket : socketMap.values()) {
+        ExceptionConverter.safe(() -> {
+          socket.setKeepAlive(true);
+          return null;
+        }, "Could not enable keep-alive");
+      }
+      network = new SocketNetwork(conf, socketMap);
+      connects++;
+    }
+    return network;
+  }
+
+  /**
+   * Exchanges a marker and then an acknowledgement with all other parties over the existing
+   * connections. A party failing either step disconnects without acknowledging, such that the
+   * other parties fail as well.
+   *
+   * @return true if the connections can be reused
+   */
+  private boolean synchronize() {
+    try {
+      return network.isConnected() && exchangeMarkers(SYNC) && exchangeMarkers(ACK);
+    } catch (RuntimeException e) {
+      logger.debug("P{}: synchronization failed", conf.getMyId(), e);
+      return false;
+    }
+  }
+
+  private boolean exchangeMarkers(byte phase) {
+    byte[] marker = ByteBuffer.allocate(Long.BYTES + Integer.BYTES + 1).putLong(MARKER)
+        .putInt(leases).put(phase).array();
+    for (int i = 1; i <= conf.noOfParties(); i++) {
+      if (i != conf.getMyId()) {
+        network.send(i, marker);
+      }
+    }
+    boolean synced = true;
+    for (int i = 1; i <= conf.noOfParties() && synced; i++) {
+      if (i != conf.getMyId()) {
+        synced = Arrays.equals(marker, network.receive(i));
+      }
+    }
+    return synced;
+  }
+
+  /**
+   * Checks that the certificate of each peer is consistent with its party id.
+   */
+  static void verifyPeers(Map<Integer, Socket> socketMap,
+      IntFunction<Principal> expectedPeers) {
+    for (Entry<Integer, Socket> entry : socketMap.entrySet()) {
+      Principal principal;
+      try {
+        principal = ((SSLSocket) entry.getValue()).getSession().getPeerPrincipal();
+      } catch (SSLPeerUnverifiedException e) {
+        throw new RuntimeException("Unable to validate P" + entry.getKey(), e);
+      }
+      Principal expected = expectedPeers.apply(entry.getKey());
+      if (!principal.equals(expected)) {
+        throw new MaliciousException("Unable to validate P" + entry.getKey()
+            + ". Unexpected principal " + principal + ", expected " + expected);
+      }
+    }
+  }
+
+  /**
+   * The network handed out to a single application.
+   */
+  private class Lease implements CloseableNetwork {
+
+    private final SocketNetwork network;
+    private volatile boolean released;
+    private volatile boolean failed;
+
+    private Lease(SocketNetwork network) {
+      this.network = network;
+      this.released = false;
+      this.failed = false;
+    }
+
+    @Override
+    public void send(int partyId, byte[] data) {
+      checkLeased();
+      try {
+        network.send(partyId, data);
+      } catch (RuntimeException e) {
+        failed = true;
+        throw e;
+      }
+    }
+
+    @Override
+    public byte[] receive(int partyId) {
+      checkLeased();
+      try {
+        return network.receive(partyId);
+      } catch (RuntimeException e) {
+        failed = true;
+        throw e;
+      }
+    }
+
+    @Override
+    public int getNoOfParties() {
+      return network.getNoOfParties();
+    }
+
+    /**
+     * Releases the network to the pool, keeping the connections open unless sending or receiving
+     * failed, in which case the connections are closed and reconnected by the next application.
+     */
+    @Override
+    public synchronized void close() {
+      if (!released) {
+        released = true;
+        if (failed) {
+          disconnect();
+        }
+        lease.release();
+      }
+    }
+
+    private void checkLeased() {
+      if (released) {
+        throw new IllegalStateException("Network has been released to the pool");
+      }
+    }
+  }
+}
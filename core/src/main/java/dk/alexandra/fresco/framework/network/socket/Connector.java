@@ -8,9 +8,12 @@ import java.net.ServerSocket;
 import java.net.Socket;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
@@ -27,19 +30,47 @@ public class Connector implements NetworkConnector {
 
   public static final Duration DEFAULT_CONNECTION_TIMEOUT = Duration.ofMinutes(1);
   private static final int PARTY_ID_BYTES = 1;
+  private static final int COMPRESSION_FLAG = 1;
   private static final Logger logger = LoggerFactory.getLogger(Connector.class);
   private final Map<Integer, Socket> socketMap;
   private final SocketFactory socketFactory;
   private final ServerSocketFactory serverFactory;
+  private final boolean compression;
+  private final Set<Integer> compressedParties;
 
   Connector(NetworkConfiguration conf, Duration timeout) {
-    this(conf, timeout, SocketFactory.getDefault(), ServerSocketFactory.getDefault());
+    this(conf, timeout, false);
+  }
+
+  /**
+   * Connects the network, negotiating compression with each of the other parties.
+   *
+   * <p>The parties exchange whether they ask for compression as part of the handshake, and all
+   * parties must agree. If they do, compression is used with all other parties, as given by
+   * {@link #getCompressedParties()}, e.g., to be passed to a
+   * {@link dk.alexandra.fresco.framework.network.CompressingNetwork} on top of the network using
+   * the sockets of this connector.</p>
+   *
+   * @param conf the configuration defining the network to connect
+   * @param timeout duration to wait until timeout
+   * @param compression true if this party would like to compress messages
+   */
+  public Connector(NetworkConfiguration conf, Duration timeout, boolean compression) {
+    this(conf, timeout, SocketFactory.getDefault(), ServerSocketFactory.getDefault(),
+        compression);
   }
 
   Connector(NetworkConfiguration conf, Duration timeout, SocketFactory socketFactory,
       ServerSocketFactory serverFactory) {
+    this(conf, timeout, socketFactory, serverFactory, false);
+  }
+
+  Connector(NetworkConfiguration conf, Duration timeout, SocketFactory socketFactory,
+      ServerSocketFactory serverFactory, boolean compression) {
     this.socketFactory = socketFactory;
     this.serverFactory = serverFactory;
+    this.compression = compression;
+    this.compressedParties = ConcurrentHashMap.newKeySet();
     this.socketMap = connectNetwork(conf, timeout);
   }
 
@@ -48,6 +79,15 @@ public class Connector implements NetworkConnector {
     return this.socketMap;
   }
 
+  /**
+   * Gets the ids of the parties agreeing with this party on compressing messages.
+   *
+   * @return the party ids
+   */
+  public Set<Integer> getCompressedParties() {
+    return Collections.unmodifiableSet(compressedParties);
+  }
+
   /**
    * Fully connects the network.
    * <p>
@@ -61,7 +101,9 @@ public class Connector implements NetworkConnector {
    * <i>i</i> attempts to open connections to all parties with id's larger than <i>i</i> (we call
    * these the <i>client connections</i>). Once, a client connection is made the client sends its
    * party id in {@value #PARTY_ID_BYTES} byte to the server. The servers uses this to identify the
-   * connecting party.
+   * connecting party. The client then sends a byte of flags, to which the server replies with its
+   * own flags. Currently the only flag tells whether the party would like to compress messages,
+   * and connecting fails if the parties do not agree on it.
    *
    * Note: the above means that the party with the lowest id (i.e., party 1) will not make any
    * server connections and the party with the highest id will not make any client connections.
@@ -128,6 +170,8 @@ public class Connector implements NetworkConnector {
             byte b = (byte) (conf.getMyId() >>> j * Byte.SIZE);
             sock.getOutputStream().write(b);
           }
+          sock.getOutputStream().write(getFlags());
+          negotiate(conf.getMyId(), i, sock.getInputStream().read());
           connectionMade = true;
           socketMap.put(i, sock);
           logger.info("P{}: connected to {}", conf.getMyId(), p);
@@ -157,6 +201,9 @@ public class Connector implements NetworkConnector {
           for (int j = 0; j < PARTY_ID_BYTES; j++) {
             id ^= sock.getInputStream().read() << j * Byte.SIZE;
           }
+          int flags = sock.getInputStream().read();
+          sock.getOutputStream().write(getFlags());
+          negotiate(conf.getMyId(), id, flags);
           socketMap.put(id, sock);
           logger.info("P{}: accepted connection from P{}", conf.getMyId(), id);
           socketMap.put(id, sock);
@@ -166,4 +213,26 @@ public class Connector implements NetworkConnector {
     return socketMap;
   }
 
+  private int getFlags() {
+    return compression ? COMPRESSION_FLAG : 0;
+  }
+
+  /**
+   * Agrees on the features used with a party given the flags received from the party. The flags
+   * have been sent before checking them, such that both parties detect a disagreement.
+   */
+  private void negotiate(int myId, int partyId, int flags) throws IOException {
+    if (flags < 0) {
+      throw new IOException("Connection to P" + partyId + " closed while connecting");
+    }
+    boolean otherCompression = (flags & COMPRESSION_FLAG) != 0;
+    if (compression != otherCompression) {
+      throw new IllegalStateException("P" + myId + " and P" + partyId
+          + " disagree on compression: P" + myId + (compression ? " asks" : " does not ask")
+          + " for compression, P" + partyId + (otherCompression ? " does" : " does not"));
+    }
+    if (compression) {
+      compressedParties.add(partyId);
+    }
+  }
 }
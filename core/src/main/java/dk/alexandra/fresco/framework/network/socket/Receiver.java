@@ -1,16 +1,16 @@
 package dk.alexandra.fresco.framework.network.socket;
 
 import dk.alexandra.fresco.framework.util.ExceptionConverter;
+import dk.alexandra.fresco.framework.util.VirtualThreads;
 import java.io.BufferedInputStream;
 import java.io.DataInputStream;
 import java.io.EOFException;
 import java.net.Socket;
 import java.time.Duration;
 import java.util.Objects;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,8 +21,9 @@ import org.slf4j.LoggerFactory;
 class Receiver {
 
   private static final Logger logger = LoggerFactory.getLogger(Receiver.class);
+  private static final AtomicInteger threadCounter = new AtomicInteger(1);
   private final DataInputStream in;
-  private final BlockingQueue<byte[]> queue;
+  private final SpscRingBuffer<byte[]> queue;
   private final AtomicBoolean run;
   private final Thread thread;
 
@@ -30,17 +31,19 @@ class Receiver {
    * Create a new Receiver. This will start a separate thread listening for incoming messages.
    *
    * @param sock the channel receive messages on
+   * @param virtual true to receive on a virtual thread if supported, see {@link VirtualThreads}
+   * @param capacity the number of received messages waiting to be polled that are held without
+   *     allocating, see {@link SpscRingBuffer}
    */
-  Receiver(Socket sock) {
+  Receiver(Socket sock, boolean virtual, int capacity) {
     Objects.requireNonNull(sock);
     this.in = ExceptionConverter.safe(
         () -> new DataInputStream(new BufferedInputStream(sock.getInputStream())),
         "Unable to get inputstream from socket.");
-    this.queue = new LinkedBlockingQueue<>();
+    this.queue = new SpscRingBuffer<>(capacity);
     this.run = new AtomicBoolean(true);
-    this.thread = new Thread(this::run);
-    this.thread.setDaemon(true);
-    this.thread.setName("Receiver-" + this.thread.getId());
+    this.thread = VirtualThreads.newThread("Receiver-" + threadCounter.getAndIncrement(), virtual,
+        this::run);
     this.thread.start();
   }
 
@@ -70,7 +73,7 @@ class Receiver {
   }
 
   /**
-   * Polls for a message.
+   * Polls for a message. Must only be called by a single thread at a time.
    *
    * @param timeout when to timeout waiting for a new message
    * @return the message
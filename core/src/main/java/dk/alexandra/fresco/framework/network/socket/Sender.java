@@ -1,13 +1,17 @@
 package dk.alexandra.fresco.framework.network.socket;
 
 import dk.alexandra.fresco.framework.util.ExceptionConverter;
+import dk.alexandra.fresco.framework.util.VirtualThreads;
 import java.io.BufferedOutputStream;
-import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.net.Socket;
+import java.nio.ByteBuffer;
 import java.util.Objects;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,8 +21,10 @@ import org.slf4j.LoggerFactory;
 class Sender {
 
   private static final Logger logger = LoggerFactory.getLogger(Sender.class);
-  private final DataOutputStream out;
-  private final BlockingQueue<byte[]> queue;
+  private static final AtomicInteger threadCounter = new AtomicInteger(1);
+  private final OutputStream out;
+  private final SpscRingBuffer<byte[]> queue;
+  private final Lock producerLock;
   private final AtomicBoolean flushAndStop;
   private final AtomicBoolean ignoreNext;
   private final Thread thread;
@@ -28,18 +34,21 @@ class Sender {
    * messages.
    *
    * @param sock the socket to send over
+   * @param virtual true to send from a virtual thread if supported, see {@link VirtualThreads}
+   * @param capacity the number of messages waiting to be sent that are held without allocating,
+   *     see {@link SpscRingBuffer}
    */
-  Sender(Socket sock) {
+  Sender(Socket sock, boolean virtual, int capacity) {
     Objects.requireNonNull(sock);
     this.out = ExceptionConverter.safe(
-        () -> new DataOutputStream(new BufferedOutputStream(sock.getOutputStream())),
+        () -> new BufferedOutputStream(sock.getOutputStream()),
         "Unable to get output stream from socket");
-    this.queue = new LinkedBlockingQueue<>();
+    this.queue = new SpscRingBuffer<>(capacity);
+    this.producerLock = new ReentrantLock();
     this.flushAndStop = new AtomicBoolean(false);
     this.ignoreNext = new AtomicBoolean(false);
-    this.thread = new Thread(this::run);
-    this.thread.setDaemon(true);
-    this.thread.setName("sender-" + this.thread.getId());
+    this.thread = VirtualThreads.newThread("sender-" + threadCounter.getAndIncrement(), virtual,
+        this::run);
     this.thread.start();
   }
 
@@ -53,7 +62,13 @@ class Sender {
    * @param msg a message
    */
   void queueMessage(byte[] msg) {
-    queue.add(msg);
+    // the queue only supports a single producer, so concurrent senders take turns
+    producerLock.lock();
+    try {
+      queue.add(msg);
+    } finally {
+      producerLock.unlock();
+    }
   }
 
   /**
@@ -73,7 +88,7 @@ class Sender {
     if (isRunning()) {
       if (queue.isEmpty()) {
         this.ignoreNext.set(true);
-        queue.add(new byte[] {});
+        queueMessage(new byte[] {});
       }
       ExceptionConverter.safe(() -> {
         this.thread.join();
@@ -87,12 +102,12 @@ class Sender {
       while (shouldRun()) {
         byte[] data = queue.take();
         if (!ignoreNext.get()) {
-          out.writeInt(data.length);
+          writeLength(data.length);
           out.write(data);
           out.flush();
         }
       }
-      out.writeInt(-1);
+      writeLength(-1);
       out.flush();
     } catch (Exception e) {
       if (shouldRun()) {
@@ -101,6 +116,15 @@ class Sender {
     }
   }
 
+  /**
+   * Writes a length prefix as a big-endian integer. Note that this avoids the synchronized methods
+   * of {@link java.io.DataOutputStream}, as blocking on the socket while holding a monitor would
+   * pin the carrier of a virtual thread.
+   */
+  private void writeLength(int length) throws IOException {
+    out.write(ByteBuffer.allocate(Integer.BYTES).putInt(length).array());
+  }
+
   private boolean shouldRun() {
     return !(flushAndStop.get() && queue.isEmpty());
   }
@@ -3,6 +3,7 @@ package dk.alexandra.fresco.framework.network.socket;
 import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
 import dk.alexandra.fresco.framework.network.CloseableNetwork;
 import dk.alexandra.fresco.framework.util.ExceptionConverter;
+import dk.alexandra.fresco.framework.util.VirtualThreads;
 import java.net.Socket;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
@@ -13,8 +14,8 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,20 +32,33 @@ import org.slf4j.LoggerFactory;
  * <p>
  * Two threads are used for each external party; one for sending and one for receiving messages.
  * Sending is non-blocking but receiving may block waiting for messages to arrive.
+ * Messages are passed to and from these threads through unbounded queues (see
+ * {@link SpscRingBuffer}), which take no locks and do not allocate unless more than a given
+ * number of messages are waiting. Threads sending to the same party concurrently take turns using
+ * an uncontended lock.
  * A very simple message format is used where each message is
  * prefixed by an integer indicating the byte length of the message.
  * </p>
+ * <p>
+ * As these threads mostly block on I/O, they may optionally be virtual threads when running on
+ * Java 21 or later (see {@link VirtualThreads}). This avoids running hundreds of platform threads
+ * when there are many parties or many networks in use at the same time.
+ * </p>
  */
 public class SocketNetwork implements CloseableNetwork {
 
+  public static final int DEFAULT_QUEUE_CAPACITY = 1 << 14;
   private static final Duration RECEIVE_TIMEOUT = Duration.ofMillis(100);
   private static final Logger logger = LoggerFactory.getLogger(SocketNetwork.class);
-  private final BlockingQueue<byte[]> selfQueue;
+  private final SpscRingBuffer<byte[]> selfQueue;
+  private final Lock selfLock;
   private final NetworkConfiguration conf;
   private boolean alive;
   private final Collection<Socket> sockets;
   private final Map<Integer, Sender> senders;
   private final Map<Integer, Receiver> receivers;
+  private final boolean virtualThreads;
+  private final int queueCapacity;
 
   /**
    * Creates a network with the given a configuration and a mapping from party ids to sockets.
@@ -62,6 +76,41 @@ public class SocketNetwork implements CloseableNetwork {
    *     the sockets are not open and connected.
    */
   public SocketNetwork(NetworkConfiguration conf, Map<Integer, Socket> socketMap) {
+    this(conf, socketMap, false);
+  }
+
+  /**
+   * Creates a network with the given a configuration and a mapping from party ids to sockets as
+   * {@link #SocketNetwork(NetworkConfiguration, Map)}, optionally sending and receiving messages
+   * on virtual threads.
+   *
+   * @param conf the network configuration
+   * @param socketMap a mapping from party ids to the socket to be used for communicating with
+   *     the given party.
+   * @param virtualThreads true to use virtual threads if supported, false to use platform threads
+   * @throws IllegalArgumentException if {@code socketMap} and {@code conf} are inconsistent or
+   *     the sockets are not open and connected.
+   */
+  public SocketNetwork(NetworkConfiguration conf, Map<Integer, Socket> socketMap,
+      boolean virtualThreads) {
+    this(conf, socketMap, virtualThreads, DEFAULT_QUEUE_CAPACITY);
+  }
+
+  /**
+   * Creates a network with the given a configuration and a mapping from party ids to sockets as
+   * {@link #SocketNetwork(NetworkConfiguration, Map, boolean)}, using queues of a given capacity.
+   *
+   * @param conf the network configuration
+   * @param socketMap a mapping from party ids to the socket to be used for communicating with
+   *     the given party.
+   * @param virtualThreads true to use virtual threads if supported, false to use platform threads
+   * @param queueCapacity the number of messages queued for sending to, or receiving from, each
+   *     party that are held without allocating
+   * @throws IllegalArgumentException if {@code socketMap} and {@code conf} are inconsistent or
+   *     the sockets are not open and connected.
+   */
+  public SocketNetwork(NetworkConfiguration conf, Map<Integer, Socket> socketMap,
+      boolean virtualThreads, int queueCapacity) {
     Objects.requireNonNull(conf);
     Objects.requireNonNull(socketMap);
     for (int i = 1; i < conf.noOfParties() + 1; i++) {
@@ -84,11 +133,14 @@ public class SocketNetwork implements CloseableNetwork {
       }, "Could not set delayless TCP connection");
     }
     this.conf = conf;
+    this.virtualThreads = virtualThreads;
+    this.queueCapacity = queueCapacity;
     int externalParties = conf.noOfParties() - 1;
     this.receivers = new HashMap<>(externalParties);
     this.senders = new HashMap<>(externalParties);
     this.alive = true;
-    this.selfQueue = new LinkedBlockingQueue<>();
+    this.selfQueue = new SpscRingBuffer<>(queueCapacity);
+    this.selfLock = new ReentrantLock();
     if (conf.noOfParties() > 1) {
       this.sockets = Collections.unmodifiableCollection(new ArrayList<>(socketMap.values()));
       startCommunication(socketMap);
@@ -103,7 +155,19 @@ public class SocketNetwork implements CloseableNetwork {
    * @param conf the configuration to load the network from.
    */
   public SocketNetwork(NetworkConfiguration conf) {
-    this(conf, new Connector(conf, Duration.of(1, ChronoUnit.MINUTES)).getSocketMap());
+    this(conf, false);
+  }
+
+  /**
+   * Default constructor using one minute timeout, optionally sending and receiving messages on
+   * virtual threads.
+   *
+   * @param conf the configuration to load the network from.
+   * @param virtualThreads true to use virtual threads if supported, false to use platform threads
+   */
+  public SocketNetwork(NetworkConfiguration conf, boolean virtualThreads) {
+    this(conf, new Connector(conf, Duration.of(1, ChronoUnit.MINUTES)).getSocketMap(),
+        virtualThreads);
   }
 
   /**
@@ -116,9 +180,9 @@ public class SocketNetwork implements CloseableNetwork {
       final int id = entry.getKey();
       inRange(id);
       Socket socket = entry.getValue();
-      Receiver receiver = new Receiver(socket);
+      Receiver receiver = new Receiver(socket, virtualThreads, queueCapacity);
       this.receivers.put(id, receiver);
-      Sender sender = new Sender(socket);
+      Sender sender = new Sender(socket, virtualThreads, queueCapacity);
       this.senders.put(id, sender);
     }
   }
@@ -126,7 +190,13 @@ public class SocketNetwork implements CloseableNetwork {
   @Override
   public void send(int partyId, byte[] data) {
     if (partyId == conf.getMyId()) {
-      this.selfQueue.add(data);
+      // the queue only supports a single producer, so concurrent senders take turns
+      selfLock.lock();
+      try {
+        selfQueue.add(data);
+      } finally {
+        selfLock.unlock();
+      }
     } else {
       inRange(partyId);
       if (!senders.get(partyId).isRunning()) {
@@ -155,6 +225,28 @@ public class SocketNetwork implements CloseableNetwork {
     return data;
   }
 
+  /**
+   * Tests if the network is open and still communicating with all other parties.
+   *
+   * @return true if no sender or receiver has stopped
+   */
+  boolean isConnected() {
+    if (!alive) {
+      return false;
+    }
+    for (Sender sender : senders.values()) {
+      if (!sender.isRunning()) {
+        return false;
+      }
+    }
+    for (Receiver receiver : receivers.values()) {
+      if (!receiver.isRunning()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * Check if a party ID is in the range of known parties.
    *
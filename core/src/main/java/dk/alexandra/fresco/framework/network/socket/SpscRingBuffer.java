@@ -0,0 +1,181 @@
+package dk.alexandra.fresco.framework.network.socket;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An unbounded queue for a single producer thread and a single consumer thread.
+ *
+ * <p>Elements are stored in a ring buffer indexed by two counters, one only written by the
+ * producer and one only written by the consumer. Hence, as long as the ring buffer has space,
+ * adding and removing elements neither allocates nor takes a lock. When the ring buffer is full,
+ * elements spill over into a linked queue, which is drained after the ring buffer, so adding an
+ * element never blocks. A thread waiting for an element first spins for a while to catch a quick
+ * reply from the producer and then parks until woken by the producer.</p>
+ *
+ * <p>The producer and the consumer may be different threads over time, as long as handing over
+ * the role happens-before the new thread uses the queue. Concurrent producers must be serialized
+ * by the caller.</p>
+ *
+ * @param <T> the type of elements
+ */
+final class SpscRingBuffer<T> {
+
+  /**
+   * Spinning only helps if the producer runs on a different core.
+   */
+  private static final int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 1000 : 0;
+  private final Object[] buffer;
+  private final int mask;
+  private final AtomicLong head;
+  private final AtomicLong tail;
+  // elements added while the ring buffer is full, all of which are newer than those in the ring
+  private final Queue<T> spill;
+  private volatile Thread waitingConsumer;
+
+  /**
+   * Creates a new ring buffer.
+   *
+   * @param capacity the number of elements held without spilling, rounded up to a power of two
+   */
+  SpscRingBuffer(int capacity) {
+    if (capacity < 1 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Capacity must be in [1, 2^30], was " + capacity);
+    }
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity) {
+      size <<= 1;
+    }
+    this.buffer = new Object[size];
+    this.mask = size - 1;
+    this.head = new AtomicLong();
+    this.tail = new AtomicLong();
+    this.spill = new ConcurrentLinkedQueue<>();
+  }
+
+  /**
+   * Adds an element. Must only be called by the producer.
+   *
+   * @param element the element
+   */
+  void add(T element) {
+    if (element == null) {
+      throw new NullPointerException();
+    }
+    long t = tail.get();
+    // once elements have spilled, the ring buffer is only used again when they have all been
+    // consumed, which keeps the elements in order
+    if (!spill.isEmpty() || t - head.get() == buffer.length) {
+      spill.add(element);
+    } else {
+      buffer[(int) t & mask] = element;
+      // publishes the element to the consumer
+      tail.set(t + 1);
+    }
+    Thread consumer = waitingConsumer;
+    if (consumer != null) {
+      LockSupport.unpark(consumer);
+    }
+  }
+
+  /**
+   * Removes the first element if any. Must only be called by the consumer.
+   *
+   * @return the first element or null if the queue is empty
+   */
+  T poll() {
+    long h = head.get();
+    if (h == tail.get()) {
+      return spill.poll();
+    }
+    int index = (int) h & mask;
+    @SuppressWarnings("unchecked")
+    T element = (T) buffer[index];
+    buffer[index] = null;
+    // releases the slot to the producer
+    head.set(h + 1);
+    return element;
+  }
+
+  /**
+   * Removes the first element, waiting up to the given time for one to arrive. Must only be
+   * called by the consumer.
+   *
+   * @param timeout the maximum time to wait
+   * @param unit the unit of the timeout
+   * @return the first element or null if none arrived in time
+   * @throws InterruptedException if interrupted while waiting
+   */
+  T poll(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    return awaitElement(deadline, true);
+  }
+
+  /**
+   * Removes the first element, waiting for one to arrive if the queue is empty. Must only be
+   * called by the consumer.
+   *
+   * @return the first element
+   * @throws InterruptedException if interrupted while waiting
+   */
+  T take() throws InterruptedException {
+    return awaitElement(0, false);
+  }
+
+  /**
+   * Tests if the queue is empty.
+   *
+   * @return true if there are no elements in the queue
+   */
+  boolean isEmpty() {
+    return head.get() == tail.get() && spill.isEmpty();
+  }
+
+  private T awaitElement(long deadline, boolean timed) throws InterruptedException {
+    for (int i = 0; i < SPINS; i++) {
+      T element = poll();
+      if (element != null) {
+        return element;
+      }
+    }
+    waitingConsumer = Thread.currentThread();
+    try {
+      // the queue is checked after announcing that the consumer is waiting, so an element added
+      // concurrently either is seen here or unparks the consumer
+      T element = poll();
+      while (element == null) {
+        if (!park(deadline, timed)) {
+          return null;
+        }
+        element = poll();
+      }
+      return element;
+    } finally {
+      waitingConsumer = null;
+    }
+  }
+
+  /**
+   * Parks the current thread until unparked by the producer or the deadline.
+   *
+   * @return false if the deadline has passed
+   */
+  private boolean park(long deadline, boolean timed) throws InterruptedException {
+    if (timed) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return false;
+      }
+      LockSupport.parkNanos(this, remaining);
+    } else {
+      LockSupport.park(this);
+    }
+    if (Thread.interrupted()) {
+      throw new InterruptedException();
+    }
+    return true;
+  }
+}
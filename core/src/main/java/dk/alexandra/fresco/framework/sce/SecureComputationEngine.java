@@ -2,10 +2,17 @@ package dk.alexandra.fresco.framework.sce;
 
 import dk.alexandra.fresco.framework.Application;
 import dk.alexandra.fresco.framework.builder.ProtocolBuilder;
+import dk.alexandra.fresco.framework.network.MultiplexedNetwork;
 import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.IntFunction;
 
 /**
  * Core class of the fresco system, this must be initialized with a concrete ResourcePool from the
@@ -64,6 +71,63 @@ public interface SecureComputationEngine<ResourcePoolT extends ResourcePool,
   <OutputT> Future<OutputT> startApplication(Application<OutputT, BuilderT> application,
       ResourcePoolT resources, Network network);
 
+  /**
+   * Starts a number of independent applications to be evaluated concurrently over a single
+   * network. The i'th application is evaluated on channel <code>firstChannel + i</code> of the
+   * network, so all parties must start the same applications in the same order, and channels
+   * must not be used by more than one application at a time.
+   * <p>
+   * Each application gets its own resource pool, which must not share mutable state, e.g.,
+   * randomness or preprocessed material, with the resource pools of the other applications. The
+   * evaluator of this engine must support evaluating several applications concurrently.
+   * </p>
+   *
+   * @param applications the applications to evaluate
+   * @param resources a function giving the resource pool of the i'th application
+   * @param network the network to multiplex the applications over
+   * @param firstChannel the channel of the first application
+   * @return the futures holding the results in the order of the applications
+   */
+  default <OutputT> List<Future<OutputT>> startApplications(
+      List<? extends Application<OutputT, BuilderT>> applications,
+      IntFunction<ResourcePoolT> resources, MultiplexedNetwork network, int firstChannel) {
+    List<Future<OutputT>> futures = new ArrayList<>(applications.size());
+    for (int i = 0; i < applications.size(); i++) {
+      futures.add(startApplication(applications.get(i), resources.apply(i),
+          network.getChannel(firstChannel + i)));
+    }
+    return futures;
+  }
+
+  /**
+   * Executes a number of independent applications concurrently over a single network (see
+   * {@link #startApplications(List, IntFunction, MultiplexedNetwork, int)}) using channels
+   * starting from 0.
+   *
+   * @param applications the applications to evaluate
+   * @param resources a function giving the resource pool of the i'th application
+   * @param network the network to multiplex the applications over
+   * @param timeout time to wait for the output of all applications
+   * @return the outputs in the order of the applications
+   */
+  default <OutputT> List<OutputT> runApplications(
+      List<? extends Application<OutputT, BuilderT>> applications,
+      IntFunction<ResourcePoolT> resources, MultiplexedNetwork network, Duration timeout) {
+    List<Future<OutputT>> futures = startApplications(applications, resources, network, 0);
+    long deadline = System.nanoTime() + timeout.toNanos();
+    List<OutputT> outputs = new ArrayList<>(futures.size());
+    try {
+      for (Future<OutputT> future : futures) {
+        outputs.add(future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+      }
+    } catch (InterruptedException | TimeoutException e) {
+      throw new RuntimeException("Internal error in waiting", e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Execution exception when running the application", e.getCause());
+    }
+    return outputs;
+  }
+
 
   /**
    * Initializes the SecureComputationEngine. This method is idempotent - and sets up the proces
@@ -8,6 +8,7 @@ import dk.alexandra.fresco.framework.ProtocolEvaluator.EvaluationStatistics;
 import dk.alexandra.fresco.framework.builder.ProtocolBuilder;
 import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.util.VirtualThreads;
 import dk.alexandra.fresco.suite.ProtocolSuite;
 import java.time.Duration;
 import java.util.concurrent.Callable;
@@ -33,6 +34,7 @@ public class SecureComputationEngineImpl
   private ExecutorService executorService;
   private boolean setup;
   private ProtocolSuite<ResourcePoolT, BuilderT> protocolSuite;
+  private final boolean virtualThreads;
   private static final AtomicInteger threadCounter = new AtomicInteger(1);
   private static final Logger logger = LoggerFactory.getLogger(SecureComputationEngineImpl.class);
 
@@ -44,8 +46,23 @@ public class SecureComputationEngineImpl
    */
   public SecureComputationEngineImpl(ProtocolSuite<ResourcePoolT, BuilderT> protocolSuite,
       ProtocolEvaluator<ResourcePoolT> evaluator) {
+    this(protocolSuite, evaluator, false);
+  }
+
+  /**
+   * Creates a new {@link SecureComputationEngineImpl}, optionally evaluating applications on
+   * virtual threads. As evaluating an application mostly blocks waiting for the network, virtual
+   * threads allow running many applications concurrently without a platform thread for each.
+   *
+   * @param protocolSuite the {@link ProtocolSuite} to use to evaluate the secure computation
+   * @param evaluator the {@link ProtocolEvaluator} to run secure evaluation.
+   * @param virtualThreads true to use virtual threads if supported, see {@link VirtualThreads}
+   */
+  public SecureComputationEngineImpl(ProtocolSuite<ResourcePoolT, BuilderT> protocolSuite,
+      ProtocolEvaluator<ResourcePoolT> evaluator, boolean virtualThreads) {
     this.protocolSuite = protocolSuite;
     this.evaluator = evaluator;
+    this.virtualThreads = virtualThreads;
     this.setup = false;
   }
 
@@ -94,11 +111,8 @@ public class SecureComputationEngineImpl
   @Override
   public synchronized void setup() {
     if (!this.setup) {
-      this.executorService = Executors.newCachedThreadPool(r -> {
-        Thread thread = new Thread(r, "SCE-" + threadCounter.getAndIncrement());
-        thread.setDaemon(true);
-        return thread;
-      });
+      this.executorService = Executors.newCachedThreadPool(r -> VirtualThreads
+          .newThread("SCE-" + threadCounter.getAndIncrement(), virtualThreads, r));
       this.setup = true;
     }
   }
@@ -0,0 +1,206 @@
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+import dk.alexandra.fresco.framework.ProtocolEvaluator;
+import dk.alexandra.fresco.framework.ProtocolProducer;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.suite.ProtocolSuite;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Protocol evaluator evaluating native protocols in batches like {@link BatchedProtocolEvaluator},
+ * but tuning the batch size at runtime to maximize the throughput of native protocols.
+ *
+ * <p>The evaluator measures the time spent evaluating batches that are filled to capacity. After a
+ * number of such batches the parties exchange their measurements and whether the heap is nearly
+ * full after garbage collection. Every party then feeds the same aggregate, i.e., the time of the
+ * slowest party and memory pressure at any party, to its {@link BatchSizeTuner}, such that all
+ * parties propose the same new batch size and their tuners stay in the same state. This costs an
+ * extra round of communication per adjustment.</p>
+ *
+ * <p>The batch size and the measurements are kept per evaluation, i.e., each application run by an
+ * engine starts from the initial batch size, so applications may be evaluated concurrently.</p>
+ *
+ * @param <ResourcePoolT> The resource pool type to use
+ */
+public class AdaptiveBatchedProtocolEvaluator<ResourcePoolT extends ResourcePool>
+    implements ProtocolEvaluator<ResourcePoolT> {
+
+  public static final int DEFAULT_INITIAL_BATCH_SIZE = 4096;
+  public static final int DEFAULT_MIN_BATCH_SIZE = 128;
+  public static final int DEFAULT_MAX_BATCH_SIZE = 1 << 20;
+  public static final int DEFAULT_SAMPLE_BATCHES = 8;
+  private static final double MEMORY_PRESSURE_RATIO = 0.9;
+
+  private final Logger logger = LoggerFactory.getLogger(AdaptiveBatchedProtocolEvaluator.class);
+  private final BatchEvaluationStrategy<ResourcePoolT> batchEvaluator;
+  private final ProtocolSuite<ResourcePoolT, ?> protocolSuite;
+  private final int initialBatchSize;
+  private final int minBatchSize;
+  private final int maxBatchSize;
+  private final int sampleBatches;
+  private final AtomicInteger adjustments = new AtomicInteger();
+  private volatile int batchSize;
+
+  /**
+   * Creates a new evaluator using the default bounds on the batch size.
+   *
+   * @param batchEvaluator the strategy used to evaluate each batch
+   * @param protocolSuite the protocol suite
+   */
+  public AdaptiveBatchedProtocolEvaluator(BatchEvaluationStrategy<ResourcePoolT> batchEvaluator,
+      ProtocolSuite<ResourcePoolT, ?> protocolSuite) {
+    this(batchEvaluator, protocolSuite, DEFAULT_INITIAL_BATCH_SIZE, DEFAULT_MIN_BATCH_SIZE,
+        DEFAULT_MAX_BATCH_SIZE, DEFAULT_SAMPLE_BATCHES);
+  }
+
+  /**
+   * Creates a new evaluator. All parties must use the same parameters.
+   *
+   * @param batchEvaluator the strategy used to evaluate each batch
+   * @param protocolSuite the protocol suite
+   * @param initialBatchSize the batch size to start from
+   * @param minBatchSize the smallest batch size to use
+   * @param maxBatchSize the largest batch size to use, bounding the number of native protocols
+   *     held in memory at once
+   * @param sampleBatches the number of full batches to measure before adjusting the batch size
+   */
+  public AdaptiveBatchedProtocolEvaluator(BatchEvaluationStrategy<ResourcePoolT> batchEvaluator,
+      ProtocolSuite<ResourcePoolT, ?> protocolSuite, int initialBatchSize, int minBatchSize,
+      int maxBatchSize, int sampleBatches) {
+    if (sampleBatches < 1) {
+      throw new IllegalArgumentException("Must sample at least one batch, was " + sampleBatches);
+    }
+    this.batchEvaluator = batchEvaluator;
+    this.protocolSuite = protocolSuite;
+    // also validates the bounds up front
+    BatchSizeTuner bounds = new BatchSizeTuner(minBatchSize, maxBatchSize);
+    this.initialBatchSize = bounds.clamp(initialBatchSize);
+    this.minBatchSize = minBatchSize;
+    this.maxBatchSize = maxBatchSize;
+    this.sampleBatches = sampleBatches;
+    this.batchSize = this.initialBatchSize;
+  }
+
+  @Override
+  public EvaluationStatistics eval(ProtocolProducer protocolProducer, ResourcePoolT resourcePool,
+      Network network) {
+    int totalProtocols = 0;
+    int totalBatches = 0;
+    Tuning tuning = new Tuning();
+
+    NetworkBatchDecorator networkBatchDecorator =
+        new NetworkBatchDecorator(resourcePool.getNoOfParties(), network);
+    ProtocolSuite.RoundSynchronization<ResourcePoolT> roundSynchronization =
+        protocolSuite.createRoundSynchronization();
+    do {
+      ProtocolCollectionList<ResourcePoolT> protocols =
+          new ProtocolCollectionList<>(tuning.batchSize);
+      protocolProducer.getNextProtocols(protocols);
+      int size = protocols.size();
+
+      roundSynchronization.beforeBatch(protocols, resourcePool, network);
+      long start = System.nanoTime();
+      batchEvaluator.processBatch(protocols, resourcePool, networkBatchDecorator);
+      long time = System.nanoTime() - start;
+      totalProtocols += size;
+      totalBatches += 1;
+      roundSynchronization.finishedBatch(size, resourcePool, network);
+      // only full batches tell something about the batch size, and they are the same for all
+      // parties, so all parties adjust after the same batches
+      if (size == tuning.batchSize) {
+        tuning.sampleProtocols += size;
+        tuning.sampleNanos += time;
+        tuning.sampleCount++;
+        if (tuning.sampleCount == sampleBatches) {
+          adjustBatchSize(tuning, resourcePool, network);
+        }
+      }
+    } while (protocolProducer.hasNextProtocols());
+
+    roundSynchronization.finishedEval(resourcePool, network);
+    batchSize = tuning.batchSize;
+    return new EvaluationStatistics(totalProtocols, totalBatches, tuning.batchSize);
+  }
+
+  /**
+   * Gets the batch size reached by the most recently finished evaluation.
+   *
+   * @return the batch size
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Gets the number of times the parties have agreed on a new batch size, summed over all
+   * evaluations.
+   *
+   * @return the number of adjustments
+   */
+  public int getAdjustments() {
+    return adjustments.get();
+  }
+
+  private void adjustBatchSize(Tuning tuning, ResourcePoolT resourcePool, Network network) {
+    long nanos = tuning.sampleNanos;
+    boolean memoryPressure = isMemoryPressure();
+    byte[] bytes = ByteBuffer.allocate(Long.BYTES + 1).putLong(nanos)
+        .put((byte) (memoryPressure ? 1 : 0)).array();
+    for (int i = 1; i <= resourcePool.getNoOfParties(); i++) {
+      if (i != resourcePool.getMyId()) {
+        network.send(i, bytes);
+      }
+    }
+    for (int i = 1; i <= resourcePool.getNoOfParties(); i++) {
+      if (i != resourcePool.getMyId()) {
+        ByteBuffer received = ByteBuffer.wrap(network.receive(i));
+        nanos = Math.max(nanos, received.getLong());
+        memoryPressure |= received.get() != 0;
+      }
+    }
+    // all parties evaluated the same batches, so the number of protocols is the same for all
+    int proposal =
+        tuning.tuner.propose(tuning.batchSize, tuning.sampleProtocols, nanos, memoryPressure);
+    logger.debug("Batch size adjusted from {} to {}", tuning.batchSize, proposal);
+    tuning.batchSize = proposal;
+    tuning.sampleProtocols = 0;
+    tuning.sampleNanos = 0;
+    tuning.sampleCount = 0;
+    adjustments.incrementAndGet();
+  }
+
+  /**
+   * Checks if any heap memory pool is nearly full even after garbage collection.
+   */
+  private boolean isMemoryPressure() {
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      MemoryUsage afterCollection = pool.getCollectionUsage();
+      long max = pool.getUsage().getMax();
+      if (pool.getType() == MemoryType.HEAP && afterCollection != null && max > 0
+          && afterCollection.getUsed() > MEMORY_PRESSURE_RATIO * max) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * The state of the batch size search of a single evaluation.
+   */
+  private class Tuning {
+
+    private final BatchSizeTuner tuner = new BatchSizeTuner(minBatchSize, maxBatchSize);
+    private int batchSize = initialBatchSize;
+    private long sampleProtocols;
+    private long sampleNanos;
+    private int sampleCount;
+  }
+}
@@ -0,0 +1,61 @@
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+/**
+ * Hill climbing search for the batch size giving the highest throughput of native protocols.
+ *
+ * <p>The throughput measured at the current batch size is compared to the throughput measured at
+ * the previous batch size. If it improved the batch size keeps moving in the same direction,
+ * otherwise the direction is reversed. The batch size is doubled or halved in each step and kept
+ * within the given bounds. As the search never stops it follows an optimum drifting with the load
+ * of the machine or network.</p>
+ */
+class BatchSizeTuner {
+
+  private final int minBatchSize;
+  private final int maxBatchSize;
+  private double previousThroughput;
+  private boolean growing;
+
+  BatchSizeTuner(int minBatchSize, int maxBatchSize) {
+    if (minBatchSize < 1 || maxBatchSize < minBatchSize) {
+      throw new IllegalArgumentException(
+          "Invalid batch size bounds [" + minBatchSize + ", " + maxBatchSize + "]");
+    }
+    this.minBatchSize = minBatchSize;
+    this.maxBatchSize = maxBatchSize;
+    this.previousThroughput = 0.0;
+    this.growing = true;
+  }
+
+  /**
+   * Proposes the next batch size.
+   *
+   * @param batchSize the batch size used for the measurement
+   * @param protocols the number of native protocols evaluated
+   * @param nanos the time spent evaluating them
+   * @param memoryPressure true if the batch size should be reduced to save memory
+   * @return the proposed batch size
+   */
+  int propose(int batchSize, long protocols, long nanos, boolean memoryPressure) {
+    double throughput = (double) protocols / Math.max(1, nanos);
+    if (throughput < previousThroughput) {
+      growing = !growing;
+    }
+    previousThroughput = throughput;
+    if (memoryPressure) {
+      growing = false;
+    }
+    long proposal = growing ? 2L * batchSize : batchSize / 2;
+    return clamp((int) Math.min(Integer.MAX_VALUE, proposal));
+  }
+
+  /**
+   * Restricts a batch size to the bounds of this tuner.
+   *
+   * @param batchSize the batch size
+   * @return the batch size within the bounds
+   */
+  int clamp(int batchSize) {
+    return Math.max(minBatchSize, Math.min(maxBatchSize, batchSize));
+  }
+}
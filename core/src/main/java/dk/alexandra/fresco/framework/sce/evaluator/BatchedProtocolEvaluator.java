@@ -24,6 +24,7 @@ public class BatchedProtocolEvaluator<ResourcePoolT extends ResourcePool>
   private final BatchEvaluationStrategy<ResourcePoolT> batchEvaluator;
   private final ProtocolSuite<ResourcePoolT, ?> protocolSuite;
   private final int maxBatchSize;
+  private final int streamingChunkSize;
 
   public BatchedProtocolEvaluator(
       BatchEvaluationStrategy<ResourcePoolT> batchEvaluator,
@@ -34,9 +35,28 @@ public class BatchedProtocolEvaluator<ResourcePoolT extends ResourcePool>
   public BatchedProtocolEvaluator(
       BatchEvaluationStrategy<ResourcePoolT> batchEvaluator,
       ProtocolSuite<ResourcePoolT, ?> protocolSuite, int maxBatchSize) {
+    this(batchEvaluator, protocolSuite, maxBatchSize, 0);
+  }
+
+  /**
+   * Creates a new evaluator where the messages of a round are sent in chunks as they are produced
+   * rather than only at the end of the round (see {@link NetworkBatchDecorator}). This lets the
+   * other parties start on their next round while the current round is still being evaluated.
+   * All parties must use the same chunk size setting.
+   *
+   * @param batchEvaluator the strategy used to evaluate each batch
+   * @param protocolSuite the protocol suite
+   * @param maxBatchSize the maximum number of native protocols in a batch
+   * @param streamingChunkSize the number of bytes buffered for a party before sending them, or 0
+   *     to send only at the end of each round
+   */
+  public BatchedProtocolEvaluator(
+      BatchEvaluationStrategy<ResourcePoolT> batchEvaluator,
+      ProtocolSuite<ResourcePoolT, ?> protocolSuite, int maxBatchSize, int streamingChunkSize) {
     this.batchEvaluator = batchEvaluator;
     this.maxBatchSize = maxBatchSize;
     this.protocolSuite = protocolSuite;
+    this.streamingChunkSize = streamingChunkSize;
   }
 
   @Override
@@ -66,10 +86,10 @@ public class BatchedProtocolEvaluator<ResourcePoolT extends ResourcePool>
     } while (protocolProducer.hasNextProtocols());
 
     roundSynchronization.finishedEval(resourcePool, network);
-    return new EvaluationStatistics(totalProtocols, totalBatches);
+    return new EvaluationStatistics(totalProtocols, totalBatches, maxBatchSize);
   }
 
   private NetworkBatchDecorator createSceNetwork(ResourcePool resourcePool, Network network) {
-    return new NetworkBatchDecorator(resourcePool.getNoOfParties(), network);
+    return new NetworkBatchDecorator(resourcePool.getNoOfParties(), network, streamingChunkSize);
   }
 }
@@ -4,7 +4,9 @@ import dk.alexandra.fresco.framework.network.Network;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Default network for the evaluators, this interface bridges the raw network4
@@ -13,25 +15,58 @@ import java.util.Map;
  * on the network.
  * <br/>
  * It is important to call flush to empty all buffers after sending and before receiving data
+ * <br/>
+ * In streaming mode, i.e., when created with a positive chunk size, the buffer of a party is sent
+ * as a chunk as soon as it exceeds the chunk size rather than only when flushing. Each chunk starts
+ * with a byte telling if it is the last chunk of the round, allowing the receiving party to start
+ * evaluating its next round as soon as the first chunk arrives. All parties must use the same
+ * mode.
  */
 public class NetworkBatchDecorator implements Network {
 
+  private static final byte MORE_CHUNKS = 0;
+  private static final byte LAST_CHUNK = 1;
+
   private int noOfParties;
   private final Network network;
+  private final int chunkSize;
   private Map<Integer, ByteArrayOutputStream> output;
   private Map<Integer, ByteArrayInputStream> input;
+  private Set<Integer> inputComplete;
 
   public NetworkBatchDecorator(int noOfParties, Network network) {
+    this(noOfParties, network, 0);
+  }
+
+  /**
+   * Creates a new decorator sending the buffer of a party in chunks once it exceeds a given size.
+   *
+   * @param noOfParties the number of parties
+   * @param network the network to decorate
+   * @param chunkSize the number of bytes to buffer before sending a chunk, or 0 to send
+   *     everything when flushing
+   */
+  public NetworkBatchDecorator(int noOfParties, Network network, int chunkSize) {
+    if (chunkSize < 0) {
+      throw new IllegalArgumentException("Chunk size must be non-negative, was " + chunkSize);
+    }
     this.noOfParties = noOfParties;
     this.network = network;
+    this.chunkSize = chunkSize;
     this.output = new HashMap<>();
     this.input = new HashMap<>();
+    this.inputComplete = new HashSet<>();
   }
 
   @Override
   public byte[] receive(int id) {
     ByteArrayInputStream byteInputStream = input.get(id);
-    if (byteInputStream == null) {
+    if (isStreaming()) {
+      while (byteInputStream == null
+          || (byteInputStream.available() == 0 && !inputComplete.contains(id))) {
+        byteInputStream = receiveChunk(id);
+      }
+    } else if (byteInputStream == null) {
       byte[] partyData = network.receive(id);
       byteInputStream = new ByteArrayInputStream(partyData);
       input.put(id, byteInputStream);
@@ -56,8 +91,16 @@ public class NetworkBatchDecorator implements Network {
       throw new IllegalStateException(
           "Current implementation only supports small packages, data.length=" + data.length);
     }
+    if (isStreaming() && buffer.size() == 0) {
+      buffer.write(MORE_CHUNKS);
+    }
     buffer.write(data.length);
     buffer.write(data, 0, data.length);
+    if (isStreaming() && buffer.size() > chunkSize) {
+      network.send(id, buffer.toByteArray());
+      // keep the (now empty) buffer such that flush terminates the round with a last chunk
+      buffer.reset();
+    }
   }
 
   /**
@@ -67,11 +110,44 @@ public class NetworkBatchDecorator implements Network {
     for (int i = 1; i <= noOfParties; i++) {
       if (output.containsKey(i)) {
         ByteArrayOutputStream byteArrayOutputStream = output.get(i);
-        byte[] data = byteArrayOutputStream.toByteArray();
+        byte[] data;
+        if (isStreaming()) {
+          if (byteArrayOutputStream.size() == 0) {
+            byteArrayOutputStream.write(MORE_CHUNKS);
+          }
+          data = byteArrayOutputStream.toByteArray();
+          data[0] = LAST_CHUNK;
+        } else {
+          data = byteArrayOutputStream.toByteArray();
+        }
         network.send(i, data);
       }
       output.remove(i);
     }
+    if (isStreaming()) {
+      // skip any chunks of the round not read, as they would otherwise be read in the next round
+      for (Map.Entry<Integer, ByteArrayInputStream> entry : input.entrySet()) {
+        int id = entry.getKey();
+        while (!inputComplete.contains(id)) {
+          receiveChunk(id);
+        }
+      }
+      inputComplete.clear();
+    }
     input.clear();
   }
+
+  private boolean isStreaming() {
+    return chunkSize > 0;
+  }
+
+  private ByteArrayInputStream receiveChunk(int id) {
+    byte[] chunk = network.receive(id);
+    if (chunk[0] == LAST_CHUNK) {
+      inputComplete.add(id);
+    }
+    ByteArrayInputStream byteInputStream = new ByteArrayInputStream(chunk, 1, chunk.length - 1);
+    input.put(id, byteInputStream);
+    return byteInputStream;
+  }
 }
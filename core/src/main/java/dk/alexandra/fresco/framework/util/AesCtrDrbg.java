@@ -1,5 +1,6 @@
 package dk.alexandra.fresco.framework.util;
 
+import java.nio.ByteBuffer;
 import java.security.SecureRandom;
 import javax.crypto.Cipher;
 import javax.crypto.ShortBufferException;
@@ -8,6 +9,10 @@ import javax.crypto.spec.SecretKeySpec;
 
 /**
  * Implementation of a deterministic random bit generator (DRBG) using AES in counter mode.
+ *
+ * <p>The keystream is written directly into the output of the caller, so generating bytes does
+ * not allocate. The bulk methods {@link #nextBytes(ByteBuffer)} and {@link #nextLongs(long[])}
+ * produce the same stream as {@link #nextBytes(byte[])}.</p>
  */
 public class AesCtrDrbg implements Drbg {
 
@@ -19,6 +24,15 @@ public class AesCtrDrbg implements Drbg {
   private static final int KEY_LENGTH = 16;
   private static final long RESEED_LIMIT = 1L << 48;
   private static final int UPDATE_LIMIT = 1 << 16;
+  /**
+   * Input to the cipher, whose encryption in counter mode is the keystream. It is only ever read.
+   */
+  private static final byte[] ZEROES = new byte[UPDATE_LIMIT];
+  /**
+   * Per thread buffer for generating bytes not written directly to the output.
+   */
+  private static final ThreadLocal<byte[]> KEYSTREAM =
+      ThreadLocal.withInitial(() -> new byte[UPDATE_LIMIT]);
   private Cipher cipher;
   private int generatedBytes;
   private int reseedCounter;
@@ -56,45 +70,83 @@ public class AesCtrDrbg implements Drbg {
 
   @Override
   public void nextBytes(byte[] bytes) {
-    if (bytes.length <= UPDATE_LIMIT) {
-      nextBytesBounded(new byte[bytes.length], bytes);
+    nextBytes(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Generates pseudo-random bytes directly into a range of the given array, without allocating
+   * any temporary arrays. The bytes generated are the same as for
+   * {@link #nextBytes(byte[])} on an array of the same length.
+   */
+  @Override
+  public void nextBytes(byte[] bytes, int offset, int length) {
+    if (offset < 0 || length < 0 || offset + length > bytes.length) {
+      throw new IndexOutOfBoundsException("Range [" + offset + ", " + (offset + length)
+          + ") out of bounds for length " + bytes.length);
+    }
+    int end = offset + length;
+    while (offset < end) {
+      int chunk = Math.min(UPDATE_LIMIT, end - offset);
+      nextBytesBounded(bytes, offset, chunk);
+      offset += chunk;
+    }
+  }
+
+  /**
+   * Generates pseudo-random bytes into the remaining bytes of a buffer. Array backed buffers are
+   * written directly, other buffers through a thread-local keystream buffer.
+   */
+  @Override
+  public void nextBytes(ByteBuffer buffer) {
+    if (buffer.hasArray()) {
+      nextBytes(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+      buffer.position(buffer.limit());
     } else {
-      int offset = 0;
-      byte[] temp = new byte[UPDATE_LIMIT];
-      byte[] zeroes = new byte[temp.length];
-      while (bytes.length - offset > UPDATE_LIMIT) {
-        nextBytesBounded(zeroes, temp);
-        System.arraycopy(temp, 0, bytes, offset, temp.length);
-        offset += UPDATE_LIMIT;
+      byte[] keystream = KEYSTREAM.get();
+      while (buffer.hasRemaining()) {
+        int chunk = Math.min(UPDATE_LIMIT, buffer.remaining());
+        nextBytesBounded(keystream, 0, chunk);
+        buffer.put(keystream, 0, chunk);
+      }
+    }
+  }
+
+  @Override
+  public void nextLongs(long[] longs) {
+    byte[] keystream = KEYSTREAM.get();
+    int index = 0;
+    while (index < longs.length) {
+      int count = Math.min(UPDATE_LIMIT / Long.BYTES, longs.length - index);
+      nextBytesBounded(keystream, 0, count * Long.BYTES);
+      for (int i = 0; i < count; i++) {
+        longs[index + i] = readLong(keystream, i * Long.BYTES);
       }
-      temp = new byte[bytes.length - offset];
-      zeroes = new byte[bytes.length - offset];
-      nextBytesBounded(zeroes, temp);
-      System.arraycopy(temp, 0, bytes, offset, temp.length);
+      index += count;
     }
   }
 
   /**
-   * Generates enough pseudo-random bytes to fill a given array.
+   * Generates pseudo-random bytes into a range of a given array.
    * <p>
-   * Note: this method is unsafe the sense that it expects two array of equal size at most
-   * {@value #UPDATE_LIMIT} and does not check for this.
+   * Note: this method expects a length of at most {@value #UPDATE_LIMIT} and does not check for
+   * this.
    * </p>
    *
-   * @param zeroes an array of zero bytes of length equal to output array.
-   * @param output an array of size at most {@value #UPDATE_LIMIT} which will be filled with pseudo
-   *        random bytes.
+   * @param output the array to write the pseudo-random bytes to
+   * @param offset the offset in output to write to
+   * @param length the number of bytes to write, at most {@value #UPDATE_LIMIT}
+   * @throws IllegalArgumentException if the range does not fit in the output
    */
-  void nextBytesBounded(byte[] zeroes, byte[] output) {
-    if (generatedBytes + output.length > UPDATE_LIMIT) {
+  void nextBytesBounded(byte[] output, int offset, int length) {
+    if (generatedBytes + length > UPDATE_LIMIT) {
       update();
     }
     try {
-      this.cipher.update(zeroes, 0, zeroes.length, output);
+      this.cipher.update(ZEROES, 0, length, output, offset);
     } catch (ShortBufferException e) {
       throw new IllegalArgumentException("Exception generating bits", e);
     }
-    generatedBytes += output.length;
+    generatedBytes += length;
   }
 
   /**
@@ -136,6 +188,14 @@ public class AesCtrDrbg implements Drbg {
     initCipher(key, iv);
   }
 
+  private static long readLong(byte[] bytes, int offset) {
+    long value = 0;
+    for (int i = 0; i < Long.BYTES; i++) {
+      value = (value << Byte.SIZE) | (bytes[offset + i] & 0xFF);
+    }
+    return value;
+  }
+
   private static byte[] generateSeed() {
     byte[] randomSeed = new byte[SEED_LENGTH];
     new SecureRandom().nextBytes(randomSeed);
@@ -1,5 +1,7 @@
 package dk.alexandra.fresco.framework.util;
 
+import java.nio.ByteBuffer;
+
 /**
  * Interface for Deterministic Random Bit Generators.
  * <p>
@@ -25,4 +27,44 @@ public interface Drbg {
    * @param bytes The byte array which will be overwritten with random data.
    */
   void nextBytes(byte[] bytes);
+
+  /**
+   * Fills a range of the given byte array with deterministic pseudo-random bytes. The bytes are
+   * the same as would be written by {@link #nextBytes(byte[])} to an array of the given length.
+   *
+   * @param bytes The byte array of which a range will be overwritten with random data.
+   * @param offset The start of the range
+   * @param length The length of the range
+   */
+  default void nextBytes(byte[] bytes, int offset, int length) {
+    byte[] temp = new byte[length];
+    nextBytes(temp);
+    System.arraycopy(temp, 0, bytes, offset, length);
+  }
+
+  /**
+   * Fills the remaining bytes of the given buffer with deterministic pseudo-random bytes and
+   * advances its position to its limit. The bytes are the same as would be written by
+   * {@link #nextBytes(byte[])} to an array of the same length.
+   *
+   * @param buffer The buffer which will be filled with random data.
+   */
+  default void nextBytes(ByteBuffer buffer) {
+    byte[] temp = new byte[buffer.remaining()];
+    nextBytes(temp);
+    buffer.put(temp);
+  }
+
+  /**
+   * Fills the given long array with deterministic pseudo-random values. The values are the same as
+   * reading the bytes written by {@link #nextBytes(byte[])} to an array of eight times the length
+   * as big-endian longs.
+   *
+   * @param longs The long array which will be overwritten with random data.
+   */
+  default void nextLongs(long[] longs) {
+    ByteBuffer buffer = ByteBuffer.allocate(longs.length * Long.BYTES);
+    nextBytes(buffer.array());
+    buffer.asLongBuffer().get(longs);
+  }
 }
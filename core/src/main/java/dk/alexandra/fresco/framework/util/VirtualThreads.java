@@ -0,0 +1,98 @@
+package dk.alexandra.fresco.framework.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the threads used for blocking tasks such as network I/O and evaluating applications,
+ * either as platform threads or as virtual threads.
+ *
+ * <p>Virtual threads are only available when running on Java 21 or later. As FRESCO is compiled
+ * for Java 8 they are created reflectively, and platform threads are used instead if they are not
+ * available. Platform threads created by this class are daemon threads, as are all virtual
+ * threads.</p>
+ */
+public final class VirtualThreads {
+
+  private static final Logger logger = LoggerFactory.getLogger(VirtualThreads.class);
+  private static final Method OF_VIRTUAL;
+  private static final Method NAME;
+  private static final Method UNSTARTED;
+  private static final AtomicBoolean warned = new AtomicBoolean(false);
+
+  static {
+    Method ofVirtual = null;
+    Method name = null;
+    Method unstarted = null;
+    try {
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      ofVirtual = Thread.class.getMethod("ofVirtual");
+      name = builderClass.getMethod("name", String.class);
+      unstarted = builderClass.getMethod("unstarted", Runnable.class);
+      // fails on Java 19 and 20 unless preview features are enabled
+      unstarted.invoke(name.invoke(ofVirtual.invoke(null), "probe"), (Runnable) () -> {
+      });
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      ofVirtual = null;
+      name = null;
+      unstarted = null;
+    }
+    OF_VIRTUAL = ofVirtual;
+    NAME = name;
+    UNSTARTED = unstarted;
+  }
+
+  private VirtualThreads() {
+    // Should not be instantiated
+  }
+
+  /**
+   * Tests if virtual threads are supported by the running JVM.
+   *
+   * @return true if virtual threads are supported
+   */
+  public static boolean isSupported() {
+    return OF_VIRTUAL != null;
+  }
+
+  /**
+   * Creates a new, unstarted thread.
+   *
+   * @param name the name of the thread
+   * @param virtual true to create a virtual thread if supported, false to create a platform thread
+   * @param task the task run by the thread
+   * @return the thread
+   */
+  public static Thread newThread(String name, boolean virtual, Runnable task) {
+    if (virtual) {
+      if (isSupported()) {
+        return ExceptionConverter.safe(
+            () -> (Thread) UNSTARTED.invoke(NAME.invoke(OF_VIRTUAL.invoke(null), name), task),
+            "Unable to create virtual thread " + name);
+      }
+      if (!warned.getAndSet(true)) {
+        logger.warn("Virtual threads are not supported by this JVM, using platform threads");
+      }
+    }
+    Thread thread = new Thread(task, name);
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  /**
+   * Creates a thread factory creating threads as {@link #newThread(String, boolean, Runnable)}.
+   * The threads are named by the given prefix followed by a counter.
+   *
+   * @param prefix the prefix of the thread names
+   * @param virtual true to create virtual threads if supported, false to create platform threads
+   * @return the thread factory
+   */
+  public static ThreadFactory newThreadFactory(String prefix, boolean virtual) {
+    AtomicInteger counter = new AtomicInteger(1);
+    return task -> newThread(prefix + counter.getAndIncrement(), virtual, task);
+  }
+}
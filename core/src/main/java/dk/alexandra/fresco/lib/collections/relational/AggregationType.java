@@ -0,0 +1,23 @@
+package dk.alexandra.fresco.lib.collections.relational;
+
+/**
+ * The aggregate functions supported by {@link SortingAggregation}.
+ */
+public enum AggregationType {
+  /**
+   * Sum of the values in a group.
+   */
+  SUM,
+  /**
+   * Number of rows in a group. The column to aggregate is ignored.
+   */
+  COUNT,
+  /**
+   * Minimum of the values in a group. The values must fit within the maximum bit length.
+   */
+  MIN,
+  /**
+   * Maximum of the values in a group. The values must fit within the maximum bit length.
+   */
+  MAX
+}
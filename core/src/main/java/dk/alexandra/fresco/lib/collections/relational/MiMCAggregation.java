@@ -5,7 +5,7 @@ import dk.alexandra.fresco.framework.builder.Computation;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.collections.Matrix;
-import dk.alexandra.fresco.lib.crypto.mimc.MiMCEncryption;
+import dk.alexandra.fresco.lib.crypto.mimc.MiMCEncryptionBatch;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -44,22 +44,22 @@ public class MiMCAggregation implements Computation<Matrix<DRes<SInt>>, Protocol
     DRes<Matrix<DRes<SInt>>> shuffled = builder.collections().shuffle(values);
     // generate encryption key
     DRes<SInt> mimcKey = builder.numeric().randomElement();
-    return builder.par(par -> {
+    return builder.seq(seq -> {
       Matrix<DRes<SInt>> inputRows = shuffled.out();
-      // encrypt values in group by column and reveal cipher text
-      List<TripleWithCipher> ciphers = new ArrayList<>(inputRows.getHeight());
-      for (final ArrayList<DRes<SInt>> row : inputRows.getRows()) {
-        DRes<SInt> groupBy = row.get(groupColIdx);
-        DRes<SInt> aggOn = row.get(aggColIdx);
-        // encrypt and open groupBy
-        DRes<BigInteger> openedCipher = par.seq((seq -> {
-          // TODO: encryption should be on a directory
-          DRes<SInt> cipherText = seq.seq(new MiMCEncryption(groupBy, mimcKey));
-          return seq.numeric().open(cipherText);
-        }));
-        ciphers.add(new TripleWithCipher(groupBy, aggOn, openedCipher));
-      }
-      return () -> ciphers;
+      // encrypt all values in group by column under the same key and reveal cipher texts
+      DRes<List<DRes<SInt>>> cipherTexts =
+          seq.seq(new MiMCEncryptionBatch(inputRows.getColumn(groupColIdx), mimcKey));
+      DRes<List<DRes<BigInteger>>> openedCiphers = seq.collections().openList(cipherTexts);
+      return () -> {
+        List<DRes<BigInteger>> opened = openedCiphers.out();
+        List<TripleWithCipher> ciphers = new ArrayList<>(inputRows.getHeight());
+        for (int i = 0; i < inputRows.getHeight(); i++) {
+          ArrayList<DRes<SInt>> row = inputRows.getRow(i);
+          ciphers.add(new TripleWithCipher(row.get(groupColIdx), row.get(aggColIdx),
+              opened.get(i)));
+        }
+        return ciphers;
+      };
     }).seq((seq, triples) -> {
       // use cipher texts to perform aggregation "in-the-clear"
       Map<BigInteger, DRes<SInt>> groupedByCipher = new HashMap<>();
@@ -0,0 +1,117 @@
+package dk.alexandra.fresco.lib.collections.relational;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.collections.Matrix;
+import dk.alexandra.fresco.lib.crypto.mimc.MiMCEncryptionBatch;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Performs a SQL-like inner equi-join of two tables using MiMC as a PRF to hash the join keys.
+ *
+ * <p>Both tables are shuffled, after which the join keys of all rows are encrypted under a single
+ * random key (see {@link MiMCEncryptionBatch}) and the cipher texts are opened. The rows are then
+ * joined "in-the-clear" by matching cipher texts, which only requires local computation. A private
+ * set intersection can be computed as a join of two single column tables.</p>
+ *
+ * <p>NOTE: this leaks the sizes of the input tables and the equality pattern of the join keys
+ * across and within both tables, i.e., the number of occurrences of each (unknown) key in each
+ * table. In particular it leaks the size of the result. It does not leak the key values or which
+ * input rows are joined, since the rows are shuffled before the cipher texts are opened.</p>
+ */
+public class MiMCJoin implements Computation<Matrix<DRes<SInt>>, ProtocolBuilderNumeric> {
+
+  private final DRes<Matrix<DRes<SInt>>> left;
+  private final int leftKeyColIdx;
+  private final DRes<Matrix<DRes<SInt>>> right;
+  private final int rightKeyColIdx;
+
+  /**
+   * Constructs a new join. Each row of the result holds all columns of the left row followed by
+   * all columns of the right row except the key column.
+   *
+   * @param left the left table
+   * @param leftKeyColIdx the column of the left table to join on
+   * @param right the right table
+   * @param rightKeyColIdx the column of the right table to join on
+   */
+  public MiMCJoin(DRes<Matrix<DRes<SInt>>> left, int leftKeyColIdx,
+      DRes<Matrix<DRes<SInt>>> right, int rightKeyColIdx) {
+    this.left = left;
+    this.leftKeyColIdx = leftKeyColIdx;
+    this.right = right;
+    this.rightKeyColIdx = rightKeyColIdx;
+  }
+
+  @Override
+  public DRes<Matrix<DRes<SInt>>> buildComputation(ProtocolBuilderNumeric builder) {
+    Matrix<DRes<SInt>> leftRows = left.out();
+    Matrix<DRes<SInt>> rightRows = right.out();
+    if (leftRows.getHeight() == 0 || rightRows.getHeight() == 0) {
+      int width = Math.max(0, leftRows.getWidth() + rightRows.getWidth() - 1);
+      return () -> new Matrix<>(0, width, new ArrayList<>());
+    }
+    checkKeyColumn(leftRows, leftKeyColIdx);
+    checkKeyColumn(rightRows, rightKeyColIdx);
+    final int width = leftRows.getWidth() + rightRows.getWidth() - 1;
+    // shuffle both tables
+    DRes<Matrix<DRes<SInt>>> leftShuffled = builder.collections().shuffle(left);
+    DRes<Matrix<DRes<SInt>>> rightShuffled = builder.collections().shuffle(right);
+    // generate encryption key
+    DRes<SInt> mimcKey = builder.numeric().randomElement();
+    return builder.seq(seq -> {
+      // encrypt the keys of both tables in a single batch and reveal the cipher texts
+      List<DRes<SInt>> keys = new ArrayList<>(leftRows.getHeight() + rightRows.getHeight());
+      keys.addAll(leftShuffled.out().getColumn(leftKeyColIdx));
+      keys.addAll(rightShuffled.out().getColumn(rightKeyColIdx));
+      DRes<List<DRes<SInt>>> cipherTexts = seq.seq(new MiMCEncryptionBatch(keys, mimcKey));
+      return seq.collections().openList(cipherTexts);
+    }).seq((seq, ciphers) -> {
+      // use cipher texts to join the tables "in-the-clear"
+      List<ArrayList<DRes<SInt>>> leftShuffledRows = leftShuffled.out().getRows();
+      List<ArrayList<DRes<SInt>>> rightShuffledRows = rightShuffled.out().getRows();
+      Map<BigInteger, List<ArrayList<DRes<SInt>>>> leftByCipher = new HashMap<>();
+      for (int i = 0; i < leftShuffledRows.size(); i++) {
+        BigInteger cipher = ciphers.get(i).out();
+        leftByCipher.computeIfAbsent(cipher, c -> new ArrayList<>())
+            .add(leftShuffledRows.get(i));
+      }
+      ArrayList<ArrayList<DRes<SInt>>> joined = new ArrayList<>();
+      for (int i = 0; i < rightShuffledRows.size(); i++) {
+        BigInteger cipher = ciphers.get(leftShuffledRows.size() + i).out();
+        List<ArrayList<DRes<SInt>>> matches = leftByCipher.get(cipher);
+        if (matches != null) {
+          ArrayList<DRes<SInt>> rightRow = rightShuffledRows.get(i);
+          for (ArrayList<DRes<SInt>> leftRow : matches) {
+            joined.add(joinRows(leftRow, rightRow, width));
+          }
+        }
+      }
+      return () -> new Matrix<>(joined.size(), width, joined);
+    });
+  }
+
+  private ArrayList<DRes<SInt>> joinRows(List<DRes<SInt>> leftRow, List<DRes<SInt>> rightRow,
+      int width) {
+    ArrayList<DRes<SInt>> row = new ArrayList<>(width);
+    row.addAll(leftRow);
+    for (int j = 0; j < rightRow.size(); j++) {
+      if (j != rightKeyColIdx) {
+        row.add(rightRow.get(j));
+      }
+    }
+    return row;
+  }
+
+  private static void checkKeyColumn(Matrix<DRes<SInt>> table, int keyColIdx) {
+    if (keyColIdx < 0 || keyColIdx >= table.getWidth()) {
+      throw new IllegalArgumentException("Key column index out of bounds: " + keyColIdx);
+    }
+  }
+}
@@ -0,0 +1,249 @@
+package dk.alexandra.fresco.lib.collections.relational;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.collections.Matrix;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Performs a SQL-like group-by operation computing a number of aggregates (see
+ * {@link AggregationType}) over the value columns of each group.
+ *
+ * <p>The rows are first sorted by the group column (see
+ * {@link dk.alexandra.fresco.lib.collections.sort.QuickSortRows}) and the start of each group is
+ * found by comparing neighboring keys. The aggregates are then computed using a segmented
+ * inclusive scan with a Kogge-Stone network, i.e., using a logarithmic number of layers in the
+ * number of rows, such that the last row of each group holds the aggregates of the group.
+ * Finally, the rows are shuffled and a secret flag marking the last row of each group is opened in
+ * order to select the result rows.</p>
+ *
+ * <p>Unlike {@link MiMCAggregation} this does not reveal which rows share a group. The only
+ * information revealed is the number of groups, i.e., the size of the result.</p>
+ */
+public class SortingAggregation implements
+    Computation<Matrix<DRes<SInt>>, ProtocolBuilderNumeric> {
+
+  private final DRes<Matrix<DRes<SInt>>> values;
+  private final int groupColIdx;
+  private final List<Pair<Integer, AggregationType>> aggregations;
+
+  /**
+   * Constructs a new aggregation. The result has a row for each group holding the group key
+   * followed by the aggregates in the order given.
+   *
+   * @param values rows to be aggregated
+   * @param groupColIdx column to group by
+   * @param aggregations pairs of the column to aggregate and the aggregate function to use
+   */
+  public SortingAggregation(DRes<Matrix<DRes<SInt>>> values, int groupColIdx,
+      List<Pair<Integer, AggregationType>> aggregations) {
+    this.values = values;
+    this.groupColIdx = groupColIdx;
+    this.aggregations = aggregations;
+  }
+
+  @Override
+  public DRes<Matrix<DRes<SInt>>> buildComputation(ProtocolBuilderNumeric builder) {
+    Matrix<DRes<SInt>> input = values.out();
+    final int height = input.getHeight();
+    final int width = aggregations.size() + 1;
+    if (height == 0) {
+      return () -> new Matrix<>(0, width, new ArrayList<>());
+    }
+    checkColumn(input, groupColIdx, "Group");
+    for (Pair<Integer, AggregationType> aggregation : aggregations) {
+      checkColumn(input, aggregation.getFirst(), "Aggregation");
+    }
+    final BigInteger one = BigInteger.ONE;
+    return builder.seq(seq -> seq.collections().sort(values, groupColIdx)
+    ).seq((seq, sorted) -> {
+      List<DRes<SInt>> keys = sorted.getColumn(groupColIdx);
+      DRes<List<DRes<SInt>>> equalities = seq.par(par -> {
+        List<DRes<SInt>> result = new ArrayList<>(height - 1);
+        for (int i = 1; i < height; i++) {
+          result.add(par.comparison().equals(keys.get(i - 1), keys.get(i)));
+        }
+        return () -> result;
+      });
+      return seq.seq(inner -> {
+        Numeric numeric = inner.numeric();
+        // a row starts a new group if its key differs from the key of the previous row
+        List<DRes<SInt>> starts = new ArrayList<>(height);
+        starts.add(numeric.known(one));
+        for (DRes<SInt> equal : equalities.out()) {
+          starts.add(numeric.sub(one, equal));
+        }
+        List<List<DRes<SInt>>> aggregates = new ArrayList<>(aggregations.size());
+        for (Pair<Integer, AggregationType> aggregation : aggregations) {
+          if (aggregation.getSecond() == AggregationType.COUNT) {
+            List<DRes<SInt>> ones = new ArrayList<>(height);
+            for (int i = 0; i < height; i++) {
+              ones.add(numeric.known(one));
+            }
+            aggregates.add(ones);
+          } else {
+            aggregates.add(sorted.getColumn(aggregation.getFirst()));
+          }
+        }
+        return new IterationState(1, keys, starts, starts, aggregates);
+      });
+    }).whileLoop((state) -> state.distance < height, this::scanLayer
+    ).seq((seq, state) -> {
+      // the last row of a group is the row before the start of the next group
+      ArrayList<ArrayList<DRes<SInt>>> rows = new ArrayList<>(height);
+      for (int i = 0; i < height; i++) {
+        ArrayList<DRes<SInt>> row = new ArrayList<>(width + 1);
+        row.add(state.keys.get(i));
+        for (List<DRes<SInt>> aggregate : state.aggregates) {
+          row.add(aggregate.get(i));
+        }
+        row.add(i < height - 1 ? state.starts.get(i + 1) : seq.numeric().known(one));
+        rows.add(row);
+      }
+      Matrix<DRes<SInt>> marked = new Matrix<>(height, width + 1, rows);
+      return seq.collections().shuffle(() -> marked);
+    }).seq((seq, shuffled) -> {
+      DRes<List<DRes<BigInteger>>> isLast =
+          seq.collections().openList(() -> shuffled.getColumn(width));
+      return seq.seq(inner -> {
+        ArrayList<ArrayList<DRes<SInt>>> rows = new ArrayList<>();
+        List<DRes<BigInteger>> opened = isLast.out();
+        for (int i = 0; i < height; i++) {
+          if (opened.get(i).out().signum() != 0) {
+            rows.add(new ArrayList<>(shuffled.getRow(i).subList(0, width)));
+          }
+        }
+        Matrix<DRes<SInt>> result = new Matrix<>(rows.size(), width, rows);
+        return () -> result;
+      });
+    });
+  }
+
+  /**
+   * Applies a single layer of the segmented scan, combining each row with the row
+   * <code>distance</code> rows before it unless a group starts in between.
+   */
+  private DRes<IterationState> scanLayer(ProtocolBuilderNumeric builder, IterationState state) {
+    final int distance = state.distance;
+    final int height = state.keys.size();
+    final BigInteger one = BigInteger.ONE;
+    return builder.par(par -> {
+      // compare all neighbors for min and max aggregates in a single bulk comparison
+      List<DRes<SInt>> left = new ArrayList<>();
+      List<DRes<SInt>> right = new ArrayList<>();
+      for (int j = 0; j < aggregations.size(); j++) {
+        if (isComparing(j)) {
+          List<DRes<SInt>> aggregate = state.aggregates.get(j);
+          left.addAll(aggregate.subList(0, height - distance));
+          right.addAll(aggregate.subList(distance, height));
+        }
+      }
+      DRes<List<DRes<SInt>>> comparisons = par.comparison().compareLEQ(left, right);
+
+      List<DRes<SInt>> flags = new ArrayList<>(state.flags.subList(0, distance));
+      for (int i = distance; i < height; i++) {
+        DRes<SInt> first = state.flags.get(i - distance);
+        DRes<SInt> second = state.flags.get(i);
+        flags.add(par.seq(seq -> {
+          Numeric numeric = seq.numeric();
+          DRes<SInt> product = numeric.mult(first, second);
+          return numeric.sub(numeric.add(first, second), product);
+        }));
+      }
+      // for sums this is the final value, for min and max the value to conditionally add
+      List<List<DRes<SInt>>> partials = new ArrayList<>(aggregations.size());
+      for (int j = 0; j < aggregations.size(); j++) {
+        List<DRes<SInt>> aggregate = state.aggregates.get(j);
+        List<DRes<SInt>> partial = new ArrayList<>(aggregate.subList(0, distance));
+        for (int i = distance; i < height; i++) {
+          DRes<SInt> previous = aggregate.get(i - distance);
+          DRes<SInt> current = aggregate.get(i);
+          DRes<SInt> flag = state.flags.get(i);
+          boolean comparing = isComparing(j);
+          partial.add(par.seq(seq -> {
+            Numeric numeric = seq.numeric();
+            DRes<SInt> notStarted = numeric.sub(one, flag);
+            if (comparing) {
+              return numeric.mult(notStarted, numeric.sub(previous, current));
+            } else {
+              return numeric.add(current, numeric.mult(notStarted, previous));
+            }
+          }));
+        }
+        partials.add(partial);
+      }
+      IterationState partialState =
+          new IterationState(2 * distance, state.keys, state.starts, flags, partials);
+      return () -> new Pair<>(partialState, comparisons.out());
+    }).par((par, pair) -> {
+      IterationState partialState = pair.getFirst();
+      List<DRes<SInt>> comparisons = pair.getSecond();
+      List<List<DRes<SInt>>> aggregates = new ArrayList<>(aggregations.size());
+      int comparisonIdx = 0;
+      for (int j = 0; j < aggregations.size(); j++) {
+        List<DRes<SInt>> partial = partialState.aggregates.get(j);
+        if (!isComparing(j)) {
+          aggregates.add(partial);
+          continue;
+        }
+        boolean isMin = aggregations.get(j).getSecond() == AggregationType.MIN;
+        List<DRes<SInt>> current = state.aggregates.get(j);
+        List<DRes<SInt>> aggregate = new ArrayList<>(current.subList(0, distance));
+        for (int i = distance; i < height; i++) {
+          DRes<SInt> leq = comparisons.get(comparisonIdx++);
+          DRes<SInt> value = current.get(i);
+          DRes<SInt> difference = partial.get(i);
+          aggregate.add(par.seq(seq -> {
+            // for min take previous if previous <= current, for max take it otherwise
+            Numeric numeric = seq.numeric();
+            DRes<SInt> takePrevious = isMin ? leq : numeric.sub(one, leq);
+            return numeric.add(value, numeric.mult(takePrevious, difference));
+          }));
+        }
+        aggregates.add(aggregate);
+      }
+      return () -> new IterationState(partialState.distance, state.keys, state.starts,
+          partialState.flags, aggregates);
+    });
+  }
+
+  private boolean isComparing(int aggregationIdx) {
+    AggregationType type = aggregations.get(aggregationIdx).getSecond();
+    return type == AggregationType.MIN || type == AggregationType.MAX;
+  }
+
+  private static void checkColumn(Matrix<DRes<SInt>> table, int colIdx, String name) {
+    if (colIdx < 0 || colIdx >= table.getWidth()) {
+      throw new IllegalArgumentException(name + " column index out of bounds: " + colIdx);
+    }
+  }
+
+  private static final class IterationState implements DRes<IterationState> {
+
+    private final int distance;
+    private final List<DRes<SInt>> keys;
+    private final List<DRes<SInt>> starts;
+    private final List<DRes<SInt>> flags;
+    private final List<List<DRes<SInt>>> aggregates;
+
+    private IterationState(int distance, List<DRes<SInt>> keys, List<DRes<SInt>> starts,
+        List<DRes<SInt>> flags, List<List<DRes<SInt>>> aggregates) {
+      this.distance = distance;
+      this.keys = keys;
+      this.starts = starts;
+      this.flags = flags;
+      this.aggregates = aggregates;
+    }
+
+    @Override
+    public IterationState out() {
+      return this;
+    }
+  }
+}
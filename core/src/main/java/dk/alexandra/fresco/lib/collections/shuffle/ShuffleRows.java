@@ -2,15 +2,27 @@ package dk.alexandra.fresco.lib.collections.shuffle;
 
 import dk.alexandra.fresco.framework.DRes;
 import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.collections.Matrix;
+import dk.alexandra.fresco.lib.collections.permute.WaksmanUtils;
+import java.math.BigInteger;
 import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
+/**
+ * Randomly permutes the rows of a matrix, such that no party learns the permutation.
+ *
+ * <p>Each party in turn permutes the rows using a random permutation of its choice. Since the
+ * underlying permutation network only supports a power of two number of rows, other sizes are
+ * padded with dummy rows which are marked by an additional column. The marker column is opened
+ * after the shuffle in order to remove the dummy rows, which only reveals the (random) positions of
+ * the dummy rows.</p>
+ */
 public class ShuffleRows implements Computation<Matrix<DRes<SInt>>, ProtocolBuilderNumeric> {
 
   final private DRes<Matrix<DRes<SInt>>> values;
@@ -51,6 +63,9 @@ public class ShuffleRows implements Computation<Matrix<DRes<SInt>>, ProtocolBuil
     if (height < 2) {
       return values;
     }
+    if (!new WaksmanUtils().isPow2(height)) {
+      return shufflePadded(builder, valuesOut);
+    }
     final int pid = builder.getBasicNumericContext().getMyId();
     final int numPids = builder.getBasicNumericContext().getNoOfParties();
 
@@ -68,6 +83,48 @@ public class ShuffleRows implements Computation<Matrix<DRes<SInt>>, ProtocolBuil
     }).seq((seq, state) -> state.intermediate);
   }
 
+  private DRes<Matrix<DRes<SInt>>> shufflePadded(ProtocolBuilderNumeric builder,
+      Matrix<DRes<SInt>> valuesOut) {
+    final int height = valuesOut.getHeight();
+    final int width = valuesOut.getWidth();
+    final int paddedHeight = Integer.highestOneBit(height) << 1;
+    return builder.seq(seq -> {
+      // add a column marking real rows and pad with dummy rows to reach a power of two
+      Numeric numeric = seq.numeric();
+      DRes<SInt> one = numeric.known(BigInteger.ONE);
+      DRes<SInt> zero = numeric.known(BigInteger.ZERO);
+      ArrayList<ArrayList<DRes<SInt>>> rows = new ArrayList<>(paddedHeight);
+      for (ArrayList<DRes<SInt>> row : valuesOut.getRows()) {
+        ArrayList<DRes<SInt>> marked = new ArrayList<>(row);
+        marked.add(one);
+        rows.add(marked);
+      }
+      for (int i = height; i < paddedHeight; i++) {
+        ArrayList<DRes<SInt>> dummy = new ArrayList<>(width + 1);
+        for (int j = 0; j <= width; j++) {
+          dummy.add(zero);
+        }
+        rows.add(dummy);
+      }
+      Matrix<DRes<SInt>> padded = new Matrix<>(paddedHeight, width + 1, rows);
+      return seq.seq(new ShuffleRows(() -> padded, rand));
+    }).seq((seq, shuffled) -> {
+      DRes<List<DRes<BigInteger>>> markers =
+          seq.collections().openList(() -> shuffled.getColumn(width));
+      return seq.seq(inner -> {
+        ArrayList<ArrayList<DRes<SInt>>> rows = new ArrayList<>(height);
+        List<DRes<BigInteger>> opened = markers.out();
+        for (int i = 0; i < paddedHeight; i++) {
+          if (opened.get(i).out().signum() != 0) {
+            rows.add(new ArrayList<>(shuffled.getRow(i).subList(0, width)));
+          }
+        }
+        Matrix<DRes<SInt>> result = new Matrix<>(height, width, rows);
+        return () -> result;
+      });
+    });
+  }
+
   private static final class IterationState implements DRes<IterationState> {
 
     private final int round;
@@ -0,0 +1,163 @@
+package dk.alexandra.fresco.lib.collections.sort;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.collections.Matrix;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sorts the rows of a matrix in ascending order of the values in a key column using
+ * shuffle-then-sort.
+ *
+ * <p>The rows are first shuffled obliviously (see
+ * {@link dk.alexandra.fresco.lib.collections.shuffle.ShuffleRows}) after which a quicksort is run
+ * where the results of the comparisons are opened. All partitions of a level of the quicksort are
+ * compared against their pivots using a single bulk comparison, so the sort uses an expected
+ * O(log n) number of comparison layers and O(n log n) comparisons in total.</p>
+ *
+ * <p>Ties between equal keys are broken by the (random) position of the rows after the shuffle.
+ * The opened comparisons therefore reveal the order of a random permutation of distinct elements,
+ * which can be simulated knowing only the number of rows. Consequently the sort is not stable.</p>
+ */
+public class QuickSortRows implements Computation<Matrix<DRes<SInt>>, ProtocolBuilderNumeric> {
+
+  private final DRes<Matrix<DRes<SInt>>> values;
+  private final int keyColIdx;
+
+  /**
+   * Constructs a new sorting computation.
+   *
+   * @param values rows to sort
+   * @param keyColIdx the index of the column to sort by
+   */
+  public QuickSortRows(DRes<Matrix<DRes<SInt>>> values, int keyColIdx) {
+    this.values = values;
+    this.keyColIdx = keyColIdx;
+  }
+
+  @Override
+  public DRes<Matrix<DRes<SInt>>> buildComputation(ProtocolBuilderNumeric builder) {
+    Matrix<DRes<SInt>> input = values.out();
+    final int height = input.getHeight();
+    final int width = input.getWidth();
+    if (height < 2) {
+      return values;
+    }
+    if (keyColIdx < 0 || keyColIdx >= width) {
+      throw new IllegalArgumentException("Key column index out of bounds: " + keyColIdx);
+    }
+    return builder.seq(seq -> seq.collections().shuffle(values)
+    ).seq((seq, shuffled) -> {
+      List<ArrayList<DRes<SInt>>> rows = shuffled.getRows();
+      List<List<Integer>> initial = new ArrayList<>(1);
+      List<Integer> all = new ArrayList<>(rows.size());
+      for (int i = 0; i < rows.size(); i++) {
+        all.add(i);
+      }
+      initial.add(all);
+      return new IterationState(rows, initial);
+    }).whileLoop((state) -> !state.isSorted(), (seq, state) -> {
+      // compare every element of an unsorted partition against the first element of it
+      List<DRes<SInt>> left = new ArrayList<>();
+      List<DRes<SInt>> right = new ArrayList<>();
+      for (List<Integer> partition : state.partitions) {
+        if (partition.size() > 1) {
+          int pivot = partition.get(0);
+          for (int idx : partition.subList(1, partition.size())) {
+            // idx precedes pivot if key(idx) < key(pivot), or if the keys are equal and idx < pivot
+            if (idx < pivot) {
+              left.add(state.getKey(idx, keyColIdx));
+              right.add(state.getKey(pivot, keyColIdx));
+            } else {
+              left.add(state.getKey(pivot, keyColIdx));
+              right.add(state.getKey(idx, keyColIdx));
+            }
+          }
+        }
+      }
+      DRes<List<DRes<SInt>>> comparisons =
+          seq.par(par -> par.comparison().compareLEQ(left, right));
+      DRes<List<DRes<BigInteger>>> opened = seq.collections().openList(comparisons);
+      return seq.seq(inner -> state.partition(opened.out()));
+    }).seq((seq, state) -> () -> state.toMatrix(width));
+  }
+
+  private static final class IterationState implements DRes<IterationState> {
+
+    private final List<ArrayList<DRes<SInt>>> rows;
+    private final List<List<Integer>> partitions;
+
+    private IterationState(List<ArrayList<DRes<SInt>>> rows, List<List<Integer>> partitions) {
+      this.rows = rows;
+      this.partitions = partitions;
+    }
+
+    private DRes<SInt> getKey(int idx, int keyColIdx) {
+      return rows.get(idx).get(keyColIdx);
+    }
+
+    private boolean isSorted() {
+      for (List<Integer> partition : partitions) {
+        if (partition.size() > 1) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Splits all unsorted partitions around their pivots given the opened comparisons, which are
+     * ordered as constructed in the loop body.
+     */
+    private IterationState partition(List<DRes<BigInteger>> comparisons) {
+      List<List<Integer>> next = new ArrayList<>();
+      int comparisonIdx = 0;
+      for (List<Integer> partition : partitions) {
+        if (partition.size() == 1) {
+          next.add(partition);
+          continue;
+        }
+        int pivot = partition.get(0);
+        List<Integer> smaller = new ArrayList<>();
+        List<Integer> larger = new ArrayList<>();
+        for (int idx : partition.subList(1, partition.size())) {
+          boolean leq = comparisons.get(comparisonIdx++).out().signum() != 0;
+          // for idx < pivot the comparison was key(idx) <= key(pivot), otherwise the converse
+          boolean precedesPivot = idx < pivot ? leq : !leq;
+          if (precedesPivot) {
+            smaller.add(idx);
+          } else {
+            larger.add(idx);
+          }
+        }
+        if (!smaller.isEmpty()) {
+          next.add(smaller);
+        }
+        List<Integer> pivotPartition = new ArrayList<>(1);
+        pivotPartition.add(pivot);
+        next.add(pivotPartition);
+        if (!larger.isEmpty()) {
+          next.add(larger);
+        }
+      }
+      return new IterationState(rows, next);
+    }
+
+    private Matrix<DRes<SInt>> toMatrix(int width) {
+      ArrayList<ArrayList<DRes<SInt>>> sorted = new ArrayList<>(rows.size());
+      for (List<Integer> partition : partitions) {
+        sorted.add(rows.get(partition.get(0)));
+      }
+      return new Matrix<>(sorted.size(), width, sorted);
+    }
+
+    @Override
+    public IterationState out() {
+      return this;
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package dk.alexandra.fresco.lib.compare.lt;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.value.SInt;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Given a public value c and the secret shared bits of a value r computes [c &lt; r].
+ *
+ * <p>The computation XORs the bits of c onto the bits of r, which is a linear operation since c is
+ * public, and then finds the most significant bit position where the two values differ using a
+ * {@link PrefixOr} starting from the most significant bit. At that position c is smaller exactly
+ * if its bit is 0, so the result is a sum of the positions where c has a 0 bit. The protocol thus
+ * uses the same number of rounds as the prefix-OR, i.e., logarithmic in the bit length.</p>
+ */
+public class BitLessThanOpen implements Computation<SInt, ProtocolBuilderNumeric> {
+
+  private final BigInteger openValue;
+  private final List<DRes<SInt>> secretBits;
+
+  /**
+   * Constructs a new comparison of a public value and a bit decomposed secret value.
+   *
+   * @param openValue the public value c, must be non-negative and less than 2^secretBits.size()
+   * @param secretBits the bits of the secret value r, ordered from least to most significant bit
+   */
+  public BitLessThanOpen(BigInteger openValue, List<DRes<SInt>> secretBits) {
+    this.openValue = openValue;
+    this.secretBits = secretBits;
+  }
+
+  @Override
+  public DRes<SInt> buildComputation(ProtocolBuilderNumeric builder) {
+    final int length = secretBits.size();
+    final BigInteger one = BigInteger.ONE;
+    return builder.seq(seq -> {
+      Numeric numeric = seq.numeric();
+      // xor with the public bits ordered from most to least significant bit
+      List<DRes<SInt>> xor = new ArrayList<>(length);
+      for (int i = length - 1; i >= 0; i--) {
+        if (openValue.testBit(i)) {
+          xor.add(numeric.sub(one, secretBits.get(i)));
+        } else {
+          xor.add(secretBits.get(i));
+        }
+      }
+      return seq.seq(new PrefixOr(xor));
+    }).seq((seq, prefixes) -> {
+      // prefixes[j] - prefixes[j - 1] is 1 only at the first differing (most significant) bit
+      Numeric numeric = seq.numeric();
+      DRes<SInt> result = numeric.known(BigInteger.ZERO);
+      DRes<SInt> previous = null;
+      for (int j = 0; j < length; j++) {
+        DRes<SInt> current = prefixes.get(j);
+        if (!openValue.testBit(length - 1 - j)) {
+          DRes<SInt> firstDiff = previous == null ? current : numeric.sub(current, previous);
+          result = numeric.add(result, firstDiff);
+        }
+        previous = current;
+      }
+      return result;
+    });
+  }
+}
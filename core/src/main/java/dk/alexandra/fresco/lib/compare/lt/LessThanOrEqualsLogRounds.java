@@ -0,0 +1,78 @@
+package dk.alexandra.fresco.lib.compare.lt;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.value.SInt;
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * Computes x &lt;= y for two secret values of a given maximum bit length using a logarithmic
+ * number of rounds.
+ *
+ * <p>The computation masks and opens z = 2^bitLength + y - x using a random value r whose lower
+ * bitLength bits are available in shared form. The result is the bit at position bitLength of z,
+ * which is found by computing z mod 2^bitLength from the opened value and a single bitwise
+ * comparison ({@link BitLessThanOpen}) of the opened lower bits and the lower bits of r. Apart from
+ * the opening, all interaction happens in the prefix-OR of the bitwise comparison.</p>
+ *
+ * <p>This requires the modulus to be larger than 2^(bitLength + securityParameter + 1).</p>
+ */
+public class LessThanOrEqualsLogRounds implements Computation<SInt, ProtocolBuilderNumeric> {
+
+  private final int bitLength;
+  private final int securityParameter;
+  private final DRes<SInt> x;
+  private final DRes<SInt> y;
+
+  /**
+   * Constructs a new comparison computing x &lt;= y.
+   *
+   * @param bitLength the maximum bit length of the inputs
+   * @param securityParameter the statistical security parameter used for masking
+   * @param x the left hand side of the comparison
+   * @param y the right hand side of the comparison
+   */
+  public LessThanOrEqualsLogRounds(int bitLength, int securityParameter, DRes<SInt> x,
+      DRes<SInt> y) {
+    this.bitLength = bitLength;
+    this.securityParameter = securityParameter;
+    this.x = x;
+    this.y = y;
+  }
+
+  @Override
+  public DRes<SInt> buildComputation(ProtocolBuilderNumeric builder) {
+    final BigInteger modulus = builder.getBasicNumericContext().getModulus();
+    final BigInteger twoToBitLength = BigInteger.ONE.shiftLeft(bitLength);
+    final BigInteger twoToNegBitLength = twoToBitLength.modInverse(modulus);
+
+    return builder.seq(seq -> seq.advancedNumeric().additiveMask(bitLength + securityParameter))
+        .seq((seq, mask) -> {
+          List<DRes<SInt>> bottomBits = mask.bits.subList(0, bitLength);
+          List<BigInteger> twoPows = seq.getBigIntegerHelper().getTwoPowersList(bitLength);
+          DRes<SInt> rBottom = seq.advancedNumeric()
+              .innerProductWithPublicPart(twoPows, bottomBits);
+
+          // z = 2^bitLength + y - x, open z + r
+          Numeric numeric = seq.numeric();
+          DRes<SInt> z = numeric.add(twoToBitLength, numeric.sub(y, x));
+          DRes<BigInteger> masked = numeric.open(numeric.add(z, () -> mask.random));
+
+          return seq.seq(inner -> {
+            BigInteger maskedBottom = masked.out().mod(twoToBitLength);
+            // u = 1 if and only if the lower bits of the opened value wrapped around
+            DRes<SInt> u = inner.seq(new BitLessThanOpen(maskedBottom, bottomBits));
+            Numeric innerNumeric = inner.numeric();
+            // z mod 2^bitLength = (c mod 2^bitLength) - (r mod 2^bitLength) + 2^bitLength * u
+            DRes<SInt> zBottom = innerNumeric.add(
+                innerNumeric.sub(maskedBottom, rBottom),
+                innerNumeric.mult(twoToBitLength, u));
+            // (z - (z mod 2^bitLength)) / 2^bitLength is the bit at position bitLength of z
+            return innerNumeric.mult(twoToNegBitLength, innerNumeric.sub(z, zBottom));
+          });
+        });
+  }
+}
@@ -0,0 +1,71 @@
+package dk.alexandra.fresco.lib.compare.lt;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.value.SInt;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Computes all prefix-ORs of a list of secret shared bits, i.e., given bits a<sub>0</sub>, ...,
+ * a<sub>n-1</sub> computes p<sub>i</sub> = a<sub>0</sub> OR ... OR a<sub>i</sub> for all i.
+ *
+ * <p>The prefixes are computed using a Kogge-Stone style parallel prefix network, meaning that
+ * the protocol uses ceil(log<sub>2</sub>(n)) rounds of multiplications. The bits are assumed to be
+ * either 0 or 1, such that a OR b can be computed as a + b - ab.</p>
+ */
+public class PrefixOr implements Computation<List<DRes<SInt>>, ProtocolBuilderNumeric> {
+
+  private final List<DRes<SInt>> bits;
+
+  /**
+   * Constructs a new prefix-OR computation.
+   *
+   * @param bits the secret shared bits, the prefixes are taken starting from index 0
+   */
+  public PrefixOr(List<DRes<SInt>> bits) {
+    this.bits = bits;
+  }
+
+  @Override
+  public DRes<List<DRes<SInt>>> buildComputation(ProtocolBuilderNumeric builder) {
+    final int length = bits.size();
+    return builder.seq(seq -> new IterationState(1, bits))
+        .whileLoop((state) -> state.distance < length, (seq, state) -> {
+          int distance = state.distance;
+          List<DRes<SInt>> previous = state.prefixes;
+          DRes<List<DRes<SInt>>> next = seq.par(par -> {
+            List<DRes<SInt>> prefixes = new ArrayList<>(previous.subList(0, distance));
+            for (int i = distance; i < length; i++) {
+              DRes<SInt> left = previous.get(i);
+              DRes<SInt> right = previous.get(i - distance);
+              prefixes.add(par.seq(inner -> {
+                Numeric numeric = inner.numeric();
+                DRes<SInt> product = numeric.mult(left, right);
+                return numeric.sub(numeric.add(left, right), product);
+              }));
+            }
+            return () -> prefixes;
+          });
+          return () -> new IterationState(2 * distance, next.out());
+        }).seq((seq, state) -> () -> state.prefixes);
+  }
+
+  private static final class IterationState implements DRes<IterationState> {
+
+    private final int distance;
+    private final List<DRes<SInt>> prefixes;
+
+    private IterationState(int distance, List<DRes<SInt>> prefixes) {
+      this.distance = distance;
+      this.prefixes = prefixes;
+    }
+
+    @Override
+    public IterationState out() {
+      return this;
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package dk.alexandra.fresco.lib.crypto.mimc;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.value.SInt;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Raises a list of secret values to the same open exponent using square-and-multiply, such that
+ * each step of the exponentiation is a single layer of multiplications across all values.
+ */
+final class BatchedExponentiation implements Computation<List<DRes<SInt>>, ProtocolBuilderNumeric> {
+
+  private final List<DRes<SInt>> bases;
+  private final BigInteger exponent;
+
+  /**
+   * Creates a new batched exponentiation.
+   *
+   * @param bases the secret bases
+   * @param exponent the open exponent, must be strictly larger than 0
+   */
+  BatchedExponentiation(List<DRes<SInt>> bases, BigInteger exponent) {
+    if (exponent.signum() <= 0) {
+      throw new IllegalArgumentException(
+          "This computation does not support exponent being equal to or less than 0");
+    }
+    this.bases = bases;
+    this.exponent = exponent;
+  }
+
+  @Override
+  public DRes<List<DRes<SInt>>> buildComputation(ProtocolBuilderNumeric builder) {
+    return builder.seq(seq -> new IterationState(exponent, bases, null)
+    ).whileLoop((state) -> !state.exponent.equals(BigInteger.ONE), (seq, state) ->
+        seq.par(par -> {
+          Numeric numeric = par.numeric();
+          boolean odd = state.exponent.testBit(0);
+          List<DRes<SInt>> accEven = new ArrayList<>(state.accEven.size());
+          List<DRes<SInt>> accOdd = odd ? new ArrayList<>(state.accEven.size()) : state.accOdd;
+          for (int i = 0; i < state.accEven.size(); i++) {
+            DRes<SInt> even = state.accEven.get(i);
+            if (odd) {
+              accOdd.add(state.accOdd == null ? even : numeric.mult(state.accOdd.get(i), even));
+            }
+            accEven.add(numeric.mult(even, even));
+          }
+          IterationState next =
+              new IterationState(state.exponent.shiftRight(1), accEven, accOdd);
+          return () -> next;
+        })
+    ).par((par, state) -> {
+      if (state.accOdd == null) {
+        // In case we have a power of 2
+        return () -> state.accEven;
+      }
+      List<DRes<SInt>> result = new ArrayList<>(state.accEven.size());
+      for (int i = 0; i < state.accEven.size(); i++) {
+        result.add(par.numeric().mult(state.accEven.get(i), state.accOdd.get(i)));
+      }
+      return () -> result;
+    });
+  }
+
+  private static final class IterationState implements DRes<IterationState> {
+
+    private final BigInteger exponent;
+    private final List<DRes<SInt>> accEven;
+    private final List<DRes<SInt>> accOdd;
+
+    private IterationState(BigInteger exponent, List<DRes<SInt>> accEven,
+        List<DRes<SInt>> accOdd) {
+      this.exponent = exponent;
+      this.accEven = accEven;
+      this.accOdd = accOdd;
+    }
+
+    @Override
+    public IterationState out() {
+      return this;
+    }
+  }
+}
@@ -114,7 +114,7 @@ public class MiMCDecryption implements Computation<SInt, ProtocolBuilderNumeric>
     });
   }
 
-  private BigInteger getThreeInverse(BigInteger modulus) {
+  static BigInteger getThreeInverse(BigInteger modulus) {
     if (!threeInverse.containsKey(modulus)) {
       BigInteger expP = modulus.subtract(BigInteger.ONE);
       threeInverse.put(modulus, THREE.modInverse(expP));
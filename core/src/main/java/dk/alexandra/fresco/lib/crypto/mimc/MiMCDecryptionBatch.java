@@ -0,0 +1,136 @@
+package dk.alexandra.fresco.lib.crypto.mimc;
+
+import static dk.alexandra.fresco.lib.crypto.mimc.MiMCEncryption.USE_DEFAULT_ROUNDS;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.value.SInt;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MPC Decryption of a list of cipher texts MiMC encrypted under the same key. See
+ * {@link MiMCEncryptionBatch} for more information.
+ *
+ * <p>Each round is evaluated across all cipher texts in parallel, so the number of rounds of
+ * communication is the same as for decrypting a single cipher text using {@link MiMCDecryption}.
+ * </p>
+ */
+public class MiMCDecryptionBatch implements Computation<List<DRes<SInt>>, ProtocolBuilderNumeric> {
+
+  private final List<DRes<SInt>> cipherTexts;
+  private final DRes<SInt> encryptionKey;
+  private final int requestedRounds;
+  private final MimcRoundConstantFactory roundConstants;
+
+  /**
+   * Implementation of the batched MiMC decryption protocol.
+   *
+   * @param cipherTexts The secret-shared cipher texts to decrypt.
+   * @param encryptionKey The symmetric (secret-shared) key we will use to decrypt.
+   * @param requiredRounds The number of rounds to use.
+   * @param roundConstantFactory a factory to produce the round constants used in MiMC.
+   */
+  public MiMCDecryptionBatch(List<DRes<SInt>> cipherTexts, DRes<SInt> encryptionKey,
+      int requiredRounds, MimcRoundConstantFactory roundConstantFactory) {
+    this.cipherTexts = cipherTexts;
+    this.encryptionKey = encryptionKey;
+    this.requestedRounds = requiredRounds;
+    this.roundConstants = roundConstantFactory;
+  }
+
+  /**
+   * Implementation of the batched MiMC decryption protocol.
+   *
+   * @param cipherTexts The secret-shared cipher texts to decrypt.
+   * @param encryptionKey The symmetric (secret-shared) key we will use to decrypt.
+   * @param requiredRounds The number of rounds to use.
+   */
+  public MiMCDecryptionBatch(List<DRes<SInt>> cipherTexts, DRes<SInt> encryptionKey,
+      int requiredRounds) {
+    this(cipherTexts, encryptionKey, requiredRounds, new MimcConstants());
+  }
+
+  /**
+   * Implementation of the batched MiMC decryption protocol. Using default amount of rounds,
+   * log_3(modulus) rounded up.
+   *
+   * @param cipherTexts The secret-shared cipher texts to decrypt.
+   * @param encryptionKey The symmetric (secret-shared) key we will use to decrypt.
+   */
+  public MiMCDecryptionBatch(List<DRes<SInt>> cipherTexts, DRes<SInt> encryptionKey) {
+    this(cipherTexts, encryptionKey, USE_DEFAULT_ROUNDS);
+  }
+
+  @Override
+  public DRes<List<DRes<SInt>>> buildComputation(ProtocolBuilderNumeric builder) {
+    BigInteger modulus = builder.getBasicNumericContext().getModulus();
+    final int requiredRounds = MiMCEncryption.getRequiredRounds(modulus, requestedRounds);
+    final BigInteger threeInverse = MiMCDecryption.getThreeInverse(modulus);
+    if (cipherTexts.isEmpty()) {
+      return () -> new ArrayList<>();
+    }
+    return builder.seq(seq -> {
+      /*
+       * We're in the first round so we need to initialize by subtracting the key from the input
+       * cipher texts
+       */
+      List<DRes<SInt>> values = subtractFromAll(seq.numeric(), cipherTexts, encryptionKey);
+      return new IterationState(1, values);
+    }).whileLoop((state) -> state.round < requiredRounds, (seq, state) -> {
+      /*
+       * We're in an intermediate round where we compute c_{i} = c_{i - 1}^(3^(-1)) - (K + r_{i})
+       * using the reverse round count for the round constants
+       */
+      DRes<List<DRes<SInt>>> inverted =
+          seq.seq(new BatchedExponentiation(state.values, threeInverse));
+      return seq.seq(inner -> {
+        Numeric numeric = inner.numeric();
+        int reverseRoundCount = requiredRounds - state.round;
+        BigInteger roundConstant = roundConstants.getConstant(reverseRoundCount, modulus);
+        DRes<SInt> roundKey = numeric.add(roundConstant, encryptionKey);
+        List<DRes<SInt>> updated = subtractFromAll(numeric, inverted.out(), roundKey);
+        return new IterationState(state.round + 1, updated);
+      });
+    }).seq((seq, state) -> {
+      /*
+       * We're in the last round so we just need to compute c^{-3} - K
+       */
+      DRes<List<DRes<SInt>>> inverted =
+          seq.seq(new BatchedExponentiation(state.values, threeInverse));
+      return seq.seq(inner -> {
+        List<DRes<SInt>> plainTexts =
+            subtractFromAll(inner.numeric(), inverted.out(), encryptionKey);
+        return () -> plainTexts;
+      });
+    });
+  }
+
+  private static List<DRes<SInt>> subtractFromAll(Numeric numeric, List<DRes<SInt>> values,
+      DRes<SInt> term) {
+    List<DRes<SInt>> result = new ArrayList<>(values.size());
+    for (DRes<SInt> value : values) {
+      result.add(numeric.sub(value, term));
+    }
+    return result;
+  }
+
+  private static final class IterationState implements DRes<IterationState> {
+
+    private final int round;
+    private final List<DRes<SInt>> values;
+
+    private IterationState(int round, List<DRes<SInt>> values) {
+      this.round = round;
+      this.values = values;
+    }
+
+    @Override
+    public IterationState out() {
+      return this;
+    }
+  }
+}
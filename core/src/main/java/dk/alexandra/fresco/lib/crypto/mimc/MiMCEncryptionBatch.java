@@ -0,0 +1,128 @@
+package dk.alexandra.fresco.lib.crypto.mimc;
+
+import static dk.alexandra.fresco.lib.crypto.mimc.MiMCEncryption.USE_DEFAULT_ROUNDS;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.value.SInt;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MiMC encryption of a list of plain texts under the same key. See {@link MiMCEncryption} for more
+ * information.
+ *
+ * <p>This computes the same cipher texts as applying {@link MiMCEncryption} to each plain text, but
+ * evaluates each round across all plain texts as a single layer of multiplications. The sum of the
+ * key and the round constant is computed only once per round and shared by all plain texts, and the
+ * round constants are only sampled once.</p>
+ */
+public class MiMCEncryptionBatch implements Computation<List<DRes<SInt>>, ProtocolBuilderNumeric> {
+
+  private static final BigInteger THREE = BigInteger.valueOf(3);
+  private final List<DRes<SInt>> plainTexts;
+  private final DRes<SInt> encryptionKey;
+  private final int requestedRounds;
+  private final MimcRoundConstantFactory roundConstants;
+
+  /**
+   * Implementation of the batched MiMC encryption protocol.
+   *
+   * @param plainTexts The secret-shared plain texts to encrypt.
+   * @param encryptionKey The symmetric (secret-shared) key we will use to encrypt.
+   * @param requiredRounds The number of rounds to use.
+   * @param roundConstantFactory a factory to produce the round constants used in MiMC.
+   */
+  public MiMCEncryptionBatch(List<DRes<SInt>> plainTexts, DRes<SInt> encryptionKey,
+      int requiredRounds, MimcRoundConstantFactory roundConstantFactory) {
+    this.plainTexts = plainTexts;
+    this.encryptionKey = encryptionKey;
+    this.requestedRounds = requiredRounds;
+    this.roundConstants = roundConstantFactory;
+  }
+
+  /**
+   * Implementation of the batched MiMC encryption protocol.
+   *
+   * @param plainTexts The secret-shared plain texts to encrypt.
+   * @param encryptionKey The symmetric (secret-shared) key we will use to encrypt.
+   * @param requiredRounds The number of rounds to use.
+   */
+  public MiMCEncryptionBatch(List<DRes<SInt>> plainTexts, DRes<SInt> encryptionKey,
+      int requiredRounds) {
+    this(plainTexts, encryptionKey, requiredRounds, new MimcConstants());
+  }
+
+  /**
+   * Implementation of the batched MiMC encryption protocol. Using default amount of rounds,
+   * log_3(modulus) rounded up.
+   *
+   * @param plainTexts The secret-shared plain texts to encrypt.
+   * @param encryptionKey The symmetric (secret-shared) key we will use to encrypt.
+   */
+  public MiMCEncryptionBatch(List<DRes<SInt>> plainTexts, DRes<SInt> encryptionKey) {
+    this(plainTexts, encryptionKey, USE_DEFAULT_ROUNDS);
+  }
+
+  @Override
+  public DRes<List<DRes<SInt>>> buildComputation(ProtocolBuilderNumeric builder) {
+    BigInteger modulus = builder.getBasicNumericContext().getModulus();
+    final int requiredRounds = MiMCEncryption.getRequiredRounds(modulus, requestedRounds);
+    if (plainTexts.isEmpty()) {
+      return () -> new ArrayList<>();
+    }
+    return builder.seq(seq -> {
+      /*
+       * In the first round we compute c = (p + K)^{3} where p is the plaintext
+       */
+      List<DRes<SInt>> masked = addToAll(seq.numeric(), plainTexts, encryptionKey);
+      return seq.seq(new BatchedExponentiation(masked, THREE));
+    }).seq((seq, values) -> new IterationState(1, values)
+    ).whileLoop((state) -> state.round < requiredRounds, (seq, state) -> {
+      /*
+       * We're in an intermediate round where we compute c_{i} = (c_{i - 1} + K + r_{i})^{3} with
+       * K + r_{i} shared by all cipher texts
+       */
+      Numeric numeric = seq.numeric();
+      BigInteger roundConstant = roundConstants.getConstant(state.round, modulus);
+      DRes<SInt> roundKey = numeric.add(roundConstant, encryptionKey);
+      List<DRes<SInt>> masked = addToAll(numeric, state.values, roundKey);
+      DRes<List<DRes<SInt>>> updated = seq.seq(new BatchedExponentiation(masked, THREE));
+      return () -> new IterationState(state.round + 1, updated.out());
+    }).seq((seq, state) -> {
+      /*
+       * We're in the last round so we just mask the current cipher texts with the encryption key
+       */
+      List<DRes<SInt>> cipherTexts = addToAll(seq.numeric(), state.values, encryptionKey);
+      return () -> cipherTexts;
+    });
+  }
+
+  private static List<DRes<SInt>> addToAll(Numeric numeric, List<DRes<SInt>> values,
+      DRes<SInt> term) {
+    List<DRes<SInt>> result = new ArrayList<>(values.size());
+    for (DRes<SInt> value : values) {
+      result.add(numeric.add(value, term));
+    }
+    return result;
+  }
+
+  private static final class IterationState implements DRes<IterationState> {
+
+    private final int round;
+    private final List<DRes<SInt>> values;
+
+    private IterationState(int round, List<DRes<SInt>> values) {
+      this.round = round;
+      this.values = values;
+    }
+
+    @Override
+    public IterationState out() {
+      return this;
+    }
+  }
+}
@@ -40,7 +40,7 @@ public class Minimum implements
       Numeric numeric = builder.numeric();
       DRes<SInt> firstValue = this.xs.get(0);
       DRes<SInt> secondValue = this.xs.get(1);
-      DRes<SInt> firstCompare = comparison.compareLEQ(firstValue, secondValue);
+      DRes<SInt> firstCompare = comparison.compareLEQLogRounds(firstValue, secondValue);
       DRes<SInt> minimum = builder
           .seq(new ConditionalSelect(firstCompare, firstValue, secondValue));
       DRes<SInt> secondCompare = numeric
@@ -54,11 +54,11 @@ public class Minimum implements
       DRes<SInt> firstValue = this.xs.get(0);
       DRes<SInt> secondValue = this.xs.get(1);
       DRes<SInt> thirdValue = this.xs.get(2);
-      DRes<SInt> c1Prime = comparison.compareLEQ(firstValue, secondValue);
+      DRes<SInt> c1Prime = comparison.compareLEQLogRounds(firstValue, secondValue);
 
       DRes<SInt> m1 = builder.seq(new ConditionalSelect(c1Prime, firstValue, secondValue));
 
-      DRes<SInt> c2Prime = comparison.compareLEQ(m1, thirdValue);
+      DRes<SInt> c2Prime = comparison.compareLEQLogRounds(m1, thirdValue);
 
       DRes<SInt> m2 = builder.seq(new ConditionalSelect(c2Prime, m1, thirdValue));
 
@@ -86,7 +86,7 @@ public class Minimum implements
         SInt m1 = minimum1.getSecond();
         SInt m2 = minimum2.getSecond();
 
-        DRes<SInt> compare = comparison.compareLEQ(() -> m1, () -> m2);
+        DRes<SInt> compare = comparison.compareLEQLogRounds(() -> m1, () -> m2);
         DRes<SInt> oneMinusCompare = numeric.sub(one, compare);
         DRes<SInt> m = seq.seq(new ConditionalSelect(compare, () -> m1, () -> m2));
         DRes<List<DRes<SInt>>> enteringIndexes = seq.par((par) -> {
@@ -0,0 +1,97 @@
+package dk.alexandra.fresco.logging;
+
+import dk.alexandra.fresco.framework.ProtocolCollection;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchEvaluationStrategy;
+import dk.alexandra.fresco.framework.sce.evaluator.NetworkBatchDecorator;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+
+/**
+ * Records the latencies of the rounds of each batch in a {@link MetricsRegistry}.
+ *
+ * <p>A round ends when the batch evaluation strategy flushes the network. For each round this
+ * records the time spent computing locally, the time spent flushing (i.e., sending) and the time
+ * spent waiting to receive from each party. The total time spent on each batch is recorded as
+ * well.</p>
+ */
+public class BatchEvaluationLatencyDecorator<ResourcePoolT extends ResourcePool>
+    implements BatchEvaluationStrategy<ResourcePoolT> {
+
+  public static final String BATCH_TIME = "evaluator.batch";
+  public static final String ROUND_COMPUTE_TIME = "evaluator.round.compute";
+  public static final String ROUND_FLUSH_TIME = "evaluator.round.flush";
+  public static final String ROUND_RECEIVE_WAIT_TIME = "evaluator.round.receive_wait.party_";
+
+  private final BatchEvaluationStrategy<ResourcePoolT> delegate;
+  private final MetricsRegistry registry;
+
+  /**
+   * Creates a new decorator recording into the given registry.
+   *
+   * @param batchEvaluation the strategy to decorate
+   * @param registry the registry to record into
+   */
+  public BatchEvaluationLatencyDecorator(BatchEvaluationStrategy<ResourcePoolT> batchEvaluation,
+      MetricsRegistry registry) {
+    this.delegate = batchEvaluation;
+    this.registry = registry;
+  }
+
+  @Override
+  public void processBatch(ProtocolCollection<ResourcePoolT> protocols,
+      ResourcePoolT resourcePool, NetworkBatchDecorator network) {
+    long start = System.nanoTime();
+    TimedNetwork timedNetwork = new TimedNetwork(network, start);
+    delegate.processBatch(protocols, resourcePool, timedNetwork);
+    registry.histogram(BATCH_TIME).record(System.nanoTime() - start);
+  }
+
+  /**
+   * Decorates the network of the evaluator in order to find the rounds and the time spent in
+   * them.
+   */
+  private class TimedNetwork extends NetworkBatchDecorator {
+
+    private final NetworkBatchDecorator network;
+    private final long[] receiveWaits;
+    private long roundStart;
+
+    private TimedNetwork(NetworkBatchDecorator network, long roundStart) {
+      super(network.getNoOfParties(), network);
+      this.network = network;
+      this.receiveWaits = new long[network.getNoOfParties() + 1];
+      this.roundStart = roundStart;
+    }
+
+    @Override
+    public byte[] receive(int id) {
+      long start = System.nanoTime();
+      byte[] bytes = network.receive(id);
+      receiveWaits[id] += System.nanoTime() - start;
+      return bytes;
+    }
+
+    @Override
+    public void send(int id, byte[] data) {
+      network.send(id, data);
+    }
+
+    @Override
+    public void flush() {
+      long flushStart = System.nanoTime();
+      network.flush();
+      long flushEnd = System.nanoTime();
+      long totalWait = 0;
+      for (int i = 1; i < receiveWaits.length; i++) {
+        if (receiveWaits[i] > 0) {
+          registry.histogram(ROUND_RECEIVE_WAIT_TIME + i).record(receiveWaits[i]);
+          totalWait += receiveWaits[i];
+          receiveWaits[i] = 0;
+        }
+      }
+      registry.histogram(ROUND_COMPUTE_TIME)
+          .record(Math.max(0, flushStart - roundStart - totalWait));
+      registry.histogram(ROUND_FLUSH_TIME).record(flushEnd - flushStart);
+      roundStart = flushEnd;
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package dk.alexandra.fresco.logging;
+
+import dk.alexandra.fresco.framework.NativeProtocol;
+import dk.alexandra.fresco.framework.NativeProtocol.EvaluationStatus;
+import dk.alexandra.fresco.framework.ProtocolCollection;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchEvaluationStrategy;
+import dk.alexandra.fresco.framework.sce.evaluator.NetworkBatchDecorator;
+import dk.alexandra.fresco.framework.sce.evaluator.ProtocolCollectionList;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures each round of the native protocols evaluated by a batch evaluation strategy and records
+ * it in a {@link ComputationProfiler}.
+ *
+ * <p>The protocols of a batch are wrapped before being passed to the decorated strategy, so round
+ * synchronizations still see the original protocols. The time of a round is the CPU time of the
+ * evaluating thread if supported by the JVM and the wall clock time otherwise. Measuring this for
+ * every round of every protocol adds noticeable overhead, so this is meant for profiling only.</p>
+ */
+public class BatchEvaluationProfilingDecorator<ResourcePoolT extends ResourcePool>
+    implements BatchEvaluationStrategy<ResourcePoolT> {
+
+  private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+
+  private final BatchEvaluationStrategy<ResourcePoolT> delegate;
+  private final ComputationProfiler profiler;
+  private final boolean cpuTimeSupported;
+
+  /**
+   * Creates a new decorator recording into the given profiler.
+   *
+   * @param batchEvaluation the strategy to decorate
+   * @param profiler the profiler to record into
+   */
+  public BatchEvaluationProfilingDecorator(BatchEvaluationStrategy<ResourcePoolT> batchEvaluation,
+      ComputationProfiler profiler) {
+    this.delegate = batchEvaluation;
+    this.profiler = profiler;
+    this.cpuTimeSupported = THREAD_BEAN.isCurrentThreadCpuTimeSupported()
+        && THREAD_BEAN.isThreadCpuTimeEnabled();
+  }
+
+  @Override
+  public void processBatch(ProtocolCollection<ResourcePoolT> protocols,
+      ResourcePoolT resourcePool, NetworkBatchDecorator network) {
+    ProtocolCollectionList<ResourcePoolT> profiled = new ProtocolCollectionList<>(protocols.size());
+    for (NativeProtocol<?, ResourcePoolT> protocol : protocols) {
+      profiled.addProtocol(new ProfiledProtocol<>(protocol));
+    }
+    delegate.processBatch(profiled, resourcePool, network);
+  }
+
+  private long currentTime() {
+    if (cpuTimeSupported) {
+      return THREAD_BEAN.getCurrentThreadCpuTime();
+    } else {
+      return System.nanoTime();
+    }
+  }
+
+  private class ProfiledProtocol<OutputT> implements NativeProtocol<OutputT, ResourcePoolT> {
+
+    private final NativeProtocol<OutputT, ResourcePoolT> protocol;
+
+    private ProfiledProtocol(NativeProtocol<OutputT, ResourcePoolT> protocol) {
+      this.protocol = protocol;
+    }
+
+    @Override
+    public EvaluationStatus evaluate(int round, ResourcePoolT resourcePool, Network network) {
+      CountingNetwork countingNetwork = new CountingNetwork(network);
+      long start = currentTime();
+      EvaluationStatus status = protocol.evaluate(round, resourcePool, countingNetwork);
+      long time = currentTime() - start;
+      profiler.recordEvaluation(protocol, countingNetwork.bytesSent, time,
+          status == EvaluationStatus.IS_DONE);
+      return status;
+    }
+
+    @Override
+    public OutputT out() {
+      return protocol.out();
+    }
+  }
+
+  private static class CountingNetwork implements Network {
+
+    private final Network network;
+    private long bytesSent;
+
+    private CountingNetwork(Network network) {
+      this.network = network;
+    }
+
+    @Override
+    public void send(int partyId, byte[] data) {
+      bytesSent += data.length;
+      network.send(partyId, data);
+    }
+
+    @Override
+    public byte[] receive(int partyId) {
+      return network.receive(partyId);
+    }
+
+    @Override
+    public int getNoOfParties() {
+      return network.getNoOfParties();
+    }
+  }
+}
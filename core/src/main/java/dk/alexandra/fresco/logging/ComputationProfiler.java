@@ -0,0 +1,198 @@
+package dk.alexandra.fresco.logging;
+
+import dk.alexandra.fresco.framework.NativeProtocol;
+import dk.alexandra.fresco.framework.builder.ComputationStack;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Profiles an application by attributing its native protocols to the stack of
+ * {@link dk.alexandra.fresco.framework.builder.Computation} classes that created them.
+ *
+ * <p>The native protocols are tagged as they are appended to builders created by a
+ * {@link ProfilingBuilderFactoryNumeric} and measured as they are evaluated by a
+ * {@link BatchEvaluationProfilingDecorator}. For each stack and type of native protocol this
+ * aggregates the number of protocols, the number of times they were evaluated, the number of bytes
+ * sent and the CPU time spent evaluating them (see {@link Metric}).</p>
+ *
+ * <p>The aggregates can be written in the collapsed stack format, i.e., one line per stack with
+ * the frames separated by semicolons followed by a value, which is understood by flame graph tools
+ * such as <code>flamegraph.pl</code> and speedscope.</p>
+ */
+public class ComputationProfiler implements ComputationStack.Listener, PerformanceLogger {
+
+  public static final String PROTOCOLS = "profile.protocols";
+  public static final String EVALUATIONS = "profile.evaluations";
+  public static final String BYTES_SENT = "profile.bytes_sent";
+  public static final String CPU_TIME = "profile.cpu_ns";
+
+  /**
+   * The aggregated metrics.
+   */
+  public enum Metric {
+    /**
+     * The number of native protocols.
+     */
+    PROTOCOLS(ComputationProfiler.PROTOCOLS),
+    /**
+     * The number of calls to evaluate, i.e., the rounds of the individual protocols. Protocols
+     * evaluated in the same round of the evaluator each count, so this is not the number of
+     * communication rounds.
+     */
+    EVALUATIONS(ComputationProfiler.EVALUATIONS),
+    /**
+     * The number of bytes sent.
+     */
+    BYTES_SENT(ComputationProfiler.BYTES_SENT),
+    /**
+     * The CPU time in nanoseconds spent evaluating. This is wall clock time if the JVM does not
+     * support measuring the CPU time of threads.
+     */
+    CPU_TIME(ComputationProfiler.CPU_TIME);
+
+    private final String name;
+
+    Metric(String name) {
+      this.name = name;
+    }
+
+    /**
+     * Gets the name this metric is logged under.
+     *
+     * @return the name
+     */
+    public String getName() {
+      return name;
+    }
+  }
+
+  private final String rootName;
+  private final Map<NativeProtocol<?, ?>, String> pending;
+  private final Map<String, long[]> frames;
+
+  /**
+   * Creates a new profiler naming the root frame of all stacks <code>root</code>.
+   */
+  public ComputationProfiler() {
+    this("root");
+  }
+
+  /**
+   * Creates a new profiler.
+   *
+   * @param rootName the name of the root frame of all stacks
+   */
+  public ComputationProfiler(String rootName) {
+    this.rootName = rootName;
+    this.pending = new IdentityHashMap<>();
+    this.frames = new TreeMap<>();
+  }
+
+  /**
+   * Creates a new stack to attach to root builders, reporting to this profiler.
+   *
+   * @return the stack
+   */
+  public ComputationStack createRootStack() {
+    return ComputationStack.root(rootName, this);
+  }
+
+  @Override
+  public synchronized void nativeProtocolAppended(NativeProtocol<?, ?> protocol,
+      ComputationStack stack) {
+    String frame = stack.toFoldedString() + ";" + getProtocolName(protocol);
+    pending.put(protocol, frame);
+    getCounters(frame)[Metric.PROTOCOLS.ordinal()]++;
+  }
+
+  /**
+   * Records a single evaluation, i.e., one round, of a native protocol. Protocols that have not been
+   * appended to a builder with a stack attached are ignored.
+   *
+   * @param protocol the native protocol
+   * @param bytesSent the number of bytes sent in the evaluation
+   * @param cpuTime the time spent in the evaluation in nanoseconds
+   * @param done whether this was the last round of the protocol
+   */
+  public synchronized void recordEvaluation(NativeProtocol<?, ?> protocol, long bytesSent,
+      long cpuTime, boolean done) {
+    String frame = done ? pending.remove(protocol) : pending.get(protocol);
+    if (frame != null) {
+      long[] counters = getCounters(frame);
+      counters[Metric.EVALUATIONS.ordinal()]++;
+      counters[Metric.BYTES_SENT.ordinal()] += bytesSent;
+      counters[Metric.CPU_TIME.ordinal()] += cpuTime;
+    }
+  }
+
+  /**
+   * Gets the aggregated value of a metric for each stack in the collapsed stack format. The last
+   * frame of each stack is the type of the native protocols. Stacks with a value of zero are
+   * omitted.
+   *
+   * @param metric the metric
+   * @return the lines ordered by stack
+   */
+  public synchronized List<String> getFoldedStacks(Metric metric) {
+    List<String> lines = new ArrayList<>(frames.size());
+    for (Map.Entry<String, long[]> entry : frames.entrySet()) {
+      long value = entry.getValue()[metric.ordinal()];
+      if (value > 0) {
+        lines.add(entry.getKey() + " " + value);
+      }
+    }
+    return lines;
+  }
+
+  /**
+   * Writes the aggregated value of a metric in the collapsed stack format (see
+   * {@link #getFoldedStacks(Metric)}), e.g., to a file to be rendered as a flame graph.
+   *
+   * @param metric the metric
+   * @param out where to write the lines to
+   */
+  public void writeFoldedStacks(Metric metric, Appendable out) {
+    try {
+      for (String line : getFoldedStacks(metric)) {
+        out.append(line).append(System.lineSeparator());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to write the profile", e);
+    }
+  }
+
+  @Override
+  public synchronized void reset() {
+    frames.clear();
+  }
+
+  /**
+   * Produces a map holding the total of each {@link Metric} keyed by its name.
+   */
+  @Override
+  public synchronized Map<String, Long> getLoggedValues() {
+    Map<String, Long> values = new TreeMap<>();
+    for (Metric metric : Metric.values()) {
+      long total = 0;
+      for (long[] counters : frames.values()) {
+        total += counters[metric.ordinal()];
+      }
+      values.put(metric.getName(), total);
+    }
+    return values;
+  }
+
+  private long[] getCounters(String frame) {
+    return frames.computeIfAbsent(frame, f -> new long[Metric.values().length]);
+  }
+
+  private static String getProtocolName(NativeProtocol<?, ?> protocol) {
+    String className = protocol.getClass().getName();
+    return className.substring(className.lastIndexOf('.') + 1);
+  }
+}
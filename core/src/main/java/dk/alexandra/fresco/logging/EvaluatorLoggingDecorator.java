@@ -17,9 +17,11 @@ public class EvaluatorLoggingDecorator<
     implements ProtocolEvaluator<ResourcePoolT>, PerformanceLogger {
 
   public static final String SCE_RUNNINGTIMES = "Evaluation time for evaluator ";
+  public static final String SCE_BATCH_SIZES = "Batch size for evaluator ";
 
   private ProtocolEvaluator<ResourcePoolT> delegate;
   private List<Long> runtimeLogger = new ArrayList<>();
+  private List<Long> batchSizeLogger = new ArrayList<>();
 
   public EvaluatorLoggingDecorator(ProtocolEvaluator<ResourcePoolT> delegate) {
     this.delegate = delegate;
@@ -28,6 +30,7 @@ public class EvaluatorLoggingDecorator<
   @Override
   public void reset() {
     this.runtimeLogger.clear();
+    this.batchSizeLogger.clear();
   }
 
   @Override
@@ -36,6 +39,9 @@ public class EvaluatorLoggingDecorator<
     for (int i = 0; i < runtimeLogger.size(); i++) {
       values.put(SCE_RUNNINGTIMES + i, runtimeLogger.get(i));
     }
+    for (int i = 0; i < batchSizeLogger.size(); i++) {
+      values.put(SCE_BATCH_SIZES + i, batchSizeLogger.get(i));
+    }
     return values;
   }
 
@@ -47,6 +53,9 @@ public class EvaluatorLoggingDecorator<
     long now = System.currentTimeMillis();
     long runningTime = now - then;
     this.runtimeLogger.add(runningTime);
+    if (eval.getBatchSize() > 0) {
+      this.batchSizeLogger.add((long) eval.getBatchSize());
+    }
     return eval;
   }
 }
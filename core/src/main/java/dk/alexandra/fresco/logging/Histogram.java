@@ -0,0 +1,146 @@
+package dk.alexandra.fresco.logging;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of non-negative long values, such as latencies in nanoseconds, with bounded relative
+ * error in the style of an HDR histogram.
+ *
+ * <p>Values are counted in buckets of exponentially increasing size: each power of two is split
+ * into {@value #SUB_BUCKETS} equally sized sub-buckets, so any recorded value can be recovered up
+ * to a relative error of <code>1 / {@value #SUB_BUCKETS}</code> using a fixed amount of memory
+ * regardless of the number of recorded values. The count, minimum, maximum and mean are exact.</p>
+ *
+ * <p>The histogram is thread safe so it can be read while values are still being recorded.</p>
+ */
+public class Histogram {
+
+  private static final int SUB_BUCKET_BITS = 5;
+  static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int NUMBER_OF_BUCKETS =
+      SUB_BUCKETS + (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final long[] counts = new long[NUMBER_OF_BUCKETS];
+  private long count;
+  private long sum;
+  private long min = Long.MAX_VALUE;
+  private long max;
+
+  /**
+   * Records a single value.
+   *
+   * @param value the value to record
+   * @throws IllegalArgumentException if the value is negative
+   */
+  public synchronized void record(long value) {
+    if (value < 0) {
+      throw new IllegalArgumentException("Can only record non-negative values, got " + value);
+    }
+    counts[indexOf(value)]++;
+    count++;
+    sum += value;
+    min = Math.min(min, value);
+    max = Math.max(max, value);
+  }
+
+  /**
+   * Gets the number of recorded values.
+   *
+   * @return the number of values
+   */
+  public synchronized long getCount() {
+    return count;
+  }
+
+  /**
+   * Gets the smallest recorded value or 0 if no values have been recorded.
+   *
+   * @return the minimum
+   */
+  public synchronized long getMin() {
+    return count == 0 ? 0 : min;
+  }
+
+  /**
+   * Gets the largest recorded value or 0 if no values have been recorded.
+   *
+   * @return the maximum
+   */
+  public synchronized long getMax() {
+    return max;
+  }
+
+  /**
+   * Gets the sum of all recorded values.
+   *
+   * @return the sum
+   */
+  public synchronized long getSum() {
+    return sum;
+  }
+
+  /**
+   * Gets the mean of the recorded values rounded down, or 0 if no values have been recorded.
+   *
+   * @return the mean
+   */
+  public synchronized long getMean() {
+    return count == 0 ? 0 : sum / count;
+  }
+
+  /**
+   * Gets the value at the given percentile, i.e., the (approximately) smallest value such that
+   * the given percentage of the recorded values are smaller than or equal to it.
+   *
+   * @param percentile a percentile between 0 and 100
+   * @return the value at the percentile, or 0 if no values have been recorded
+   */
+  public synchronized long getValueAtPercentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 100, got " + percentile);
+    }
+    if (count == 0) {
+      return 0;
+    }
+    long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= target) {
+        return Math.max(min, Math.min(max, highestValueOf(i)));
+      }
+    }
+    return max;
+  }
+
+  /**
+   * Clears all recorded values.
+   */
+  public synchronized void reset() {
+    Arrays.fill(counts, 0);
+    count = 0;
+    sum = 0;
+    min = Long.MAX_VALUE;
+    max = 0;
+  }
+
+  static int indexOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int shift = exponent - SUB_BUCKET_BITS;
+    int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+    return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+  }
+
+  static long highestValueOf(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+    long subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+    long lowest = (SUB_BUCKETS + subBucket) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+}
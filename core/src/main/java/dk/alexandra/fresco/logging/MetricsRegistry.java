@@ -0,0 +1,108 @@
+package dk.alexandra.fresco.logging;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * A registry of named {@link Histogram}s recording latencies in nanoseconds.
+ *
+ * <p>The registry is shared by the latency decorators (e.g. {@link
+ * BatchEvaluationLatencyDecorator} and {@link NetworkLatencyDecorator}) which record into it, and
+ * is exposed as a {@link PerformanceLogger} so it can be printed using a {@link
+ * PerformancePrinter}. It can also be registered as an MXBean in order to be scraped through JMX
+ * while an application is running.</p>
+ */
+public class MetricsRegistry implements PerformanceLogger, MetricsRegistryMXBean {
+
+  public static final String COUNT_SUFFIX = "_count";
+  public static final String MEAN_SUFFIX = "_mean_ns";
+  public static final String MAX_SUFFIX = "_max_ns";
+  public static final String P50_SUFFIX = "_p50_ns";
+  public static final String P90_SUFFIX = "_p90_ns";
+  public static final String P99_SUFFIX = "_p99_ns";
+
+  private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+  /**
+   * Gets the histogram with the given name, creating it if it does not exist yet.
+   *
+   * @param name the name of the histogram
+   * @return the histogram
+   */
+  public Histogram histogram(String name) {
+    return histograms.computeIfAbsent(name, n -> new Histogram());
+  }
+
+  /**
+   * Gets all histograms of this registry ordered by name.
+   *
+   * @return the histograms
+   */
+  public SortedMap<String, Histogram> getHistograms() {
+    return new TreeMap<>(histograms);
+  }
+
+  @Override
+  public void reset() {
+    for (Histogram histogram : histograms.values()) {
+      histogram.reset();
+    }
+  }
+
+  /**
+   * Produces a map holding the count, mean, maximum and 50th, 90th and 99th percentile of each
+   * histogram keyed by the name of the histogram followed by a suffix.
+   */
+  @Override
+  public Map<String, Long> getLoggedValues() {
+    Map<String, Long> values = new TreeMap<>();
+    for (Map.Entry<String, Histogram> entry : getHistograms().entrySet()) {
+      String name = entry.getKey();
+      Histogram histogram = entry.getValue();
+      values.put(name + COUNT_SUFFIX, histogram.getCount());
+      values.put(name + MEAN_SUFFIX, histogram.getMean());
+      values.put(name + MAX_SUFFIX, histogram.getMax());
+      values.put(name + P50_SUFFIX, histogram.getValueAtPercentile(50));
+      values.put(name + P90_SUFFIX, histogram.getValueAtPercentile(90));
+      values.put(name + P99_SUFFIX, histogram.getValueAtPercentile(99));
+    }
+    return values;
+  }
+
+  /**
+   * Registers this registry as an MXBean with the platform MBean server.
+   *
+   * @param name a name identifying this registry, e.g., the id of the party
+   * @return the object name the registry was registered under
+   */
+  public ObjectName registerMBean(String name) {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      ObjectName objectName =
+          new ObjectName("dk.alexandra.fresco:type=MetricsRegistry,name=" + name);
+      server.registerMBean(this, objectName);
+      return objectName;
+    } catch (JMException e) {
+      throw new IllegalStateException("Unable to register metrics registry " + name, e);
+    }
+  }
+
+  /**
+   * Unregisters an MXBean previously registered using {@link #registerMBean(String)}.
+   *
+   * @param objectName the object name returned when the registry was registered
+   */
+  public static void unregisterMBean(ObjectName objectName) {
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    } catch (JMException e) {
+      throw new IllegalStateException("Unable to unregister metrics registry " + objectName, e);
+    }
+  }
+}
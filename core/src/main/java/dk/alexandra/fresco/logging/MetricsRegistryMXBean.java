@@ -0,0 +1,21 @@
+package dk.alexandra.fresco.logging;
+
+import java.util.Map;
+
+/**
+ * Management interface exposing a {@link MetricsRegistry} through JMX.
+ */
+public interface MetricsRegistryMXBean {
+
+  /**
+   * Produces a map from a named metric to its current value. See
+   * {@link MetricsRegistry#getLoggedValues()}.
+   */
+  Map<String, Long> getLoggedValues();
+
+  /**
+   * Resets all metrics of the registry.
+   */
+  void reset();
+
+}
@@ -0,0 +1,56 @@
+package dk.alexandra.fresco.logging;
+
+import dk.alexandra.fresco.framework.network.Network;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Records the time spent sending to and receiving from each party in a {@link MetricsRegistry}.
+ * The time spent receiving is the time spent waiting for the data of the other party to arrive.
+ */
+public class NetworkLatencyDecorator implements Network, Closeable {
+
+  public static final String NETWORK_SEND_TIME = "network.send.party_";
+  public static final String NETWORK_RECEIVE_TIME = "network.receive.party_";
+
+  private final Network delegate;
+  private final MetricsRegistry registry;
+
+  /**
+   * Creates a new decorator recording into the given registry.
+   *
+   * @param network the network to decorate
+   * @param registry the registry to record into
+   */
+  public NetworkLatencyDecorator(Network network, MetricsRegistry registry) {
+    this.delegate = network;
+    this.registry = registry;
+  }
+
+  @Override
+  public void send(int partyId, byte[] data) {
+    long start = System.nanoTime();
+    delegate.send(partyId, data);
+    registry.histogram(NETWORK_SEND_TIME + partyId).record(System.nanoTime() - start);
+  }
+
+  @Override
+  public byte[] receive(int partyId) {
+    long start = System.nanoTime();
+    byte[] data = delegate.receive(partyId);
+    registry.histogram(NETWORK_RECEIVE_TIME + partyId).record(System.nanoTime() - start);
+    return data;
+  }
+
+  @Override
+  public int getNoOfParties() {
+    return delegate.getNoOfParties();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (delegate instanceof Closeable) {
+      ((Closeable) delegate).close();
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package dk.alexandra.fresco.logging;
 
+import dk.alexandra.fresco.framework.network.CompressionStatistics;
 import dk.alexandra.fresco.framework.network.Network;
 import java.io.Closeable;
 import java.io.IOException;
@@ -11,12 +12,40 @@ public class NetworkLoggingDecorator implements Network, PerformanceLogger, Clos
   public static final String NETWORK_PARTY_BYTES = "Amount of bytes received pr. party";
   public static final String NETWORK_TOTAL_BYTES = "Total amount of bytes received";
   public static final String NETWORK_TOTAL_BATCHES = "Total amount of batches received";
+  public static final String NETWORK_COMPRESSED_BYTES =
+      "Total amount of compressed bytes received";
+  public static final String NETWORK_COMPRESSION_RATIO =
+      "Compressed bytes in percent of uncompressed bytes received";
+  public static final String NETWORK_COMPRESSED_BYTES_SENT =
+      "Total amount of compressed bytes sent";
+  public static final String NETWORK_COMPRESSION_RATIO_SENT =
+      "Compressed bytes in percent of uncompressed bytes sent";
 
   private Network delegate;
+  private CompressionStatistics compressionStatistics;
   private Map<Integer, PartyStats> partyStatsMap = new HashMap<>();
   
+  /**
+   * Creates a decorator logging the traffic of a network. If the network compresses messages,
+   * i.e., implements {@link CompressionStatistics}, its statistics are logged as well.
+   *
+   * @param network the network to log
+   */
   public NetworkLoggingDecorator(Network network) {
+    this(network, network instanceof CompressionStatistics
+        ? (CompressionStatistics) network : null);
+  }
+
+  /**
+   * Creates a decorator logging the traffic of a network and the statistics of a compressing
+   * network, e.g., placed further down below the network than directly.
+   *
+   * @param network the network to log
+   * @param compressionStatistics the statistics to log, or null to log none
+   */
+  public NetworkLoggingDecorator(Network network, CompressionStatistics compressionStatistics) {
     this.delegate = network;
+    this.compressionStatistics = compressionStatistics;
   }
 
   @Override
@@ -40,6 +69,9 @@ public class NetworkLoggingDecorator implements Network, PerformanceLogger, Clos
   @Override
   public void reset() {
     partyStatsMap.clear();
+    if (compressionStatistics != null) {
+      compressionStatistics.resetStatistics();
+    }
   }
 
   @Override
@@ -73,7 +105,21 @@ public class NetworkLoggingDecorator implements Network, PerformanceLogger, Clos
     }
     values.put(NETWORK_TOTAL_BYTES, totalNoBytes);
     values.put(NETWORK_TOTAL_BATCHES, noNetworkBatches);
+    if (compressionStatistics != null) {
+      long received = compressionStatistics.getBytesReceived();
+      values.put(NETWORK_COMPRESSED_BYTES, received);
+      values.put(NETWORK_COMPRESSION_RATIO,
+          ratio(received, compressionStatistics.getBytesReceivedUncompressed()));
+      long sent = compressionStatistics.getBytesSent();
+      values.put(NETWORK_COMPRESSED_BYTES_SENT, sent);
+      values.put(NETWORK_COMPRESSION_RATIO_SENT,
+          ratio(sent, compressionStatistics.getBytesSentUncompressed()));
+    }
     return values;
   }
 
+  private static long ratio(long compressed, long uncompressed) {
+    return uncompressed == 0 ? 100 : 100 * compressed / uncompressed;
+  }
+
 }
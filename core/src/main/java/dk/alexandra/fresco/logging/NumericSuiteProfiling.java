@@ -0,0 +1,42 @@
+package dk.alexandra.fresco.logging;
+
+import dk.alexandra.fresco.framework.builder.numeric.BuilderFactoryNumeric;
+import dk.alexandra.fresco.framework.builder.numeric.NumericResourcePool;
+import dk.alexandra.fresco.suite.ProtocolSuiteNumeric;
+
+/**
+ * Adds profiling to a numeric protocol suite by decorating its builder factory with a
+ * {@link ProfilingBuilderFactoryNumeric}. To also measure the evaluation of the native protocols
+ * the batch evaluation strategy must be decorated with a
+ * {@link BatchEvaluationProfilingDecorator} using the same profiler.
+ *
+ * @param <ResourcePoolT> the resource pool of the original decorated suite.
+ */
+public class NumericSuiteProfiling<ResourcePoolT extends NumericResourcePool>
+    implements ProtocolSuiteNumeric<ResourcePoolT> {
+
+  private final ProtocolSuiteNumeric<ResourcePoolT> delegateSuite;
+  private final ComputationProfiler profiler;
+
+  /**
+   * Creates a new profiling decorator for the protocol suite.
+   *
+   * @param protocolSuite the original protocol suite to profile
+   * @param profiler the profiler to report to
+   */
+  public NumericSuiteProfiling(ProtocolSuiteNumeric<ResourcePoolT> protocolSuite,
+      ComputationProfiler profiler) {
+    this.delegateSuite = protocolSuite;
+    this.profiler = profiler;
+  }
+
+  @Override
+  public BuilderFactoryNumeric init(ResourcePoolT resourcePool) {
+    return new ProfilingBuilderFactoryNumeric(delegateSuite.init(resourcePool), profiler);
+  }
+
+  @Override
+  public RoundSynchronization<ResourcePoolT> createRoundSynchronization() {
+    return delegateSuite.createRoundSynchronization();
+  }
+}
@@ -0,0 +1,112 @@
+package dk.alexandra.fresco.logging;
+
+import dk.alexandra.fresco.framework.builder.numeric.AdvancedNumeric;
+import dk.alexandra.fresco.framework.builder.numeric.BuilderFactoryNumeric;
+import dk.alexandra.fresco.framework.builder.numeric.Collections;
+import dk.alexandra.fresco.framework.builder.numeric.Comparison;
+import dk.alexandra.fresco.framework.builder.numeric.Debug;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.PreprocessedValues;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.lib.compare.MiscBigIntegerGenerators;
+import dk.alexandra.fresco.lib.field.integer.BasicNumericContext;
+import dk.alexandra.fresco.lib.real.AdvancedRealNumeric;
+import dk.alexandra.fresco.lib.real.RealLinearAlgebra;
+import dk.alexandra.fresco.lib.real.RealNumeric;
+import dk.alexandra.fresco.lib.real.RealNumericContext;
+
+/**
+ * Decorates a builder factory such that the native protocols of the applications built are tagged
+ * with the stack of computations creating them and reported to a {@link ComputationProfiler}.
+ *
+ * <p>All builders created by this factory have a root stack attached. The builders nested within
+ * them replace this with their own stack, so the root stack remains only on the builders that are
+ * not nested, i.e., the builders applications are built in.</p>
+ */
+public class ProfilingBuilderFactoryNumeric implements BuilderFactoryNumeric {
+
+  private final BuilderFactoryNumeric delegateFactory;
+  private final ComputationProfiler profiler;
+
+  /**
+   * Creates a new profiling decorator of a builder factory.
+   *
+   * @param delegateFactory the builder factory to decorate
+   * @param profiler the profiler to report to
+   */
+  public ProfilingBuilderFactoryNumeric(BuilderFactoryNumeric delegateFactory,
+      ComputationProfiler profiler) {
+    this.delegateFactory = delegateFactory;
+    this.profiler = profiler;
+  }
+
+  @Override
+  public ProtocolBuilderNumeric createSequential() {
+    return profiler.createRootStack().attachTo(BuilderFactoryNumeric.super.createSequential());
+  }
+
+  @Override
+  public ProtocolBuilderNumeric createParallel() {
+    return profiler.createRootStack().attachTo(BuilderFactoryNumeric.super.createParallel());
+  }
+
+  @Override
+  public BasicNumericContext getBasicNumericContext() {
+    return delegateFactory.getBasicNumericContext();
+  }
+
+  @Override
+  public RealNumericContext getRealNumericContext() {
+    return delegateFactory.getRealNumericContext();
+  }
+
+  @Override
+  public Numeric createNumeric(ProtocolBuilderNumeric builder) {
+    return delegateFactory.createNumeric(builder);
+  }
+
+  @Override
+  public MiscBigIntegerGenerators getBigIntegerHelper() {
+    return delegateFactory.getBigIntegerHelper();
+  }
+
+  @Override
+  public Comparison createComparison(ProtocolBuilderNumeric builder) {
+    return delegateFactory.createComparison(builder);
+  }
+
+  @Override
+  public AdvancedNumeric createAdvancedNumeric(ProtocolBuilderNumeric builder) {
+    return delegateFactory.createAdvancedNumeric(builder);
+  }
+
+  @Override
+  public Collections createCollections(ProtocolBuilderNumeric builder) {
+    return delegateFactory.createCollections(builder);
+  }
+
+  @Override
+  public PreprocessedValues createPreprocessedValues(ProtocolBuilderNumeric builder) {
+    return delegateFactory.createPreprocessedValues(builder);
+  }
+
+  @Override
+  public RealNumeric createRealNumeric(ProtocolBuilderNumeric builder) {
+    return delegateFactory.createRealNumeric(builder);
+  }
+
+  @Override
+  public AdvancedRealNumeric createAdvancedRealNumeric(ProtocolBuilderNumeric builder) {
+    return delegateFactory.createAdvancedRealNumeric(builder);
+  }
+
+  @Override
+  public RealLinearAlgebra createRealLinearAlgebra(ProtocolBuilderNumeric builder) {
+    return delegateFactory.createRealLinearAlgebra(builder);
+  }
+
+  @Override
+  public Debug createDebug(ProtocolBuilderNumeric builder) {
+    return delegateFactory.createDebug(builder);
+  }
+}
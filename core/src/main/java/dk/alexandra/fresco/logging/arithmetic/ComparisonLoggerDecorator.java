@@ -43,6 +43,12 @@ public class ComparisonLoggerDecorator implements Comparison, PerformanceLogger
     return this.delegate.compareLEQ(x1, x2);
   }
 
+  @Override
+  public DRes<SInt> compareLEQLogRounds(DRes<SInt> x1, DRes<SInt> x2) {
+    leqCount++;
+    return this.delegate.compareLEQLogRounds(x1, x2);
+  }
+
   @Override
   public DRes<SInt> compareLEQLong(DRes<SInt> x1, DRes<SInt> x2) {
     leqCount++;
@@ -74,4 +74,48 @@ public class ExponentiationPipeTests {
       };
     }
   }
+
+  public static class TestBatchedPreprocessedValues<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+
+      return new TestThread<ResourcePoolT, ProtocolBuilderNumeric>() {
+        @Override
+        public void test() throws Exception {
+          final int pipeLength = 5;
+          final int numberOfPipes = 4;
+          Application<List<List<BigInteger>>, ProtocolBuilderNumeric> app =
+              producer -> producer.seq(seq ->
+                  new DefaultPreprocessedValues(seq)
+                      .getExponentiationPipes(pipeLength, numberOfPipes)
+              ).par((par, pipes) -> {
+                List<List<DRes<BigInteger>>> output = pipes.stream()
+                    .map(pipe -> pipe.out().stream().map(e -> par.numeric().open(e))
+                        .collect(Collectors.toList()))
+                    .collect(Collectors.toList());
+                return () -> output;
+              }).seq((seq, output) -> () -> output.stream()
+                  .map(pipe -> pipe.stream().map(DRes::out).collect(Collectors.toList()))
+                  .collect(Collectors.toList()));
+          List<List<BigInteger>> output = runApplication(app);
+          assertEquals(numberOfPipes, output.size());
+          BigInteger modulus =
+              ((DummyArithmeticResourcePoolImpl) this.conf.getResourcePool()).getModulus();
+          for (List<BigInteger> pipe : output) {
+            assertEquals(pipeLength + 2, pipe.size());
+            BigInteger base = pipe.get(1);
+            assertEquals(base.modInverse(modulus), pipe.get(0).mod(modulus));
+            for (int i = 2; i < pipeLength + 2; i++) {
+              assertEquals(base.modPow(BigInteger.valueOf(i), modulus), pipe.get(i).mod(modulus));
+            }
+          }
+          // each pipe has its own random base
+          assertEquals(numberOfPipes,
+              output.stream().map(pipe -> pipe.get(1)).distinct().count());
+        }
+      };
+    }
+  }
 }
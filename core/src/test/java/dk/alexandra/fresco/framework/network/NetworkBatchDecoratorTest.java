@@ -1,9 +1,12 @@
 package dk.alexandra.fresco.framework.network;
 
 import dk.alexandra.fresco.framework.sce.evaluator.NetworkBatchDecorator;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -86,6 +89,84 @@ public class NetworkBatchDecoratorTest {
 
   }
 
+  @Test
+  public void streamingSend() throws Exception {
+    QueueNetwork network = new QueueNetwork();
+    NetworkBatchDecorator streaming = new NetworkBatchDecorator(3, network, 4);
+    streaming.send(1, new byte[]{1, 2, 3});
+    Assert.assertEquals(1, network.queue.size());
+    Assert.assertArrayEquals(new byte[]{0, 3, 1, 2, 3}, network.queue.poll());
+    streaming.send(1, new byte[]{4});
+    Assert.assertTrue(network.queue.isEmpty());
+    streaming.flush();
+    Assert.assertArrayEquals(new byte[]{1, 1, 4}, network.queue.poll());
+    Assert.assertTrue(network.queue.isEmpty());
+  }
+
+  @Test
+  public void streamingSendEndsRoundWithEmptyChunk() throws Exception {
+    QueueNetwork network = new QueueNetwork();
+    NetworkBatchDecorator streaming = new NetworkBatchDecorator(3, network, 1);
+    streaming.send(1, new byte[]{1});
+    streaming.flush();
+    Assert.assertArrayEquals(new byte[]{0, 1, 1}, network.queue.poll());
+    Assert.assertArrayEquals(new byte[]{1}, network.queue.poll());
+    Assert.assertTrue(network.queue.isEmpty());
+  }
+
+  @Test
+  public void streamingReceive() throws Exception {
+    QueueNetwork network = new QueueNetwork();
+    NetworkBatchDecorator streaming = new NetworkBatchDecorator(3, network, 4);
+    network.queue.add(new byte[]{0, 1, 7});
+    network.queue.add(new byte[]{0, 2, 8, 9});
+    network.queue.add(new byte[]{1, 1, 5});
+    Assert.assertArrayEquals(new byte[]{7}, streaming.receive(1));
+    Assert.assertArrayEquals(new byte[]{8, 9}, streaming.receive(1));
+    Assert.assertArrayEquals(new byte[]{5}, streaming.receive(1));
+    Assert.assertTrue(network.queue.isEmpty());
+  }
+
+  @Test
+  public void streamingFlushSkipsUnreadChunks() throws Exception {
+    QueueNetwork network = new QueueNetwork();
+    NetworkBatchDecorator streaming = new NetworkBatchDecorator(3, network, 4);
+    network.queue.add(new byte[]{0, 1, 7});
+    network.queue.add(new byte[]{1, 1, 8});
+    network.queue.add(new byte[]{1, 1, 9});
+    Assert.assertArrayEquals(new byte[]{7}, streaming.receive(1));
+    streaming.flush();
+    Assert.assertArrayEquals(new byte[]{9}, streaming.receive(1));
+  }
+
+  @Test
+  public void streamingRoundTrip() throws Exception {
+    QueueNetwork network = new QueueNetwork();
+    NetworkBatchDecorator sender = new NetworkBatchDecorator(3, network, 16);
+    NetworkBatchDecorator receiver = new NetworkBatchDecorator(3, network, 16);
+    Random random = new Random(42);
+    for (int round = 0; round < 10; round++) {
+      int messages = 1 + random.nextInt(20);
+      byte[][] sent = new byte[messages][];
+      for (int i = 0; i < messages; i++) {
+        sent[i] = new byte[random.nextInt(10)];
+        random.nextBytes(sent[i]);
+        sender.send(1, sent[i]);
+      }
+      sender.flush();
+      for (int i = 0; i < messages; i++) {
+        Assert.assertArrayEquals(sent[i], receiver.receive(1));
+      }
+      receiver.flush();
+    }
+    Assert.assertTrue(network.queue.isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeChunkSize() throws Exception {
+    new NetworkBatchDecorator(3, new QueueNetwork(), -1);
+  }
+
   private class DummyNetwork implements Network {
 
 
@@ -104,4 +185,27 @@ public class NetworkBatchDecoratorTest {
       return 3;
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Network passing all messages through a single queue, ignoring the party ids.
+   */
+  private static class QueueNetwork implements Network {
+
+    private final Deque<byte[]> queue = new ArrayDeque<>();
+
+    @Override
+    public void send(int partyId, byte[] data) {
+      queue.add(data);
+    }
+
+    @Override
+    public byte[] receive(int partyId) {
+      return queue.poll();
+    }
+
+    @Override
+    public int getNoOfParties() {
+      return 3;
+    }
+  }
+}
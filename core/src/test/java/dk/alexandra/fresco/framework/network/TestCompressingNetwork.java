@@ -0,0 +1,154 @@
+package dk.alexandra.fresco.framework.network;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.zip.Deflater;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestCompressingNetwork {
+
+  private LoopbackNetwork loopback;
+  private CompressingNetwork network;
+
+  @Before
+  public void setup() {
+    loopback = new LoopbackNetwork();
+    network = new CompressingNetwork(loopback, new HashSet<>(Arrays.asList(1, 2)));
+  }
+
+  @Test
+  public void testCompressible() {
+    // small values serialized at a large width, as when opening shares of small values
+    byte[] data = new byte[4096];
+    for (int i = 0; i < data.length; i += 32) {
+      data[i + 31] = (byte) i;
+    }
+    network.send(2, data);
+    assertTrue(loopback.lastLength < data.length / 4);
+    assertArrayEquals(data, network.receive(2));
+    assertEquals(loopback.lastLength, network.getBytesReceived());
+    assertEquals(data.length, network.getBytesReceivedUncompressed());
+    network.resetStatistics();
+    assertEquals(0, network.getBytesReceived());
+  }
+
+  @Test
+  public void testIncompressible() {
+    byte[] data = new byte[4096];
+    new Random(42).nextBytes(data);
+    network.send(2, data);
+    assertEquals(data.length + 1, loopback.lastLength);
+    assertArrayEquals(data, network.receive(2));
+  }
+
+  @Test
+  public void testBelowThreshold() {
+    byte[] data = new byte[CompressingNetwork.DEFAULT_THRESHOLD - 1];
+    network.send(1, data);
+    assertEquals(data.length + 1, loopback.lastLength);
+    assertArrayEquals(data, network.receive(1));
+  }
+
+  @Test
+  public void testEmpty() {
+    CompressingNetwork network =
+        new CompressingNetwork(loopback, Collections.singleton(2), 0, Deflater.BEST_COMPRESSION);
+    network.send(2, new byte[0]);
+    assertArrayEquals(new byte[0], network.receive(2));
+  }
+
+  @Test
+  public void testUncompressedParty() {
+    byte[] data = new byte[4096];
+    network.send(3, data);
+    assertEquals(data.length, loopback.lastLength);
+    assertArrayEquals(data, network.receive(3));
+    assertEquals(0, network.getBytesReceived());
+    assertEquals(0, network.getBytesSent());
+  }
+
+  @Test
+  public void testNoOfParties() {
+    assertEquals(3, network.getNoOfParties());
+  }
+
+  @Test
+  public void testMaxLength() {
+    CompressingNetwork network = new CompressingNetwork(loopback, Collections.singleton(2), 0,
+        Deflater.BEST_SPEED, 4096);
+    byte[] data = new byte[4096];
+    network.send(2, data);
+    assertArrayEquals(data, network.receive(2));
+    network.send(2, new byte[4097]);
+    try {
+      network.receive(2);
+      fail("Should not accept a message longer than the maximum");
+    } catch (IllegalStateException e) {
+      assertTrue(e.getMessage().contains("4097"));
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testNegativeLength() {
+    loopback.send(2, new byte[] {1, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff});
+    network.receive(2);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testTruncatedHeader() {
+    loopback.send(2, new byte[] {1, 0});
+    network.receive(2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeMaxLength() {
+    new CompressingNetwork(loopback, Collections.emptySet(), 0, Deflater.BEST_SPEED, -1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeThreshold() {
+    new CompressingNetwork(loopback, Collections.emptySet(), -1, Deflater.BEST_SPEED);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalLevel() {
+    new CompressingNetwork(loopback, Collections.emptySet(), 0, 10);
+  }
+
+  /**
+   * Network where messages sent to a party are received from the same party.
+   */
+  private static class LoopbackNetwork implements Network {
+
+    private final Map<Integer, Queue<byte[]>> queues = new HashMap<>();
+    private int lastLength;
+
+    @Override
+    public void send(int partyId, byte[] data) {
+      lastLength = data.length;
+      queues.computeIfAbsent(partyId, i -> new ArrayDeque<>()).add(data);
+    }
+
+    @Override
+    public byte[] receive(int partyId) {
+      return queues.get(partyId).remove();
+    }
+
+    @Override
+    public int getNoOfParties() {
+      return 3;
+    }
+  }
+}
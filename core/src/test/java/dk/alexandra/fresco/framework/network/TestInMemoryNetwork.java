@@ -0,0 +1,150 @@
+package dk.alexandra.fresco.framework.network;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Test;
+
+public class TestInMemoryNetwork {
+
+  private static final int TIMEOUT_MILLIS = 60000;
+  private Map<Integer, CloseableNetwork> networks;
+  private ExecutorService executor;
+
+  @After
+  public void tearDown() {
+    if (networks != null) {
+      for (CloseableNetwork network : networks.values()) {
+        ((InMemoryNetwork) network).close();
+      }
+    }
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testNoOfParties() {
+    networks = InMemoryNetwork.createNetworks(4);
+    assertEquals(4, networks.size());
+    for (CloseableNetwork network : networks.values()) {
+      assertEquals(4, network.getNoOfParties());
+    }
+  }
+
+  @Test
+  public void testSelfSend() {
+    networks = InMemoryNetwork.createNetworks(1);
+    byte[] data = new byte[] { 1, 2, 3 };
+    networks.get(1).send(1, data);
+    assertSame(data, networks.get(1).receive(1));
+  }
+
+  @Test(timeout = TIMEOUT_MILLIS)
+  public void testCircularSend() throws Exception {
+    int noOfParties = 5;
+    networks = InMemoryNetwork.createNetworks(noOfParties);
+    executor = Executors.newFixedThreadPool(noOfParties);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 1; i <= noOfParties; i++) {
+      int id = i;
+      int next = id % noOfParties + 1;
+      int prev = (id + noOfParties - 2) % noOfParties + 1;
+      futures.add(executor.submit(() -> {
+        for (int j = 0; j < 1000; j++) {
+          networks.get(id).send(next, new byte[] { (byte) id, (byte) j });
+          assertArrayEquals(new byte[] { (byte) prev, (byte) j }, networks.get(id).receive(prev));
+        }
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+  }
+
+  @Test(timeout = TIMEOUT_MILLIS)
+  public void testMessagesInOrder() throws Exception {
+    networks = InMemoryNetwork.createNetworks(2);
+    executor = Executors.newSingleThreadExecutor();
+    int noOfMessages = 10000;
+    Future<?> sender = executor.submit(() -> {
+      Random random = new Random(1);
+      for (int i = 0; i < noOfMessages; i++) {
+        byte[] data = new byte[16];
+        random.nextBytes(data);
+        networks.get(1).send(2, data);
+      }
+    });
+    Random random = new Random(1);
+    for (int i = 0; i < noOfMessages; i++) {
+      byte[] expected = new byte[16];
+      random.nextBytes(expected);
+      assertArrayEquals(expected, networks.get(2).receive(1));
+    }
+    sender.get();
+  }
+
+  @Test(expected = IllegalStateException.class, timeout = TIMEOUT_MILLIS)
+  public void testReceiveFromClosedParty() throws Exception {
+    networks = InMemoryNetwork.createNetworks(2);
+    executor = Executors.newSingleThreadExecutor();
+    Future<?> closer = executor.submit(() -> {
+      Thread.sleep(100);
+      networks.get(1).close();
+      return null;
+    });
+    try {
+      networks.get(2).receive(1);
+    } finally {
+      closer.get();
+    }
+  }
+
+  @Test
+  public void testReceiveSentBeforeClose() throws Exception {
+    networks = InMemoryNetwork.createNetworks(2);
+    networks.get(1).send(2, new byte[] { 1 });
+    networks.get(1).close();
+    assertArrayEquals(new byte[] { 1 }, networks.get(2).receive(1));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testSendAfterClose() throws Exception {
+    networks = InMemoryNetwork.createNetworks(2);
+    networks.get(1).close();
+    networks.get(1).send(2, new byte[] { 1 });
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testReceiveAfterClose() throws Exception {
+    networks = InMemoryNetwork.createNetworks(2);
+    networks.get(1).close();
+    networks.get(1).receive(2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSendToTooLargePartyId() {
+    networks = InMemoryNetwork.createNetworks(2);
+    networks.get(1).send(3, new byte[] { 1 });
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testReceiveFromNegativePartyId() {
+    networks = InMemoryNetwork.createNetworks(2);
+    networks.get(1).receive(-1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoParties() {
+    InMemoryNetwork.createNetworks(0);
+  }
+}
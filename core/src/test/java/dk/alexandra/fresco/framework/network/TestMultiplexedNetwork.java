@@ -0,0 +1,206 @@
+package dk.alexandra.fresco.framework.network;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+
+import dk.alexandra.fresco.framework.Application;
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.TestThreadRunner;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThread;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.builder.numeric.field.BigIntegerFieldDefinition;
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.configuration.NetworkUtil;
+import dk.alexandra.fresco.framework.network.socket.SocketNetwork;
+import dk.alexandra.fresco.framework.sce.SecureComputationEngine;
+import dk.alexandra.fresco.framework.sce.SecureComputationEngineImpl;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchedProtocolEvaluator;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchedStrategy;
+import dk.alexandra.fresco.framework.util.ModulusFinder;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticProtocolSuite;
+import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticResourcePool;
+import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticResourcePoolImpl;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import org.junit.Test;
+
+public class TestMultiplexedNetwork {
+
+  @Test
+  public void testChannelsReceivedOutOfOrder() {
+    QueueNetwork[] networks = QueueNetwork.createPair();
+    MultiplexedNetwork sender = new MultiplexedNetwork(networks[0]);
+    MultiplexedNetwork receiver = new MultiplexedNetwork(networks[1]);
+    sender.getChannel(0).send(2, new byte[]{1, 2});
+    sender.getChannel(1).send(2, new byte[]{3});
+    sender.getChannel(0).send(2, new byte[]{4});
+    assertArrayEquals(new byte[]{3}, receiver.getChannel(1).receive(1));
+    assertArrayEquals(new byte[]{1, 2}, receiver.getChannel(0).receive(1));
+    assertArrayEquals(new byte[]{4}, receiver.getChannel(0).receive(1));
+  }
+
+  @Test
+  public void testConcurrentChannels() throws Exception {
+    QueueNetwork[] networks = QueueNetwork.createPair();
+    MultiplexedNetwork first = new MultiplexedNetwork(networks[0]);
+    MultiplexedNetwork second = new MultiplexedNetwork(networks[1]);
+    int channels = 8;
+    int messages = 100;
+    ExecutorService executor = Executors.newFixedThreadPool(2 * channels);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int c = 0; c < channels; c++) {
+        // each channel plays ping pong, so a channel only progresses when the other party
+        // receives on the same channel
+        Network ping = first.getChannel(c);
+        Network pong = second.getChannel(c);
+        byte channel = (byte) c;
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < messages; i++) {
+            ping.send(2, new byte[]{channel, (byte) i});
+            assertArrayEquals(new byte[]{channel, (byte) i}, ping.receive(2));
+          }
+        }));
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < messages; i++) {
+            pong.send(1, pong.receive(1));
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeChannel() {
+    new MultiplexedNetwork(QueueNetwork.createPair()[0]).getChannel(-1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testReceiveFromUnknownParty() {
+    new MultiplexedNetwork(QueueNetwork.createPair()[0]).getChannel(0).receive(3);
+  }
+
+  @Test
+  public void testRunApplicationsConcurrently() {
+    BigIntegerFieldDefinition fieldDefinition =
+        new BigIntegerFieldDefinition(ModulusFinder.findSuitableModulus(64));
+    int applications = 16;
+    TestThreadFactory<DummyArithmeticResourcePool, ProtocolBuilderNumeric> f =
+        new TestThreadFactory<DummyArithmeticResourcePool, ProtocolBuilderNumeric>() {
+          @Override
+          public TestThread<DummyArithmeticResourcePool, ProtocolBuilderNumeric> next() {
+            return new TestThread<DummyArithmeticResourcePool, ProtocolBuilderNumeric>() {
+              @Override
+              public void test() {
+                List<Application<BigInteger, ProtocolBuilderNumeric>> apps = new ArrayList<>();
+                for (int i = 0; i < applications; i++) {
+                  BigInteger value = BigInteger.valueOf(i);
+                  apps.add(builder -> {
+                    DRes<SInt> first = builder.numeric().input(value, 1);
+                    DRes<SInt> second = builder.numeric().input(value, 2);
+                    return builder.numeric().open(builder.numeric().mult(first, second));
+                  });
+                }
+                MultiplexedNetwork network = new MultiplexedNetwork(conf.getNetwork());
+                int noOfParties = conf.getNetwork().getNoOfParties();
+                List<BigInteger> outputs = conf.sce.runApplications(apps,
+                    i -> new DummyArithmeticResourcePoolImpl(conf.getMyId(), noOfParties,
+                        fieldDefinition), network, Duration.ofMinutes(1));
+                for (int i = 0; i < applications; i++) {
+                  assertThat(outputs.get(i), is(BigInteger.valueOf(i * i)));
+                }
+              }
+            };
+          }
+        };
+
+    List<Integer> ports = new ArrayList<>();
+    ports.add(9001);
+    ports.add(9002);
+    Map<Integer, NetworkConfiguration> netConf = NetworkUtil.getNetworkConfigurations(ports);
+    Map<Integer,
+        TestThreadRunner.TestThreadConfiguration<
+            DummyArithmeticResourcePool,
+            ProtocolBuilderNumeric>> conf = new HashMap<>();
+    for (int playerId : netConf.keySet()) {
+      DummyArithmeticProtocolSuite suite =
+          new DummyArithmeticProtocolSuite(fieldDefinition, 64, 0);
+      SecureComputationEngine<DummyArithmeticResourcePool, ProtocolBuilderNumeric> sce =
+          new SecureComputationEngineImpl<>(suite,
+              new BatchedProtocolEvaluator<>(new BatchedStrategy<>(), suite));
+      conf.put(playerId, new TestThreadRunner.TestThreadConfiguration<>(sce,
+          () -> new DummyArithmeticResourcePoolImpl(playerId, netConf.size(), fieldDefinition),
+          () -> new SocketNetwork(netConf.get(playerId))));
+    }
+    TestThreadRunner.run(f, conf);
+  }
+
+  /**
+   * Two party network passing messages through in-memory queues.
+   */
+  private static class QueueNetwork implements Network {
+
+    private final int myId;
+    private final Map<Integer, BlockingQueue<byte[]>> incoming;
+    private final Map<Integer, BlockingQueue<byte[]>> outgoing;
+
+    private QueueNetwork(int myId, Map<Integer, BlockingQueue<byte[]>> incoming,
+        Map<Integer, BlockingQueue<byte[]>> outgoing) {
+      this.myId = myId;
+      this.incoming = incoming;
+      this.outgoing = outgoing;
+    }
+
+    private static QueueNetwork[] createPair() {
+      BlockingQueue<byte[]> oneToTwo = new LinkedBlockingQueue<>();
+      BlockingQueue<byte[]> twoToOne = new LinkedBlockingQueue<>();
+      Map<Integer, BlockingQueue<byte[]>> oneIncoming = new HashMap<>();
+      oneIncoming.put(2, twoToOne);
+      Map<Integer, BlockingQueue<byte[]>> oneOutgoing = new HashMap<>();
+      oneOutgoing.put(2, oneToTwo);
+      Map<Integer, BlockingQueue<byte[]>> twoIncoming = new HashMap<>();
+      twoIncoming.put(1, oneToTwo);
+      Map<Integer, BlockingQueue<byte[]>> twoOutgoing = new HashMap<>();
+      twoOutgoing.put(1, twoToOne);
+      return new QueueNetwork[]{
+          new QueueNetwork(1, oneIncoming, oneOutgoing),
+          new QueueNetwork(2, twoIncoming, twoOutgoing)};
+    }
+
+    @Override
+    public void send(int partyId, byte[] data) {
+      outgoing.get(partyId).add(data);
+    }
+
+    @Override
+    public byte[] receive(int partyId) {
+      try {
+        return incoming.get(partyId).take();
+      } catch (InterruptedException e) {
+        throw new RuntimeException("P" + myId + " interrupted", e);
+      }
+    }
+
+    @Override
+    public int getNoOfParties() {
+      return 2;
+    }
+  }
+}
@@ -0,0 +1,195 @@
+package dk.alexandra.fresco.framework.network.socket;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.configuration.NetworkUtil;
+import dk.alexandra.fresco.framework.network.CloseableNetwork;
+import dk.alexandra.fresco.framework.util.ExceptionConverter;
+import java.io.InputStream;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManagerFactory;
+import javax.security.auth.x500.X500Principal;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestConnectionPool {
+
+  private static final int PARTIES = 2;
+  private ExecutorService executor;
+  private List<ConnectionPool> pools;
+
+  @Before
+  public void setup() {
+    executor = Executors.newFixedThreadPool(PARTIES);
+    pools = new ArrayList<>(PARTIES);
+  }
+
+  @After
+  public void tearDown() {
+    for (ConnectionPool pool : pools) {
+      pool.close();
+    }
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testReuseConnections() throws Exception {
+    createPools(conf -> new ConnectionPool(conf, Connector.DEFAULT_CONNECTION_TIMEOUT));
+    for (int i = 0; i < 5; i++) {
+      exchange((byte) i);
+    }
+    for (ConnectionPool pool : pools) {
+      assertEquals(1, pool.getConnects());
+    }
+  }
+
+  @Test
+  public void testReconnect() throws Exception {
+    createPools(conf -> new ConnectionPool(conf, Connector.DEFAULT_CONNECTION_TIMEOUT));
+    exchange((byte) 1);
+    pools.get(0).disconnect();
+    pools.get(1).disconnect();
+    exchange((byte) 2);
+    for (ConnectionPool pool : pools) {
+      assertEquals(2, pool.getConnects());
+    }
+  }
+
+  @Test
+  public void testReconnectWhenOnlyOnePartyDisconnects() throws Exception {
+    createPools(conf -> new ConnectionPool(conf, Connector.DEFAULT_CONNECTION_TIMEOUT));
+    exchange((byte) 1);
+    pools.get(0).disconnect();
+    exchange((byte) 2);
+    for (ConnectionPool pool : pools) {
+      assertEquals(2, pool.getConnects());
+    }
+  }
+
+  @Test
+  public void testReconnectAfterLeftoverMessages() throws Exception {
+    createPools(conf -> new ConnectionPool(conf, Connector.DEFAULT_CONNECTION_TIMEOUT));
+    exchange((byte) 1);
+    // an application at P1 failing after sending a message that P2 never receives
+    List<Future<?>> futures = new ArrayList<>(PARTIES);
+    futures.add(executor.submit(() -> {
+      try (CloseableNetwork network = pools.get(0).acquire()) {
+        network.send(2, new byte[] { 42 });
+      }
+      return null;
+    }));
+    futures.add(executor.submit(() -> {
+      pools.get(1).acquire().close();
+      return null;
+    }));
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    exchange((byte) 2);
+    for (ConnectionPool pool : pools) {
+      assertEquals(2, pool.getConnects());
+    }
+  }
+
+  @Test
+  public void testTlsSessionResumption() throws Exception {
+    createPools(conf -> new ConnectionPool(conf, Connector.DEFAULT_CONNECTION_TIMEOUT,
+        createContext(conf.getMyId()),
+        id -> new X500Principal(String.format(TlsTestConnector.NAME_FORMAT, id))));
+    exchange((byte) 1);
+    SSLSocket first = (SSLSocket) pools.get(0).getSocketMap().get(2);
+    long creationTime = first.getSession().getCreationTime();
+    pools.get(0).disconnect();
+    pools.get(1).disconnect();
+    exchange((byte) 2);
+    SSLSocket second = (SSLSocket) pools.get(0).getSocketMap().get(2);
+    // a resumed session is the session created by the first handshake
+    assertEquals(creationTime, second.getSession().getCreationTime());
+    assertArrayEquals(first.getSession().getId(), second.getSession().getId());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testUseAfterRelease() throws Exception {
+    createPools(conf -> new ConnectionPool(conf, Connector.DEFAULT_CONNECTION_TIMEOUT));
+    CloseableNetwork network = exchange((byte) 1).get(0);
+    network.send(2, new byte[] { 1 });
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testAcquireAfterClose() throws Exception {
+    createPools(conf -> new ConnectionPool(conf, Connector.DEFAULT_CONNECTION_TIMEOUT));
+    pools.get(0).close();
+    pools.get(0).acquire();
+  }
+
+  private void createPools(Function<NetworkConfiguration, ConnectionPool> factory) {
+    Map<Integer, NetworkConfiguration> confs = NetworkUtil.getNetworkConfigurations(PARTIES);
+    for (int i = 1; i <= PARTIES; i++) {
+      pools.add(factory.apply(confs.get(i)));
+    }
+  }
+
+  /**
+   * Lets each party acquire the network, send a message to the other party and release it.
+   *
+   * @return the released networks
+   */
+  private List<CloseableNetwork> exchange(byte message) throws Exception {
+    List<Future<CloseableNetwork>> futures = new ArrayList<>(PARTIES);
+    for (int i = 0; i < PARTIES; i++) {
+      ConnectionPool pool = pools.get(i);
+      int otherId = PARTIES - i;
+      Callable<CloseableNetwork> exchange = () -> {
+        try (CloseableNetwork network = pool.acquire()) {
+          network.send(otherId, new byte[] { message });
+          assertArrayEquals(new byte[] { message }, network.receive(otherId));
+          return network;
+        }
+      };
+      futures.add(executor.submit(exchange));
+    }
+    List<CloseableNetwork> networks = new ArrayList<>(PARTIES);
+    for (Future<CloseableNetwork> future : futures) {
+      networks.add(future.get());
+    }
+    return networks;
+  }
+
+  private static SSLContext createContext(int id) {
+    return ExceptionConverter.safe(() -> loadContext(id), "Unable to load key stores");
+  }
+
+  private static SSLContext loadContext(int id) throws Exception {
+    ClassLoader classloader = Thread.currentThread().getContextClassLoader();
+    KeyStore keyStore = KeyStore.getInstance("PKCS12");
+    try (InputStream is = classloader.getResourceAsStream("keystore" + id)) {
+      keyStore.load(is, "testpass".toCharArray());
+    }
+    KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+    kmf.init(keyStore, "testpass".toCharArray());
+    KeyStore trustStore = KeyStore.getInstance("PKCS12");
+    try (InputStream is = classloader.getResourceAsStream("truststore")) {
+      trustStore.load(is, "testpass".toCharArray());
+    }
+    TrustManagerFactory tmf =
+        TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+    tmf.init(trustStore);
+    SSLContext context = SSLContext.getInstance("TLSv1.2");
+    context.init(kmf.getKeyManagers(), tmf.getTrustManagers(), null);
+    return context;
+  }
+}
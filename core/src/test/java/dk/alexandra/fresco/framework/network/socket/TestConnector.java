@@ -1,9 +1,22 @@
 package dk.alexandra.fresco.framework.network.socket;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
 import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.network.CompressingNetwork;
+import dk.alexandra.fresco.framework.network.Network;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.Socket;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -38,4 +51,119 @@ public class TestConnector {
     }
   }
 
+  @Test
+  public void testNegotiateCompression() throws Exception {
+    ExecutorService es = Executors.newFixedThreadPool(3);
+    Map<Integer, NetworkConfiguration> confs = NetworkUtil.getNetworkConfigurations(3);
+    List<Future<Connector>> futures = new ArrayList<>(3);
+    for (NetworkConfiguration conf : confs.values()) {
+      futures.add(es.submit(
+          () -> new Connector(conf, Connector.DEFAULT_CONNECTION_TIMEOUT, true)));
+    }
+    List<Connector> connectors = new ArrayList<>(3);
+    try {
+      for (Future<Connector> future : futures) {
+        connectors.add(future.get());
+      }
+      for (int i = 0; i < 3; i++) {
+        Set<Integer> others = new HashSet<>(Arrays.asList(1, 2, 3));
+        others.remove(i + 1);
+        assertEquals(others, connectors.get(i).getCompressedParties());
+      }
+      List<Future<byte[]>> received = new ArrayList<>(3);
+      for (int i = 0; i < 3; i++) {
+        Connector connector = connectors.get(i);
+        NetworkConfiguration conf = confs.get(i + 1);
+        received.add(es.submit(() -> {
+          Network network = new CompressingNetwork(
+              new SocketNetwork(conf, connector.getSocketMap()),
+              connector.getCompressedParties());
+          byte[] data = new byte[4096];
+          Arrays.fill(data, (byte) conf.getMyId());
+          for (int j = 1; j <= 3; j++) {
+            network.send(j, data);
+          }
+          return network.receive(conf.getMyId() % 3 + 1);
+        }));
+      }
+      for (int i = 0; i < 3; i++) {
+        byte[] expected = new byte[4096];
+        Arrays.fill(expected, (byte) ((i + 1) % 3 + 1));
+        assertArrayEquals(expected, received.get(i).get());
+      }
+    } finally {
+      for (Connector connector : connectors) {
+        for (Socket socket : connector.getSocketMap().values()) {
+          socket.close();
+        }
+      }
+      es.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testHandshakeWithoutCompression() throws Exception {
+    ExecutorService es = Executors.newSingleThreadExecutor();
+    Map<Integer, NetworkConfiguration> confs = NetworkUtil.getNetworkConfigurations(2);
+    Future<Connector> future = es.submit(
+        () -> new Connector(confs.get(2), Connector.DEFAULT_CONNECTION_TIMEOUT, false));
+    // a client sending its party id and flags not asking for compression
+    Socket client = null;
+    try {
+      client = connectClient(confs.get(2));
+      client.getOutputStream().write(1);
+      client.getOutputStream().write(0);
+      assertEquals(0, client.getInputStream().read());
+      Connector connector = future.get();
+      assertTrue(connector.getSocketMap().containsKey(1));
+      assertTrue(connector.getCompressedParties().isEmpty());
+      for (Socket socket : connector.getSocketMap().values()) {
+        socket.close();
+      }
+    } finally {
+      if (client != null) {
+        client.close();
+      }
+      es.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testCompressionMismatch() throws Exception {
+    ExecutorService es = Executors.newSingleThreadExecutor();
+    Map<Integer, NetworkConfiguration> confs = NetworkUtil.getNetworkConfigurations(2);
+    Future<Connector> future = es.submit(
+        () -> new Connector(confs.get(2), Connector.DEFAULT_CONNECTION_TIMEOUT, false));
+    // a client asking for compression
+    Socket client = null;
+    try {
+      client = connectClient(confs.get(2));
+      client.getOutputStream().write(1);
+      client.getOutputStream().write(1);
+      // the server replies with its flags before failing
+      assertEquals(0, client.getInputStream().read());
+      try {
+        future.get();
+        fail("Should fail when the parties disagree on compression");
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause().getCause().getMessage().contains("disagree on compression"));
+      }
+    } finally {
+      if (client != null) {
+        client.close();
+      }
+      es.shutdownNow();
+    }
+  }
+
+  private static Socket connectClient(NetworkConfiguration conf) throws InterruptedException,
+      IOException {
+    while (true) {
+      try {
+        return new Socket(conf.getMe().getHostname(), conf.getMe().getPort());
+      } catch (ConnectException e) {
+        Thread.sleep(10);
+      }
+    }
+  }
 }
@@ -0,0 +1,100 @@
+package dk.alexandra.fresco.framework.network.socket;
+
+import static org.junit.Assert.assertEquals;
+
+import dk.alexandra.fresco.framework.Application;
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.builder.numeric.field.BigIntegerFieldDefinition;
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.configuration.NetworkUtil;
+import dk.alexandra.fresco.framework.network.MultiplexedNetwork;
+import dk.alexandra.fresco.framework.sce.SecureComputationEngine;
+import dk.alexandra.fresco.framework.sce.SecureComputationEngineImpl;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchedProtocolEvaluator;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchedStrategy;
+import dk.alexandra.fresco.framework.util.ModulusFinder;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticProtocolSuite;
+import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticResourcePool;
+import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticResourcePoolImpl;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+/**
+ * Runs several parties in this JVM, each evaluating a number of applications concurrently over a
+ * {@link MultiplexedNetwork} on top of a {@link SocketNetwork}, both on platform threads and on
+ * virtual threads. On JVMs without virtual threads both modes use platform threads.
+ */
+public class TestMultiplexedVirtualThreads {
+
+  private static final BigIntegerFieldDefinition fieldDefinition =
+      new BigIntegerFieldDefinition(ModulusFinder.findSuitableModulus(64));
+  private static final int PARTIES = 3;
+  private static final int APPLICATIONS = 8;
+  private static final int ROUNDS = 20;
+
+  @Test
+  public void testPlatformThreads() throws Exception {
+    run(false);
+  }
+
+  @Test
+  public void testVirtualThreads() throws Exception {
+    run(true);
+  }
+
+  private void run(boolean virtual) throws Exception {
+    Map<Integer, NetworkConfiguration> confs = NetworkUtil.getNetworkConfigurations(PARTIES);
+    ExecutorService executor = Executors.newFixedThreadPool(PARTIES);
+    try {
+      List<Future<List<BigInteger>>> futures = new ArrayList<>();
+      for (NetworkConfiguration conf : confs.values()) {
+        futures.add(executor.submit(() -> runParty(conf, virtual)));
+      }
+      for (Future<List<BigInteger>> future : futures) {
+        List<BigInteger> outputs = future.get();
+        assertEquals(APPLICATIONS, outputs.size());
+        for (BigInteger output : outputs) {
+          assertEquals(BigInteger.valueOf(ROUNDS - 1), output);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private List<BigInteger> runParty(NetworkConfiguration conf, boolean virtual)
+      throws IOException {
+    DummyArithmeticProtocolSuite suite = new DummyArithmeticProtocolSuite(fieldDefinition, 64, 0);
+    SecureComputationEngine<DummyArithmeticResourcePool, ProtocolBuilderNumeric> sce =
+        new SecureComputationEngineImpl<>(suite,
+            new BatchedProtocolEvaluator<>(new BatchedStrategy<>(), suite), virtual);
+    List<Application<BigInteger, ProtocolBuilderNumeric>> apps = new ArrayList<>();
+    for (int i = 0; i < APPLICATIONS; i++) {
+      apps.add(builder -> {
+        DRes<SInt> value = null;
+        for (int round = 0; round < ROUNDS; round++) {
+          // inputs in a sequential builder are evaluated in separate rounds
+          value = builder.numeric().input(BigInteger.valueOf(round), round % PARTIES + 1);
+        }
+        return builder.numeric().open(value);
+      });
+    }
+    try (MultiplexedNetwork network = new MultiplexedNetwork(new SocketNetwork(conf, virtual))) {
+      return sce.runApplications(apps,
+          i -> new DummyArithmeticResourcePoolImpl(conf.getMyId(), PARTIES, fieldDefinition),
+          network, Duration.ofMinutes(2));
+    } finally {
+      sce.shutdownSCE();
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package dk.alexandra.fresco.framework.network.socket;
 
 import static dk.alexandra.fresco.framework.network.socket.Connector.DEFAULT_CONNECTION_TIMEOUT;
+import static org.junit.Assert.assertArrayEquals;
 
 import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
 import dk.alexandra.fresco.framework.network.AbstractCloseableNetworkTest;
@@ -170,7 +171,7 @@ public class TestSocketNetwork extends AbstractCloseableNetworkTest {
       }
       Map<Integer, Socket> socketMap1 = fs.get(0).get().getSocketMap();
       Map<Integer, Socket> socketMap2 = fs.get(1).get().getSocketMap();
-      Receiver r = new Receiver(socketMap1.get(2));
+      Receiver r = new Receiver(socketMap1.get(2), false, SocketNetwork.DEFAULT_QUEUE_CAPACITY);
       socketMap2.get(1).close();
     } finally {
       for (Future<NetworkConnector> futureConn : fs) {
@@ -226,7 +227,7 @@ public class TestSocketNetwork extends AbstractCloseableNetworkTest {
         fs.add(es.submit(() -> new Connector(confs.get(id), DEFAULT_CONNECTION_TIMEOUT)));
       }
       Map<Integer, Socket> socketMap = fs.get(0).get().getSocketMap();
-      Sender s = new Sender(socketMap.get(2));
+      Sender s = new Sender(socketMap.get(2), false, SocketNetwork.DEFAULT_QUEUE_CAPACITY);
       socketMap.get(2).close();
       s.stop();
     } finally {
@@ -253,7 +254,7 @@ public class TestSocketNetwork extends AbstractCloseableNetworkTest {
       }
       Map<Integer, Socket> socketMap = fs.get(0).get().getSocketMap();
       Socket socket = socketMap.get(2);
-      Sender sender = new Sender(socket);
+      Sender sender = new Sender(socket, false, SocketNetwork.DEFAULT_QUEUE_CAPACITY);
 
       socket.close();
       sender.queueMessage(new byte[1]);
@@ -267,4 +268,46 @@ public class TestSocketNetwork extends AbstractCloseableNetworkTest {
     }
   }
 
+  @Test(timeout = TWO_MINUTE_TIMEOUT_MILLIS)
+  public void testQueuesSpill() throws Exception {
+    final int numParties = 2;
+    final int numMessages = 1000;
+    List<NetworkConfiguration> confs = getNetConfs(numParties);
+    ExecutorService es = Executors.newFixedThreadPool(numParties);
+    try {
+      List<Future<CloseableNetwork>> fs = new ArrayList<>(numParties);
+      for (int i = 0; i < numParties; i++) {
+        final int id = i;
+        // queues of a single message spill over most of the time
+        fs.add(es.submit(() -> new SocketNetwork(confs.get(id),
+            new Connector(confs.get(id), DEFAULT_CONNECTION_TIMEOUT).getSocketMap(), false, 1)));
+      }
+      networks = new HashMap<>();
+      for (int i = 0; i < numParties; i++) {
+        networks.put(i + 1, fs.get(i).get());
+      }
+      // both parties send everything to each other and to themselves before receiving anything
+      List<Future<?>> parties = new ArrayList<>(numParties);
+      for (int i = 1; i <= numParties; i++) {
+        final int myId = i;
+        final int otherId = numParties + 1 - i;
+        parties.add(es.submit(() -> {
+          for (int j = 0; j < numMessages; j++) {
+            networks.get(myId).send(otherId, new byte[] { (byte) j });
+            networks.get(myId).send(myId, new byte[] { (byte) j });
+          }
+          for (int j = 0; j < numMessages; j++) {
+            assertArrayEquals(new byte[] { (byte) j }, networks.get(myId).receive(otherId));
+            assertArrayEquals(new byte[] { (byte) j }, networks.get(myId).receive(myId));
+          }
+          return null;
+        }));
+      }
+      for (Future<?> party : parties) {
+        party.get();
+      }
+    } finally {
+      es.shutdownNow();
+    }
+  }
 }
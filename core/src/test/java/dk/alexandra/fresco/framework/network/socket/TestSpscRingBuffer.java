@@ -0,0 +1,106 @@
+package dk.alexandra.fresco.framework.network.socket;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class TestSpscRingBuffer {
+
+  @Test
+  public void testAddAndPoll() {
+    SpscRingBuffer<Integer> buffer = new SpscRingBuffer<>(3);
+    assertTrue(buffer.isEmpty());
+    // capacity is rounded up to four, the rest spill over
+    for (int i = 0; i < 10; i++) {
+      buffer.add(i);
+    }
+    assertFalse(buffer.isEmpty());
+    for (int i = 0; i < 10; i++) {
+      assertEquals(i, (int) buffer.poll());
+    }
+    assertNull(buffer.poll());
+    assertTrue(buffer.isEmpty());
+  }
+
+  @Test
+  public void testOrderWhileSpilling() {
+    SpscRingBuffer<Integer> buffer = new SpscRingBuffer<>(2);
+    int added = 0;
+    int polled = 0;
+    for (int round = 0; round < 10; round++) {
+      // add more than fits in the ring buffer, but only remove some, so that new elements arrive
+      // while older ones are still in the spill queue
+      for (int i = 0; i < 3; i++) {
+        buffer.add(added++);
+      }
+      for (int i = 0; i < 2; i++) {
+        assertEquals(polled++, (int) buffer.poll());
+      }
+    }
+    while (polled < added) {
+      assertEquals(polled++, (int) buffer.poll());
+    }
+    assertTrue(buffer.isEmpty());
+  }
+
+  @Test
+  public void testWrapAround() {
+    SpscRingBuffer<Integer> buffer = new SpscRingBuffer<>(2);
+    for (int i = 0; i < 10; i++) {
+      buffer.add(i);
+      assertEquals(i, (int) buffer.poll());
+    }
+  }
+
+  @Test
+  public void testTimeouts() throws InterruptedException {
+    SpscRingBuffer<Integer> buffer = new SpscRingBuffer<>(1);
+    assertNull(buffer.poll(10, TimeUnit.MILLISECONDS));
+    buffer.add(1);
+    assertEquals(1, (int) buffer.poll(10, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testProducerConsumer() throws Exception {
+    int elements = 100000;
+    SpscRingBuffer<Integer> buffer = new SpscRingBuffer<>(16);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<?> producer = executor.submit(() -> {
+        for (int i = 0; i < elements; i++) {
+          buffer.add(i);
+        }
+        return null;
+      });
+      for (int i = 0; i < elements; i++) {
+        assertEquals(i, (int) buffer.take());
+      }
+      producer.get();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test(expected = InterruptedException.class)
+  public void testInterrupted() throws InterruptedException {
+    Thread.currentThread().interrupt();
+    new SpscRingBuffer<Integer>(1).take();
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void testNullElement() {
+    new SpscRingBuffer<Integer>(1).add(null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalCapacity() {
+    new SpscRingBuffer<Integer>(0);
+  }
+}
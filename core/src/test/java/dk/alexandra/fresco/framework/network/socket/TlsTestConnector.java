@@ -1,6 +1,5 @@
 package dk.alexandra.fresco.framework.network.socket;
 
-import dk.alexandra.fresco.framework.MaliciousException;
 import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
 import dk.alexandra.fresco.framework.network.socket.Connector;
 import dk.alexandra.fresco.framework.network.socket.NetworkConnector;
@@ -8,10 +7,7 @@ import java.net.Socket;
 import java.security.Principal;
 import java.time.Duration;
 import java.util.Map;
-import java.util.Map.Entry;
-import javax.net.ssl.SSLPeerUnverifiedException;
 import javax.net.ssl.SSLServerSocketFactory;
-import javax.net.ssl.SSLSocket;
 import javax.net.ssl.SSLSocketFactory;
 import javax.security.auth.x500.X500Principal;
 
@@ -32,9 +28,10 @@ import javax.security.auth.x500.X500Principal;
  * An important responsibility of this class is to validate the SSL/TLS sessions once a network is
  * connected. I.e., since the SSL/TLS implementation accepts connections from any trusted peer we
  * need to verify that the peers are not trying to impersonate a different party (for example in the
- * case where P1 in a protocol tries impersonate P2). Here this is done in the
- * <code>verifyPeers</code> method by checking that the peers certificate conforms to the
- * pre-determined format {@value #NAME_FORMAT} (with %d substitutet by the party id).
+ * case where P1 in a protocol tries impersonate P2). Here this is done using the
+ * <code>verifyPeers</code> method of {@link ConnectionPool} by checking that the peers certificate
+ * conforms to the pre-determined format {@value #NAME_FORMAT} (with %d substitutet by the party
+ * id).
  * </p>
  */
 public class TlsTestConnector implements NetworkConnector {
@@ -73,7 +70,8 @@ public class TlsTestConnector implements NetworkConnector {
       SSLServerSocketFactory serverFactory) {
     Connector connector =
         new Connector(conf, timeout, socketFactory, new ClientAuthSslSocketFactory(serverFactory));
-    verifyPeers(connector.getSocketMap());
+    ConnectionPool.verifyPeers(connector.getSocketMap(),
+        TlsTestConnector::getExpectedX500Principal);
     socketMap = connector.getSocketMap();
   }
 
@@ -82,32 +80,6 @@ public class TlsTestConnector implements NetworkConnector {
     return socketMap;
   }
 
-  /**
-   * Given a mapping from party id's to SSLSocket's checks that the certificate of the peer is
-   * consistent with the party id.
-   *
-   * @param socketMap a mapping from party id to SSLSocket
-   */
-  private void verifyPeers(Map<Integer, Socket> socketMap) {
-    for (Entry<Integer, Socket> entry : socketMap.entrySet()) {
-      SSLSocket sock = (SSLSocket) entry.getValue();
-      Principal principal;
-      try {
-        principal = sock.getSession().getPeerPrincipal();
-      } catch (SSLPeerUnverifiedException e) {
-        String message = String.format("Unable to validate P%d)", entry.getKey());
-        throw new RuntimeException(message, e);
-      }
-      Principal expected = getExpectedX500Principal(entry.getKey());
-      if (!principal.equals(expected)) {
-        String message =
-            String.format("Unable to validate P%d. Unexpected principal %s, expected %s",
-                entry.getKey(), principal, expected);
-        throw new MaliciousException(message);
-      }
-    }
-  }
-
   private static Principal getExpectedX500Principal(int i) {
     return new X500Principal(String.format(NAME_FORMAT, i));
   }
@@ -0,0 +1,52 @@
+package dk.alexandra.fresco.framework.sce.evaluator;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+public class TestBatchSizeTuner {
+
+  @Test
+  public void testGrowsWhileThroughputImproves() {
+    BatchSizeTuner tuner = new BatchSizeTuner(4, 1024);
+    assertThat(tuner.propose(16, 16, 100, false), is(32));
+    assertThat(tuner.propose(32, 32, 150, false), is(64));
+    assertThat(tuner.propose(64, 64, 200, false), is(128));
+  }
+
+  @Test
+  public void testReversesWhenThroughputDrops() {
+    BatchSizeTuner tuner = new BatchSizeTuner(4, 1024);
+    assertThat(tuner.propose(16, 16, 100, false), is(32));
+    assertThat(tuner.propose(32, 32, 400, false), is(16));
+    // throughput improved after shrinking, so keep shrinking
+    assertThat(tuner.propose(16, 16, 100, false), is(8));
+  }
+
+  @Test
+  public void testStaysWithinBounds() {
+    BatchSizeTuner tuner = new BatchSizeTuner(4, 32);
+    assertThat(tuner.propose(32, 32, 1, false), is(32));
+    assertThat(tuner.clamp(1), is(4));
+    assertThat(tuner.clamp(Integer.MAX_VALUE), is(32));
+    BatchSizeTuner shrinking = new BatchSizeTuner(4, 32);
+    assertThat(shrinking.propose(4, 4, 1, true), is(4));
+  }
+
+  @Test
+  public void testShrinksUnderMemoryPressure() {
+    BatchSizeTuner tuner = new BatchSizeTuner(4, 1024);
+    assertThat(tuner.propose(64, 64, 100, true), is(32));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidBounds() {
+    new BatchSizeTuner(16, 8);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidMinimum() {
+    new BatchSizeTuner(0, 8);
+  }
+}
@@ -1,8 +1,13 @@
 package dk.alexandra.fresco.framework.util;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import java.util.Random;
 import org.hamcrest.core.IsEqual;
@@ -66,7 +71,7 @@ public class TestAesCtrDrbg {
   @Test(expected = IllegalArgumentException.class)
   public void testNextBytesBounded() {
     AesCtrDrbg drbg = new AesCtrDrbg(new byte[32]);
-    drbg.nextBytesBounded(new byte[20], new byte[10]);
+    drbg.nextBytesBounded(new byte[10], 0, 20);
   }
 
   @Test
@@ -131,4 +136,94 @@ public class TestAesCtrDrbg {
 
   }
 
+  @Test
+  public void testNextBytesKnownAnswer() throws NoSuchAlgorithmException {
+    byte[] seed = new byte[32];
+    for (int i = 0; i < seed.length; i++) {
+      seed[i] = (byte) i;
+    }
+    AesCtrDrbg drbg = new AesCtrDrbg(seed);
+    MessageDigest digest = MessageDigest.getInstance("SHA-256");
+    // sizes crossing and hitting the re-keying limit of 64 KiB
+    int[] sizes = {1, 15, 16, 1500, 65536, 70000, 1 << 20, 65535, 3};
+    for (int size : sizes) {
+      byte[] bytes = new byte[size];
+      drbg.nextBytes(bytes);
+      digest.update(bytes);
+    }
+    BigInteger expected =
+        new BigInteger("521030ca78160e43f1118bd2eeb91c566e29f5cc57fdca5b13eedaa7010c21ea", 16);
+    assertEquals(expected, new BigInteger(1, digest.digest()));
+  }
+
+  @Test
+  public void testNextBytesRange() {
+    byte[] expected = new byte[70000];
+    new AesCtrDrbg(new byte[32]).nextBytes(expected);
+    byte[] bytes = new byte[70010];
+    new AesCtrDrbg(new byte[32]).nextBytes(bytes, 5, 70000);
+    assertArrayEquals(new byte[5], Arrays.copyOfRange(bytes, 0, 5));
+    assertArrayEquals(expected, Arrays.copyOfRange(bytes, 5, 70005));
+    assertArrayEquals(new byte[5], Arrays.copyOfRange(bytes, 70005, 70010));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testNextBytesRangeOutOfBounds() {
+    new AesCtrDrbg(new byte[32]).nextBytes(new byte[10], 5, 6);
+  }
+
+  @Test
+  public void testNextBytesByteBuffer() {
+    byte[] expected = new byte[200000];
+    new AesCtrDrbg(new byte[32]).nextBytes(expected);
+    for (ByteBuffer buffer : Arrays.asList(ByteBuffer.allocate(200002),
+        ByteBuffer.allocateDirect(200002))) {
+      buffer.position(1).limit(200001);
+      new AesCtrDrbg(new byte[32]).nextBytes(buffer);
+      assertEquals(200001, buffer.position());
+      byte[] actual = new byte[200000];
+      buffer.position(1);
+      buffer.get(actual);
+      assertArrayEquals(expected, actual);
+    }
+  }
+
+  @Test
+  public void testNextLongs() {
+    long[] longs = new long[20000];
+    new AesCtrDrbg(new byte[32]).nextLongs(longs);
+    byte[] bytes = new byte[longs.length * Long.BYTES];
+    new AesCtrDrbg(new byte[32]).nextBytes(bytes);
+    long[] expected = new long[longs.length];
+    ByteBuffer.wrap(bytes).asLongBuffer().get(expected);
+    assertArrayEquals(expected, longs);
+  }
+
+  @Test
+  public void testDefaultBulkMethods() {
+    Drbg drbg = new Drbg() {
+      final AesCtrDrbg inner = new AesCtrDrbg(new byte[32]);
+
+      @Override
+      public void nextBytes(byte[] bytes) {
+        inner.nextBytes(bytes);
+      }
+    };
+    byte[] expected = new byte[3 * 64];
+    new AesCtrDrbg(new byte[32]).nextBytes(expected);
+    byte[] range = new byte[66];
+    drbg.nextBytes(range, 1, 64);
+    assertArrayEquals(Arrays.copyOfRange(expected, 0, 64), Arrays.copyOfRange(range, 1, 65));
+    ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+    drbg.nextBytes(buffer);
+    assertFalse(buffer.hasRemaining());
+    byte[] actual = new byte[64];
+    ((ByteBuffer) buffer.flip()).get(actual);
+    assertArrayEquals(Arrays.copyOfRange(expected, 64, 128), actual);
+    long[] longs = new long[8];
+    drbg.nextLongs(longs);
+    long[] expectedLongs = new long[8];
+    ByteBuffer.wrap(expected, 128, 64).asLongBuffer().get(expectedLongs);
+    assertArrayEquals(expectedLongs, longs);
+  }
 }
@@ -0,0 +1,42 @@
+package dk.alexandra.fresco.framework.util;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+
+public class TestVirtualThreads {
+
+  @Test
+  public void testPlatformThread() throws InterruptedException {
+    AtomicBoolean ran = new AtomicBoolean(false);
+    Thread thread = VirtualThreads.newThread("platform", false, () -> ran.set(true));
+    assertThat(thread.getName(), is("platform"));
+    assertTrue(thread.isDaemon());
+    thread.start();
+    thread.join();
+    assertTrue(ran.get());
+  }
+
+  @Test
+  public void testVirtualThread() throws InterruptedException {
+    // falls back to a platform thread if virtual threads are not supported
+    AtomicBoolean ran = new AtomicBoolean(false);
+    Thread thread = VirtualThreads.newThread("virtual", true, () -> ran.set(true));
+    assertThat(thread.getName(), is("virtual"));
+    assertTrue(thread.isDaemon());
+    thread.start();
+    thread.join();
+    assertTrue(ran.get());
+  }
+
+  @Test
+  public void testThreadFactory() {
+    ThreadFactory factory = VirtualThreads.newThreadFactory("test-", true);
+    assertThat(factory.newThread(() -> { }).getName(), is("test-1"));
+    assertThat(factory.newThread(() -> { }).getName(), is("test-2"));
+  }
+}
@@ -10,10 +10,15 @@ import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
 import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.crypto.mimc.MiMCDecryption;
+import dk.alexandra.fresco.lib.crypto.mimc.MiMCDecryptionBatch;
 import dk.alexandra.fresco.lib.crypto.mimc.MiMCEncryption;
+import dk.alexandra.fresco.lib.crypto.mimc.MiMCEncryptionBatch;
 import dk.alexandra.fresco.lib.crypto.mimc.MimcDecryptionReducedRounds;
 import dk.alexandra.fresco.lib.crypto.mimc.MimcEncryptionReducedRounds;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 import org.junit.Assert;
 
 public class MiMCTests {
@@ -168,4 +173,77 @@ public class MiMCTests {
       };
     }
   }
+
+  public static class TestMiMCEncDecBatch<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<ResourcePoolT, ProtocolBuilderNumeric>() {
+
+        @Override
+        public void test() throws Exception {
+          List<BigInteger> input = new ArrayList<>();
+          for (int i = 0; i < 7; i++) {
+            input.add(BigInteger.valueOf(i * 1000 + 13));
+          }
+          Application<Pair<List<BigInteger>, Pair<List<BigInteger>, List<BigInteger>>>,
+              ProtocolBuilderNumeric> app = builder -> {
+                Numeric numeric = builder.numeric();
+                DRes<SInt> encryptionKey = numeric.known(BigInteger.valueOf(527618));
+                List<DRes<SInt>> plainTexts = input.stream().map(numeric::known)
+                    .collect(Collectors.toList());
+                List<DRes<SInt>> expectedCiphers = new ArrayList<>();
+                for (DRes<SInt> plainText : plainTexts) {
+                  expectedCiphers.add(builder.seq(new MiMCEncryption(plainText, encryptionKey)));
+                }
+                DRes<List<DRes<SInt>>> cipherTexts =
+                    builder.seq(new MiMCEncryptionBatch(plainTexts, encryptionKey));
+                DRes<List<DRes<SInt>>> decrypted = builder.seq(seq ->
+                    seq.seq(new MiMCDecryptionBatch(cipherTexts.out(), encryptionKey)));
+                DRes<List<DRes<BigInteger>>> openedExpected =
+                    builder.collections().openList(() -> expectedCiphers);
+                DRes<List<DRes<BigInteger>>> openedCiphers =
+                    builder.collections().openList(cipherTexts);
+                DRes<List<DRes<BigInteger>>> openedPlain =
+                    builder.collections().openList(decrypted);
+                return () -> new Pair<>(unwrap(openedPlain),
+                    new Pair<>(unwrap(openedExpected), unwrap(openedCiphers)));
+              };
+
+          Pair<List<BigInteger>, Pair<List<BigInteger>, List<BigInteger>>> result =
+              runApplication(app);
+          Assert.assertEquals(input, result.getFirst());
+          Assert.assertEquals(result.getSecond().getFirst(), result.getSecond().getSecond());
+        }
+      };
+    }
+
+    private static List<BigInteger> unwrap(DRes<List<DRes<BigInteger>>> values) {
+      return values.out().stream().map(DRes::out).collect(Collectors.toList());
+    }
+  }
+
+  public static class TestMiMCEncDecBatchEmpty<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<ResourcePoolT, ProtocolBuilderNumeric>() {
+
+        @Override
+        public void test() throws Exception {
+          Application<Integer, ProtocolBuilderNumeric> app = builder -> {
+            DRes<SInt> encryptionKey = builder.numeric().known(BigInteger.TEN);
+            DRes<List<DRes<SInt>>> cipherTexts =
+                builder.seq(new MiMCEncryptionBatch(new ArrayList<>(), encryptionKey));
+            DRes<List<DRes<SInt>>> decrypted = builder.seq(seq ->
+                seq.seq(new MiMCDecryptionBatch(cipherTexts.out(), encryptionKey)));
+            return () -> decrypted.out().size();
+          };
+          Assert.assertEquals(0, (int) runApplication(app));
+        }
+      };
+    }
+  }
 }
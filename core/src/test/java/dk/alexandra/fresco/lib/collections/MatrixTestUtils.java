@@ -3,6 +3,9 @@ package dk.alexandra.fresco.lib.collections;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
 
 public class MatrixTestUtils {
   
@@ -41,5 +44,65 @@ public class MatrixTestUtils {
     }
     return new Matrix<>(h, w, mat);
   }
+
+  /**
+   * Creates matrix of given dimensions filled with random values, with keys in the first column.
+   * The keys are drawn from an interval of length keyBound around zero, such that keys repeat if
+   * keyBound is small compared to the number of rows. The other values are drawn from
+   * [-1000, 1000). The same dimensions always give the same matrix.
+   *
+   * @param numRows
+   * @param numCols
+   * @param keyBound
+   * @return
+   */
+  public Matrix<BigInteger> getRandomMatrix(int numRows, int numCols, int keyBound) {
+    return getRandomMatrix(numRows, numCols, 0, keyBound);
+  }
+
+  /**
+   * As {@link #getRandomMatrix(int, int, int)}, but with the keys in the given column.
+   *
+   * @param numRows
+   * @param numCols
+   * @param keyColIdx
+   * @param keyBound
+   * @return
+   */
+  public Matrix<BigInteger> getRandomMatrix(int numRows, int numCols, int keyColIdx,
+      int keyBound) {
+    Random random = new Random(42);
+    ArrayList<ArrayList<BigInteger>> mat = new ArrayList<>(numRows);
+    for (int r = 0; r < numRows; r++) {
+      ArrayList<BigInteger> row = new ArrayList<>(numCols);
+      for (int c = 0; c < numCols; c++) {
+        if (c == keyColIdx) {
+          row.add(BigInteger.valueOf(random.nextInt(keyBound) - keyBound / 2));
+        } else {
+          row.add(BigInteger.valueOf(random.nextInt(2000) - 1000));
+        }
+      }
+      mat.add(row);
+    }
+    return new Matrix<>(numRows, numCols, mat);
+  }
+
+  /**
+   * Gets a lexicographic order on rows, e.g., to compare the rows of matrices as multisets by
+   * sorting them.
+   *
+   * @return
+   */
+  public Comparator<List<BigInteger>> getRowOrder() {
+    return (r1, r2) -> {
+      for (int i = 0; i < r1.size(); i++) {
+        int cmp = r1.get(i).compareTo(r2.get(i));
+        if (cmp != 0) {
+          return cmp;
+        }
+      }
+      return 0;
+    };
+  }
   
 }
@@ -0,0 +1,113 @@
+package dk.alexandra.fresco.lib.collections.relational;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import dk.alexandra.fresco.framework.Application;
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThread;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.collections.Matrix;
+import dk.alexandra.fresco.lib.collections.MatrixTestUtils;
+import dk.alexandra.fresco.lib.collections.MatrixUtils;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class LeakyJoinTests {
+
+  public static class TestLeakyJoinGeneric<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    final Matrix<BigInteger> left;
+    final int leftKeyColIdx;
+    final Matrix<BigInteger> right;
+    final int rightKeyColIdx;
+
+    TestLeakyJoinGeneric(Matrix<BigInteger> left, int leftKeyColIdx, Matrix<BigInteger> right,
+        int rightKeyColIdx) {
+      this.left = left;
+      this.leftKeyColIdx = leftKeyColIdx;
+      this.right = right;
+      this.rightKeyColIdx = rightKeyColIdx;
+    }
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<ResourcePoolT, ProtocolBuilderNumeric>() {
+        @Override
+        public void test() throws Exception {
+          Application<Matrix<BigInteger>, ProtocolBuilderNumeric> testApplication = root -> {
+            DRes<Matrix<DRes<SInt>>> closedLeft = root.collections().closeMatrix(left, 1);
+            DRes<Matrix<DRes<SInt>>> closedRight = root.collections().closeMatrix(right, 2);
+            DRes<Matrix<DRes<SInt>>> joined = root.collections()
+                .leakyJoin(closedLeft, leftKeyColIdx, closedRight, rightKeyColIdx);
+            DRes<Matrix<DRes<BigInteger>>> opened = root.collections().openMatrix(joined);
+            return () -> new MatrixUtils().unwrapMatrix(opened);
+          };
+          Matrix<BigInteger> opened = runApplication(testApplication);
+          // values may be negative so interpret the opened values as signed
+          FieldDefinition fieldDefinition = getFieldDefinition();
+          List<ArrayList<BigInteger>> actualRows = opened.getRows().stream()
+              .map(row -> row.stream().map(fieldDefinition::convertToSigned)
+                  .collect(Collectors.toCollection(ArrayList::new)))
+              .collect(Collectors.toList());
+          // rows are shuffled, so compare the rows as multisets
+          List<ArrayList<BigInteger>> expectedRows = expected();
+          Comparator<List<BigInteger>> rowOrder = new MatrixTestUtils().getRowOrder();
+          actualRows.sort(rowOrder);
+          expectedRows.sort(rowOrder);
+          assertThat(actualRows, is(expectedRows));
+        }
+      };
+    }
+
+    private List<ArrayList<BigInteger>> expected() {
+      List<ArrayList<BigInteger>> expected = new ArrayList<>();
+      for (ArrayList<BigInteger> leftRow : left.getRows()) {
+        for (ArrayList<BigInteger> rightRow : right.getRows()) {
+          if (leftRow.get(leftKeyColIdx).equals(rightRow.get(rightKeyColIdx))) {
+            ArrayList<BigInteger> row = new ArrayList<>(leftRow);
+            for (int j = 0; j < rightRow.size(); j++) {
+              if (j != rightKeyColIdx) {
+                row.add(rightRow.get(j));
+              }
+            }
+            expected.add(row);
+          }
+        }
+      }
+      return expected;
+    }
+  }
+
+  public static <ResourcePoolT extends ResourcePool> TestLeakyJoinGeneric<ResourcePoolT> join() {
+    MatrixTestUtils utils = new MatrixTestUtils();
+    return new TestLeakyJoinGeneric<>(utils.getRandomMatrix(9, 3, 0, 6), 0,
+        utils.getRandomMatrix(7, 2, 1, 6), 1);
+  }
+
+  public static <ResourcePoolT extends ResourcePool> TestLeakyJoinGeneric<ResourcePoolT>
+      intersection() {
+    MatrixTestUtils utils = new MatrixTestUtils();
+    BigInteger[][] leftRows = {{BigInteger.valueOf(3)}, {BigInteger.valueOf(17)},
+        {BigInteger.valueOf(5)}, {BigInteger.valueOf(42)}};
+    BigInteger[][] rightRows = {{BigInteger.valueOf(42)}, {BigInteger.valueOf(8)},
+        {BigInteger.valueOf(3)}};
+    return new TestLeakyJoinGeneric<>(utils.getInputMatrix(leftRows), 0,
+        utils.getInputMatrix(rightRows), 0);
+  }
+
+  public static <ResourcePoolT extends ResourcePool> TestLeakyJoinGeneric<ResourcePoolT>
+      joinEmpty() {
+    MatrixTestUtils utils = new MatrixTestUtils();
+    return new TestLeakyJoinGeneric<>(utils.getInputMatrix(0, 0), 0,
+        utils.getRandomMatrix(3, 2, 6), 0);
+  }
+}
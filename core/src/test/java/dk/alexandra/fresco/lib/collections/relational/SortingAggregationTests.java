@@ -0,0 +1,135 @@
+package dk.alexandra.fresco.lib.collections.relational;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import dk.alexandra.fresco.framework.Application;
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThread;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.collections.Matrix;
+import dk.alexandra.fresco.lib.collections.MatrixTestUtils;
+import dk.alexandra.fresco.lib.collections.MatrixUtils;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+public class SortingAggregationTests {
+
+  public static class TestSortingAggregationGeneric<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    final Matrix<BigInteger> input;
+    final List<Pair<Integer, AggregationType>> aggregations;
+
+    TestSortingAggregationGeneric(Matrix<BigInteger> input,
+        List<Pair<Integer, AggregationType>> aggregations) {
+      this.input = input;
+      this.aggregations = aggregations;
+    }
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<ResourcePoolT, ProtocolBuilderNumeric>() {
+        @Override
+        public void test() throws Exception {
+          Application<Matrix<BigInteger>, ProtocolBuilderNumeric> testApplication = root -> {
+            DRes<Matrix<DRes<SInt>>> closed = root.collections().closeMatrix(input, 1);
+            DRes<Matrix<DRes<SInt>>> aggregated =
+                root.collections().aggregate(closed, 0, aggregations);
+            DRes<Matrix<DRes<BigInteger>>> opened = root.collections().openMatrix(aggregated);
+            return () -> new MatrixUtils().unwrapMatrix(opened);
+          };
+          Matrix<BigInteger> actual = runApplication(testApplication);
+          FieldDefinition fieldDefinition = getFieldDefinition();
+          List<List<BigInteger>> actualRows = actual.getRows().stream()
+              .map(row -> row.stream().map(fieldDefinition::convertToSigned)
+                  .collect(Collectors.toList()))
+              .collect(Collectors.toList());
+          // sort by key to undo shuffling (keys are unique in the result)
+          actualRows.sort((r1, r2) -> r1.get(0).compareTo(r2.get(0)));
+          assertThat(actualRows, is(expected()));
+        }
+      };
+    }
+
+    private List<List<BigInteger>> expected() {
+      Map<BigInteger, List<ArrayList<BigInteger>>> groups = new TreeMap<>();
+      for (ArrayList<BigInteger> row : input.getRows()) {
+        groups.computeIfAbsent(row.get(0), key -> new ArrayList<>()).add(row);
+      }
+      List<List<BigInteger>> expected = new ArrayList<>();
+      for (Map.Entry<BigInteger, List<ArrayList<BigInteger>>> group : groups.entrySet()) {
+        List<BigInteger> row = new ArrayList<>();
+        row.add(group.getKey());
+        for (Pair<Integer, AggregationType> aggregation : aggregations) {
+          List<BigInteger> column = group.getValue().stream()
+              .map(r -> r.get(aggregation.getFirst())).collect(Collectors.toList());
+          switch (aggregation.getSecond()) {
+            case SUM:
+              row.add(column.stream().reduce(BigInteger.ZERO, BigInteger::add));
+              break;
+            case COUNT:
+              row.add(BigInteger.valueOf(column.size()));
+              break;
+            case MIN:
+              row.add(column.stream().reduce(BigInteger::min).get());
+              break;
+            default:
+              row.add(column.stream().reduce(BigInteger::max).get());
+          }
+        }
+        expected.add(row);
+      }
+      return expected;
+    }
+  }
+
+  private static List<Pair<Integer, AggregationType>> allAggregations() {
+    return Arrays.asList(
+        new Pair<>(1, AggregationType.SUM),
+        new Pair<>(1, AggregationType.COUNT),
+        new Pair<>(1, AggregationType.MIN),
+        new Pair<>(2, AggregationType.MAX),
+        new Pair<>(2, AggregationType.SUM));
+  }
+
+  public static <ResourcePoolT extends ResourcePool> TestSortingAggregationGeneric<ResourcePoolT>
+      aggregate() {
+    MatrixTestUtils utils = new MatrixTestUtils();
+    return new TestSortingAggregationGeneric<>(utils.getRandomMatrix(13, 3, 4), allAggregations());
+  }
+
+  public static <ResourcePoolT extends ResourcePool> TestSortingAggregationGeneric<ResourcePoolT>
+      aggregateUniqueKeys() {
+    MatrixTestUtils utils = new MatrixTestUtils();
+    BigInteger[][] rawRows = {
+        {BigInteger.valueOf(3), BigInteger.valueOf(7), BigInteger.valueOf(8)},
+        {BigInteger.valueOf(1), BigInteger.valueOf(-19), BigInteger.valueOf(20)},
+        {BigInteger.valueOf(2), BigInteger.valueOf(10), BigInteger.valueOf(-11)},
+        {BigInteger.valueOf(4), BigInteger.valueOf(4), BigInteger.valueOf(5)}};
+    return new TestSortingAggregationGeneric<>(utils.getInputMatrix(rawRows),
+        allAggregations());
+  }
+
+  public static <ResourcePoolT extends ResourcePool> TestSortingAggregationGeneric<ResourcePoolT>
+      aggregateSingleGroup() {
+    MatrixTestUtils utils = new MatrixTestUtils();
+    return new TestSortingAggregationGeneric<>(utils.getRandomMatrix(9, 3, 1), allAggregations());
+  }
+
+  public static <ResourcePoolT extends ResourcePool> TestSortingAggregationGeneric<ResourcePoolT>
+      aggregateEmpty() {
+    MatrixTestUtils utils = new MatrixTestUtils();
+    return new TestSortingAggregationGeneric<>(utils.getInputMatrix(0, 0), allAggregations());
+  }
+}
@@ -0,0 +1,42 @@
+package dk.alexandra.fresco.lib.collections.relational;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.collections.Matrix;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class TestSortingAggregation {
+
+  private final Matrix<DRes<SInt>> matrix = matrix();
+
+  private static Matrix<DRes<SInt>> matrix() {
+    ArrayList<ArrayList<DRes<SInt>>> rows = new ArrayList<>();
+    rows.add(new ArrayList<>(Collections.nCopies(3, null)));
+    return new Matrix<>(1, 3, rows);
+  }
+
+  private void aggregate(int groupColIdx, int aggColIdx) {
+    List<Pair<Integer, AggregationType>> aggregations =
+        Collections.singletonList(new Pair<>(aggColIdx, AggregationType.SUM));
+    new SortingAggregation(() -> matrix, groupColIdx, aggregations).buildComputation(null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeGroupColumn() {
+    aggregate(-1, 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGroupColumnOutOfBounds() {
+    aggregate(3, 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAggregationColumnOutOfBounds() {
+    aggregate(0, 3);
+  }
+}
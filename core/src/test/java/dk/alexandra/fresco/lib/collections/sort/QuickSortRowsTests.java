@@ -0,0 +1,92 @@
+package dk.alexandra.fresco.lib.collections.sort;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import dk.alexandra.fresco.framework.Application;
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThread;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.sce.resources.ResourcePool;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.lib.collections.Matrix;
+import dk.alexandra.fresco.lib.collections.MatrixTestUtils;
+import dk.alexandra.fresco.lib.collections.MatrixUtils;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class QuickSortRowsTests {
+
+  public static class TestQuickSortRowsGeneric<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    final Matrix<BigInteger> input;
+    final int keyColIdx;
+
+    TestQuickSortRowsGeneric(Matrix<BigInteger> input, int keyColIdx) {
+      this.input = input;
+      this.keyColIdx = keyColIdx;
+    }
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<ResourcePoolT, ProtocolBuilderNumeric>() {
+
+        @Override
+        public void test() throws Exception {
+          Application<Matrix<BigInteger>, ProtocolBuilderNumeric> testApplication = root -> {
+            DRes<Matrix<DRes<SInt>>> closed = root.collections().closeMatrix(input, 1);
+            DRes<Matrix<DRes<SInt>>> sorted = root.collections().sort(closed, keyColIdx);
+            DRes<Matrix<DRes<BigInteger>>> opened = root.collections().openMatrix(sorted);
+            return () -> new MatrixUtils().unwrapMatrix(opened);
+          };
+          Matrix<BigInteger> opened = runApplication(testApplication);
+          // keys may be negative so interpret the opened values as signed
+          FieldDefinition fieldDefinition = getFieldDefinition();
+          Matrix<BigInteger> actual = new Matrix<>(opened.getHeight(), opened.getWidth(),
+              i -> opened.getRow(i).stream().map(fieldDefinition::convertToSigned)
+                  .collect(Collectors.toCollection(ArrayList::new)));
+          List<BigInteger> expectedKeys = input.getColumn(keyColIdx).stream().sorted()
+              .collect(Collectors.toList());
+          assertThat(actual.getColumn(keyColIdx), is(expectedKeys));
+          // the order of rows with equal keys is random, so compare the rows as multisets
+          Comparator<List<BigInteger>> rowOrder = new MatrixTestUtils().getRowOrder();
+          List<ArrayList<BigInteger>> actualRows = new ArrayList<>(actual.getRows());
+          List<ArrayList<BigInteger>> expectedRows = new ArrayList<>(input.getRows());
+          actualRows.sort(rowOrder);
+          expectedRows.sort(rowOrder);
+          assertThat(actualRows, is(expectedRows));
+        }
+      };
+    }
+  }
+
+  public static <ResourcePoolT extends ResourcePool> TestQuickSortRowsGeneric<ResourcePoolT>
+      sortPowerOfTwo() {
+    MatrixTestUtils utils = new MatrixTestUtils();
+    return new TestQuickSortRowsGeneric<>(utils.getRandomMatrix(16, 3, 1000), 0);
+  }
+
+  public static <ResourcePoolT extends ResourcePool> TestQuickSortRowsGeneric<ResourcePoolT>
+      sortArbitrarySize() {
+    MatrixTestUtils utils = new MatrixTestUtils();
+    return new TestQuickSortRowsGeneric<>(utils.getRandomMatrix(13, 2, 1000), 0);
+  }
+
+  public static <ResourcePoolT extends ResourcePool> TestQuickSortRowsGeneric<ResourcePoolT>
+      sortDuplicateKeys() {
+    MatrixTestUtils utils = new MatrixTestUtils();
+    return new TestQuickSortRowsGeneric<>(utils.getRandomMatrix(11, 3, 3), 0);
+  }
+
+  public static <ResourcePoolT extends ResourcePool> TestQuickSortRowsGeneric<ResourcePoolT>
+      sortSingleRow() {
+    MatrixTestUtils utils = new MatrixTestUtils();
+    return new TestQuickSortRowsGeneric<>(utils.getRandomMatrix(1, 2, 10), 0);
+  }
+}
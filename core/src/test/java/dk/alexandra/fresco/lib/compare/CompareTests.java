@@ -271,4 +271,47 @@ public class CompareTests {
     }
   }
 
+  /**
+   * Tests the bulk version of compareLEQ on all pairs of a list of values including negative values
+   * and values close to the bounds, such that the difference of any pair fits within the maximum
+   * bit length.
+   */
+  public static class TestCompareLEQBulk<ResourcePoolT extends ResourcePool>
+      extends TestThreadFactory<ResourcePoolT, ProtocolBuilderNumeric> {
+
+    @Override
+    public TestThread<ResourcePoolT, ProtocolBuilderNumeric> next() {
+      return new TestThread<ResourcePoolT, ProtocolBuilderNumeric>() {
+
+        @Override
+        public void test() throws Exception {
+          List<BigInteger> expected = new ArrayList<>();
+          Application<List<BigInteger>, ProtocolBuilderNumeric> app = builder -> {
+            Numeric input = builder.numeric();
+            int maxBitLength = builder.getBasicNumericContext().getMaxBitLength();
+            BigInteger half = BigInteger.ONE.shiftLeft(maxBitLength - 1).subtract(BigInteger.ONE);
+            List<BigInteger> values = Arrays.asList(half.negate(), BigInteger.valueOf(-3),
+                BigInteger.valueOf(-1), BigInteger.ZERO, BigInteger.ONE, BigInteger.valueOf(5),
+                half);
+            List<DRes<SInt>> left = new ArrayList<>();
+            List<DRes<SInt>> right = new ArrayList<>();
+            for (BigInteger x : values) {
+              for (BigInteger y : values) {
+                left.add(input.input(x, 1));
+                right.add(input.input(y, 1));
+                expected.add(x.compareTo(y) <= 0 ? BigInteger.ONE : BigInteger.ZERO);
+              }
+            }
+            DRes<List<DRes<SInt>>> comps =
+                builder.par(par -> par.comparison().compareLEQ(left, right));
+            DRes<List<DRes<BigInteger>>> opened = builder.collections().openList(comps);
+            return () -> opened.out().stream().map(DRes::out).collect(Collectors.toList());
+          };
+          List<BigInteger> output = runApplication(app);
+          Assert.assertEquals(expected, output);
+        }
+      };
+    }
+  }
+
 }
@@ -3,7 +3,12 @@ package dk.alexandra.fresco.logging;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 
+import dk.alexandra.fresco.framework.network.CompressingNetwork;
 import dk.alexandra.fresco.framework.network.Network;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Map;
 import org.junit.Test;
 
 public class NetworkLoggingDecoratorTest {
@@ -30,4 +35,40 @@ public class NetworkLoggingDecoratorTest {
     // This should be a nil operation since my network does not implement closeable
     networkLoggingDecorator.close();
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testCompressionRatio() {
+    Deque<byte[]> messages = new ArrayDeque<>();
+    Network loopback = new Network() {
+      @Override
+      public void send(int partyId, byte[] data) {
+        messages.add(data);
+      }
+
+      @Override
+      public byte[] receive(int partyId) {
+        return messages.remove();
+      }
+
+      @Override
+      public int getNoOfParties() {
+        return 2;
+      }
+    };
+    NetworkLoggingDecorator networkLoggingDecorator = new NetworkLoggingDecorator(
+        new CompressingNetwork(loopback, Collections.singleton(2)));
+    networkLoggingDecorator.send(2, new byte[10000]);
+    networkLoggingDecorator.receive(2);
+    Map<String, Long> values = networkLoggingDecorator.getLoggedValues();
+    assertThat(values.get(NetworkLoggingDecorator.NETWORK_TOTAL_BYTES), is(10000L));
+    assertThat(values.get(NetworkLoggingDecorator.NETWORK_COMPRESSION_RATIO) < 5, is(true));
+    assertThat(values.get(NetworkLoggingDecorator.NETWORK_COMPRESSION_RATIO_SENT) < 5, is(true));
+    assertThat(values.get(NetworkLoggingDecorator.NETWORK_COMPRESSED_BYTES_SENT),
+        is(values.get(NetworkLoggingDecorator.NETWORK_COMPRESSED_BYTES)));
+    networkLoggingDecorator.reset();
+    values = networkLoggingDecorator.getLoggedValues();
+    assertThat(values.get(NetworkLoggingDecorator.NETWORK_COMPRESSED_BYTES), is(0L));
+    assertThat(values.get(NetworkLoggingDecorator.NETWORK_COMPRESSION_RATIO), is(100L));
+    assertThat(values.get(NetworkLoggingDecorator.NETWORK_COMPRESSED_BYTES_SENT), is(0L));
+  }
+}
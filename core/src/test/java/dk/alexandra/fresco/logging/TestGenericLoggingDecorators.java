@@ -4,8 +4,12 @@ import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import dk.alexandra.fresco.framework.DRes;
 import dk.alexandra.fresco.framework.ProtocolEvaluator;
 import dk.alexandra.fresco.framework.TestThreadRunner;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThread;
+import dk.alexandra.fresco.framework.builder.Computation;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
 import dk.alexandra.fresco.framework.builder.numeric.field.BigIntegerFieldDefinition;
 import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
@@ -18,12 +22,15 @@ import dk.alexandra.fresco.framework.sce.evaluator.BatchedProtocolEvaluator;
 import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
 import dk.alexandra.fresco.framework.util.Drbg;
 import dk.alexandra.fresco.framework.util.HmacDrbg;
+import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.arithmetic.BasicArithmeticTests;
 import dk.alexandra.fresco.lib.compare.CompareTests;
 import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticProtocolSuite;
 import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticResourcePool;
 import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticResourcePoolImpl;
+import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -74,6 +81,7 @@ public class TestGenericLoggingDecorators {
     Map<String, Long> loggedValues = performanceLogger.getLoggedValues();
     long runningTime = loggedValues.get(EvaluatorLoggingDecorator.SCE_RUNNINGTIMES + 0);
     assertTrue(runningTime > 0);
+    assertThat(loggedValues.get(EvaluatorLoggingDecorator.SCE_BATCH_SIZES + 0), is(4096L));
     performanceLogger.reset();
     loggedValues = performanceLogger.getLoggedValues();
     assertTrue(loggedValues.size() == 0);
@@ -188,6 +196,163 @@ public class TestGenericLoggingDecorators {
     assertThat(loggedValues.get(BatchEvaluationLoggingDecorator.BATCH_MAX_PROTOCOLS), is((long) 0));
   }
 
+  @Test
+  public void testLatencyDecorators() {
+    TestThreadRunner.TestThreadFactory<DummyArithmeticResourcePool, ProtocolBuilderNumeric> f
+        = new CompareTests.TestCompareLT<>();
+
+    EvaluationStrategy evalStrategy = EvaluationStrategy.SEQUENTIAL_BATCHED;
+    Map<Integer, NetworkConfiguration> netConf = getNetConf();
+    Map<Integer,
+        TestThreadRunner
+            .TestThreadConfiguration<DummyArithmeticResourcePool, ProtocolBuilderNumeric>> conf =
+        new HashMap<>();
+
+    List<MetricsRegistry> registries = new ArrayList<>();
+    for (int playerId : netConf.keySet()) {
+      NetworkConfiguration partyNetConf = netConf.get(playerId);
+      MetricsRegistry registry = new MetricsRegistry();
+      registries.add(registry);
+
+      DummyArithmeticProtocolSuite ps = new DummyArithmeticProtocolSuite(fieldDefinition, 200, 16);
+      BatchEvaluationStrategy<DummyArithmeticResourcePool> strat =
+          new BatchEvaluationLatencyDecorator<>(evalStrategy.getStrategy(), registry);
+      ProtocolEvaluator<DummyArithmeticResourcePool> evaluator
+          = new BatchedProtocolEvaluator<>(strat, ps);
+      SecureComputationEngine<DummyArithmeticResourcePool, ProtocolBuilderNumeric> sce
+          = new SecureComputationEngineImpl<>(ps, evaluator);
+
+      TestThreadRunner.TestThreadConfiguration<DummyArithmeticResourcePool, ProtocolBuilderNumeric> ttc =
+          new TestThreadRunner.TestThreadConfiguration<>(sce,
+              () -> new DummyArithmeticResourcePoolImpl(playerId,
+                  netConf.keySet().size(), fieldDefinition),
+              () -> new NetworkLatencyDecorator(new SocketNetwork(partyNetConf), registry));
+      conf.put(playerId, ttc);
+    }
+    TestThreadRunner.run(f, conf);
+
+    MetricsRegistry registry = registries.get(0);
+    Map<String, Histogram> histograms = registry.getHistograms();
+    long batches = histograms.get(BatchEvaluationLatencyDecorator.BATCH_TIME).getCount();
+    assertTrue(batches > 0);
+    long rounds = histograms.get(BatchEvaluationLatencyDecorator.ROUND_COMPUTE_TIME).getCount();
+    assertTrue(rounds >= batches);
+    assertThat(histograms.get(BatchEvaluationLatencyDecorator.ROUND_FLUSH_TIME).getCount(),
+        is(rounds));
+    assertTrue(registries.stream().flatMap(r -> r.getHistograms().keySet().stream())
+        .anyMatch(name -> name.startsWith(BatchEvaluationLatencyDecorator.ROUND_RECEIVE_WAIT_TIME)));
+    assertTrue(registries.stream().flatMap(r -> r.getHistograms().keySet().stream())
+        .anyMatch(name -> name.startsWith(NetworkLatencyDecorator.NETWORK_RECEIVE_TIME)));
+    assertTrue(registries.stream().flatMap(r -> r.getHistograms().keySet().stream())
+        .anyMatch(name -> name.startsWith(NetworkLatencyDecorator.NETWORK_SEND_TIME)));
+    Map<String, Long> loggedValues = registry.getLoggedValues();
+    assertThat(loggedValues.get(BatchEvaluationLatencyDecorator.BATCH_TIME
+        + MetricsRegistry.COUNT_SUFFIX), is(batches));
+    registry.reset();
+    assertThat(registry.getLoggedValues().get(BatchEvaluationLatencyDecorator.BATCH_TIME
+        + MetricsRegistry.COUNT_SUFFIX), is(0L));
+  }
+
+  @Test
+  public void testProfilingDecorators() {
+    TestThreadRunner.TestThreadFactory<DummyArithmeticResourcePool, ProtocolBuilderNumeric> f =
+        new TestThreadRunner.TestThreadFactory<DummyArithmeticResourcePool,
+            ProtocolBuilderNumeric>() {
+          @Override
+          public TestThread<DummyArithmeticResourcePool, ProtocolBuilderNumeric> next() {
+            return new TestThread<DummyArithmeticResourcePool, ProtocolBuilderNumeric>() {
+              @Override
+              public void test() {
+                BigInteger result = runApplication(root -> root.seq(new OuterComputation()));
+                assertThat(result, is(BigInteger.valueOf(6)));
+              }
+            };
+          }
+        };
+
+    EvaluationStrategy evalStrategy = EvaluationStrategy.SEQUENTIAL_BATCHED;
+    Map<Integer, NetworkConfiguration> netConf = getNetConf();
+    Map<Integer,
+        TestThreadRunner
+            .TestThreadConfiguration<DummyArithmeticResourcePool, ProtocolBuilderNumeric>> conf =
+        new HashMap<>();
+
+    List<ComputationProfiler> profilers = new ArrayList<>();
+    for (int playerId : netConf.keySet()) {
+      NetworkConfiguration partyNetConf = netConf.get(playerId);
+      ComputationProfiler profiler = new ComputationProfiler();
+      profilers.add(profiler);
+
+      NumericSuiteProfiling<DummyArithmeticResourcePool> ps = new NumericSuiteProfiling<>(
+          new DummyArithmeticProtocolSuite(fieldDefinition, 200, 16), profiler);
+      BatchEvaluationStrategy<DummyArithmeticResourcePool> strat =
+          new BatchEvaluationProfilingDecorator<>(evalStrategy.getStrategy(), profiler);
+      ProtocolEvaluator<DummyArithmeticResourcePool> evaluator
+          = new BatchedProtocolEvaluator<>(strat, ps);
+      SecureComputationEngine<DummyArithmeticResourcePool, ProtocolBuilderNumeric> sce
+          = new SecureComputationEngineImpl<>(ps, evaluator);
+
+      TestThreadRunner.TestThreadConfiguration<DummyArithmeticResourcePool, ProtocolBuilderNumeric> ttc =
+          new TestThreadRunner.TestThreadConfiguration<>(sce,
+              () -> new DummyArithmeticResourcePoolImpl(playerId,
+                  netConf.keySet().size(), fieldDefinition),
+              () -> new SocketNetwork(partyNetConf));
+      conf.put(playerId, ttc);
+    }
+    TestThreadRunner.run(f, conf);
+
+    ComputationProfiler profiler = profilers.get(0);
+    String outer = "root;" + OuterComputation.class.getName().substring(
+        OuterComputation.class.getPackage().getName().length() + 1);
+    String inner = outer + ";" + InnerComputation.class.getName().substring(
+        InnerComputation.class.getPackage().getName().length() + 1);
+    List<String> protocols = profiler.getFoldedStacks(ComputationProfiler.Metric.PROTOCOLS);
+    assertThat(protocols, is(Arrays.asList(
+        outer + ";DummyArithmeticCloseProtocol 1",
+        inner + ";DummyArithmeticAddProtocol 1",
+        inner + ";DummyArithmeticOpenToAllProtocol 1")));
+    List<String> bytesSent = profiler.getFoldedStacks(ComputationProfiler.Metric.BYTES_SENT);
+    // only the input party sends in the dummy suite
+    assertThat(bytesSent.size(), is(1));
+    assertTrue(bytesSent.get(0).startsWith(outer + ";DummyArithmeticCloseProtocol "));
+
+    Map<String, Long> loggedValues = profiler.getLoggedValues();
+    assertThat(loggedValues.get(ComputationProfiler.PROTOCOLS), is(3L));
+    assertTrue(loggedValues.get(ComputationProfiler.EVALUATIONS) >= 3L);
+    assertTrue(loggedValues.get(ComputationProfiler.BYTES_SENT) > 0L);
+    StringBuilder folded = new StringBuilder();
+    profiler.writeFoldedStacks(ComputationProfiler.Metric.EVALUATIONS, folded);
+    assertThat(folded.toString().split(System.lineSeparator()).length, is(3));
+    profiler.reset();
+    assertThat(profiler.getLoggedValues().get(ComputationProfiler.PROTOCOLS), is(0L));
+    assertTrue(profiler.getFoldedStacks(ComputationProfiler.Metric.PROTOCOLS).isEmpty());
+  }
+
+  private static class OuterComputation implements Computation<BigInteger, ProtocolBuilderNumeric> {
+
+    @Override
+    public DRes<BigInteger> buildComputation(ProtocolBuilderNumeric builder) {
+      DRes<SInt> value = builder.numeric().input(BigInteger.valueOf(3), 1);
+      // the lambda is attributed to this computation and does not add a frame of its own
+      return builder.seq(seq -> seq.seq(new InnerComputation(value)));
+    }
+  }
+
+  private static class InnerComputation implements Computation<BigInteger, ProtocolBuilderNumeric> {
+
+    private final DRes<SInt> value;
+
+    private InnerComputation(DRes<SInt> value) {
+      this.value = value;
+    }
+
+    @Override
+    public DRes<BigInteger> buildComputation(ProtocolBuilderNumeric builder) {
+      Numeric numeric = builder.numeric();
+      return numeric.open(numeric.add(value, value));
+    }
+  }
+
   private Map<Integer, NetworkConfiguration> getNetConf() {
     int noOfParties = 2;
     List<Integer> ports = new ArrayList<>(noOfParties);
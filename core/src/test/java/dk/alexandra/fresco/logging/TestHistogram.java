@@ -0,0 +1,112 @@
+package dk.alexandra.fresco.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import javax.management.ObjectName;
+import org.junit.Test;
+
+public class TestHistogram {
+
+  @Test
+  public void testEmpty() {
+    Histogram histogram = new Histogram();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMin());
+    assertEquals(0, histogram.getMax());
+    assertEquals(0, histogram.getMean());
+    assertEquals(0, histogram.getValueAtPercentile(50));
+  }
+
+  @Test
+  public void testSmallValuesAreExact() {
+    Histogram histogram = new Histogram();
+    for (int i = 1; i <= 10; i++) {
+      histogram.record(i);
+    }
+    assertEquals(10, histogram.getCount());
+    assertEquals(1, histogram.getMin());
+    assertEquals(10, histogram.getMax());
+    assertEquals(55, histogram.getSum());
+    assertEquals(5, histogram.getMean());
+    assertEquals(5, histogram.getValueAtPercentile(50));
+    assertEquals(9, histogram.getValueAtPercentile(90));
+    assertEquals(10, histogram.getValueAtPercentile(100));
+    assertEquals(1, histogram.getValueAtPercentile(0));
+  }
+
+  @Test
+  public void testRelativeError() {
+    Histogram histogram = new Histogram();
+    for (long i = 1; i <= 100000; i++) {
+      histogram.record(i * 1000);
+    }
+    long[][] expected = {{50, 50000000}, {90, 90000000}, {99, 99000000}};
+    for (long[] percentile : expected) {
+      long actual = histogram.getValueAtPercentile(percentile[0]);
+      double error = Math.abs(actual - percentile[1]) / (double) percentile[1];
+      assertTrue("Error too large for p" + percentile[0] + ": " + actual,
+          error <= 1.0 / Histogram.SUB_BUCKETS);
+    }
+    assertEquals(100000000, histogram.getValueAtPercentile(100));
+  }
+
+  @Test
+  public void testIndexRoundTrip() {
+    long[] values = {0, 1, 31, 32, 33, 1000, 123456789, Long.MAX_VALUE};
+    for (long value : values) {
+      long highest = Histogram.highestValueOf(Histogram.indexOf(value));
+      assertTrue(highest >= value);
+      assertTrue(highest - value <= value / Histogram.SUB_BUCKETS);
+    }
+  }
+
+  @Test
+  public void testReset() {
+    Histogram histogram = new Histogram();
+    histogram.record(42);
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getValueAtPercentile(99));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeValue() {
+    new Histogram().record(-1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalPercentile() {
+    new Histogram().getValueAtPercentile(101);
+  }
+
+  @Test
+  public void testRegistryLoggedValues() {
+    MetricsRegistry registry = new MetricsRegistry();
+    registry.histogram("test").record(7);
+    registry.histogram("test").record(9);
+    Map<String, Long> values = registry.getLoggedValues();
+    assertEquals(6, values.size());
+    assertEquals(2L, (long) values.get("test" + MetricsRegistry.COUNT_SUFFIX));
+    assertEquals(8L, (long) values.get("test" + MetricsRegistry.MEAN_SUFFIX));
+    assertEquals(9L, (long) values.get("test" + MetricsRegistry.MAX_SUFFIX));
+    registry.reset();
+    assertEquals(0L, (long) registry.getLoggedValues().get("test" + MetricsRegistry.COUNT_SUFFIX));
+  }
+
+  @Test
+  public void testRegistryMBean() throws Exception {
+    MetricsRegistry registry = new MetricsRegistry();
+    registry.histogram("test").record(7);
+    ObjectName name = registry.registerMBean("testRegistryMBean");
+    try {
+      assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+      Object values = ManagementFactory.getPlatformMBeanServer().getAttribute(name, "LoggedValues");
+      assertTrue(values.toString().contains("test" + MetricsRegistry.COUNT_SUFFIX));
+    } finally {
+      MetricsRegistry.unregisterMBean(name);
+    }
+  }
+}
@@ -1,5 +1,8 @@
 package dk.alexandra.fresco.suite.dummy.arithmetic;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 import dk.alexandra.fresco.framework.ProtocolEvaluator;
 import dk.alexandra.fresco.framework.TestThreadRunner;
 import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
@@ -11,6 +14,7 @@ import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.network.socket.SocketNetwork;
 import dk.alexandra.fresco.framework.sce.SecureComputationEngine;
 import dk.alexandra.fresco.framework.sce.SecureComputationEngineImpl;
+import dk.alexandra.fresco.framework.sce.evaluator.AdaptiveBatchedProtocolEvaluator;
 import dk.alexandra.fresco.framework.sce.evaluator.BatchEvaluationStrategy;
 import dk.alexandra.fresco.framework.sce.evaluator.BatchedProtocolEvaluator;
 import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
@@ -44,6 +48,8 @@ public abstract class AbstractDummyArithmeticTest {
   protected static final EvaluationStrategy DEFAULT_EVALUATION_STRATEGY
       = EvaluationStrategy.SEQUENTIAL_BATCHED;
   protected static final boolean DEFAULT_PERFORMANCE_LOGGING = false;
+  protected static final int DEFAULT_MAX_BATCH_SIZE = 4096;
+  protected static final int DEFAULT_STREAMING_CHUNK_SIZE = 0;
 
   /**
    * Runs test using the {@link TestParameters} class to set parameters.
@@ -60,7 +66,9 @@ public abstract class AbstractDummyArithmeticTest {
         p.modulus,
         p.maxBitLength,
         p.fixedPointPrecesion,
-        p.performanceLogging);
+        p.performanceLogging,
+        p.streamingChunkSize,
+        p.adaptiveBatchSize);
   }
 
   /**
@@ -71,14 +79,16 @@ public abstract class AbstractDummyArithmeticTest {
       TestThreadRunner.TestThreadFactory<DummyArithmeticResourcePool, ProtocolBuilderNumeric> f,
       EvaluationStrategy evalStrategy, int noOfParties) {
     runTest(f, evalStrategy, noOfParties, DEFAULT_FIELD, DEFAULT_MAX_BIT_LENGTH,
-        DEFAULT_FIXED_POINT_PRECISION, DEFAULT_PERFORMANCE_LOGGING);
+        DEFAULT_FIXED_POINT_PRECISION, DEFAULT_PERFORMANCE_LOGGING, DEFAULT_STREAMING_CHUNK_SIZE,
+        false);
   }
 
   private void runTest(
       TestThreadRunner.TestThreadFactory<DummyArithmeticResourcePool, ProtocolBuilderNumeric> f,
       EvaluationStrategy evalStrategy, int noOfParties, FieldDefinition fieldDefinition,
       int maxBitLength,
-      int fixedPointPrecision, boolean logPerformance) {
+      int fixedPointPrecision, boolean logPerformance, int streamingChunkSize,
+      boolean adaptiveBatchSize) {
     List<Integer> ports = new ArrayList<>(noOfParties);
     for (int i = 1; i <= noOfParties; i++) {
       ports.add(9000 + i * (noOfParties - 1));
@@ -91,6 +101,8 @@ public abstract class AbstractDummyArithmeticTest {
             DummyArithmeticResourcePool,
             ProtocolBuilderNumeric>
         > conf = new HashMap<>();
+    List<AdaptiveBatchedProtocolEvaluator<DummyArithmeticResourcePool>> adaptiveEvaluators =
+        new ArrayList<>(noOfParties);
     for (int playerId : netConf.keySet()) {
       PerformanceLoggerCountingAggregate aggregate = new PerformanceLoggerCountingAggregate();
       ProtocolSuiteNumeric<DummyArithmeticResourcePool> ps = new DummyArithmeticProtocolSuite(
@@ -106,8 +118,18 @@ public abstract class AbstractDummyArithmeticTest {
         batchEvaluationStrategy = new BatchEvaluationLoggingDecorator<>(batchEvaluationStrategy);
         aggregate.add((PerformanceLogger) batchEvaluationStrategy);
       }
-      ProtocolEvaluator<DummyArithmeticResourcePool> evaluator =
-          new BatchedProtocolEvaluator<>(batchEvaluationStrategy, ps);
+      ProtocolEvaluator<DummyArithmeticResourcePool> evaluator;
+      if (adaptiveBatchSize) {
+        // small bounds and samples such that the batch size is adjusted even in short tests
+        AdaptiveBatchedProtocolEvaluator<DummyArithmeticResourcePool> adaptiveEvaluator =
+            new AdaptiveBatchedProtocolEvaluator<>(batchEvaluationStrategy, ps, 16, 4,
+                DEFAULT_MAX_BATCH_SIZE, 2);
+        adaptiveEvaluators.add(adaptiveEvaluator);
+        evaluator = adaptiveEvaluator;
+      } else {
+        evaluator = new BatchedProtocolEvaluator<>(batchEvaluationStrategy, ps,
+            DEFAULT_MAX_BATCH_SIZE, streamingChunkSize);
+      }
       if (logPerformance) {
         evaluator = new EvaluatorLoggingDecorator<>(evaluator);
         aggregate.add((PerformanceLogger) evaluator);
@@ -135,6 +157,17 @@ public abstract class AbstractDummyArithmeticTest {
     }
 
     TestThreadRunner.run(f, conf);
+    if (adaptiveBatchSize) {
+      // the parties must have adjusted the batch size and agreed on the result
+      AdaptiveBatchedProtocolEvaluator<DummyArithmeticResourcePool> first =
+          adaptiveEvaluators.get(0);
+      assertTrue(first.getAdjustments() > 0);
+      for (AdaptiveBatchedProtocolEvaluator<DummyArithmeticResourcePool> adaptiveEvaluator
+          : adaptiveEvaluators) {
+        assertEquals(first.getAdjustments(), adaptiveEvaluator.getAdjustments());
+        assertEquals(first.getBatchSize(), adaptiveEvaluator.getBatchSize());
+      }
+    }
     PerformancePrinter printer = new DefaultPerformancePrinter();
     for (PerformanceLogger pl : performanceLoggers.values()) {
       printer.printPerformanceLog(pl);
@@ -153,6 +186,8 @@ public abstract class AbstractDummyArithmeticTest {
     private int numParties = DEFAULT_PARTIES;
     private EvaluationStrategy evaluationStrategy = DEFAULT_EVALUATION_STRATEGY;
     private boolean performanceLogging = DEFAULT_PERFORMANCE_LOGGING;
+    private int streamingChunkSize = DEFAULT_STREAMING_CHUNK_SIZE;
+    private boolean adaptiveBatchSize = false;
 
     public TestParameters field(FieldDefinition field) {
       this.modulus = field;
@@ -183,5 +218,15 @@ public abstract class AbstractDummyArithmeticTest {
       this.performanceLogging = performanceLogging;
       return this;
     }
+
+    public TestParameters streamingChunkSize(int streamingChunkSize) {
+      this.streamingChunkSize = streamingChunkSize;
+      return this;
+    }
+
+    public TestParameters adaptiveBatchSize(boolean adaptiveBatchSize) {
+      this.adaptiveBatchSize = adaptiveBatchSize;
+      return this;
+    }
   }
 }
@@ -7,6 +7,7 @@ import dk.alexandra.fresco.framework.DRes;
 import dk.alexandra.fresco.framework.builder.numeric.ExponentiationPipeTests;
 import dk.alexandra.fresco.framework.builder.numeric.field.BigIntegerFieldDefinition;
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.sce.evaluator.EvaluationStrategy;
 import dk.alexandra.fresco.framework.util.ModulusFinder;
 import dk.alexandra.fresco.framework.value.SInt;
 import dk.alexandra.fresco.lib.arithmetic.AdvancedNumericTests.TestMinInfFrac;
@@ -21,7 +22,10 @@ import dk.alexandra.fresco.lib.collections.io.CloseMatrixTests;
 import dk.alexandra.fresco.lib.collections.permute.PermuteRows;
 import dk.alexandra.fresco.lib.collections.permute.PermuteRowsTests;
 import dk.alexandra.fresco.lib.collections.relational.LeakyAggregationTests;
+import dk.alexandra.fresco.lib.collections.relational.LeakyJoinTests;
+import dk.alexandra.fresco.lib.collections.relational.SortingAggregationTests;
 import dk.alexandra.fresco.lib.collections.shuffle.ShuffleRowsTests;
+import dk.alexandra.fresco.lib.collections.sort.QuickSortRowsTests;
 import dk.alexandra.fresco.lib.compare.CompareTests;
 import dk.alexandra.fresco.lib.conditional.ConditionalSelectTests;
 import dk.alexandra.fresco.lib.conditional.ConditionalSwapNeighborsTests;
@@ -122,6 +126,11 @@ public class TestDummyArithmeticProtocolSuite extends AbstractDummyArithmeticTes
     runTest(new CompareTests.TestCompareLTEdgeCases<>(), new TestParameters());
   }
 
+  @Test
+  public void testCompareLeqBulk() {
+    runTest(new CompareTests.TestCompareLEQBulk<>(), new TestParameters());
+  }
+
   @Test
   public void test_compareEQ_Sequential() {
     runTest(new CompareTests.TestCompareEQ<>(), new TestParameters());
@@ -332,6 +341,50 @@ public class TestDummyArithmeticProtocolSuite extends AbstractDummyArithmeticTes
     runTest(ShuffleRowsTests.shuffleRowsEmpty(), new TestParameters().numParties(2));
   }
 
+  @Test
+  public void test_sort_rows_power_of_two() {
+    runTest(QuickSortRowsTests.sortPowerOfTwo(), new TestParameters().numParties(2));
+  }
+
+  @Test
+  public void test_sort_rows_arbitrary_size() {
+    runTest(QuickSortRowsTests.sortArbitrarySize(), new TestParameters().numParties(3));
+  }
+
+  @Test
+  public void test_sort_rows_duplicate_keys() {
+    runTest(QuickSortRowsTests.sortDuplicateKeys(), new TestParameters().numParties(2));
+  }
+
+  @Test
+  public void test_sort_rows_single_row() {
+    runTest(QuickSortRowsTests.sortSingleRow(), new TestParameters().numParties(2));
+  }
+
+  @Test
+  public void test_sort_rows_streaming() {
+    runTest(QuickSortRowsTests.sortArbitrarySize(),
+        new TestParameters().numParties(3).streamingChunkSize(32));
+  }
+
+  @Test
+  public void test_sort_rows_adaptive_batch_size() {
+    runTest(QuickSortRowsTests.sortArbitrarySize(),
+        new TestParameters().numParties(3).adaptiveBatchSize(true));
+  }
+
+  @Test
+  public void test_aggregate_adaptive_batch_size() {
+    runTest(SortingAggregationTests.aggregate(),
+        new TestParameters().numParties(2).adaptiveBatchSize(true).performanceLogging(true));
+  }
+
+  @Test
+  public void test_sort_rows_streaming_sequential() {
+    runTest(QuickSortRowsTests.sortDuplicateKeys(), new TestParameters().numParties(2)
+        .evaluationStrategy(EvaluationStrategy.SEQUENTIAL).streamingChunkSize(1));
+  }
+
   @Test
   public void test_leaky_aggregate_two() {
     runTest(LeakyAggregationTests.aggregate(), new TestParameters().numParties(2));
@@ -352,6 +405,46 @@ public class TestDummyArithmeticProtocolSuite extends AbstractDummyArithmeticTes
     runTest(LeakyAggregationTests.aggregateEmpty(), new TestParameters().numParties(2));
   }
 
+  @Test
+  public void test_leaky_join_two() {
+    runTest(LeakyJoinTests.join(), new TestParameters().numParties(2));
+  }
+
+  @Test
+  public void test_leaky_join_intersection() {
+    runTest(LeakyJoinTests.intersection(), new TestParameters().numParties(2));
+  }
+
+  @Test
+  public void test_leaky_join_empty() {
+    runTest(LeakyJoinTests.joinEmpty(), new TestParameters().numParties(2));
+  }
+
+  @Test
+  public void test_sorting_aggregate_two() {
+    runTest(SortingAggregationTests.aggregate(), new TestParameters().numParties(2));
+  }
+
+  @Test
+  public void test_sorting_aggregate_three() {
+    runTest(SortingAggregationTests.aggregate(), new TestParameters().numParties(3));
+  }
+
+  @Test
+  public void test_sorting_aggregate_unique_keys() {
+    runTest(SortingAggregationTests.aggregateUniqueKeys(), new TestParameters().numParties(2));
+  }
+
+  @Test
+  public void test_sorting_aggregate_single_group() {
+    runTest(SortingAggregationTests.aggregateSingleGroup(), new TestParameters().numParties(2));
+  }
+
+  @Test
+  public void test_sorting_aggregate_empty() {
+    runTest(SortingAggregationTests.aggregateEmpty(), new TestParameters().numParties(2));
+  }
+
   //
 
   @Test
@@ -392,6 +485,17 @@ public class TestDummyArithmeticProtocolSuite extends AbstractDummyArithmeticTes
         .field(getModulus(512)));
   }
 
+  @Test
+  public void test_MiMC_EncDecBatch() {
+    runTest(new MiMCTests.TestMiMCEncDecBatch<>(), new TestParameters()
+        .field(getModulus(512)));
+  }
+
+  @Test
+  public void test_MiMC_EncDecBatchEmpty() {
+    runTest(new MiMCTests.TestMiMCEncDecBatchEmpty<>(), new TestParameters());
+  }
+
   // lib.list
   @Test
   public void test_findDuplicatesOne() {
@@ -602,6 +706,11 @@ public class TestDummyArithmeticProtocolSuite extends AbstractDummyArithmeticTes
     runTest(new ExponentiationPipeTests.TestPreprocessedValues<>(), new TestParameters());
   }
 
+  @Test
+  public void test_exponentiation_pipes_batched() {
+    runTest(new ExponentiationPipeTests.TestBatchedPreprocessedValues<>(), new TestParameters());
+  }
+
   @Test
   public void test_Real_Input_Sequential() {
     runTest(new BasicFixedPointTests.TestInput<>(), new TestParameters().numParties(2));
@@ -0,0 +1,190 @@
+package dk.alexandra.fresco.demo;
+
+import dk.alexandra.fresco.framework.Application;
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.Party;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.builder.numeric.field.BigIntegerFieldDefinition;
+import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
+import dk.alexandra.fresco.framework.configuration.NetworkConfigurationImpl;
+import dk.alexandra.fresco.framework.network.CloseableNetwork;
+import dk.alexandra.fresco.framework.network.MultiplexedNetwork;
+import dk.alexandra.fresco.framework.network.socket.SocketNetwork;
+import dk.alexandra.fresco.framework.sce.SecureComputationEngine;
+import dk.alexandra.fresco.framework.sce.SecureComputationEngineImpl;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchedProtocolEvaluator;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchedStrategy;
+import dk.alexandra.fresco.framework.util.ModulusFinder;
+import dk.alexandra.fresco.framework.util.VirtualThreads;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticProtocolSuite;
+import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticResourcePool;
+import dk.alexandra.fresco.suite.dummy.arithmetic.DummyArithmeticResourcePoolImpl;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigInteger;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares running the parties of a computation on platform threads and on virtual threads.
+ *
+ * <p>All parties are run in this JVM, each with its own {@link SocketNetwork} and
+ * {@link SecureComputationEngineImpl}. Each party evaluates a number of applications concurrently
+ * over a {@link MultiplexedNetwork}, where each application consists of a number of rounds in
+ * which one party inputs a value to the others. For each mode the peak number of live platform
+ * threads, the number of messages sent per second and the number of rounds evaluated per second
+ * is printed.</p>
+ *
+ * <p>Usage: {@code VirtualThreadsBenchmark [parties] [applications] [rounds]}, defaulting to 12
+ * parties, 16 applications and 200 rounds. Virtual threads require Java 21 or later, otherwise
+ * both modes use platform threads.</p>
+ */
+public class VirtualThreadsBenchmark {
+
+  private static final BigIntegerFieldDefinition fieldDefinition =
+      new BigIntegerFieldDefinition(ModulusFinder.findSuitableModulus(64));
+
+  private final int parties;
+  private final int applications;
+  private final int rounds;
+
+  private VirtualThreadsBenchmark(int parties, int applications, int rounds) {
+    this.parties = parties;
+    this.applications = applications;
+    this.rounds = rounds;
+  }
+
+  private void run(boolean virtual, boolean report) throws Exception {
+    Map<Integer, NetworkConfiguration> confs = getNetworkConfigurations();
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    threads.resetPeakThreadCount();
+    LongAdder messages = new LongAdder();
+    ExecutorService executor = Executors.newFixedThreadPool(parties);
+    try {
+      long startTime = System.nanoTime();
+      List<Future<?>> futures = new ArrayList<>();
+      for (NetworkConfiguration conf : confs.values()) {
+        futures.add(executor.submit(() -> {
+          runParty(conf, virtual, messages);
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      double seconds = (System.nanoTime() - startTime) / 1e9;
+      if (report) {
+        System.out.println(String.format(
+            "%-8s threads: peak %4d live threads, %10.1f messages/s, %8.1f rounds/s (%.2f s)",
+            virtual ? "virtual" : "platform", threads.getPeakThreadCount(),
+            messages.sum() / seconds, applications * rounds / seconds, seconds));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void runParty(NetworkConfiguration conf, boolean virtual, LongAdder messages)
+      throws IOException {
+    DummyArithmeticProtocolSuite suite = new DummyArithmeticProtocolSuite(fieldDefinition, 64, 0);
+    SecureComputationEngine<DummyArithmeticResourcePool, ProtocolBuilderNumeric> sce =
+        new SecureComputationEngineImpl<>(suite,
+            new BatchedProtocolEvaluator<>(new BatchedStrategy<>(), suite), virtual);
+    List<Application<BigInteger, ProtocolBuilderNumeric>> apps = new ArrayList<>();
+    for (int i = 0; i < applications; i++) {
+      apps.add(builder -> {
+        DRes<SInt> value = null;
+        for (int round = 0; round < rounds; round++) {
+          // inputs in a sequential builder are evaluated in separate rounds
+          value = builder.numeric().input(BigInteger.valueOf(round), round % parties + 1);
+        }
+        return builder.numeric().open(value);
+      });
+    }
+    CloseableNetwork socketNetwork = new SocketNetwork(conf, virtual);
+    try (MultiplexedNetwork network =
+        new MultiplexedNetwork(new CountingNetwork(socketNetwork, messages))) {
+      sce.runApplications(apps,
+          i -> new DummyArithmeticResourcePoolImpl(conf.getMyId(), parties, fieldDefinition),
+          network, Duration.ofMinutes(10));
+    } finally {
+      sce.shutdownSCE();
+    }
+  }
+
+  private Map<Integer, NetworkConfiguration> getNetworkConfigurations() throws IOException {
+    Map<Integer, Party> partyMap = new HashMap<>();
+    for (int id = 1; id <= parties; id++) {
+      try (ServerSocket socket = new ServerSocket(0)) {
+        partyMap.put(id, new Party(id, "localhost", socket.getLocalPort()));
+      }
+    }
+    Map<Integer, NetworkConfiguration> confs = new HashMap<>();
+    for (int id = 1; id <= parties; id++) {
+      confs.put(id, new NetworkConfigurationImpl(id, partyMap));
+    }
+    return confs;
+  }
+
+  /**
+   * Counts the messages sent through the network below the multiplexing layer, i.e., the messages
+   * actually written to the sockets.
+   */
+  private static class CountingNetwork implements CloseableNetwork {
+
+    private final CloseableNetwork delegate;
+    private final LongAdder messages;
+
+    CountingNetwork(CloseableNetwork delegate, LongAdder messages) {
+      this.delegate = delegate;
+      this.messages = messages;
+    }
+
+    @Override
+    public void send(int partyId, byte[] data) {
+      delegate.send(partyId, data);
+      messages.increment();
+    }
+
+    @Override
+    public byte[] receive(int partyId) {
+      return delegate.receive(partyId);
+    }
+
+    @Override
+    public int getNoOfParties() {
+      return delegate.getNoOfParties();
+    }
+
+    @Override
+    public void close() throws IOException {
+      delegate.close();
+    }
+  }
+
+  /**
+   * Runs the benchmark.
+   */
+  public static void main(String[] args) throws Exception {
+    int parties = args.length > 0 ? Integer.parseInt(args[0]) : 12;
+    int applications = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+    int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+    System.out.println("Running " + applications + " applications of " + rounds + " rounds with "
+        + parties + " parties, virtual threads supported: " + VirtualThreads.isSupported());
+    VirtualThreadsBenchmark benchmark = new VirtualThreadsBenchmark(parties, applications, rounds);
+    // warm up the JIT before measuring
+    benchmark.run(false, false);
+    benchmark.run(false, true);
+    benchmark.run(true, true);
+  }
+}
@@ -19,17 +19,19 @@ import dk.alexandra.fresco.suite.spdz.SpdzResourcePoolImpl;
 import dk.alexandra.fresco.suite.spdz.configuration.PreprocessingStrategy;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzDataSupplier;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzDummyDataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzMaterialStore;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzMaterialStoreDataSupplier;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzOpenedValueStoreImpl;
 import dk.alexandra.fresco.suite.spdz.storage.SpdzStorageDataSupplier;
 import dk.alexandra.fresco.suite.tinytables.online.TinyTablesProtocolSuite;
-import dk.alexandra.fresco.suite.tinytables.ot.TinyTablesNaorPinkasOt;
+import dk.alexandra.fresco.suite.tinytables.ot.TinyTablesChouOrlandiOt;
 import dk.alexandra.fresco.suite.tinytables.ot.TinyTablesOt;
 import dk.alexandra.fresco.suite.tinytables.prepro.TinyTablesPreproProtocolSuite;
 import dk.alexandra.fresco.suite.tinytables.prepro.TinyTablesPreproResourcePool;
 import dk.alexandra.fresco.suite.tinytables.util.Util;
-import dk.alexandra.fresco.tools.ot.base.DhParameters;
 import java.io.File;
 import java.math.BigInteger;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Properties;
 import java.util.function.Supplier;
@@ -44,6 +46,8 @@ public class CmdLineProtocolSuite {
   private final int noOfPlayers;
   private final ProtocolSuite<?, ?> protocolSuite;
   private final ResourcePool resourcePool;
+  private SpdzMaterialStoreDataSupplier storeSupplier;
+  private boolean storeResync;
 
   static String getSupportedProtocolSuites() {
     String[] strings = {"dummybool", "dummyarithmetic", "spdz", "tinytables", "tinytablesprepro"};
@@ -75,12 +79,12 @@ public class CmdLineProtocolSuite {
       String tinyTablesFilePath = properties.getProperty(tinytablesFileOption, "tinytables");
       this.protocolSuite = tinyTablesPreProFromCmdLine(properties);
       Drbg random = new AesCtrDrbg();
-      TinyTablesOt baseOt = new TinyTablesNaorPinkasOt(Util.otherPlayerId(myId), random,
-          DhParameters
-              .getStaticDhParams());
+      TinyTablesOt baseOt = new TinyTablesChouOrlandiOt(Util.otherPlayerId(myId), random);
+      boolean oneOfFourOt = Boolean.parseBoolean(
+          properties.getProperty("tinytables.oneOfFourOt", "false"));
       this.resourcePool = new TinyTablesPreproResourcePool(myId, baseOt,
           random, 128, 40, 16000, new File(
-          tinyTablesFilePath), network);
+          tinyTablesFilePath), network, oneOfFourOt);
     } else {
       this.protocolSuite = tinyTablesFromCmdLine(properties);
       this.resourcePool = new ResourcePoolImpl(myId, noOfPlayers);
@@ -95,6 +99,19 @@ public class CmdLineProtocolSuite {
     return this.protocolSuite;
   }
 
+  /**
+   * Prepares the resource pool for a run once the network to the other parties is created. This
+   * agrees with the other parties on the position in the store of preprocessed material, if any,
+   * resynchronizing the stores if <code>spdz.storeResync</code> is set.
+   *
+   * @param network the network to the other parties
+   */
+  void onNetworkCreated(Network network) {
+    if (storeSupplier != null) {
+      storeSupplier.synchronize(network, storeResync);
+    }
+  }
+
   private ProtocolSuite<?, ?> dummyArithmeticFromCmdLine(Properties properties) {
     String mod = properties.getProperty("modulus",
         "67039039649712985497870124991238141152738485774711365274259660130265015367064643"
@@ -128,7 +145,15 @@ public class CmdLineProtocolSuite {
       supplier = new SpdzDummyDataSupplier(myId, noOfPlayers,
           new BigIntegerFieldDefinition(modulus), modulus);
     }
-    if (strategy == PreprocessingStrategy.STATIC) {
+    if (strategy == PreprocessingStrategy.STATIC
+        && properties.getProperty("spdz.storeDirectory") != null) {
+      // material generated ahead of time by a preprocessing daemon
+      storeSupplier = new SpdzMaterialStoreDataSupplier(
+          new SpdzMaterialStore(Paths.get(properties.getProperty("spdz.storeDirectory"))),
+          Integer.parseInt(properties.getProperty("spdz.storeBatchSize", "1024")));
+      storeResync = Boolean.parseBoolean(properties.getProperty("spdz.storeResync", "false"));
+      supplier = storeSupplier;
+    } else if (strategy == PreprocessingStrategy.STATIC) {
       int noOfThreadsUsed = 1;
       String storageName =
           SpdzStorageDataSupplier.STORAGE_NAME_PREFIX + noOfThreadsUsed + "_" + myId + "_" + 0
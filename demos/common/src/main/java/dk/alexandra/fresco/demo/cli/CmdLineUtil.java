@@ -47,6 +47,7 @@ public class CmdLineUtil<ResourcePoolT extends ResourcePool, BuilderT extends Pr
   private CommandLine cmd;
   private NetworkConfiguration networkConfiguration;
   private Supplier<Network> network;
+  private CmdLineProtocolSuite protocolSuiteParser;
   private boolean logPerformance;
   private ProtocolSuite<ResourcePoolT, BuilderT> protocolSuite;
   private ProtocolEvaluator<ResourcePoolT> evaluator;
@@ -67,6 +68,9 @@ public class CmdLineUtil<ResourcePoolT extends ResourcePool, BuilderT extends Pr
   public Network getNetwork() {
     if (createdNetwork == null) {
       createdNetwork = this.network.get();
+      if (protocolSuiteParser != null) {
+        protocolSuiteParser.onNetworkCreated(createdNetwork);
+      }
     }
     return createdNetwork;
   }
@@ -244,7 +248,7 @@ public class CmdLineUtil<ResourcePoolT extends ResourcePool, BuilderT extends Pr
       String protocolSuiteName = validateAndGetProtocolSuite();
       parseAndSetupNetwork();
 
-      CmdLineProtocolSuite protocolSuiteParser = new CmdLineProtocolSuite(protocolSuiteName,
+      protocolSuiteParser = new CmdLineProtocolSuite(protocolSuiteName,
           cmd.getOptionProperties("D"), this.networkConfiguration.getMyId(),
           networkConfiguration.noOfParties(), network
       );
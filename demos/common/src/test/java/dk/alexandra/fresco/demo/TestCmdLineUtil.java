@@ -25,15 +25,19 @@ import dk.alexandra.fresco.suite.dummy.bool.DummyBooleanProtocolSuite;
 import dk.alexandra.fresco.suite.spdz.SpdzProtocolSuite;
 import dk.alexandra.fresco.suite.spdz.SpdzResourcePool;
 import dk.alexandra.fresco.suite.spdz.storage.InitializeStorage;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzMaterialStoreDataSupplier;
 import dk.alexandra.fresco.suite.tinytables.online.TinyTablesProtocolSuite;
 import dk.alexandra.fresco.suite.tinytables.prepro.TinyTablesPreproProtocolSuite;
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Option;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,6 +45,9 @@ public class TestCmdLineUtil {
 
   private static final Logger logger = LoggerFactory.getLogger(TestCmdLineUtil.class);
 
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
   @Test
   public void testDummyBoolFromCmdLine() {
     CmdLineUtil<ResourcePoolImpl, ProtocolBuilderBinary> cmd = parseAndCloseNetwork("dummybool",
@@ -89,6 +96,16 @@ public class TestCmdLineUtil {
     assertTrue(cmd.getSce() instanceof SecureComputationEngineImpl);
   }
 
+  @Test
+  public void testSpdzStaticFromStoreDirectory() throws IOException {
+    File directory = folder.newFolder();
+    CmdLineUtil<SpdzResourcePool, ProtocolBuilderNumeric> cmd =
+        parseAndCloseNetwork("spdz", "-D", "spdz.preprocessingStrategy=STATIC", "-D",
+            "spdz.storeDirectory=" + directory.getPath());
+    assertTrue(cmd.getProtocolSuite() instanceof SpdzProtocolSuite);
+    assertTrue(cmd.getResourcePool().getDataSupplier() instanceof SpdzMaterialStoreDataSupplier);
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testSpdzBadBitLength() {
     parseAndCloseNetwork("spdz", "-b", "4048", "-D", "spdz.preprocessingStrategy=DUMMY", "-D",
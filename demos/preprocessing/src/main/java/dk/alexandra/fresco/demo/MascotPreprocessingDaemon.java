@@ -0,0 +1,314 @@
+package dk.alexandra.fresco.demo;
+
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.Party;
+import dk.alexandra.fresco.framework.builder.numeric.DefaultPreprocessedValues;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.builder.numeric.field.BigIntegerFieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.configuration.NetworkConfigurationImpl;
+import dk.alexandra.fresco.framework.network.CloseableNetwork;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.network.socket.SocketNetwork;
+import dk.alexandra.fresco.framework.sce.SecureComputationEngine;
+import dk.alexandra.fresco.framework.sce.SecureComputationEngineImpl;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchedProtocolEvaluator;
+import dk.alexandra.fresco.framework.sce.evaluator.BatchedStrategy;
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.ModulusFinder;
+import dk.alexandra.fresco.framework.util.OpenedValueStoreImpl;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.spdz.SpdzProtocolSuite;
+import dk.alexandra.fresco.suite.spdz.SpdzResourcePool;
+import dk.alexandra.fresco.suite.spdz.SpdzResourcePoolImpl;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzMascotDataSupplier;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzMaterialStore;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzPreprocessingDaemon;
+import dk.alexandra.fresco.tools.mascot.MascotResourcePool;
+import dk.alexandra.fresco.tools.mascot.MascotResourcePoolImpl;
+import dk.alexandra.fresco.tools.mascot.MascotSecurityParameters;
+import dk.alexandra.fresco.tools.mascot.MascotState;
+import dk.alexandra.fresco.tools.mascot.cointossing.CoinTossingMpc;
+import dk.alexandra.fresco.tools.ot.base.ChouOrlandiOt;
+import dk.alexandra.fresco.tools.ot.base.Ot;
+import dk.alexandra.fresco.tools.ot.otextension.RotList;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Standalone service generating SPDZ preprocessed material with MASCOT ahead of time into a
+ * {@link SpdzMaterialStore}. Online runs then read the material with
+ * <code>-Dspdz.preprocessingStrategy=STATIC -Dspdz.storeDirectory=[directory]</code>, starting
+ * without any preprocessing latency.
+ *
+ * <p>All parties must run the service, each with its own store directory. By default it runs until
+ * interrupted, refilling the store as material is consumed. With <code>--fill</code> it stops once
+ * the store is full.</p>
+ */
+public class MascotPreprocessingDaemon implements Closeable {
+
+  private static final Logger logger = LoggerFactory.getLogger(MascotPreprocessingDaemon.class);
+  private static final String STATE_FILE = "MASCOT_STATE";
+  private static final int PRG_SEED_LENGTH = 256;
+  private static final int MAX_BIT_LENGTH = 64;
+  private static final long SHUTDOWN_TIMEOUT_MILLIS = 30000;
+
+  private final int myId;
+  private final int noOfParties;
+  private final Network network;
+  private final SpdzMaterialStore store;
+  private final Path stateFile;
+  private final int modBitLength;
+  private final int expPipeLength;
+  private final SecureComputationEngine<SpdzResourcePool, ProtocolBuilderNumeric> sce;
+
+  /**
+   * Creates a new preprocessing service.
+   *
+   * @param myId the id of this party
+   * @param noOfParties the number of parties
+   * @param network the network to the other parties
+   * @param store the store to fill
+   * @param stateFile the file persisting the MASCOT state of this party between runs
+   * @param modBitLength the bit length of the modulus, if the store is not yet initialized
+   * @param expPipeLength the length of exponentiation pipes to generate, none if 0
+   */
+  public MascotPreprocessingDaemon(int myId, int noOfParties, Network network,
+      SpdzMaterialStore store, Path stateFile, int modBitLength, int expPipeLength) {
+    this.myId = myId;
+    this.noOfParties = noOfParties;
+    this.network = network;
+    this.store = store;
+    this.stateFile = stateFile;
+    this.modBitLength = modBitLength;
+    this.expPipeLength = expPipeLength;
+    SpdzProtocolSuite suite = new SpdzProtocolSuite(MAX_BIT_LENGTH);
+    this.sce = new SecureComputationEngineImpl<>(suite,
+        new BatchedProtocolEvaluator<>(new BatchedStrategy<>(), suite));
+  }
+
+  /**
+   * Creates the daemon generating the material. If all parties have a persisted MASCOT state from
+   * the same run of the base OTs, it is resumed from it, otherwise the base OTs with the other
+   * parties are run and the resulting state persisted.
+   *
+   * @param segmentSize the number of records of each segment
+   * @param targetSegments the number of segments to keep in each stream
+   * @param pollMillis the time to wait before checking the store again when it is full
+   * @return the daemon
+   */
+  public SpdzPreprocessingDaemon createDaemon(int segmentSize, int targetSegments,
+      long pollMillis) {
+    Drbg drbg = new AesCtrDrbg();
+    MascotState state = loadState();
+    if (MascotState.allMatch(state, network)) {
+      if (state.getMyId() != myId || state.getSeedOts().size() != noOfParties - 1) {
+        throw new IllegalArgumentException(
+            "The MASCOT state " + stateFile + " is for another party or set of parties");
+      }
+      logger.info("Resuming MASCOT from {}", stateFile);
+    } else {
+      if (state != null) {
+        logger.warn("The MASCOT state {} is not from the same base OTs as the states of the other "
+            + "parties, redoing the base OTs", stateFile);
+      }
+      FieldDefinition definition;
+      FieldElement ssk;
+      if (store.isInitialized()) {
+        // continue with the MAC key of the material already in the store
+        definition = store.getFieldDefinition();
+        ssk = store.getSecretSharedKey();
+      } else {
+        definition =
+            new BigIntegerFieldDefinition(ModulusFinder.findSuitableModulus(modBitLength));
+        ssk = SpdzMascotDataSupplier.createRandomSsk(definition, PRG_SEED_LENGTH);
+      }
+      byte[] setupId = MascotState.agreeOnSetupId(drbg, network);
+      state = new MascotState(myId, definition, ssk, runBaseOts(drbg), setupId);
+      state.save(stateFile);
+    }
+    // seed OTs must never be extended twice under the same instance id
+    int instanceId = state.reserveInstanceIds(1, network, stateFile);
+    FieldDefinition definition = state.getFieldDefinition();
+    FieldElement ssk = state.getMacKeyShare();
+    Map<Integer, RotList> seedOts = state.getSeedOts();
+    int bitLength = definition.getModulus().bitLength();
+    ExpPipes pipes = new ExpPipes();
+    SpdzMascotDataSupplier supplier = new SpdzMascotDataSupplier(myId, noOfParties, instanceId,
+        () -> network, definition, bitLength, pipes, PRG_SEED_LENGTH, segmentSize, ssk, seedOts,
+        drbg);
+    // the MAC checks of the computations need randomness agreed on by all parties
+    MascotResourcePool mascotPool = new MascotResourcePoolImpl(myId, noOfParties, instanceId, drbg,
+        seedOts, new MascotSecurityParameters(bitLength, PRG_SEED_LENGTH, 3), definition);
+    StrictBitVector jointSeed =
+        new CoinTossingMpc(mascotPool, network).generateJointSeed(PRG_SEED_LENGTH);
+    pipes.pool = new SpdzResourcePoolImpl(myId, noOfParties, new OpenedValueStoreImpl<>(),
+        supplier, new AesCtrDrbg(jointSeed.toByteArray()));
+    return new SpdzPreprocessingDaemon(noOfParties, supplier, network, store, segmentSize,
+        targetSegments, expPipeLength > 0, pollMillis);
+  }
+
+  private MascotState loadState() {
+    if (!Files.exists(stateFile)) {
+      return null;
+    }
+    try {
+      return MascotState.load(stateFile);
+    } catch (IllegalStateException e) {
+      logger.warn("Could not load the MASCOT state {}", stateFile, e);
+      return null;
+    }
+  }
+
+  private Map<Integer, RotList> runBaseOts(Drbg drbg) {
+    Map<Integer, RotList> seedOts = new HashMap<>();
+    for (int otherId = 1; otherId <= noOfParties; otherId++) {
+      if (otherId != myId) {
+        Ot ot = new ChouOrlandiOt(otherId, drbg, network);
+        RotList currentSeedOts = new RotList(drbg, PRG_SEED_LENGTH);
+        if (myId < otherId) {
+          currentSeedOts.send(ot);
+          currentSeedOts.receive(ot);
+        } else {
+          currentSeedOts.receive(ot);
+          currentSeedOts.send(ot);
+        }
+        seedOts.put(otherId, currentSeedOts);
+      }
+    }
+    return seedOts;
+  }
+
+  /**
+   * Computes exponentiation pipes in batches using the material of the MASCOT supplier itself.
+   */
+  private class ExpPipes implements BiFunction<Integer, Integer, List<SpdzSInt[]>> {
+
+    private SpdzResourcePool pool;
+
+    @Override
+    public List<SpdzSInt[]> apply(Integer ignored, Integer numberOfPipes) {
+      return sce.runApplication(builder -> {
+        DRes<List<DRes<List<DRes<SInt>>>>> pipes = new DefaultPreprocessedValues(builder)
+            .getExponentiationPipes(expPipeLength, numberOfPipes);
+        return () -> pipes.out().stream()
+            .map(pipe -> pipe.out().stream().map(value -> (SpdzSInt) value.out())
+                .toArray(SpdzSInt[]::new))
+            .collect(Collectors.toList());
+      }, pool, network);
+    }
+  }
+
+  private static Options buildOptions() {
+    Options options = new Options();
+    options.addOption(Option.builder("i").longOpt("id").required(true).hasArg()
+        .desc("The id of this player. Must be a unique positive integer.").build());
+    options.addOption(Option.builder("p").longOpt("party").required(true).hasArgs()
+        .desc("Connection data for a party on the form [id]:[hostname]:[port]. Use -p multiple "
+            + "times to specify all parties, including yourself.").build());
+    options.addOption(Option.builder("d").longOpt("directory").required(true).hasArg()
+        .desc("The directory of the store of this party.").build());
+    options.addOption(Option.builder("m").longOpt("modulus-bit-length").hasArg()
+        .desc("The bit length of the modulus of a new store. Defaults to 128.").build());
+    options.addOption(Option.builder("s").longOpt("segment-size").hasArg()
+        .desc("The number of records generated at a time. Defaults to 1024.").build());
+    options.addOption(Option.builder("t").longOpt("target-segments").hasArg()
+        .desc("The number of segments to keep in each stream. Defaults to 16.").build());
+    options.addOption(Option.builder("x").longOpt("exp-pipe-length").hasArg()
+        .desc("The length of exponentiation pipes to generate. Defaults to 0, i.e., none.")
+        .build());
+    options.addOption(Option.builder("o").longOpt("state-file").hasArg()
+        .desc("The file persisting the base OTs and MAC key share of this party between runs. "
+            + "Defaults to " + STATE_FILE + " in the store directory.").build());
+    options.addOption(Option.builder("f").longOpt("fill")
+        .desc("Stop once the store is full rather than keep refilling it.").build());
+    return options;
+  }
+
+  /**
+   * Runs the preprocessing service.
+   *
+   * @param args the command line arguments, see {@link #buildOptions()}
+   * @throws IOException if the network fails to close
+   */
+  public static void main(String[] args) throws IOException {
+    Options options = buildOptions();
+    CommandLine cmd;
+    Map<Integer, Party> parties = new HashMap<>();
+    int myId;
+    try {
+      cmd = new DefaultParser().parse(options, args);
+      myId = Integer.parseInt(cmd.getOptionValue("i"));
+      for (String party : cmd.getOptionValues("p")) {
+        String[] p = party.split(":");
+        if (p.length != 3) {
+          throw new ParseException("Could not parse '" + party + "' as [id]:[host]:[port]");
+        }
+        int id = Integer.parseInt(p[0]);
+        parties.put(id, new Party(id, p[1], Integer.parseInt(p[2])));
+      }
+      if (!parties.containsKey(myId)) {
+        throw new ParseException("The id " + myId + " is not among the parties");
+      }
+    } catch (ParseException | NumberFormatException e) {
+      System.err.println("Error while parsing arguments: " + e.getLocalizedMessage());
+      new HelpFormatter().printHelp("MascotPreprocessingDaemon", options);
+      throw new IllegalArgumentException("Error while parsing arguments", e);
+    }
+    try (CloseableNetwork network =
+        new SocketNetwork(new NetworkConfigurationImpl(myId, parties))) {
+      Path directory = Paths.get(cmd.getOptionValue("d"));
+      Path stateFile = cmd.hasOption("o")
+          ? Paths.get(cmd.getOptionValue("o"))
+          : directory.resolve(STATE_FILE);
+      MascotPreprocessingDaemon service = new MascotPreprocessingDaemon(myId, parties.size(),
+          network, new SpdzMaterialStore(directory), stateFile,
+          Integer.parseInt(cmd.getOptionValue("m", "128")),
+          Integer.parseInt(cmd.getOptionValue("x", "0")));
+      SpdzPreprocessingDaemon daemon = service.createDaemon(
+          Integer.parseInt(cmd.getOptionValue("s", "1024")),
+          Integer.parseInt(cmd.getOptionValue("t", "16")), 1000);
+      if (cmd.hasOption("f")) {
+        daemon.fill();
+      } else {
+        // stop all parties gracefully when this one is terminated
+        Thread main = Thread.currentThread();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+          daemon.close();
+          try {
+            main.join(SHUTDOWN_TIMEOUT_MILLIS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }));
+        daemon.run();
+      }
+      service.close();
+    }
+  }
+
+  @Override
+  public void close() {
+    sce.shutdownSCE();
+  }
+}
@@ -0,0 +1,169 @@
+package dk.alexandra.fresco.demo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.configuration.NetworkUtil;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzMaterialStore;
+import dk.alexandra.fresco.suite.spdz.storage.SpdzMaterialStoreDataSupplier;
+import java.io.File;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestMascotPreprocessingDaemon {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private void runDaemons(List<File> directories, String... extraArgs) throws Exception {
+    int noOfParties = directories.size();
+    List<Integer> ports = NetworkUtil.getFreePorts(noOfParties);
+    ExecutorService executor = Executors.newFixedThreadPool(noOfParties);
+    List<Future<Object>> futures = new ArrayList<>();
+    for (int i = 1; i <= noOfParties; i++) {
+      List<String> args = new ArrayList<>(Arrays.asList("-i", "" + i,
+          "-p", "1:localhost:" + ports.get(0), "-p", "2:localhost:" + ports.get(1),
+          "-d", directories.get(i - 1).getPath()));
+      args.addAll(Arrays.asList(extraArgs));
+      futures.add(executor.submit(() -> {
+        MascotPreprocessingDaemon.main(args.toArray(new String[0]));
+        return null;
+      }));
+    }
+    for (Future<Object> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+  }
+
+  @Test
+  public void testFill() throws Exception {
+    List<File> directories = Arrays.asList(folder.newFolder(), folder.newFolder());
+    runDaemons(directories, "-m", "128", "-s", "4", "-t", "1", "-x", "3", "--fill");
+
+    List<SpdzMaterialStoreDataSupplier> suppliers = new ArrayList<>();
+    for (File directory : directories) {
+      SpdzMaterialStore store = new SpdzMaterialStore(directory.toPath());
+      assertEquals(1, store.availableSegments(SpdzMaterialStore.TRIPLES));
+      assertEquals(1, store.availableSegments(SpdzMaterialStore.inputMasks(2)));
+      suppliers.add(new SpdzMaterialStoreDataSupplier(store, 4));
+    }
+    FieldDefinition definition = suppliers.get(0).getFieldDefinition();
+    FieldElement macKey = definition.createElement(0);
+    for (SpdzMaterialStoreDataSupplier supplier : suppliers) {
+      macKey = macKey.add(supplier.getSecretSharedKey());
+    }
+    List<SpdzTriple> triples = new ArrayList<>();
+    List<SpdzSInt[]> pipes = new ArrayList<>();
+    for (SpdzMaterialStoreDataSupplier supplier : suppliers) {
+      triples.add(supplier.getNextTriple());
+      pipes.add(supplier.getNextExpPipe());
+    }
+    BigInteger a = open(definition, macKey, triples.get(0).getA(), triples.get(1).getA());
+    BigInteger b = open(definition, macKey, triples.get(0).getB(), triples.get(1).getB());
+    BigInteger c = open(definition, macKey, triples.get(0).getC(), triples.get(1).getC());
+    assertEquals(a.multiply(b).mod(definition.getModulus()), c);
+    assertEquals(5, pipes.get(0).length);
+    BigInteger inverse = open(definition, macKey, pipes.get(0)[0], pipes.get(1)[0]);
+    BigInteger value = open(definition, macKey, pipes.get(0)[1], pipes.get(1)[1]);
+    assertEquals(BigInteger.ONE, inverse.multiply(value).mod(definition.getModulus()));
+    BigInteger square = open(definition, macKey, pipes.get(0)[2], pipes.get(1)[2]);
+    assertEquals(value.pow(2).mod(definition.getModulus()), square);
+  }
+
+  @Test
+  public void testResume() throws Exception {
+    List<File> directories = Arrays.asList(folder.newFolder(), folder.newFolder());
+    runDaemons(directories, "-s", "4", "-t", "1", "--fill");
+    for (File directory : directories) {
+      assertTrue(new File(directory, "MASCOT_STATE").exists());
+    }
+    // the second run resumes from the persisted base OTs and MAC key shares
+    runDaemons(directories, "-s", "4", "-t", "2", "--fill");
+    List<SpdzMaterialStoreDataSupplier> suppliers = new ArrayList<>();
+    for (File directory : directories) {
+      SpdzMaterialStore store = new SpdzMaterialStore(directory.toPath());
+      assertEquals(2, store.availableSegments(SpdzMaterialStore.TRIPLES));
+      suppliers.add(new SpdzMaterialStoreDataSupplier(store, 8));
+    }
+    FieldDefinition definition = suppliers.get(0).getFieldDefinition();
+    FieldElement macKey = definition.createElement(0);
+    for (SpdzMaterialStoreDataSupplier supplier : suppliers) {
+      macKey = macKey.add(supplier.getSecretSharedKey());
+    }
+    for (int i = 0; i < 8; i++) {
+      SpdzTriple first = suppliers.get(0).getNextTriple();
+      SpdzTriple second = suppliers.get(1).getNextTriple();
+      BigInteger a = open(definition, macKey, first.getA(), second.getA());
+      BigInteger b = open(definition, macKey, first.getB(), second.getB());
+      BigInteger c = open(definition, macKey, first.getC(), second.getC());
+      assertEquals(a.multiply(b).mod(definition.getModulus()), c);
+    }
+  }
+
+  @Test
+  public void testStaleState() throws Exception {
+    List<File> directories = Arrays.asList(folder.newFolder(), folder.newFolder());
+    runDaemons(directories, "-s", "4", "-t", "1", "--fill");
+    Path state = new File(directories.get(0), "MASCOT_STATE").toPath();
+    byte[] stale = Files.readAllBytes(state);
+    // losing a state makes all parties redo the base OTs
+    Files.delete(new File(directories.get(1), "MASCOT_STATE").toPath());
+    runDaemons(directories, "-s", "4", "-t", "2", "--fill");
+    assertFalse(Arrays.equals(stale, Files.readAllBytes(state)));
+    // a party restoring its state from before then must not resume from it
+    Files.write(state, stale);
+    runDaemons(directories, "-s", "4", "-t", "3", "--fill");
+    List<SpdzMaterialStoreDataSupplier> suppliers = new ArrayList<>();
+    for (File directory : directories) {
+      SpdzMaterialStore store = new SpdzMaterialStore(directory.toPath());
+      assertEquals(3, store.availableSegments(SpdzMaterialStore.TRIPLES));
+      suppliers.add(new SpdzMaterialStoreDataSupplier(store, 12));
+    }
+    FieldDefinition definition = suppliers.get(0).getFieldDefinition();
+    FieldElement macKey = definition.createElement(0);
+    for (SpdzMaterialStoreDataSupplier supplier : suppliers) {
+      macKey = macKey.add(supplier.getSecretSharedKey());
+    }
+    for (int i = 0; i < 12; i++) {
+      SpdzTriple first = suppliers.get(0).getNextTriple();
+      SpdzTriple second = suppliers.get(1).getNextTriple();
+      BigInteger a = open(definition, macKey, first.getA(), second.getA());
+      BigInteger b = open(definition, macKey, first.getB(), second.getB());
+      BigInteger c = open(definition, macKey, first.getC(), second.getC());
+      assertEquals(a.multiply(b).mod(definition.getModulus()), c);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingDirectory() throws Exception {
+    MascotPreprocessingDaemon.main(new String[]{"-i", "1", "-p", "1:localhost:8081"});
+  }
+
+  private BigInteger open(FieldDefinition definition, FieldElement macKey, SpdzSInt... shares) {
+    FieldElement value = definition.createElement(0);
+    FieldElement mac = definition.createElement(0);
+    for (SpdzSInt share : shares) {
+      value = value.add(share.getShare());
+      mac = mac.add(share.getMac());
+    }
+    assertTrue(definition.convertToUnsigned(value.multiply(macKey))
+        .equals(definition.convertToUnsigned(mac)));
+    return definition.convertToUnsigned(value);
+  }
+}
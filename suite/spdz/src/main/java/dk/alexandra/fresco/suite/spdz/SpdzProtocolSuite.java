@@ -3,16 +3,31 @@ package dk.alexandra.fresco.suite.spdz;
 import dk.alexandra.fresco.framework.builder.numeric.BuilderFactoryNumeric;
 import dk.alexandra.fresco.lib.field.integer.BasicNumericContext;
 import dk.alexandra.fresco.lib.real.RealNumericContext;
+import dk.alexandra.fresco.logging.MetricsRegistry;
 import dk.alexandra.fresco.suite.ProtocolSuiteNumeric;
 
 public class SpdzProtocolSuite implements ProtocolSuiteNumeric<SpdzResourcePool> {
 
   private final int maxBitLength;
   private final int fixedPointPrecision;
+  private final MetricsRegistry metrics;
 
   public SpdzProtocolSuite(int maxBitLength, int fixedPointPrecision) {
+    this(maxBitLength, fixedPointPrecision, null);
+  }
+
+  /**
+   * Creates a new protocol suite which records the duration of each mac-check in the given
+   * registry (see {@link SpdzRoundSynchronization#MAC_CHECK_TIME}).
+   *
+   * @param maxBitLength the maximum bit length of the values in the computation
+   * @param fixedPointPrecision the precision used for fixed point numbers
+   * @param metrics the registry to record into, or null to not record anything
+   */
+  public SpdzProtocolSuite(int maxBitLength, int fixedPointPrecision, MetricsRegistry metrics) {
     this.maxBitLength = maxBitLength;
     this.fixedPointPrecision = fixedPointPrecision;
+    this.metrics = metrics;
   }
 
   public SpdzProtocolSuite(int maxBitLength) {
@@ -37,6 +52,6 @@ public class SpdzProtocolSuite implements ProtocolSuiteNumeric<SpdzResourcePool>
 
   @Override
   public RoundSynchronization<SpdzResourcePool> createRoundSynchronization() {
-    return new SpdzRoundSynchronization(this);
+    return new SpdzRoundSynchronization(this, metrics);
   }
 }
@@ -8,6 +8,7 @@ import dk.alexandra.fresco.framework.sce.evaluator.BatchEvaluationStrategy;
 import dk.alexandra.fresco.framework.sce.evaluator.BatchedProtocolEvaluator;
 import dk.alexandra.fresco.framework.sce.evaluator.BatchedStrategy;
 import dk.alexandra.fresco.framework.util.OpenedValueStore;
+import dk.alexandra.fresco.logging.MetricsRegistry;
 import dk.alexandra.fresco.suite.ProtocolSuite.RoundSynchronization;
 import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
 import dk.alexandra.fresco.suite.spdz.gates.SpdzMacCheckProtocol;
@@ -21,6 +22,7 @@ import java.util.stream.StreamSupport;
  */
 public class SpdzRoundSynchronization implements RoundSynchronization<SpdzResourcePool> {
 
+  public static final String MAC_CHECK_TIME = "spdz.mac_check";
   private static final int DEFAULT_VALUE_THRESHOLD = 1000000;
   private static final int DEFAULT_BATCH_SIZE = 128;
   private final int openValueThreshold;
@@ -28,6 +30,7 @@ public class SpdzRoundSynchronization implements RoundSynchronization<SpdzResour
   private final SecureRandom secRand;
   private boolean isCheckRequired = false;
   private final int batchSize;
+  private final MetricsRegistry metrics;
 
   /**
    * Creates new {@link SpdzRoundSynchronization}.
@@ -42,17 +45,38 @@ public class SpdzRoundSynchronization implements RoundSynchronization<SpdzResour
    */
   public SpdzRoundSynchronization(SpdzProtocolSuite spdzProtocolSuite, int openValueThreshold,
       int batchSize) {
+    this(spdzProtocolSuite, openValueThreshold, batchSize, null);
+  }
+
+  /**
+   * Creates new {@link SpdzRoundSynchronization} recording the duration of each mac-check.
+   *
+   * @param spdzProtocolSuite the spdz protocol suite which we will use for the mac-check
+   *     computation
+   * @param openValueThreshold number of open values we accumulating before forcing mac-check
+   * @param batchSize batch size for mac-check protocol
+   * @param metrics registry to record the duration of the mac-checks in, or null to not record
+   *     them
+   */
+  public SpdzRoundSynchronization(SpdzProtocolSuite spdzProtocolSuite, int openValueThreshold,
+      int batchSize, MetricsRegistry metrics) {
     this.spdzProtocolSuite = spdzProtocolSuite;
     this.secRand = new SecureRandom();
     this.openValueThreshold = openValueThreshold;
     this.batchSize = batchSize;
+    this.metrics = metrics;
   }
 
   public SpdzRoundSynchronization(SpdzProtocolSuite spdzProtocolSuite) {
     this(spdzProtocolSuite, DEFAULT_VALUE_THRESHOLD, DEFAULT_BATCH_SIZE);
   }
 
+  SpdzRoundSynchronization(SpdzProtocolSuite spdzProtocolSuite, MetricsRegistry metrics) {
+    this(spdzProtocolSuite, DEFAULT_VALUE_THRESHOLD, DEFAULT_BATCH_SIZE, metrics);
+  }
+
   protected void doMacCheck(SpdzResourcePool resourcePool, Network network) {
+    long start = System.nanoTime();
     SpdzBuilder spdzBuilder = new SpdzBuilder(
         spdzProtocolSuite.createNumericContext(resourcePool),
         spdzProtocolSuite.createRealNumericContext());
@@ -69,6 +93,9 @@ public class SpdzRoundSynchronization implements RoundSynchronization<SpdzResour
     ProtocolBuilderNumeric sequential = spdzBuilder.createSequential();
     macCheck.buildComputation(sequential);
     evaluator.eval(sequential.build(), resourcePool, network);
+    if (metrics != null) {
+      metrics.histogram(MAC_CHECK_TIME).record(System.nanoTime() - start);
+    }
   }
 
   @Override
@@ -0,0 +1,79 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.logging.MetricsRegistry;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import java.util.function.Supplier;
+
+/**
+ * Records the time spent waiting for preprocessed material in a {@link MetricsRegistry}. This
+ * shows when the online phase stalls because a data supplier such as
+ * {@link SpdzMascotDataSupplier} has to generate more material.
+ */
+public class SpdzDataSupplierLatencyDecorator implements SpdzDataSupplier {
+
+  public static final String TRIPLE_TIME = "spdz.data_supplier.triple";
+  public static final String EXP_PIPE_TIME = "spdz.data_supplier.exp_pipe";
+  public static final String INPUT_MASK_TIME = "spdz.data_supplier.input_mask";
+  public static final String BIT_TIME = "spdz.data_supplier.bit";
+  public static final String RANDOM_ELEMENT_TIME = "spdz.data_supplier.random_element";
+
+  private final SpdzDataSupplier delegate;
+  private final MetricsRegistry registry;
+
+  /**
+   * Creates a new decorator recording into the given registry.
+   *
+   * @param supplier the supplier to decorate
+   * @param registry the registry to record into
+   */
+  public SpdzDataSupplierLatencyDecorator(SpdzDataSupplier supplier, MetricsRegistry registry) {
+    this.delegate = supplier;
+    this.registry = registry;
+  }
+
+  @Override
+  public SpdzTriple getNextTriple() {
+    return timed(TRIPLE_TIME, delegate::getNextTriple);
+  }
+
+  @Override
+  public SpdzSInt[] getNextExpPipe() {
+    return timed(EXP_PIPE_TIME, delegate::getNextExpPipe);
+  }
+
+  @Override
+  public SpdzInputMask getNextInputMask(int towardPlayerId) {
+    return timed(INPUT_MASK_TIME, () -> delegate.getNextInputMask(towardPlayerId));
+  }
+
+  @Override
+  public SpdzSInt getNextBit() {
+    return timed(BIT_TIME, delegate::getNextBit);
+  }
+
+  @Override
+  public FieldDefinition getFieldDefinition() {
+    return delegate.getFieldDefinition();
+  }
+
+  @Override
+  public FieldElement getSecretSharedKey() {
+    return delegate.getSecretSharedKey();
+  }
+
+  @Override
+  public SpdzSInt getNextRandomFieldElement() {
+    return timed(RANDOM_ELEMENT_TIME, delegate::getNextRandomFieldElement);
+  }
+
+  private <T> T timed(String name, Supplier<T> supplier) {
+    long start = System.nanoTime();
+    T result = supplier.get();
+    registry.histogram(name).record(System.nanoTime() - start);
+    return result;
+  }
+}
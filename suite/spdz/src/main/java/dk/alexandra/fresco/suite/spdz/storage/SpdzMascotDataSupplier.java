@@ -20,8 +20,11 @@ import dk.alexandra.fresco.tools.mascot.prg.FieldElementPrgImpl;
 import dk.alexandra.fresco.tools.ot.otextension.RotList;
 import java.security.SecureRandom;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import org.slf4j.Logger;
@@ -32,22 +35,30 @@ import org.slf4j.LoggerFactory;
  */
 public class SpdzMascotDataSupplier implements SpdzDataSupplier {
 
+  /**
+   * The default number of exponentiation pipes generated at a time. Each pipe holds a number of
+   * elements equal to the bit length of the modulus, so this is kept much smaller than the batch
+   * size of the other material.
+   */
+  public static final int DEFAULT_EXP_PIPE_BATCH_SIZE = 4;
   private static final Logger logger = LoggerFactory.getLogger(SpdzMascotDataSupplier.class);
   private final int myId;
   private final int instanceId;
   private final int numberOfPlayers;
   private final Supplier<Network> tripleNetwork;
   private final FieldDefinition fieldDefinition;
-  private final Function<Integer, SpdzSInt[]> preprocessedValues;
+  private final BiFunction<Integer, Integer, List<SpdzSInt[]>> preprocessedValues;
   private final FieldElement ssk;
 
   private final ArrayDeque<MultiplicationTriple> triples;
   private final Map<Integer, ArrayDeque<InputMask>> masks;
   private final ArrayDeque<AuthenticatedElement> randomElements;
   private final ArrayDeque<AuthenticatedElement> randomBits;
+  private final ArrayDeque<SpdzSInt[]> expPipes;
   private final int prgSeedLength;
   private final int modBitLength;
   private final int batchSize;
+  private final int expPipeBatchSize;
   private final Drbg drbg;
   private final Map<Integer, RotList> seedOts;
   private Mascot mascot;
@@ -61,17 +72,79 @@ public class SpdzMascotDataSupplier implements SpdzDataSupplier {
    * @param tripleNetwork network supplier for network to be used by Mascot instance
    * @param fieldDefinition field definition
    * @param modBitLength bit length of modulus
-   * @param preprocessedValues callback to generate exponentiation pipes
+   * @param preprocessedValues callback to generate exponentiation pipes, given the pipe length
+   *     and the number of pipes to generate at once
+   * @param prgSeedLength bit length of prg
+   * @param batchSize batch size in which Mascot will generate pre-processed material
+   * @param ssk mac key share
+   * @param seedOts pre-computed base OTs
+   * @param drbg source of randomness
+   */
+  public SpdzMascotDataSupplier(int myId, int numberOfPlayers, int instanceId,
+      Supplier<Network> tripleNetwork, FieldDefinition fieldDefinition, int modBitLength,
+      BiFunction<Integer, Integer, List<SpdzSInt[]>> preprocessedValues, int prgSeedLength,
+      int batchSize, FieldElement ssk, Map<Integer, RotList> seedOts, Drbg drbg) {
+    this(myId, numberOfPlayers, instanceId, tripleNetwork, fieldDefinition, modBitLength,
+        preprocessedValues, prgSeedLength, batchSize, DEFAULT_EXP_PIPE_BATCH_SIZE, ssk, seedOts,
+        drbg);
+  }
+
+  /**
+   * Creates {@link SpdzMascotDataSupplier} with a callback generating a single exponentiation pipe
+   * at a time.
+   *
+   * @param myId this party's id
+   * @param numberOfPlayers number of players
+   * @param instanceId identifier used to distinguish parallel instances of Mascot
+   * @param tripleNetwork network supplier for network to be used by Mascot instance
+   * @param fieldDefinition field definition
+   * @param modBitLength bit length of modulus
+   * @param preprocessedValues callback to generate an exponentiation pipe, given the pipe length
    * @param prgSeedLength bit length of prg
    * @param batchSize batch size in which Mascot will generate pre-processed material
    * @param ssk mac key share
    * @param seedOts pre-computed base OTs
    * @param drbg source of randomness
+   * @deprecated use the constructor taking a callback generating a number of pipes at once, which
+   *     lets the pipes of a batch share the rounds of communication
    */
+  @Deprecated
   public SpdzMascotDataSupplier(int myId, int numberOfPlayers, int instanceId,
       Supplier<Network> tripleNetwork, FieldDefinition fieldDefinition, int modBitLength,
       Function<Integer, SpdzSInt[]> preprocessedValues, int prgSeedLength, int batchSize,
       FieldElement ssk, Map<Integer, RotList> seedOts, Drbg drbg) {
+    this(myId, numberOfPlayers, instanceId, tripleNetwork, fieldDefinition, modBitLength,
+        singlePipes(preprocessedValues), prgSeedLength, batchSize, 1, ssk, seedOts, drbg);
+  }
+
+  /**
+   * Creates {@link SpdzMascotDataSupplier} generating exponentiation pipes in batches of a given
+   * size.
+   *
+   * @param myId this party's id
+   * @param numberOfPlayers number of players
+   * @param instanceId identifier used to distinguish parallel instances of Mascot
+   * @param tripleNetwork network supplier for network to be used by Mascot instance
+   * @param fieldDefinition field definition
+   * @param modBitLength bit length of modulus
+   * @param preprocessedValues callback to generate exponentiation pipes, given the pipe length
+   *     and the number of pipes to generate at once
+   * @param prgSeedLength bit length of prg
+   * @param batchSize batch size in which Mascot will generate pre-processed material
+   * @param expPipeBatchSize number of exponentiation pipes to generate at a time
+   * @param ssk mac key share
+   * @param seedOts pre-computed base OTs
+   * @param drbg source of randomness
+   */
+  public SpdzMascotDataSupplier(int myId, int numberOfPlayers, int instanceId,
+      Supplier<Network> tripleNetwork, FieldDefinition fieldDefinition, int modBitLength,
+      BiFunction<Integer, Integer, List<SpdzSInt[]>> preprocessedValues, int prgSeedLength,
+      int batchSize, int expPipeBatchSize, FieldElement ssk, Map<Integer, RotList> seedOts,
+      Drbg drbg) {
+    if (expPipeBatchSize < 1) {
+      throw new IllegalArgumentException(
+          "The exponentiation pipe batch size must be positive, was " + expPipeBatchSize);
+    }
     this.myId = myId;
     this.numberOfPlayers = numberOfPlayers;
     this.instanceId = instanceId;
@@ -85,26 +158,62 @@ public class SpdzMascotDataSupplier implements SpdzDataSupplier {
     }
     this.randomElements = new ArrayDeque<>();
     this.randomBits = new ArrayDeque<>();
+    this.expPipes = new ArrayDeque<>();
     this.prgSeedLength = prgSeedLength;
     this.modBitLength = modBitLength;
     this.batchSize = batchSize;
+    this.expPipeBatchSize = expPipeBatchSize;
     this.ssk = ssk;
     this.seedOts = seedOts;
     this.drbg = drbg;
   }
 
   /**
-   * Creates instance of {@link SpdzMascotDataSupplier}.
+   * Creates instance of {@link SpdzMascotDataSupplier} with a callback generating a single
+   * exponentiation pipe at a time.
+   *
+   * @deprecated use the variant taking a callback generating a number of pipes at once
    */
+  @Deprecated
   public static SpdzMascotDataSupplier createSimpleSupplier(int myId, int numberOfPlayers,
       Supplier<Network> tripleNetwork, int modBitLength, FieldDefinition fieldDefinition,
       Function<Integer, SpdzSInt[]> preprocessedValues,
       Map<Integer, RotList> seedOts, Drbg drbg, FieldElement ssk) {
+    return createSimpleSupplier(myId, numberOfPlayers, tripleNetwork, modBitLength,
+        fieldDefinition, singlePipes(preprocessedValues), seedOts, drbg, ssk);
+  }
+
+  /**
+   * Creates instance of {@link SpdzMascotDataSupplier}.
+   */
+  public static SpdzMascotDataSupplier createSimpleSupplier(int myId, int numberOfPlayers,
+      Supplier<Network> tripleNetwork, int modBitLength, FieldDefinition fieldDefinition,
+      BiFunction<Integer, Integer, List<SpdzSInt[]>> preprocessedValues,
+      Map<Integer, RotList> seedOts, Drbg drbg, FieldElement ssk) {
     int prgSeedLength = 256;
     return new SpdzMascotDataSupplier(myId, numberOfPlayers, 1, tripleNetwork, fieldDefinition,
         modBitLength, preprocessedValues, prgSeedLength, 16, ssk, seedOts, drbg);
   }
 
+  /**
+   * Adapts a callback generating a single exponentiation pipe to one generating a number of pipes
+   * by calling it once per pipe.
+   */
+  private static BiFunction<Integer, Integer, List<SpdzSInt[]>> singlePipes(
+      Function<Integer, SpdzSInt[]> preprocessedValues) {
+    if (preprocessedValues == null) {
+      return null;
+    }
+    return (pipeLength, numberOfPipes) -> {
+      List<SpdzSInt[]> pipes = new ArrayList<>(numberOfPipes);
+      for (int i = 0; i < numberOfPipes; i++) {
+        pipes.add(preprocessedValues.apply(pipeLength));
+      }
+      return pipes;
+    };
+  }
+
+
   /**
    * Creates random field element that can be used as the mac key share by the calling party.
    */
@@ -141,10 +250,12 @@ public class SpdzMascotDataSupplier implements SpdzDataSupplier {
 
   @Override
   public SpdzSInt[] getNextExpPipe() {
-    logger.trace("Getting another exp pipe");
-    SpdzSInt[] pipe = preprocessedValues.apply(modBitLength);
-    logger.trace("Got another exp pipe");
-    return pipe;
+    if (expPipes.isEmpty()) {
+      logger.trace("Getting another exp pipe batch");
+      expPipes.addAll(preprocessedValues.apply(modBitLength, expPipeBatchSize));
+      logger.trace("Got another exp pipe batch");
+    }
+    return expPipes.pop();
   }
 
   @Override
@@ -0,0 +1,387 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.BigIntegerFieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.util.ExceptionConverter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An on-disk store of preprocessed material for one party, written ahead of time by a
+ * {@link SpdzPreprocessingDaemon} and read by online runs through a
+ * {@link SpdzMaterialStoreDataSupplier}.
+ *
+ * <p>The store is a directory holding the modulus and the share of the MAC key, and a number of
+ * streams of records, e.g., one stream of triples. Each record is a fixed number of field
+ * elements. A stream is kept as a sequence of segment files in the compact fixed length format of
+ * {@link FieldDefinition#serialize(List)}. Segments are written to a temporary file and then
+ * moved in place, so readers only ever see complete segments.</p>
+ *
+ * <p>The material is secret. The modulus and MAC key share and the segments are therefore created
+ * with permissions for the owner only, and the store must be on a file system supporting POSIX
+ * file permissions.</p>
+ *
+ * <p>For each stream the store tracks how many records have been consumed in a separate file,
+ * which is locked and advanced before any records are handed out. Material is therefore never
+ * handed out twice, also not to online runs in different processes, and material reserved by a
+ * run that fails is lost rather than reused. Segments are deleted once fully consumed.</p>
+ *
+ * <p>The stores of the parties are filled jointly, so for all parties to read matching material
+ * they must consume their stores in the same order. If a run fails at some parties only, the
+ * parties may have consumed different amounts of material. Online runs should therefore compare
+ * the consumption of their stores before starting, see
+ * {@link SpdzMaterialStoreDataSupplier#synchronize}.</p>
+ *
+ * <p>The file locks on the consumption files keep processes from consuming the same material. As
+ * file locks are held by the whole JVM, stores of the same directory within one JVM instead take
+ * turns using a lock shared by all stores of the directory.</p>
+ */
+public class SpdzMaterialStore {
+
+  public static final String TRIPLES = "TRIPLE";
+  public static final String BITS = "BIT";
+  public static final String EXP_PIPES = "EXP";
+  private static final String INPUT_MASKS_PREFIX = "INPUT_";
+  private static final String META_FILE = "META";
+  private static final String CONSUMED_SUFFIX = ".consumed";
+  private static final String TEMP_SUFFIX = ".tmp";
+  private static final int POINTER_LENGTH = Long.BYTES + Integer.BYTES;
+  private static final FileAttribute<?> OWNER_ONLY =
+      PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------"));
+  private static final ConcurrentMap<Path, Object> directoryLocks = new ConcurrentHashMap<>();
+
+  private final Path directory;
+  private final Object directoryLock;
+  private FieldDefinition definition;
+  private FieldElement ssk;
+  private int elementLength;
+  private String cachedName;
+  private List<FieldElement> cachedElements;
+  private int cachedRecordLength;
+
+  /**
+   * Creates a store in the given directory, creating the directory if it does not exist.
+   *
+   * @param directory the directory of the store
+   * @throws UnsupportedOperationException if the directory is on a file system not supporting
+   *     POSIX file permissions
+   */
+  public SpdzMaterialStore(Path directory) {
+    this.directory = directory;
+    ExceptionConverter.safe(() -> Files.createDirectories(directory),
+        "Could not create store directory " + directory);
+    boolean posix = ExceptionConverter.safe(
+        () -> Files.getFileStore(directory).supportsFileAttributeView("posix"),
+        "Could not get file store of " + directory);
+    if (!posix) {
+      throw new UnsupportedOperationException("Store directory " + directory
+          + " must support POSIX file permissions to keep the material secret");
+    }
+    this.directoryLock = directoryLocks.computeIfAbsent(
+        ExceptionConverter.safe(directory::toRealPath, "Could not resolve " + directory),
+        ignored -> new Object());
+  }
+
+  /**
+   * Gets the name of the stream of input masks towards a given party.
+   *
+   * @param towardsPlayerId the id of the input party
+   * @return the name of the stream
+   */
+  public static String inputMasks(int towardsPlayerId) {
+    return INPUT_MASKS_PREFIX + towardsPlayerId;
+  }
+
+  /**
+   * Checks if the modulus and MAC key share of this store have been set.
+   */
+  public boolean isInitialized() {
+    return Files.exists(directory.resolve(META_FILE));
+  }
+
+  /**
+   * Sets the modulus and MAC key share of the material of this store.
+   *
+   * @param definition the field definition of the material
+   * @param ssk this party's share of the MAC key
+   * @throws IllegalStateException if the store is already initialized
+   */
+  public void initialize(FieldDefinition definition, FieldElement ssk) {
+    if (isInitialized()) {
+      throw new IllegalStateException("Store " + directory + " is already initialized");
+    }
+    byte[] modulus = definition.getModulus().toByteArray();
+    byte[] key = definition.serialize(ssk);
+    writeAtomically(META_FILE, out -> {
+      out.writeInt(modulus.length);
+      out.write(modulus);
+      out.writeInt(key.length);
+      out.write(key);
+    });
+  }
+
+  /**
+   * Gets the field definition of the material of this store.
+   */
+  public synchronized FieldDefinition getFieldDefinition() {
+    readMeta();
+    return definition;
+  }
+
+  /**
+   * Gets this party's share of the MAC key of the material of this store.
+   */
+  public synchronized FieldElement getSecretSharedKey() {
+    readMeta();
+    return ssk;
+  }
+
+  /**
+   * Appends a segment of records to a stream.
+   *
+   * @param name the name of the stream
+   * @param recordLength the number of field elements of each record
+   * @param elements the elements of the records, one record after the other
+   * @param definition the definition to serialize the elements with
+   */
+  public void append(String name, int recordLength, List<FieldElement> elements,
+      FieldDefinition definition) {
+    if (recordLength < 1 || elements.size() % recordLength != 0) {
+      throw new IllegalArgumentException("Cannot split " + elements.size()
+          + " elements into records of " + recordLength + " elements");
+    }
+    byte[] bytes = definition.serialize(elements);
+    String segment = segmentName(name, nextSegment(name));
+    writeAtomically(segment, out -> {
+      out.writeInt(recordLength);
+      out.writeInt(elements.size() / recordLength);
+      out.write(bytes);
+    });
+  }
+
+  /**
+   * Gets the number of segments of a stream that are not fully consumed.
+   *
+   * @param name the name of the stream
+   * @return the number of segments
+   */
+  public int availableSegments(String name) {
+    return (int) (nextSegment(name) - readPointer(name)[0]);
+  }
+
+  /**
+   * Takes up to a given number of records from a stream. The records are marked as consumed
+   * before they are returned. Fewer records are returned if the current segment of the stream
+   * has fewer remaining, and none if the stream is empty.
+   *
+   * @param name the name of the stream
+   * @param maxRecords the maximum number of records to take
+   * @return the records, each a list of field elements
+   */
+  public synchronized List<List<FieldElement>> take(String name, int maxRecords) {
+    return withPointer(name, channel -> {
+      long[] pointer = readPointer(channel);
+      String segment = segmentName(name, pointer[0]);
+      if (!Files.exists(directory.resolve(segment))) {
+        return Collections.emptyList();
+      }
+      List<FieldElement> elements = loadSegment(segment);
+      int records = elements.size() / cachedRecordLength;
+      int from = (int) pointer[1];
+      int to = Math.min(records, from + maxRecords);
+      boolean done = to == records;
+      writePointer(channel, done ? pointer[0] + 1 : pointer[0], done ? 0 : to);
+      List<List<FieldElement>> result = new ArrayList<>(to - from);
+      for (int i = from; i < to; i++) {
+        result.add(elements.subList(i * cachedRecordLength, (i + 1) * cachedRecordLength));
+      }
+      if (done) {
+        Files.delete(directory.resolve(segment));
+        cachedName = null;
+      }
+      return result;
+    }, "Could not take records from stream " + name);
+  }
+
+  /**
+   * Gets how much of a stream has been consumed, i.e., the number of the current segment and the
+   * number of records consumed of it.
+   *
+   * @param name the name of the stream
+   * @return the segment and the number of records consumed of it
+   */
+  public synchronized long[] getConsumed(String name) {
+    return withPointer(name, SpdzMaterialStore::readPointer,
+        "Could not read consumption of stream " + name);
+  }
+
+  /**
+   * Marks the records of a stream before a given position as consumed, discarding them. Does
+   * nothing if the stream has already been consumed beyond the position.
+   *
+   * @param name the name of the stream
+   * @param segment the segment of the position
+   * @param records the number of records of the segment before the position
+   */
+  public synchronized void skipTo(String name, long segment, int records) {
+    withPointer(name, channel -> {
+      long[] pointer = readPointer(channel);
+      if (pointer[0] > segment || pointer[0] == segment && pointer[1] >= records) {
+        return null;
+      }
+      writePointer(channel, segment, records);
+      for (long skipped = pointer[0]; skipped < segment; skipped++) {
+        Files.deleteIfExists(directory.resolve(segmentName(name, skipped)));
+      }
+      cachedName = null;
+      return null;
+    }, "Could not skip records of stream " + name);
+  }
+
+  private <T> T withPointer(String name, PointerAction<T> action, String errorMessage) {
+    Path pointerFile = directory.resolve(name + CONSUMED_SUFFIX);
+    synchronized (directoryLock) {
+      return ExceptionConverter.safe(() -> {
+        try (FileChannel channel = FileChannel.open(pointerFile, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+            FileLock ignored = channel.lock()) {
+          return action.apply(channel);
+        }
+      }, errorMessage);
+    }
+  }
+
+  private static void writePointer(FileChannel channel, long segment, int records)
+      throws IOException {
+    ByteBuffer next = ByteBuffer.allocate(POINTER_LENGTH);
+    next.putLong(segment).putInt(records).flip();
+    channel.write(next, 0);
+    channel.force(true);
+  }
+
+  private List<FieldElement> loadSegment(String segment) throws IOException {
+    if (!segment.equals(cachedName)) {
+      try (DataInputStream in = new DataInputStream(
+          Files.newInputStream(directory.resolve(segment)))) {
+        cachedRecordLength = in.readInt();
+        int records = in.readInt();
+        FieldDefinition definition = getFieldDefinition();
+        byte[] bytes = new byte[records * cachedRecordLength * elementLength];
+        in.readFully(bytes);
+        cachedElements = definition.deserializeList(bytes);
+        cachedName = segment;
+      }
+    }
+    return cachedElements;
+  }
+
+  private long nextSegment(String name) {
+    long next = readPointer(name)[0];
+    String prefix = name + ".";
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*")) {
+      for (Path file : files) {
+        String suffix = file.getFileName().toString().substring(prefix.length());
+        if (suffix.chars().allMatch(Character::isDigit) && !suffix.isEmpty()) {
+          next = Math.max(next, Long.parseLong(suffix) + 1);
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Could not list segments of stream " + name, e);
+    }
+    return next;
+  }
+
+  private long[] readPointer(String name) {
+    Path pointerFile = directory.resolve(name + CONSUMED_SUFFIX);
+    if (!Files.exists(pointerFile)) {
+      return new long[2];
+    }
+    return ExceptionConverter.safe(() -> {
+      try (FileChannel channel = FileChannel.open(pointerFile, StandardOpenOption.READ)) {
+        return readPointer(channel);
+      }
+    }, "Could not read consumption of stream " + name);
+  }
+
+  private static long[] readPointer(FileChannel channel) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(POINTER_LENGTH);
+    while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) > 0) {
+      // keep reading
+    }
+    if (buffer.hasRemaining()) {
+      return new long[2];
+    }
+    buffer.flip();
+    return new long[]{buffer.getLong(), buffer.getInt()};
+  }
+
+  private void readMeta() {
+    if (definition != null) {
+      return;
+    }
+    if (!isInitialized()) {
+      throw new IllegalStateException("Store " + directory + " is not initialized");
+    }
+    ExceptionConverter.safe(() -> {
+      try (InputStream file = Files.newInputStream(directory.resolve(META_FILE));
+          DataInputStream in = new DataInputStream(file)) {
+        byte[] modulus = new byte[in.readInt()];
+        in.readFully(modulus);
+        byte[] key = new byte[in.readInt()];
+        in.readFully(key);
+        definition = new BigIntegerFieldDefinition(new BigInteger(modulus));
+        ssk = definition.deserialize(key);
+        elementLength = key.length;
+      }
+      return null;
+    }, "Could not read store " + directory);
+  }
+
+  private void writeAtomically(String fileName, Writer writer) {
+    Path temp = directory.resolve(fileName + TEMP_SUFFIX);
+    ExceptionConverter.safe(() -> {
+      Files.deleteIfExists(temp);
+      Files.createFile(temp, OWNER_ONLY);
+      try (OutputStream file = Files.newOutputStream(temp);
+          DataOutputStream out = new DataOutputStream(file)) {
+        writer.write(out);
+      }
+      Files.move(temp, directory.resolve(fileName), StandardCopyOption.ATOMIC_MOVE);
+      return null;
+    }, "Could not write " + fileName + " to store " + directory);
+  }
+
+  private static String segmentName(String name, long segment) {
+    return String.format("%s.%012d", name, segment);
+  }
+
+  private interface Writer {
+
+    void write(DataOutputStream out) throws IOException;
+  }
+
+  private interface PointerAction<T> {
+
+    T apply(FileChannel channel) throws IOException;
+  }
+}
@@ -0,0 +1,177 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Data supplier which supplies the SPDZ protocol suite with preprocessed material generated ahead
+ * of time into a {@link SpdzMaterialStore}, e.g., by a {@link SpdzPreprocessingDaemon}.
+ *
+ * <p>Material is taken from the store in batches, which are marked as consumed in the store when
+ * taken. Material not used by the end of a run is therefore discarded, never reused.</p>
+ *
+ * <p>Each party tracks the consumption of its own store, so a run failing at some parties only
+ * leaves the parties at different positions in their stores. Before a run the parties should
+ * therefore {@link #synchronize(Network, boolean)} their stores, which detects this and optionally
+ * resynchronizes them.</p>
+ */
+public class SpdzMaterialStoreDataSupplier implements SpdzDataSupplier {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(SpdzMaterialStoreDataSupplier.class);
+
+  private final SpdzMaterialStore store;
+  private final int batchSize;
+  private final ArrayDeque<List<FieldElement>> triples;
+  private final ArrayDeque<List<FieldElement>> bits;
+  private final ArrayDeque<List<FieldElement>> expPipes;
+  private final Map<Integer, ArrayDeque<List<FieldElement>>> inputMasks;
+
+  /**
+   * Creates a new supplier taking material from the given store.
+   *
+   * @param store the store
+   * @param batchSize the number of records to take from the store at a time
+   */
+  public SpdzMaterialStoreDataSupplier(SpdzMaterialStore store, int batchSize) {
+    this.store = store;
+    this.batchSize = batchSize;
+    this.triples = new ArrayDeque<>();
+    this.bits = new ArrayDeque<>();
+    this.expPipes = new ArrayDeque<>();
+    this.inputMasks = new HashMap<>();
+  }
+
+  /**
+   * Compares the consumption of the stores of all parties, such that all parties continue from the
+   * same position in each stream. Must be called by all parties at the same time, before the
+   * material is used.
+   *
+   * <p>If the parties are at different positions, this either fails or, if resynchronizing,
+   * advances each party to the furthest position of any party, discarding the material in
+   * between. Material taken from the store but not yet used is discarded in any case.</p>
+   *
+   * @param network network connected to the other parties
+   * @param resync true to resynchronize the stores if needed, false to fail
+   * @throws IllegalStateException if the stores are at different positions and not resynchronized
+   */
+  public void synchronize(Network network, boolean resync) {
+    triples.clear();
+    bits.clear();
+    expPipes.clear();
+    inputMasks.clear();
+    List<String> streams = new ArrayList<>();
+    streams.add(SpdzMaterialStore.TRIPLES);
+    streams.add(SpdzMaterialStore.BITS);
+    streams.add(SpdzMaterialStore.EXP_PIPES);
+    for (int partyId = 1; partyId <= network.getNoOfParties(); partyId++) {
+      streams.add(SpdzMaterialStore.inputMasks(partyId));
+    }
+    ByteBuffer consumed = ByteBuffer.allocate(streams.size() * (Long.BYTES + Integer.BYTES));
+    for (String stream : streams) {
+      long[] pointer = store.getConsumed(stream);
+      consumed.putLong(pointer[0]).putInt((int) pointer[1]);
+    }
+    network.sendToAll(consumed.array());
+    List<ByteBuffer> received = network.receiveFromAll().stream().map(ByteBuffer::wrap)
+        .collect(Collectors.toList());
+    for (String stream : streams) {
+      long maxSegment = -1;
+      int maxRecords = -1;
+      boolean mismatch = false;
+      for (ByteBuffer other : received) {
+        long segment = other.getLong();
+        int records = other.getInt();
+        if (maxSegment >= 0 && (segment != maxSegment || records != maxRecords)) {
+          mismatch = true;
+        }
+        if (segment > maxSegment || segment == maxSegment && records > maxRecords) {
+          maxSegment = segment;
+          maxRecords = records;
+        }
+      }
+      if (mismatch) {
+        if (!resync) {
+          throw new IllegalStateException("The parties have consumed different amounts of stream "
+              + stream + " of their stores");
+        }
+        logger.warn("Resynchronizing stream {} of the store to segment {}, record {}", stream,
+            maxSegment, maxRecords);
+        store.skipTo(stream, maxSegment, maxRecords);
+      }
+    }
+  }
+
+  @Override
+  public SpdzTriple getNextTriple() {
+    List<FieldElement> triple = next(SpdzMaterialStore.TRIPLES, triples);
+    return new SpdzTriple(toSpdzSInt(triple, 0), toSpdzSInt(triple, 2), toSpdzSInt(triple, 4));
+  }
+
+  @Override
+  public SpdzSInt[] getNextExpPipe() {
+    List<FieldElement> pipe = next(SpdzMaterialStore.EXP_PIPES, expPipes);
+    SpdzSInt[] result = new SpdzSInt[pipe.size() / 2];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = toSpdzSInt(pipe, 2 * i);
+    }
+    return result;
+  }
+
+  @Override
+  public SpdzInputMask getNextInputMask(int towardPlayerId) {
+    List<FieldElement> mask = next(SpdzMaterialStore.inputMasks(towardPlayerId),
+        inputMasks.computeIfAbsent(towardPlayerId, id -> new ArrayDeque<>()));
+    if (mask.size() > 2) {
+      return new SpdzInputMask(toSpdzSInt(mask, 0), mask.get(2));
+    }
+    return new SpdzInputMask(toSpdzSInt(mask, 0));
+  }
+
+  @Override
+  public SpdzSInt getNextBit() {
+    return toSpdzSInt(next(SpdzMaterialStore.BITS, bits), 0);
+  }
+
+  @Override
+  public FieldDefinition getFieldDefinition() {
+    return store.getFieldDefinition();
+  }
+
+  @Override
+  public FieldElement getSecretSharedKey() {
+    return store.getSecretSharedKey();
+  }
+
+  @Override
+  public SpdzSInt getNextRandomFieldElement() {
+    return this.getNextTriple().getA();
+  }
+
+  private List<FieldElement> next(String name, ArrayDeque<List<FieldElement>> buffer) {
+    if (buffer.isEmpty()) {
+      buffer.addAll(store.take(name, batchSize));
+      if (buffer.isEmpty()) {
+        throw new IllegalStateException("No more material in stream " + name + " of the store");
+      }
+    }
+    return buffer.pop();
+  }
+
+  private static SpdzSInt toSpdzSInt(List<FieldElement> record, int index) {
+    return new SpdzSInt(record.get(index), record.get(index + 1));
+  }
+}
@@ -0,0 +1,198 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Generates preprocessed material ahead of time into a {@link SpdzMaterialStore}, such that
+ * online runs using a {@link SpdzMaterialStoreDataSupplier} do not have to wait for it.
+ *
+ * <p>The material is generated by a data supplier, typically a {@link SpdzMascotDataSupplier},
+ * one segment at a time. The daemon keeps each stream of the store, i.e., triples, bits, input
+ * masks towards each party and optionally exponentiation pipes, filled with a target number of
+ * segments, refilling streams as online runs consume them.</p>
+ *
+ * <p>Since generating the material is interactive, all parties must run a daemon and must
+ * generate the same streams in the same order. Before generating each segment the daemons
+ * therefore exchange the fill level of their stores and all refill the stream that is emptiest at
+ * any party. They also agree on when to stop, so {@link #close()} at one party stops all of
+ * them.</p>
+ */
+public class SpdzPreprocessingDaemon implements Runnable, Closeable {
+
+  private static final Logger logger = LoggerFactory.getLogger(SpdzPreprocessingDaemon.class);
+  private final SpdzDataSupplier supplier;
+  private final Network network;
+  private final SpdzMaterialStore store;
+  private final int segmentSize;
+  private final int targetSegments;
+  private final long pollMillis;
+  private final List<String> streams;
+  private volatile boolean stopRequested;
+  private boolean stopped;
+
+  /**
+   * Creates a new daemon. If the store is not initialized, it is initialized with the field and
+   * MAC key share of the supplier.
+   *
+   * @param noOfParties the number of parties
+   * @param supplier the supplier generating the material
+   * @param network network to agree with the other parties on what to generate
+   * @param store the store to fill
+   * @param segmentSize the number of records of each segment
+   * @param targetSegments the number of segments to keep in each stream
+   * @param expPipes whether to generate exponentiation pipes
+   * @param pollMillis the time to wait before checking the store again when it is full
+   * @throws IllegalArgumentException if the store holds material under another MAC key
+   */
+  public SpdzPreprocessingDaemon(int noOfParties, SpdzDataSupplier supplier, Network network,
+      SpdzMaterialStore store, int segmentSize, int targetSegments, boolean expPipes,
+      long pollMillis) {
+    this.supplier = supplier;
+    this.network = network;
+    this.store = store;
+    this.segmentSize = segmentSize;
+    this.targetSegments = targetSegments;
+    this.pollMillis = pollMillis;
+    this.streams = new ArrayList<>();
+    streams.add(SpdzMaterialStore.TRIPLES);
+    streams.add(SpdzMaterialStore.BITS);
+    for (int partyId = 1; partyId <= noOfParties; partyId++) {
+      streams.add(SpdzMaterialStore.inputMasks(partyId));
+    }
+    if (expPipes) {
+      streams.add(SpdzMaterialStore.EXP_PIPES);
+    }
+    FieldDefinition definition = supplier.getFieldDefinition();
+    if (!store.isInitialized()) {
+      store.initialize(definition, supplier.getSecretSharedKey());
+    } else if (!Arrays.equals(definition.serialize(supplier.getSecretSharedKey()),
+        store.getFieldDefinition().serialize(store.getSecretSharedKey()))
+        || !definition.getModulus().equals(store.getFieldDefinition().getModulus())) {
+      throw new IllegalArgumentException(
+          "The store holds material for another field or MAC key than the supplier");
+    }
+  }
+
+  /**
+   * Generates material until stopped by any party.
+   */
+  @Override
+  public void run() {
+    while (!stopped) {
+      if (!generateNext() && !stopped) {
+        try {
+          Thread.sleep(pollMillis);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          stopRequested = true;
+        }
+      }
+    }
+    logger.info("Stopped generating preprocessed material");
+  }
+
+  /**
+   * Generates material until all streams are filled to the target, or until stopped by any
+   * party.
+   */
+  public void fill() {
+    while (generateNext()) {
+      // keep generating
+    }
+  }
+
+  /**
+   * Agrees with the other parties on the stream to refill, if any, and generates a segment of it.
+   *
+   * @return true if a segment was generated, false if all streams are full or the daemons are
+   *     stopping
+   */
+  public boolean generateNext() {
+    ByteBuffer state = ByteBuffer.allocate(1 + streams.size() * Integer.BYTES);
+    state.put((byte) (stopRequested ? 1 : 0));
+    for (String stream : streams) {
+      state.putInt(store.availableSegments(stream));
+    }
+    network.sendToAll(state.array());
+    int[] available = new int[streams.size()];
+    Arrays.fill(available, Integer.MAX_VALUE);
+    for (byte[] received : network.receiveFromAll()) {
+      ByteBuffer other = ByteBuffer.wrap(received);
+      if (other.get() != 0) {
+        stopped = true;
+      }
+      for (int i = 0; i < available.length; i++) {
+        available[i] = Math.min(available[i], other.getInt());
+      }
+    }
+    if (stopped) {
+      return false;
+    }
+    int emptiest = 0;
+    for (int i = 1; i < available.length; i++) {
+      if (available[i] < available[emptiest]) {
+        emptiest = i;
+      }
+    }
+    if (available[emptiest] >= targetSegments) {
+      return false;
+    }
+    generateSegment(streams.get(emptiest));
+    return true;
+  }
+
+  private void generateSegment(String stream) {
+    logger.debug("Generating a segment of {} records of {}", segmentSize, stream);
+    List<FieldElement> elements = new ArrayList<>();
+    int recordLength = 0;
+    for (int i = 0; i < segmentSize; i++) {
+      int before = elements.size();
+      if (stream.equals(SpdzMaterialStore.TRIPLES)) {
+        SpdzTriple triple = supplier.getNextTriple();
+        add(elements, triple.getA());
+        add(elements, triple.getB());
+        add(elements, triple.getC());
+      } else if (stream.equals(SpdzMaterialStore.BITS)) {
+        add(elements, supplier.getNextBit());
+      } else if (stream.equals(SpdzMaterialStore.EXP_PIPES)) {
+        for (SpdzSInt value : supplier.getNextExpPipe()) {
+          add(elements, value);
+        }
+      } else {
+        int towardsPlayerId = Integer.parseInt(stream.substring(stream.lastIndexOf('_') + 1));
+        SpdzInputMask mask = supplier.getNextInputMask(towardsPlayerId);
+        add(elements, mask.getMask());
+        if (mask.getRealValue() != null) {
+          elements.add(mask.getRealValue());
+        }
+      }
+      recordLength = elements.size() - before;
+    }
+    store.append(stream, recordLength, elements, supplier.getFieldDefinition());
+  }
+
+  private static void add(List<FieldElement> elements, SpdzSInt value) {
+    elements.add(value.getShare());
+    elements.add(value.getMac());
+  }
+
+  /**
+   * Requests the daemons of all parties to stop. They stop once done with the current segment.
+   */
+  @Override
+  public void close() {
+    stopRequested = true;
+  }
+}
@@ -13,6 +13,7 @@ import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
 import dk.alexandra.fresco.framework.configuration.NetworkConfiguration;
 import dk.alexandra.fresco.framework.configuration.NetworkUtil;
 import dk.alexandra.fresco.framework.network.CloseableNetwork;
+import dk.alexandra.fresco.framework.network.InMemoryNetwork;
 import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.network.socket.SocketNetwork;
 import dk.alexandra.fresco.framework.sce.SecureComputationEngine;
@@ -55,7 +56,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.function.Function;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -81,7 +82,8 @@ public abstract class AbstractSpdzTest {
       PreprocessingStrategy preProStrat,
       int noOfParties) {
     runTest(f, DEFAULT_EVAL_STRATEGY, preProStrat, noOfParties,
-        false, DEFAULT_MOD_BIT_LENGTH, DEFAULT_MAX_BIT_LENGTH, DEFAULT_FIXED_POINT_PRECISION);
+        false, false, DEFAULT_MOD_BIT_LENGTH, DEFAULT_MAX_BIT_LENGTH,
+        DEFAULT_FIXED_POINT_PRECISION);
   }
 
   protected void runTest(
@@ -95,7 +97,8 @@ public abstract class AbstractSpdzTest {
   private void runTest(
       TestThreadRunner.TestThreadFactory<SpdzResourcePool, ProtocolBuilderNumeric> f,
       EvaluationStrategy evalStrategy, PreprocessingStrategy preProStrat, int noOfParties,
-      boolean logPerformance, int modBitLength, int maxBitLength, int fixedPointPrecision) {
+      boolean logPerformance, boolean inMemory, int modBitLength, int maxBitLength,
+      int fixedPointPrecision) {
     this.modBitLength = modBitLength;
     this.maxBitLength = maxBitLength;
     this.fixedPointPrecision = fixedPointPrecision;
@@ -110,6 +113,8 @@ public abstract class AbstractSpdzTest {
 
     Map<Integer, NetworkConfiguration> netConf =
         NetworkUtil.getNetworkConfigurations(ports);
+    Map<Integer, CloseableNetwork> inMemoryNetworks =
+        inMemory ? InMemoryNetwork.createNetworks(noOfParties) : null;
     Map<Integer, TestThreadRunner.TestThreadConfiguration<SpdzResourcePool, ProtocolBuilderNumeric>> conf =
         new HashMap<>();
     for (int playerId : netConf.keySet()) {
@@ -138,7 +143,9 @@ public abstract class AbstractSpdzTest {
       TestThreadRunner.TestThreadConfiguration<SpdzResourcePool, ProtocolBuilderNumeric> ttc =
           new TestThreadRunner.TestThreadConfiguration<>(sce, () -> createResourcePool(playerId,
               noOfParties, preProStrat, otManager, tripleManager, expPipeManager), () -> {
-            Network network = new SocketNetwork(netConf.get(playerId));
+            Network network = inMemory
+                ? inMemoryNetworks.get(playerId)
+                : new SocketNetwork(netConf.get(playerId));
             if (logPerformance) {
               network = new NetworkLoggingDecorator(network);
               aggregate.add((NetworkLoggingDecorator) network);
@@ -167,7 +174,7 @@ public abstract class AbstractSpdzTest {
       TestThreadRunner.TestThreadFactory<SpdzResourcePool, ProtocolBuilderNumeric> f,
       EvaluationStrategy evalStrategy, PreprocessingStrategy preProStrat, int noOfParties,
       int modBitLength, int maxBitLength, int fixedPointPrecision) {
-    runTest(f, evalStrategy, preProStrat, noOfParties, false, modBitLength, maxBitLength,
+    runTest(f, evalStrategy, preProStrat, noOfParties, false, false, modBitLength, maxBitLength,
         fixedPointPrecision);
   }
 
@@ -175,17 +182,32 @@ public abstract class AbstractSpdzTest {
   void runTestSequential(
       TestThreadRunner.TestThreadFactory<SpdzResourcePool, ProtocolBuilderNumeric> f) {
     runTest(f, EvaluationStrategy.SEQUENTIAL, PreprocessingStrategy.DUMMY, 2,
-        false, DEFAULT_MOD_BIT_LENGTH, DEFAULT_MAX_BIT_LENGTH, DEFAULT_FIXED_POINT_PRECISION);
+        false, false, DEFAULT_MOD_BIT_LENGTH, DEFAULT_MAX_BIT_LENGTH,
+        DEFAULT_FIXED_POINT_PRECISION);
   }
 
   void runTestWithLogging(
       TestThreadRunner.TestThreadFactory<SpdzResourcePool, ProtocolBuilderNumeric> f) {
     runTest(f, DEFAULT_EVAL_STRATEGY, PreprocessingStrategy.DUMMY, 2,
-        true, DEFAULT_MOD_BIT_LENGTH, DEFAULT_MAX_BIT_LENGTH, DEFAULT_FIXED_POINT_PRECISION);
+        true, false, DEFAULT_MOD_BIT_LENGTH, DEFAULT_MAX_BIT_LENGTH,
+        DEFAULT_FIXED_POINT_PRECISION);
+  }
+
+  /**
+   * Runs a test with the parties connected by an {@link InMemoryNetwork} rather than by sockets,
+   * e.g., to measure the cost of the computation alone.
+   */
+  void runTestInMemory(
+      TestThreadRunner.TestThreadFactory<SpdzResourcePool, ProtocolBuilderNumeric> f,
+      PreprocessingStrategy preProStrat, int noOfParties) {
+    runTest(f, DEFAULT_EVAL_STRATEGY, preProStrat, noOfParties,
+        false, true, DEFAULT_MOD_BIT_LENGTH, DEFAULT_MAX_BIT_LENGTH,
+        DEFAULT_FIXED_POINT_PRECISION);
   }
 
-  private DRes<List<DRes<SInt>>> createPipe(int myId, int noOfPlayers, int pipeLength,
-      CloseableNetwork pipeNetwork, SpdzMascotDataSupplier tripleSupplier) {
+  private DRes<List<DRes<List<DRes<SInt>>>>> createPipes(int myId, int noOfPlayers,
+      int pipeLength, int numberOfPipes, CloseableNetwork pipeNetwork,
+      SpdzMascotDataSupplier tripleSupplier) {
 
     ProtocolBuilderNumeric sequential = new SpdzBuilder(
         new BasicNumericContext(maxBitLength, myId, noOfPlayers,
@@ -195,10 +217,11 @@ public abstract class AbstractSpdzTest {
         new SpdzResourcePoolImpl(myId, noOfPlayers, new OpenedValueStoreImpl<>(), tripleSupplier,
             new AesCtrDrbg(new byte[32]));
 
-    DRes<List<DRes<SInt>>> exponentiationPipe =
-        new DefaultPreprocessedValues(sequential).getExponentiationPipe(pipeLength);
+    DRes<List<DRes<List<DRes<SInt>>>>> exponentiationPipes =
+        new DefaultPreprocessedValues(sequential).getExponentiationPipes(pipeLength,
+            numberOfPipes);
     evaluate(sequential, tripleResourcePool, pipeNetwork);
-    return exponentiationPipe;
+    return exponentiationPipes;
   }
 
   private Drbg getDrbg(int myId, int prgSeedLength) {
@@ -251,22 +274,23 @@ public abstract class AbstractSpdzTest {
       supplier = SpdzMascotDataSupplier.createSimpleSupplier(myId, numberOfParties,
           () -> tripleGenerator.createExtraNetwork(myId), modBitLength,
           definition,
-          new Function<Integer, SpdzSInt[]>() {
+          new BiFunction<Integer, Integer, List<SpdzSInt[]>>() {
 
             private SpdzMascotDataSupplier tripleSupplier;
             private CloseableNetwork pipeNetwork;
 
             @Override
-            public SpdzSInt[] apply(Integer pipeLength) {
+            public List<SpdzSInt[]> apply(Integer pipeLength, Integer numberOfPipes) {
               if (pipeNetwork == null) {
                 pipeNetwork = expPipeGenerator.createExtraNetwork(myId);
                 tripleSupplier = SpdzMascotDataSupplier.createSimpleSupplier(myId, numberOfParties,
-                    () -> pipeNetwork, modBitLength, definition, null,
-                    seedOts, drbg, ssk);
+                    () -> pipeNetwork, modBitLength, definition,
+                    (BiFunction<Integer, Integer, List<SpdzSInt[]>>) null, seedOts, drbg, ssk);
               }
-              DRes<List<DRes<SInt>>> pipe =
-                  createPipe(myId, numberOfParties, pipeLength, pipeNetwork, tripleSupplier);
-              return computeSInts(pipe);
+              DRes<List<DRes<List<DRes<SInt>>>>> pipes = createPipes(myId, numberOfParties,
+                  pipeLength, numberOfPipes, pipeNetwork, tripleSupplier);
+              return pipes.out().stream().map(AbstractSpdzTest.this::computeSInts)
+                  .collect(Collectors.toList());
             }
           }, seedOts, drbg, ssk);
     } else {
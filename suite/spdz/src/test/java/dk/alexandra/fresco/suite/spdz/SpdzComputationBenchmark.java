@@ -0,0 +1,98 @@
+package dk.alexandra.fresco.suite.spdz;
+
+import dk.alexandra.fresco.framework.Application;
+import dk.alexandra.fresco.framework.DRes;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThread;
+import dk.alexandra.fresco.framework.TestThreadRunner.TestThreadFactory;
+import dk.alexandra.fresco.framework.builder.numeric.Numeric;
+import dk.alexandra.fresco.framework.builder.numeric.ProtocolBuilderNumeric;
+import dk.alexandra.fresco.framework.value.SInt;
+import dk.alexandra.fresco.suite.spdz.configuration.PreprocessingStrategy;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the time of evaluating a number of multiplications with the parties connected by an
+ * in-memory network to the time with the parties connected by sockets over the loopback
+ * interface. The difference is the cost of communicating locally, while the time using the
+ * in-memory network is close to the cost of the computation alone.
+ *
+ * <p>Usage: <code>SpdzComputationBenchmark [parties [multiplications [rounds]]]</code></p>
+ */
+public class SpdzComputationBenchmark extends AbstractSpdzTest {
+
+  private final int multiplications;
+  private final int rounds;
+  private final AtomicLong elapsed = new AtomicLong();
+
+  private SpdzComputationBenchmark(int multiplications, int rounds) {
+    this.multiplications = multiplications;
+    this.rounds = rounds;
+  }
+
+  public static void main(String[] args) {
+    int parties = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+    int multiplications = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+    int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+    SpdzComputationBenchmark benchmark = new SpdzComputationBenchmark(multiplications, rounds);
+    // warm up
+    benchmark.run(parties, true);
+    benchmark.run(parties, false);
+    long inMemory = benchmark.run(parties, true);
+    long sockets = benchmark.run(parties, false);
+    System.out.println(String.format(
+        "%d parties, %d rounds of %d multiplications: in-memory %d ms, sockets %d ms",
+        parties, rounds, multiplications, inMemory, sockets));
+  }
+
+  private long run(int parties, boolean inMemory) {
+    elapsed.set(0);
+    if (inMemory) {
+      runTestInMemory(new MultiplicationRounds(), PreprocessingStrategy.DUMMY, parties);
+    } else {
+      runTest(new MultiplicationRounds(), PreprocessingStrategy.DUMMY, parties);
+    }
+    return TimeUnit.NANOSECONDS.toMillis(elapsed.get());
+  }
+
+  /**
+   * Evaluates a number of rounds of multiplications, recording the slowest party's time.
+   */
+  private class MultiplicationRounds
+      extends TestThreadFactory<SpdzResourcePool, ProtocolBuilderNumeric> {
+
+    @Override
+    public TestThread<SpdzResourcePool, ProtocolBuilderNumeric> next() {
+      return new TestThread<SpdzResourcePool, ProtocolBuilderNumeric>() {
+
+        @Override
+        public void test() {
+          Application<BigInteger, ProtocolBuilderNumeric> app = builder -> builder.seq(seq -> {
+            Numeric numeric = seq.numeric();
+            return numeric.known(BigInteger.valueOf(3));
+          }).seq((seq, value) -> {
+            DRes<SInt> current = value;
+            for (int i = 0; i < rounds; i++) {
+              DRes<SInt> factor = current;
+              current = seq.par(par -> {
+                List<DRes<SInt>> products = new ArrayList<>(multiplications);
+                for (int j = 0; j < multiplications; j++) {
+                  products.add(par.numeric().mult(factor, factor));
+                }
+                return products.get(0);
+              });
+            }
+            return seq.numeric().open(current);
+          });
+          long start = System.nanoTime();
+          runApplication(app);
+          long time = System.nanoTime() - start;
+          elapsed.accumulateAndGet(time, Math::max);
+        }
+      };
+    }
+  }
+}
@@ -10,6 +10,7 @@ import dk.alexandra.fresco.lib.collections.permute.PermuteRows;
 import dk.alexandra.fresco.lib.collections.permute.PermuteRowsTests;
 import dk.alexandra.fresco.lib.collections.relational.LeakyAggregationTests;
 import dk.alexandra.fresco.lib.collections.shuffle.ShuffleRowsTests;
+import dk.alexandra.fresco.lib.collections.sort.QuickSortRowsTests;
 import dk.alexandra.fresco.suite.spdz.configuration.PreprocessingStrategy;
 import java.util.ArrayList;
 import org.junit.Test;
@@ -83,6 +84,30 @@ public class TestSpdzCollections extends AbstractSpdzTest {
         PreprocessingStrategy.DUMMY, 2);
   }
 
+  @Test
+  public void test_sort_rows_power_of_two() {
+    runTest(QuickSortRowsTests.sortPowerOfTwo(),
+        PreprocessingStrategy.DUMMY, 2);
+  }
+
+  @Test
+  public void test_sort_rows_arbitrary_size() {
+    runTest(QuickSortRowsTests.sortArbitrarySize(),
+        PreprocessingStrategy.DUMMY, 3);
+  }
+
+  @Test
+  public void test_sort_rows_duplicate_keys() {
+    runTest(QuickSortRowsTests.sortDuplicateKeys(),
+        PreprocessingStrategy.DUMMY, 2);
+  }
+
+  @Test
+  public void test_sort_rows_single_row() {
+    runTest(QuickSortRowsTests.sortSingleRow(),
+        PreprocessingStrategy.DUMMY, 2);
+  }
+
   @Test
   public void test_MiMC_aggregate_two() {
     runTest(LeakyAggregationTests.aggregate(),
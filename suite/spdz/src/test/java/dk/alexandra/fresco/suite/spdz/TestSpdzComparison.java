@@ -25,6 +25,12 @@ public class TestSpdzComparison extends AbstractSpdzTest {
         PreprocessingStrategy.DUMMY, 2);
   }
 
+  @Test
+  public void testCompareLeqBulk() {
+    runTest(new CompareTests.TestCompareLEQBulk<>(),
+        PreprocessingStrategy.DUMMY, 2);
+  }
+
   @Test
   @Ignore("This is not tested on windows and does not work here")
   public void test_compareLT_Sequential_static() throws Exception {
@@ -0,0 +1,30 @@
+package dk.alexandra.fresco.suite.spdz;
+
+import dk.alexandra.fresco.lib.arithmetic.BasicArithmeticTests;
+import dk.alexandra.fresco.lib.compare.CompareTests;
+import dk.alexandra.fresco.suite.spdz.configuration.PreprocessingStrategy;
+import org.junit.Test;
+
+/**
+ * Tests evaluating SPDZ with the parties connected by an in-memory network.
+ */
+public class TestSpdzInMemoryNetwork extends AbstractSpdzTest {
+
+  @Test
+  public void testInputFromAll() {
+    runTestInMemory(new BasicArithmeticTests.TestInputFromAll<>(),
+        PreprocessingStrategy.DUMMY, 3);
+  }
+
+  @Test
+  public void testLotsMult() {
+    runTestInMemory(new BasicArithmeticTests.TestLotsMult<>(),
+        PreprocessingStrategy.DUMMY, 2);
+  }
+
+  @Test
+  public void testCompareLt() {
+    runTestInMemory(new CompareTests.TestCompareLT<>(),
+        PreprocessingStrategy.DUMMY, 3);
+  }
+}
@@ -43,6 +43,12 @@ public class TestSpdzMiMC extends AbstractSpdzTest {
         PreprocessingStrategy.DUMMY, 2);
   }
 
+  @Test
+  public void test_mimc_enc_dec_batch() {
+    runTest(new MiMCTests.TestMiMCEncDecBatch<>(),
+        PreprocessingStrategy.DUMMY, 2);
+  }
+
   @Test
   public void testMimcWithMascot() {
     runTest(new MiMCTests.TestMiMCEncDec<>(false), EvaluationStrategy.SEQUENTIAL_BATCHED,
@@ -1,6 +1,8 @@
 package dk.alexandra.fresco.suite.spdz;
 
 import dk.alexandra.fresco.lib.collections.relational.LeakyAggregationTests;
+import dk.alexandra.fresco.lib.collections.relational.LeakyJoinTests;
+import dk.alexandra.fresco.lib.collections.relational.SortingAggregationTests;
 import dk.alexandra.fresco.suite.spdz.configuration.PreprocessingStrategy;
 import org.junit.Test;
 
@@ -30,4 +32,58 @@ public class TestSpdzRelational extends AbstractSpdzTest {
         PreprocessingStrategy.DUMMY, 2);
   }
 
+  @Test
+  public void test_MiMC_join_two() {
+    runTest(LeakyJoinTests.join(),
+        PreprocessingStrategy.DUMMY, 2);
+  }
+
+  @Test
+  public void test_MiMC_join_three() {
+    runTest(LeakyJoinTests.join(),
+        PreprocessingStrategy.DUMMY, 3);
+  }
+
+  @Test
+  public void test_MiMC_join_intersection() {
+    runTest(LeakyJoinTests.intersection(),
+        PreprocessingStrategy.DUMMY, 2);
+  }
+
+  @Test
+  public void test_MiMC_join_empty() {
+    runTest(LeakyJoinTests.joinEmpty(),
+        PreprocessingStrategy.DUMMY, 2);
+  }
+
+  @Test
+  public void test_sorting_aggregate_two() {
+    runTest(SortingAggregationTests.aggregate(),
+        PreprocessingStrategy.DUMMY, 2);
+  }
+
+  @Test
+  public void test_sorting_aggregate_three() {
+    runTest(SortingAggregationTests.aggregate(),
+        PreprocessingStrategy.DUMMY, 3);
+  }
+
+  @Test
+  public void test_sorting_aggregate_unique_keys() {
+    runTest(SortingAggregationTests.aggregateUniqueKeys(),
+        PreprocessingStrategy.DUMMY, 2);
+  }
+
+  @Test
+  public void test_sorting_aggregate_single_group() {
+    runTest(SortingAggregationTests.aggregateSingleGroup(),
+        PreprocessingStrategy.DUMMY, 2);
+  }
+
+  @Test
+  public void test_sorting_aggregate_empty() {
+    runTest(SortingAggregationTests.aggregateEmpty(),
+        PreprocessingStrategy.DUMMY, 2);
+  }
+
 }
@@ -0,0 +1,39 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import static org.junit.Assert.assertEquals;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.BigIntegerFieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.util.ModulusFinder;
+import dk.alexandra.fresco.logging.MetricsRegistry;
+import java.math.BigInteger;
+import org.junit.Test;
+
+public class TestSpdzDataSupplierLatencyDecorator {
+
+  @Test
+  public void testRecordsEachRequest() {
+    FieldDefinition fieldDefinition =
+        new BigIntegerFieldDefinition(ModulusFinder.findSuitableModulus(16));
+    SpdzDummyDataSupplier delegate =
+        new SpdzDummyDataSupplier(1, 2, fieldDefinition, BigInteger.TEN, 10);
+    MetricsRegistry registry = new MetricsRegistry();
+    SpdzDataSupplier supplier = new SpdzDataSupplierLatencyDecorator(delegate, registry);
+    supplier.getNextTriple();
+    supplier.getNextTriple();
+    supplier.getNextExpPipe();
+    supplier.getNextInputMask(2);
+    supplier.getNextBit();
+    supplier.getNextRandomFieldElement();
+    assertEquals(fieldDefinition, supplier.getFieldDefinition());
+    assertEquals(2,
+        registry.histogram(SpdzDataSupplierLatencyDecorator.TRIPLE_TIME).getCount());
+    assertEquals(1,
+        registry.histogram(SpdzDataSupplierLatencyDecorator.EXP_PIPE_TIME).getCount());
+    assertEquals(1,
+        registry.histogram(SpdzDataSupplierLatencyDecorator.INPUT_MASK_TIME).getCount());
+    assertEquals(1, registry.histogram(SpdzDataSupplierLatencyDecorator.BIT_TIME).getCount());
+    assertEquals(1,
+        registry.histogram(SpdzDataSupplierLatencyDecorator.RANDOM_ELEMENT_TIME).getCount());
+  }
+}
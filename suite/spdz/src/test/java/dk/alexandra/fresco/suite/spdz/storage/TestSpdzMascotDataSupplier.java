@@ -0,0 +1,91 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.junit.Test;
+
+public class TestSpdzMascotDataSupplier {
+
+  private static final int MOD_BIT_LENGTH = 64;
+
+  /**
+   * Records the arguments of each call and returns the requested number of empty pipes.
+   */
+  private static class PipeRecorder implements BiFunction<Integer, Integer, List<SpdzSInt[]>> {
+
+    private final List<Integer> lengths = new ArrayList<>();
+    private final List<Integer> batchSizes = new ArrayList<>();
+    private final List<SpdzSInt[]> pipes = new ArrayList<>();
+
+    @Override
+    public List<SpdzSInt[]> apply(Integer pipeLength, Integer numberOfPipes) {
+      lengths.add(pipeLength);
+      batchSizes.add(numberOfPipes);
+      List<SpdzSInt[]> res = new ArrayList<>(numberOfPipes);
+      for (int i = 0; i < numberOfPipes; i++) {
+        res.add(new SpdzSInt[pipeLength]);
+      }
+      pipes.addAll(res);
+      return res;
+    }
+  }
+
+  private SpdzMascotDataSupplier createSupplier(PipeRecorder recorder, int expPipeBatchSize) {
+    return new SpdzMascotDataSupplier(1, 2, 1, null, null, MOD_BIT_LENGTH, recorder, 256, 1024,
+        expPipeBatchSize, null, null, null);
+  }
+
+  @Test
+  public void testExpPipesUseOwnBatchSize() {
+    PipeRecorder recorder = new PipeRecorder();
+    SpdzMascotDataSupplier supplier = createSupplier(recorder, 3);
+    for (int i = 0; i < 7; i++) {
+      SpdzSInt[] pipe = supplier.getNextExpPipe();
+      assertSame(recorder.pipes.get(i), pipe);
+    }
+    assertEquals(3, recorder.batchSizes.size());
+    for (int i = 0; i < 3; i++) {
+      assertEquals(MOD_BIT_LENGTH, (int) recorder.lengths.get(i));
+      assertEquals(3, (int) recorder.batchSizes.get(i));
+    }
+  }
+
+  @Test
+  public void testExpPipesDefaultBatchSize() {
+    PipeRecorder recorder = new PipeRecorder();
+    SpdzMascotDataSupplier supplier = new SpdzMascotDataSupplier(1, 2, 1, null, null,
+        MOD_BIT_LENGTH, recorder, 256, 1024, null, null, null);
+    supplier.getNextExpPipe();
+    assertEquals(SpdzMascotDataSupplier.DEFAULT_EXP_PIPE_BATCH_SIZE,
+        (int) recorder.batchSizes.get(0));
+  }
+
+  @Test
+  @SuppressWarnings("deprecation")
+  public void testSinglePipeCallback() {
+    List<Integer> lengths = new ArrayList<>();
+    Function<Integer, SpdzSInt[]> single = pipeLength -> {
+      lengths.add(pipeLength);
+      return new SpdzSInt[pipeLength];
+    };
+    SpdzMascotDataSupplier supplier = new SpdzMascotDataSupplier(1, 2, 1, null, null,
+        MOD_BIT_LENGTH, single, 256, 1024, null, null, null);
+    supplier.getNextExpPipe();
+    supplier.getNextExpPipe();
+    assertEquals(2, lengths.size());
+    for (int length : lengths) {
+      assertEquals(MOD_BIT_LENGTH, length);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalExpPipeBatchSize() {
+    createSupplier(new PipeRecorder(), 0);
+  }
+}
@@ -0,0 +1,335 @@
+package dk.alexandra.fresco.suite.spdz.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.BigIntegerFieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.network.CloseableNetwork;
+import dk.alexandra.fresco.framework.network.InMemoryNetwork;
+import dk.alexandra.fresco.framework.util.ModulusFinder;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzInputMask;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzSInt;
+import dk.alexandra.fresco.suite.spdz.datatypes.SpdzTriple;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestSpdzMaterialStore {
+
+  private final FieldDefinition definition =
+      new BigIntegerFieldDefinition(ModulusFinder.findSuitableModulus(64));
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private List<FieldElement> elements(int... values) {
+    return Arrays.stream(values).mapToObj(definition::createElement).collect(Collectors.toList());
+  }
+
+  private SpdzMaterialStore createStore() throws Exception {
+    SpdzMaterialStore store = new SpdzMaterialStore(folder.newFolder().toPath());
+    store.initialize(definition, definition.createElement(42));
+    return store;
+  }
+
+  private List<Integer> values(List<List<FieldElement>> records) {
+    return records.stream().flatMap(List::stream)
+        .map(e -> definition.convertToUnsigned(e).intValue()).collect(Collectors.toList());
+  }
+
+  @Test
+  public void testMeta() throws Exception {
+    Path directory = folder.newFolder().toPath();
+    SpdzMaterialStore store = new SpdzMaterialStore(directory);
+    assertFalse(store.isInitialized());
+    store.initialize(definition, definition.createElement(42));
+    SpdzMaterialStore reopened = new SpdzMaterialStore(directory);
+    assertTrue(reopened.isInitialized());
+    assertEquals(definition.getModulus(), reopened.getFieldDefinition().getModulus());
+    assertEquals(BigInteger.valueOf(42),
+        reopened.getFieldDefinition().convertToUnsigned(reopened.getSecretSharedKey()));
+  }
+
+  @Test
+  public void testOwnerOnlyPermissions() throws Exception {
+    Path directory = folder.newFolder().toPath();
+    SpdzMaterialStore store = new SpdzMaterialStore(directory);
+    store.initialize(definition, definition.createElement(42));
+    store.append(SpdzMaterialStore.BITS, 2, elements(1, 2), definition);
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : files.filter(f -> !f.toString().endsWith(".consumed"))
+          .collect(Collectors.toList())) {
+        assertEquals(file.toString(), PosixFilePermissions.fromString("rw-------"),
+            Files.getPosixFilePermissions(file));
+      }
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testInitializeTwice() throws Exception {
+    createStore().initialize(definition, definition.createElement(1));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testNotInitialized() throws Exception {
+    new SpdzMaterialStore(folder.newFolder().toPath()).getSecretSharedKey();
+  }
+
+  @Test
+  public void testTakeInOrder() throws Exception {
+    SpdzMaterialStore store = createStore();
+    store.append(SpdzMaterialStore.BITS, 2, elements(1, 2, 3, 4, 5, 6), definition);
+    store.append(SpdzMaterialStore.BITS, 2, elements(7, 8), definition);
+    assertEquals(2, store.availableSegments(SpdzMaterialStore.BITS));
+    assertEquals(Arrays.asList(1, 2, 3, 4), values(store.take(SpdzMaterialStore.BITS, 2)));
+    // only the remainder of the current segment
+    assertEquals(Arrays.asList(5, 6), values(store.take(SpdzMaterialStore.BITS, 2)));
+    assertEquals(1, store.availableSegments(SpdzMaterialStore.BITS));
+    assertEquals(Arrays.asList(7, 8), values(store.take(SpdzMaterialStore.BITS, 2)));
+    assertEquals(0, store.availableSegments(SpdzMaterialStore.BITS));
+    assertTrue(store.take(SpdzMaterialStore.BITS, 2).isEmpty());
+  }
+
+  @Test
+  public void testConsumptionPersisted() throws Exception {
+    Path directory = folder.newFolder().toPath();
+    SpdzMaterialStore store = new SpdzMaterialStore(directory);
+    store.initialize(definition, definition.createElement(42));
+    store.append(SpdzMaterialStore.TRIPLES, 1, elements(1, 2, 3), definition);
+    assertEquals(Arrays.asList(1), values(store.take(SpdzMaterialStore.TRIPLES, 1)));
+    // a new run never gets the material taken by a previous one
+    SpdzMaterialStore reopened = new SpdzMaterialStore(directory);
+    assertEquals(Arrays.asList(2, 3), values(reopened.take(SpdzMaterialStore.TRIPLES, 5)));
+    // consumed segments are deleted
+    try (Stream<Path> files = Files.list(directory)) {
+      assertTrue(files.noneMatch(f -> f.getFileName().toString().matches("TRIPLE\\.\\d+")));
+    }
+    reopened.append(SpdzMaterialStore.TRIPLES, 1, elements(4), definition);
+    assertEquals(Arrays.asList(4), values(store.take(SpdzMaterialStore.TRIPLES, 5)));
+  }
+
+  @Test
+  public void testStreamsIndependent() throws Exception {
+    SpdzMaterialStore store = createStore();
+    store.append(SpdzMaterialStore.inputMasks(1), 3, elements(1, 2, 3), definition);
+    store.append(SpdzMaterialStore.inputMasks(10), 2, elements(4, 5), definition);
+    assertEquals(1, store.availableSegments(SpdzMaterialStore.inputMasks(1)));
+    assertEquals(Arrays.asList(4, 5),
+        values(store.take(SpdzMaterialStore.inputMasks(10), 1)));
+    assertEquals(Arrays.asList(1, 2, 3),
+        values(store.take(SpdzMaterialStore.inputMasks(1), 1)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAppendPartialRecord() throws Exception {
+    createStore().append(SpdzMaterialStore.TRIPLES, 6, elements(1, 2, 3), definition);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testSupplierExhausted() throws Exception {
+    new SpdzMaterialStoreDataSupplier(createStore(), 10).getNextTriple();
+  }
+
+  @Test
+  public void testSameDirectoryInOneJvm() throws Exception {
+    Path directory = folder.newFolder().toPath();
+    SpdzMaterialStore store = new SpdzMaterialStore(directory);
+    store.initialize(definition, definition.createElement(42));
+    int records = 200;
+    for (int i = 0; i < records; i++) {
+      store.append(SpdzMaterialStore.BITS, 1, elements(i), definition);
+    }
+    List<SpdzMaterialStore> stores = Arrays.asList(store, new SpdzMaterialStore(directory));
+    ExecutorService executor = Executors.newFixedThreadPool(stores.size());
+    List<Future<List<Integer>>> futures = new ArrayList<>();
+    for (SpdzMaterialStore current : stores) {
+      futures.add(executor.submit(() -> {
+        List<Integer> taken = new ArrayList<>();
+        List<List<FieldElement>> next = current.take(SpdzMaterialStore.BITS, 1);
+        while (!next.isEmpty()) {
+          taken.addAll(values(next));
+          next = current.take(SpdzMaterialStore.BITS, 1);
+        }
+        return taken;
+      }));
+    }
+    // every record is handed out exactly once
+    List<Integer> taken = new ArrayList<>();
+    for (Future<List<Integer>> future : futures) {
+      taken.addAll(future.get());
+    }
+    executor.shutdown();
+    assertEquals(records, taken.size());
+    assertEquals(records, taken.stream().distinct().count());
+  }
+
+  @Test
+  public void testSkipTo() throws Exception {
+    SpdzMaterialStore store = createStore();
+    store.append(SpdzMaterialStore.BITS, 1, elements(1, 2, 3), definition);
+    store.append(SpdzMaterialStore.BITS, 1, elements(4, 5, 6), definition);
+    store.skipTo(SpdzMaterialStore.BITS, 1, 1);
+    assertEquals(1, store.getConsumed(SpdzMaterialStore.BITS)[0]);
+    assertEquals(1, store.getConsumed(SpdzMaterialStore.BITS)[1]);
+    // never moves backwards
+    store.skipTo(SpdzMaterialStore.BITS, 0, 2);
+    assertEquals(Arrays.asList(5, 6), values(store.take(SpdzMaterialStore.BITS, 5)));
+  }
+
+  private List<Object> synchronize(List<SpdzMaterialStoreDataSupplier> suppliers,
+      boolean resync) throws Exception {
+    Map<Integer, CloseableNetwork> networks = InMemoryNetwork.createNetworks(suppliers.size());
+    ExecutorService executor = Executors.newFixedThreadPool(suppliers.size());
+    List<Future<Object>> futures = new ArrayList<>();
+    for (int i = 0; i < suppliers.size(); i++) {
+      SpdzMaterialStoreDataSupplier supplier = suppliers.get(i);
+      CloseableNetwork network = networks.get(i + 1);
+      futures.add(executor.submit(() -> {
+        try {
+          supplier.synchronize(network, resync);
+          return null;
+        } catch (IllegalStateException e) {
+          return e;
+        }
+      }));
+    }
+    List<Object> results = new ArrayList<>();
+    for (Future<Object> future : futures) {
+      results.add(future.get());
+    }
+    executor.shutdown();
+    for (CloseableNetwork network : networks.values()) {
+      network.close();
+    }
+    return results;
+  }
+
+  @Test
+  public void testSynchronize() throws Exception {
+    List<SpdzMaterialStore> stores = Arrays.asList(createStore(), createStore());
+    List<SpdzMaterialStoreDataSupplier> suppliers = new ArrayList<>();
+    for (SpdzMaterialStore store : stores) {
+      store.append(SpdzMaterialStore.TRIPLES, 6, elements(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12),
+          definition);
+      store.append(SpdzMaterialStore.TRIPLES, 6, elements(13, 14, 15, 16, 17, 18), definition);
+      suppliers.add(new SpdzMaterialStoreDataSupplier(store, 1));
+    }
+    assertEquals(Arrays.asList(null, null), synchronize(suppliers, false));
+    // a run failing after the first party has taken a triple
+    suppliers.get(0).getNextTriple();
+    for (Object result : synchronize(suppliers, false)) {
+      assertTrue(result instanceof IllegalStateException);
+    }
+    assertEquals(Arrays.asList(null, null), synchronize(suppliers, true));
+    for (SpdzMaterialStoreDataSupplier supplier : suppliers) {
+      assertEquals(BigInteger.valueOf(7),
+          definition.convertToUnsigned(supplier.getNextTriple().getA().getShare()));
+    }
+    assertEquals(Arrays.asList(null, null), synchronize(suppliers, false));
+  }
+
+  @Test
+  public void testDaemon() throws Exception {
+    int noOfParties = 2;
+    List<SpdzMaterialStore> stores = new ArrayList<>();
+    for (int i = 0; i < noOfParties; i++) {
+      stores.add(new SpdzMaterialStore(folder.newFolder().toPath()));
+    }
+    Map<Integer, CloseableNetwork> networks = InMemoryNetwork.createNetworks(noOfParties);
+    ExecutorService executor = Executors.newFixedThreadPool(noOfParties);
+    List<SpdzPreprocessingDaemon> daemons = new ArrayList<>();
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < noOfParties; i++) {
+      SpdzDataSupplier supplier = new SpdzDummyDataSupplier(i + 1, noOfParties, definition,
+          BigInteger.valueOf(i + 5), 4);
+      SpdzPreprocessingDaemon daemon = new SpdzPreprocessingDaemon(noOfParties, supplier,
+          networks.get(i + 1), stores.get(i), 8, 2, true, 10);
+      daemons.add(daemon);
+      futures.add(executor.submit(daemon));
+    }
+    // all streams filled to the target
+    for (SpdzMaterialStore store : stores) {
+      while (store.availableSegments(SpdzMaterialStore.EXP_PIPES) < 2
+          || store.availableSegments(SpdzMaterialStore.TRIPLES) < 2) {
+        Thread.sleep(10);
+      }
+    }
+    List<SpdzMaterialStoreDataSupplier> suppliers = new ArrayList<>();
+    for (SpdzMaterialStore store : stores) {
+      suppliers.add(new SpdzMaterialStoreDataSupplier(store, 5));
+    }
+    FieldElement macKey = definition.createElement(0);
+    for (SpdzMaterialStoreDataSupplier supplier : suppliers) {
+      macKey = macKey.add(supplier.getSecretSharedKey());
+    }
+    // consume more than a segment to make the daemons refill
+    for (int i = 0; i < 20; i++) {
+      List<SpdzTriple> triples = new ArrayList<>();
+      for (SpdzMaterialStoreDataSupplier supplier : suppliers) {
+        triples.add(supplier.getNextTriple());
+      }
+      FieldElement a = open(triples.stream().map(SpdzTriple::getA), macKey);
+      FieldElement b = open(triples.stream().map(SpdzTriple::getB), macKey);
+      FieldElement c = open(triples.stream().map(SpdzTriple::getC), macKey);
+      assertEquals(definition.convertToUnsigned(a.multiply(b)), definition.convertToUnsigned(c));
+    }
+    List<SpdzInputMask> masks = new ArrayList<>();
+    for (SpdzMaterialStoreDataSupplier supplier : suppliers) {
+      masks.add(supplier.getNextInputMask(2));
+    }
+    assertNull(masks.get(0).getRealValue());
+    assertNotNull(masks.get(1).getRealValue());
+    assertEquals(definition.convertToUnsigned(masks.get(1).getRealValue()),
+        definition.convertToUnsigned(open(masks.stream().map(SpdzInputMask::getMask), macKey)));
+    List<SpdzSInt[]> pipes = new ArrayList<>();
+    for (SpdzMaterialStoreDataSupplier supplier : suppliers) {
+      pipes.add(supplier.getNextExpPipe());
+    }
+    assertEquals(5, pipes.get(0).length);
+    FieldElement inverse = open(pipes.stream().map(p -> p[0]), macKey);
+    FieldElement value = open(pipes.stream().map(p -> p[1]), macKey);
+    assertEquals(BigInteger.ONE, definition.convertToUnsigned(inverse.multiply(value)));
+    BigInteger bit = definition.convertToUnsigned(
+        open(suppliers.stream().map(SpdzMaterialStoreDataSupplier::getNextBit), macKey));
+    assertTrue(bit.equals(BigInteger.ZERO) || bit.equals(BigInteger.ONE));
+    // closing one daemon stops all of them
+    daemons.get(0).close();
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+    for (CloseableNetwork network : networks.values()) {
+      network.close();
+    }
+  }
+
+  private FieldElement open(Stream<SpdzSInt> shares, FieldElement macKey) {
+    FieldElement value = definition.createElement(0);
+    FieldElement mac = definition.createElement(0);
+    for (SpdzSInt share : (Iterable<SpdzSInt>) shares::iterator) {
+      value = value.add(share.getShare());
+      mac = mac.add(share.getMac());
+    }
+    assertEquals(definition.convertToUnsigned(value.multiply(macKey)),
+        definition.convertToUnsigned(mac));
+    return value;
+  }
+}
@@ -19,10 +19,12 @@ import dk.alexandra.fresco.suite.tinytables.storage.BatchTinyTablesTripleProvide
 import dk.alexandra.fresco.suite.tinytables.storage.TinyTablesStorage;
 import dk.alexandra.fresco.suite.tinytables.storage.TinyTablesStorageImpl;
 import dk.alexandra.fresco.suite.tinytables.storage.TinyTablesTripleProvider;
+import dk.alexandra.fresco.suite.tinytables.util.TinyTableGenerator;
 import dk.alexandra.fresco.suite.tinytables.util.TinyTablesTripleGenerator;
 import dk.alexandra.fresco.suite.tinytables.util.Util;
 import dk.alexandra.fresco.tools.cointossing.CoinTossing;
 import dk.alexandra.fresco.tools.ot.otextension.BristolOtFactory;
+import dk.alexandra.fresco.tools.ot.otextension.OneOfNRotFactory;
 import dk.alexandra.fresco.tools.ot.otextension.OtExtensionResourcePool;
 import dk.alexandra.fresco.tools.ot.otextension.OtExtensionResourcePoolImpl;
 import dk.alexandra.fresco.tools.ot.otextension.RotFactory;
@@ -50,7 +52,9 @@ public class TinyTablesPreproResourcePool extends ResourcePoolImpl {
   private final TinyTablesStorage storage;
   private final File tinyTablesFile;
   private final Supplier<TinyTablesTripleProvider> supplier;
+  private final Supplier<TinyTableGenerator> tableGeneratorSupplier;
   private TinyTablesTripleProvider tinyTablesTripleProvider;
+  private TinyTableGenerator tableGenerator;
 
   /**
    * Creates an instance of the default implementation of a resource pool. This contains the basic
@@ -65,6 +69,26 @@ public class TinyTablesPreproResourcePool extends ResourcePoolImpl {
   public TinyTablesPreproResourcePool(int myId, TinyTablesOt baseOt, Drbg drbg,
       int computationalSecurity, int statisticalSecurity,
       int otBatchSize, File tinyTablesFile, Supplier<Network> network) {
+    this(myId, baseOt, drbg, computationalSecurity, statisticalSecurity, otBatchSize,
+        tinyTablesFile, network, false);
+  }
+
+  /**
+   * Creates an instance of the default implementation of a resource pool, which may compute the
+   * TinyTables using 1-out-of-4 OT extension instead of multiplication triples. With 1-out-of-4 OT
+   * each TinyTable is computed from a single OT, without opening any values, but the OT extension
+   * is only secure against a semi-honest receiver.
+   *
+   * @param myId The ID of the MPC party.
+   * @param baseOt OT functionality for the base OTs
+   * @param drbg Secure bit randomness generator
+   * @param otBatchSize The amount of OTs to preprocess in a batch
+   * @param tinyTablesFile file for data
+   * @param oneOfFourOt whether to compute each TinyTable using a 1-out-of-4 OT
+   */
+  public TinyTablesPreproResourcePool(int myId, TinyTablesOt baseOt, Drbg drbg,
+      int computationalSecurity, int statisticalSecurity,
+      int otBatchSize, File tinyTablesFile, Supplier<Network> network, boolean oneOfFourOt) {
     super(myId, 2);
     this.unprocessedAnds = Collections.synchronizedList(new ArrayList<>());
     this.storage = new TinyTablesStorageImpl();
@@ -95,6 +119,23 @@ public class TinyTablesPreproResourcePool extends ResourcePoolImpl {
           new TinyTablesTripleGenerator(getMyId(), getDrng(), otFactory);
       return new BatchTinyTablesTripleProvider(generator, TRIP_BATCH_SIZE);
     };
+    this.tableGeneratorSupplier = !oneOfFourOt ? null : () -> {
+      // The Walsh-Hadamard code of the 1-out-of-N OT extension needs twice as many seed OTs
+      RotList rotList = new RotList(drbg, 2 * computationalSecurity);
+      // No coin tossing is needed, as there is no correlation check
+      OtExtensionResourcePool otExtRes = new OtExtensionResourcePoolImpl(myId,
+          Util.otherPlayerId(myId),
+          computationalSecurity, statisticalSecurity, 1, drbg, null, rotList);
+      baseOt.init(network.get());
+      // Only player 1 acts as sender in the OT extension, and thus receiver in the seed OTs
+      if (getMyId() == 1) {
+        rotList.receive(baseOt);
+      } else {
+        rotList.send(baseOt);
+      }
+      OneOfNRotFactory otFactory = new OneOfNRotFactory(otExtRes, network.get(), 4);
+      return new TinyTableGenerator(getMyId(), getDrng(), otFactory);
+    };
   }
 
   public Drng getDrng() {
@@ -116,6 +157,20 @@ public class TinyTablesPreproResourcePool extends ResourcePoolImpl {
      */
     this.unprocessedAnds.sort(Comparator.comparingInt(TinyTablesPreproProtocol::getId));
 
+    if (tableGeneratorSupplier != null) {
+      if (tableGenerator == null && unprocessedGates > 0) {
+        tableGenerator = tableGeneratorSupplier.get();
+      }
+      if (tableGenerator != null) {
+        List<TinyTable> tables = tableGenerator.generate(unprocessedAnds, network);
+        for (int i = 0; i < unprocessedGates; i++) {
+          this.storage.storeTinyTable(unprocessedAnds.get(i).getId(), tables.get(i));
+        }
+      }
+      this.unprocessedAnds.clear();
+      return;
+    }
+
     // Two bits per gate
     TinyTablesElementVector shares = new TinyTablesElementVector(unprocessedGates * 2);
     List<TinyTablesTriple> usedTriples = new ArrayList<>();
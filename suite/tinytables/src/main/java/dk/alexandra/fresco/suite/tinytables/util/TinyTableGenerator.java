@@ -0,0 +1,148 @@
+package dk.alexandra.fresco.suite.tinytables.util;
+
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.Drng;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTable;
+import dk.alexandra.fresco.suite.tinytables.datatypes.TinyTablesElement;
+import dk.alexandra.fresco.suite.tinytables.prepro.datatypes.TinyTablesPreproSBool;
+import dk.alexandra.fresco.suite.tinytables.prepro.protocols.TinyTablesPreproANDProtocol;
+import dk.alexandra.fresco.tools.ot.otextension.OneOfNRotFactory;
+import dk.alexandra.fresco.tools.ot.otextension.OneOfNRotReceiver;
+import dk.alexandra.fresco.tools.ot.otextension.OneOfNRotSender;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Generates the TinyTables of AND gates directly, using a single 1-out-of-4 OT per gate instead of
+ * a multiplication triple and an opening.
+ * </p>
+ *
+ * <p>
+ * Player 2 uses its shares of the masks of the two input wires as its choice in the OT. Player 1
+ * picks a random TinyTable for itself and, for each of the four choices, computes the TinyTable
+ * player 2 should get for the two tables to share <i>(r<sub>u</sub> + c)(r<sub>v</sub> + d) + r
+ * <sub>o</sub></i>. Player 1 sends these four tables encrypted with the four random OT messages,
+ * so player 2 can only decrypt the table matching its shares. Each table is four bits, so player 1
+ * sends two bytes per gate.
+ * </p>
+ */
+public class TinyTableGenerator {
+
+  private static final int CHOICES = 4;
+  private static final int ENTRIES = 4;
+  private static final int CHUNK_SIZE = 1 << 16;
+  private final int playerId;
+  private final Drng random;
+  private final OneOfNRotFactory otFactory;
+  private OneOfNRotSender sender;
+  private OneOfNRotReceiver receiver;
+
+  /**
+   * Creates a new TinyTable generator.
+   *
+   * @param playerId the id of the player to generate TinyTables for
+   * @param random a source of randomness
+   * @param otFactory factory for 1-out-of-4 random OTs
+   */
+  public TinyTableGenerator(int playerId, Drng random, OneOfNRotFactory otFactory) {
+    this.playerId = playerId;
+    this.random = random;
+    this.otFactory = otFactory;
+  }
+
+  /**
+   * Generate the TinyTables of a list of AND gates, whose input and output masks have been picked.
+   * The two players need to call this method at the same time and with the same gates in the same
+   * order.
+   *
+   * @param gates the AND gates
+   * @param network the network used to send the encrypted TinyTables
+   * @return this players TinyTable for each gate
+   */
+  public List<TinyTable> generate(List<TinyTablesPreproANDProtocol> gates, Network network) {
+    List<TinyTable> tables = new ArrayList<>(gates.size());
+    // Use the OTs in chunks to bound the memory used for the random OT messages
+    for (int offset = 0; offset < gates.size(); offset += CHUNK_SIZE) {
+      List<TinyTablesPreproANDProtocol> chunk =
+          gates.subList(offset, Math.min(gates.size(), offset + CHUNK_SIZE));
+      if (playerId == 1) {
+        tables.addAll(generateAsSender(chunk, network));
+      } else {
+        tables.addAll(generateAsReceiver(chunk, network));
+      }
+    }
+    return tables;
+  }
+
+  private List<TinyTable> generateAsSender(List<TinyTablesPreproANDProtocol> gates,
+      Network network) {
+    if (sender == null) {
+      sender = otFactory.createSender();
+    }
+    List<List<StrictBitVector>> pads = sender.extend(gates.size());
+    List<TinyTable> tables = new ArrayList<>(gates.size());
+    // Four bits for each of the four choices
+    byte[] encrypted = new byte[2 * gates.size()];
+    for (int i = 0; i < gates.size(); i++) {
+      TinyTablesPreproANDProtocol gate = gates.get(i);
+      boolean left = gate.getInLeft().getValue().getShare();
+      boolean right = gate.getInRight().getValue().getShare();
+      boolean out = ((TinyTablesPreproSBool) gate.out()).getValue().getShare();
+      TinyTablesElement[] entries = new TinyTablesElement[ENTRIES];
+      for (int entry = 0; entry < ENTRIES; entry++) {
+        entries[entry] = TinyTablesElement.getInstance(random.nextBit());
+      }
+      tables.add(new TinyTable(entries));
+      for (int choice = 0; choice < CHOICES; choice++) {
+        // The other players shares of the masks of the input wires
+        boolean otherLeft = choice / 2 == 1;
+        boolean otherRight = choice % 2 == 1;
+        int table = 0;
+        for (int entry = 0; entry < ENTRIES; entry++) {
+          boolean c = entry / 2 == 1;
+          boolean d = entry % 2 == 1;
+          boolean value = ((left ^ otherLeft ^ c) & (right ^ otherRight ^ d)) ^ out
+              ^ entries[entry].getShare() ^ pads.get(i).get(choice).getBit(entry, false);
+          if (value) {
+            table |= 1 << entry;
+          }
+        }
+        encrypted[2 * i + choice / 2] |= (byte) (table << (ENTRIES * (choice % 2)));
+      }
+    }
+    network.send(Util.otherPlayerId(playerId), encrypted);
+    return tables;
+  }
+
+  private List<TinyTable> generateAsReceiver(List<TinyTablesPreproANDProtocol> gates,
+      Network network) {
+    if (receiver == null) {
+      receiver = otFactory.createReceiver();
+    }
+    int[] choices = new int[gates.size()];
+    for (int i = 0; i < gates.size(); i++) {
+      TinyTablesPreproANDProtocol gate = gates.get(i);
+      boolean left = gate.getInLeft().getValue().getShare();
+      boolean right = gate.getInRight().getValue().getShare();
+      choices[i] = (left ? 2 : 0) + (right ? 1 : 0);
+    }
+    List<StrictBitVector> pads = receiver.extend(choices);
+    byte[] encrypted = network.receive(Util.otherPlayerId(playerId));
+    List<TinyTable> tables = new ArrayList<>(gates.size());
+    for (int i = 0; i < gates.size(); i++) {
+      boolean out =
+          ((TinyTablesPreproSBool) gates.get(i).out()).getValue().getShare();
+      int table = encrypted[2 * i + choices[i] / 2] >> (ENTRIES * (choices[i] % 2));
+      TinyTablesElement[] entries = new TinyTablesElement[ENTRIES];
+      for (int entry = 0; entry < ENTRIES; entry++) {
+        boolean value = ((table >> entry) & 1) == 1;
+        entries[entry] = TinyTablesElement.getInstance(
+            value ^ pads.get(i).getBit(entry, false) ^ out);
+      }
+      tables.add(new TinyTable(entries));
+    }
+    return tables;
+  }
+}
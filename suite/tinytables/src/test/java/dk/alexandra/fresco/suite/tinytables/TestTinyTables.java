@@ -25,6 +25,7 @@ import dk.alexandra.fresco.lib.crypto.BristolCryptoTests;
 import dk.alexandra.fresco.lib.field.bool.generic.FieldBoolTests;
 import dk.alexandra.fresco.lib.math.bool.add.AddTests;
 import dk.alexandra.fresco.suite.tinytables.online.TinyTablesProtocolSuite;
+import dk.alexandra.fresco.suite.tinytables.ot.TinyTablesChouOrlandiOt;
 import dk.alexandra.fresco.suite.tinytables.ot.TinyTablesDummyOt;
 import dk.alexandra.fresco.suite.tinytables.ot.TinyTablesNaorPinkasOt;
 import dk.alexandra.fresco.suite.tinytables.ot.TinyTablesOt;
@@ -43,6 +44,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
 import java.util.function.Supplier;
 import javax.crypto.spec.DHParameterSpec;
 import org.junit.After;
@@ -58,6 +60,11 @@ public class TestTinyTables {
 
   private void runTest(TestThreadFactory<ResourcePoolImpl, ProtocolBuilderBinary> f,
       EvaluationStrategy evalStrategy, boolean preprocessing, String name) {
+    runTest(f, evalStrategy, preprocessing, name, false);
+  }
+
+  private void runTest(TestThreadFactory<ResourcePoolImpl, ProtocolBuilderBinary> f,
+      EvaluationStrategy evalStrategy, boolean preprocessing, String name, boolean oneOfFourOt) {
     int noPlayers = 2;
     List<Integer> ports = NetworkUtil.getFreePorts(noPlayers);
     Map<Integer, NetworkConfiguration> netConf = NetworkUtil
@@ -80,7 +87,7 @@ public class TestTinyTables {
             () -> new TinyTablesPreproResourcePool(
                 playerId, baseOt, random,
                 COMPUTATIONAL_SECURITY, STATISTICAL_SECURITY, OT_BATCH_SIZE, tinyTablesFile,
-                networkSupplier);
+                networkSupplier, oneOfFourOt);
         ProtocolEvaluator<TinyTablesPreproResourcePool> evaluator =
             new BatchedProtocolEvaluator<>(batchStrategy, suite);
         computationEngine =
@@ -207,6 +214,23 @@ public class TestTinyTables {
         EvaluationStrategy.SEQUENTIAL_BATCHED, false, "testAND");
   }
 
+  @Test
+  public void testAndOneOfFourOt() {
+    runTest(new BasicBooleanTests.TestAND<>(false), EvaluationStrategy.SEQUENTIAL_BATCHED, true,
+        "testANDOneOfFourOt", true);
+    runTest(new BasicBooleanTests.TestAND<>(true), EvaluationStrategy.SEQUENTIAL_BATCHED, false,
+        "testANDOneOfFourOt");
+  }
+
+  @Test
+  public void testManyAndOneOfFourOt() {
+    final int numAnds = 2000;
+    runTest(new BasicBooleanTests.TestMultipleAnds<>(false, numAnds),
+        EvaluationStrategy.SEQUENTIAL_BATCHED, true, "testANDOneOfFourOt", true);
+    runTest(new BasicBooleanTests.TestMultipleAnds<>(true, numAnds),
+        EvaluationStrategy.SEQUENTIAL_BATCHED, false, "testANDOneOfFourOt");
+  }
+
   @Test
   public void testNot() {
     runTest(new BasicBooleanTests.TestNOT<>(false), EvaluationStrategy.SEQUENTIAL_BATCHED, true,
@@ -315,6 +339,15 @@ public class TestTinyTables {
         "testDES");
   }
 
+  @Category(IntegrationTest.class)
+  @Test
+  public void test_DesOneOfFourOt() {
+    runTest(new BristolCryptoTests.DesTest<>(false), EvaluationStrategy.SEQUENTIAL_BATCHED, true,
+        "testDESOneOfFourOt", true);
+    runTest(new BristolCryptoTests.DesTest<>(true), EvaluationStrategy.SEQUENTIAL_BATCHED, false,
+        "testDESOneOfFourOt");
+  }
+
   @Category(IntegrationTest.class)
   @Test
   public void test_Sha1() {
@@ -361,6 +394,20 @@ public class TestTinyTables {
 
   @Test
   public void testNaorPinkasBaseOtDes() {
+    DHParameterSpec params = DhParameters.getStaticDhParams();
+    runBaseOtDesTest("TestNaorPinkasBaseOtDes",
+        (playerId, random) -> new TinyTablesNaorPinkasOt(Util.otherPlayerId(playerId), random,
+            params));
+  }
+
+  @Test
+  public void testChouOrlandiBaseOtDes() {
+    runBaseOtDesTest("TestChouOrlandiBaseOtDes",
+        (playerId, random) -> new TinyTablesChouOrlandiOt(Util.otherPlayerId(playerId), random));
+  }
+
+  private void runBaseOtDesTest(String testName,
+      BiFunction<Integer, Drbg, TinyTablesOt> baseOtSupplier) {
     int noPlayers = 2;
     List<Integer> ports = NetworkUtil.getFreePorts(noPlayers);
     Map<Integer, NetworkConfiguration> netConf = NetworkUtil
@@ -368,14 +415,12 @@ public class TestTinyTables {
     Map<Integer, TestThreadConfiguration<ResourcePoolImpl, ProtocolBuilderBinary>> conf = new HashMap<>();
 
     for (int playerId : netConf.keySet()) {
-      File tinyTablesFile = new File(getFilenameForTest(playerId, "TestNaorPinkasBaseOtDes"));
+      File tinyTablesFile = new File(getFilenameForTest(playerId, testName));
       Supplier<ResourcePoolImpl> resourcePoolSupplier;
       SecureComputationEngine<ResourcePoolImpl, ProtocolBuilderBinary> computationEngine;
       TinyTablesPreproProtocolSuite suite = new TinyTablesPreproProtocolSuite();
       Drbg random = new AesCtrDrbg(new byte[32]);
-      DHParameterSpec params = DhParameters.getStaticDhParams();
-      TinyTablesOt baseOt = new TinyTablesNaorPinkasOt(Util.otherPlayerId(playerId), random,
-          params);
+      TinyTablesOt baseOt = baseOtSupplier.apply(playerId, random);
       Supplier<Network> network = new NetworkSupplier(playerId, netConf);
       resourcePoolSupplier = () -> new TinyTablesPreproResourcePool(
           playerId, baseOt,
@@ -14,6 +14,7 @@ import dk.alexandra.fresco.tools.mascot.online.OnlinePhase;
 import dk.alexandra.fresco.tools.mascot.prg.FieldElementPrg;
 import dk.alexandra.fresco.tools.mascot.prg.FieldElementPrgImpl;
 import dk.alexandra.fresco.tools.mascot.triple.TripleGeneration;
+import java.io.Closeable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -24,8 +25,9 @@ import java.util.stream.IntStream;
  * which can be used for the SPDZ pre-processing phase. <br> Supports generation of multiplication
  * triples, random authenticated elements, and random authenticated bits.
  */
-public class Mascot {
+public class Mascot implements Closeable {
 
+  private final PairwiseChannels channels;
   private final TripleGeneration tripleGeneration;
   private final ElementGeneration elementGeneration;
   private final BitConverter bitConverter;
@@ -35,16 +37,40 @@ public class Mascot {
    * Creates new {@link Mascot}.
    */
   public Mascot(MascotResourcePool resourcePool, Network network, FieldElement macKeyShare) {
+    this(resourcePool, network, macKeyShare, false);
+  }
+
+  /**
+   * Creates new {@link Mascot}, optionally running the two-party sub-protocols with the different
+   * parties concurrently (see {@link PairwiseChannels}). All parties must agree on whether to run
+   * concurrently. If concurrent, the instance should be closed when no longer used.
+   *
+   * @param resourcePool the resource pool
+   * @param network the network, which must support concurrent calls to send if concurrent
+   * @param macKeyShare this party's share of the mac key
+   * @param concurrent whether to run the two-party sub-protocols concurrently
+   */
+  public Mascot(MascotResourcePool resourcePool, Network network, FieldElement macKeyShare,
+      boolean concurrent) {
+    this(resourcePool, concurrent
+        ? PairwiseChannels.concurrent(network)
+        : PairwiseChannels.sequential(network), macKeyShare);
+  }
+
+  private Mascot(MascotResourcePool resourcePool, PairwiseChannels channels,
+      FieldElement macKeyShare) {
     this.resourcePool = resourcePool;
+    this.channels = channels;
+    Network network = channels.getNetwork();
     // agree on joint seed
     StrictBitVector jointSeed = new CoinTossingMpc(resourcePool, network)
         .generateJointSeed(resourcePool.getPrgSeedLength());
     FieldElementPrg jointSampler = new FieldElementPrgImpl(jointSeed,
         resourcePool.getFieldDefinition());
     this.elementGeneration =
-        new ElementGeneration(resourcePool, network, macKeyShare, jointSampler);
+        new ElementGeneration(resourcePool, channels, macKeyShare, jointSampler);
     this.tripleGeneration =
-        new TripleGeneration(resourcePool, network, elementGeneration, jointSampler);
+        new TripleGeneration(resourcePool, channels, elementGeneration, jointSampler);
     this.bitConverter = new BitConverter(resourcePool,
         new OnlinePhase(resourcePool, tripleGeneration, elementGeneration,
             macKeyShare), macKeyShare);
@@ -132,4 +158,13 @@ public class Mascot {
   public List<AuthenticatedElement> getRandomBits(int numBits) {
     return bitConverter.convertToBits(getRandomElements(numBits));
   }
+
+  /**
+   * Shuts down the threads running the two-party sub-protocols concurrently, if any. The network
+   * is not closed.
+   */
+  @Override
+  public void close() {
+    channels.close();
+  }
 }
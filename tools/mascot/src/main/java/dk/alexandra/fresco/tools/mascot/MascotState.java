@@ -0,0 +1,295 @@
+package dk.alexandra.fresco.tools.mascot;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.BigIntegerFieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.ExceptionConverter;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.tools.ot.otextension.RotList;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The long-lived state of a party running MASCOT, i.e., the MAC key share and the seed OTs with
+ * each other party, which can be persisted such that a restarted party can resume MASCOT without
+ * redoing the public-key base OTs.
+ *
+ * <p>OT extension derives its PRGs from the seed OTs and the instance id of the resource pool, so
+ * reusing seed OTs with an instance id already used would reuse the PRG output. The state
+ * therefore also tracks the instance ids used so far, and new instances must use ids reserved with
+ * {@link #reserveInstanceIds(int, Network, Path)}.</p>
+ *
+ * <p>The states of the parties must come from the same run of the base OTs. Each state therefore
+ * holds a public setup id agreed on by the parties when running the base OTs, and parties should
+ * only resume if {@link #allMatch(MascotState, Network)}, e.g., not if a party restored an older
+ * state from a backup.</p>
+ *
+ * <p>The state is secret. It is written with permissions for the owner only, where the file
+ * system supports it, and is checked for integrity when loaded.</p>
+ */
+public class MascotState {
+
+  private static final int MAGIC = 0x4d415343;
+  private static final int VERSION = 2;
+  private static final int SETUP_ID_LENGTH = 32;
+  private static final String TEMP_SUFFIX = ".tmp";
+  private final int myId;
+  private final FieldDefinition definition;
+  private final FieldElement macKeyShare;
+  private final Map<Integer, RotList> seedOts;
+  private final byte[] setupId;
+  private int nextInstanceId;
+
+  /**
+   * Creates a new state from freshly generated seed OTs.
+   *
+   * @param myId this party's id
+   * @param definition the field of the MAC key
+   * @param macKeyShare this party's share of the MAC key
+   * @param seedOts the seed OTs with each other party, both sent and received
+   * @param setupId the id of the run of the base OTs, see {@link #agreeOnSetupId(Drbg, Network)}
+   */
+  public MascotState(int myId, FieldDefinition definition, FieldElement macKeyShare,
+      Map<Integer, RotList> seedOts, byte[] setupId) {
+    this(myId, definition, macKeyShare, seedOts, setupId, 1);
+  }
+
+  private MascotState(int myId, FieldDefinition definition, FieldElement macKeyShare,
+      Map<Integer, RotList> seedOts, byte[] setupId, int nextInstanceId) {
+    if (setupId.length != SETUP_ID_LENGTH) {
+      throw new IllegalArgumentException("The setup id must be " + SETUP_ID_LENGTH + " bytes");
+    }
+    this.myId = myId;
+    this.definition = definition;
+    this.macKeyShare = macKeyShare;
+    this.seedOts = new TreeMap<>(seedOts);
+    this.setupId = setupId.clone();
+    this.nextInstanceId = nextInstanceId;
+  }
+
+  /**
+   * Agrees with the other parties on a fresh random id for a run of the base OTs. Each party
+   * contributes randomness and the id is the hash of all contributions.
+   *
+   * @param drbg source of randomness
+   * @param network network to the other parties
+   * @return the setup id
+   */
+  public static byte[] agreeOnSetupId(Drbg drbg, Network network) {
+    byte[] contribution = new byte[SETUP_ID_LENGTH];
+    drbg.nextBytes(contribution);
+    network.sendToAll(contribution);
+    MessageDigest digest = createDigest();
+    for (byte[] received : network.receiveFromAll()) {
+      digest.update(received);
+    }
+    return digest.digest();
+  }
+
+  /**
+   * Checks with the other parties if they all have a state from the same run of the base OTs as
+   * this party. All parties must call this at the same time, also those without a state.
+   *
+   * @param state this party's state, or null if it has none
+   * @param network network to the other parties
+   * @return true if all parties have a state with the same setup id
+   */
+  public static boolean allMatch(MascotState state, Network network) {
+    byte[] mine = new byte[1 + SETUP_ID_LENGTH];
+    if (state != null) {
+      mine[0] = 1;
+      System.arraycopy(state.setupId, 0, mine, 1, SETUP_ID_LENGTH);
+    }
+    network.sendToAll(mine);
+    boolean match = state != null;
+    for (byte[] received : network.receiveFromAll()) {
+      match &= Arrays.equals(mine, received);
+    }
+    return match;
+  }
+
+  public int getMyId() {
+    return myId;
+  }
+
+  public FieldDefinition getFieldDefinition() {
+    return definition;
+  }
+
+  public FieldElement getMacKeyShare() {
+    return macKeyShare;
+  }
+
+  public Map<Integer, RotList> getSeedOts() {
+    return Collections.unmodifiableMap(seedOts);
+  }
+
+  public byte[] getSetupId() {
+    return setupId.clone();
+  }
+
+  /**
+   * Agrees with the other parties on a range of instance ids not used before by any of them, and
+   * persists the state such that the range is never handed out again. All parties must call this
+   * with the same count.
+   *
+   * @param count the number of instance ids to reserve
+   * @param network network to the other parties
+   * @param file the file to persist the state to
+   * @return the first id of the range
+   */
+  public int reserveInstanceIds(int count, Network network, Path file) {
+    if (count < 1) {
+      throw new IllegalArgumentException("Must reserve at least one instance id");
+    }
+    network.sendToAll(ByteBuffer.allocate(Integer.BYTES).putInt(nextInstanceId).array());
+    int first = nextInstanceId;
+    for (byte[] received : network.receiveFromAll()) {
+      first = Math.max(first, ByteBuffer.wrap(received).getInt());
+    }
+    nextInstanceId = first + count;
+    save(file);
+    return first;
+  }
+
+  /**
+   * Writes the state to a file, replacing the file atomically.
+   *
+   * @param file the file
+   */
+  public void save(Path file) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ExceptionConverter.safe(() -> {
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(myId);
+      out.writeInt(nextInstanceId);
+      writeBytes(out, setupId);
+      writeBytes(out, definition.getModulus().toByteArray());
+      writeBytes(out, definition.serialize(macKeyShare));
+      out.writeInt(seedOts.size());
+      for (Map.Entry<Integer, RotList> entry : seedOts.entrySet()) {
+        RotList ots = entry.getValue();
+        out.writeInt(entry.getKey());
+        out.writeInt(ots.getSentMessages().size());
+        for (Pair<StrictBitVector, StrictBitVector> messages : ots.getSentMessages()) {
+          writeBytes(out, messages.getFirst().toByteArray());
+          writeBytes(out, messages.getSecond().toByteArray());
+        }
+        for (StrictBitVector message : ots.getLearnedMessages()) {
+          writeBytes(out, message.toByteArray());
+        }
+        writeBytes(out, ots.getChoices().toByteArray());
+      }
+      out.write(digest(bytes.toByteArray()));
+      return null;
+    }, "Could not serialize MASCOT state");
+    Path temp = file.resolveSibling(file.getFileName() + TEMP_SUFFIX);
+    ExceptionConverter.safe(() -> {
+      Files.deleteIfExists(temp);
+      if (Files.getFileStore(file.toAbsolutePath().getParent())
+          .supportsFileAttributeView("posix")) {
+        FileAttribute<?> ownerOnly =
+            PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------"));
+        Files.createFile(temp, ownerOnly);
+      }
+      try (OutputStream out = Files.newOutputStream(temp)) {
+        out.write(bytes.toByteArray());
+      }
+      Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+      return null;
+    }, "Could not write MASCOT state to " + file);
+  }
+
+  /**
+   * Reads a state written by {@link #save(Path)}.
+   *
+   * @param file the file
+   * @return the state
+   * @throws IllegalStateException if the file is corrupted or of an unknown format
+   */
+  public static MascotState load(Path file) {
+    byte[] bytes = ExceptionConverter.safe(() -> Files.readAllBytes(file),
+        "Could not read MASCOT state from " + file);
+    int contentLength = bytes.length - 32;
+    if (contentLength < 0 || !MessageDigest.isEqual(digest(Arrays.copyOf(bytes, contentLength)),
+        Arrays.copyOfRange(bytes, contentLength, bytes.length))) {
+      throw new IllegalStateException("MASCOT state " + file + " is corrupted");
+    }
+    ByteBuffer header = ByteBuffer.wrap(bytes);
+    if (contentLength < 2 * Integer.BYTES || header.getInt() != MAGIC
+        || header.getInt() != VERSION) {
+      throw new IllegalStateException("Unknown format of MASCOT state " + file);
+    }
+    return ExceptionConverter.safe(() -> {
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes,
+          2 * Integer.BYTES, contentLength - 2 * Integer.BYTES));
+      int myId = in.readInt();
+      int nextInstanceId = in.readInt();
+      byte[] setupId = readBytes(in);
+      FieldDefinition definition =
+          new BigIntegerFieldDefinition(new BigInteger(readBytes(in)));
+      FieldElement macKeyShare = definition.deserialize(readBytes(in));
+      int parties = in.readInt();
+      Map<Integer, RotList> seedOts = new TreeMap<>();
+      for (int i = 0; i < parties; i++) {
+        int otherId = in.readInt();
+        int amount = in.readInt();
+        List<Pair<StrictBitVector, StrictBitVector>> sent = new ArrayList<>(amount);
+        for (int j = 0; j < amount; j++) {
+          sent.add(new Pair<>(new StrictBitVector(readBytes(in)),
+              new StrictBitVector(readBytes(in))));
+        }
+        List<StrictBitVector> learned = new ArrayList<>(amount);
+        for (int j = 0; j < amount; j++) {
+          learned.add(new StrictBitVector(readBytes(in)));
+        }
+        StrictBitVector choices = new StrictBitVector(readBytes(in));
+        seedOts.put(otherId, RotList.restore(sent, learned, choices));
+      }
+      return new MascotState(myId, definition, macKeyShare, seedOts, setupId, nextInstanceId);
+    }, "Could not parse MASCOT state " + file);
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  private static byte[] digest(byte[] bytes) {
+    return createDigest().digest(bytes);
+  }
+
+  private static MessageDigest createDigest() {
+    return ExceptionConverter.safe(() -> MessageDigest.getInstance("SHA-256"),
+        "Configuration error, SHA-256 is needed for Mascot");
+  }
+}
@@ -0,0 +1,195 @@
+package dk.alexandra.fresco.tools.mascot;
+
+import dk.alexandra.fresco.framework.network.MultiplexedNetwork;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.VirtualThreads;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the two-party sub-protocols of MASCOT, i.e., the COPE and multiplication protocols run
+ * between each pair of parties, either one after the other over a single network or
+ * concurrently.
+ *
+ * <p>The two-party protocols with different parties are independent, so with many parties
+ * running them one after the other makes the latency grow linearly in the number of parties. In
+ * the concurrent mode the network is multiplexed into logical channels (see
+ * {@link MultiplexedNetwork}), giving each two-party protocol instance its own channel, and the
+ * instances are run on separate threads. The remaining communication uses
+ * {@link #MAIN_CHANNEL}.</p>
+ *
+ * <p>All parties must use the same mode. In the concurrent mode the network must support
+ * concurrent calls to send, and the channels should be closed when no longer used to release the
+ * threads running the instances.</p>
+ */
+public class PairwiseChannels implements Closeable {
+
+  public static final int MAIN_CHANNEL = 0;
+  /**
+   * Channel of the right multiplier of the party with the lower id and the left multiplier of the
+   * party with the higher id.
+   */
+  public static final int LOWER_RIGHT_MULTIPLIER = 1;
+  /**
+   * Channel of the left multiplier of the party with the lower id and the right multiplier of the
+   * party with the higher id.
+   */
+  public static final int LOWER_LEFT_MULTIPLIER = 2;
+  /**
+   * Channel of the COPE signer of the party with the lower id and the COPE inputter of the party
+   * with the higher id.
+   */
+  public static final int LOWER_COPE_SIGNER = 3;
+  /**
+   * Channel of the COPE inputter of the party with the lower id and the COPE signer of the party
+   * with the higher id.
+   */
+  public static final int LOWER_COPE_INPUTTER = 4;
+
+  private final Network network;
+  private final MultiplexedNetwork multiplexed;
+  private final ExecutorService executor;
+
+  private PairwiseChannels(Network network, MultiplexedNetwork multiplexed,
+      ExecutorService executor) {
+    this.network = network;
+    this.multiplexed = multiplexed;
+    this.executor = executor;
+  }
+
+  /**
+   * Creates channels running all protocols one after the other over the given network.
+   *
+   * @param network the network
+   * @return the channels
+   */
+  public static PairwiseChannels sequential(Network network) {
+    return new PairwiseChannels(network, null, null);
+  }
+
+  /**
+   * Creates channels running the two-party protocols with different parties concurrently, each on
+   * its own logical channel of the given network.
+   *
+   * @param network the network, supporting concurrent calls to send
+   * @return the channels
+   */
+  public static PairwiseChannels concurrent(Network network) {
+    MultiplexedNetwork multiplexed = new MultiplexedNetwork(network);
+    // daemon threads, which are discarded when idle for a while
+    ExecutorService executor =
+        Executors.newCachedThreadPool(VirtualThreads.newThreadFactory("mascot-", false));
+    return new PairwiseChannels(multiplexed.getChannel(MAIN_CHANNEL), multiplexed, executor);
+  }
+
+  /**
+   * Gets the network to use for communication that is not part of a two-party protocol.
+   *
+   * @return the network
+   */
+  public Network getNetwork() {
+    return network;
+  }
+
+  /**
+   * Gets the network to use for a two-party protocol instance.
+   *
+   * @param myId the id of this party
+   * @param otherId the id of the other party
+   * @param lowerChannel the channel of the instance if this party has the lower id, one of the
+   *     constants of this class
+   * @return the network
+   */
+  public Network getChannel(int myId, int otherId, int lowerChannel) {
+    if (multiplexed == null) {
+      return network;
+    }
+    if (myId < otherId) {
+      return multiplexed.getChannel(lowerChannel);
+    }
+    // the other party uses the channel of the opposite role
+    return multiplexed.getChannel(opposite(lowerChannel));
+  }
+
+  /**
+   * Runs a number of two-party protocol instances, each with a single other party. The instances
+   * are run concurrently if in the concurrent mode, otherwise in the order given.
+   *
+   * @param tasks the instances to run
+   * @param <T> the type of the results
+   * @return the results in the order of the tasks
+   */
+  public <T> List<T> runAll(List<Callable<T>> tasks) {
+    List<T> results = new ArrayList<>(tasks.size());
+    if (executor == null) {
+      for (Callable<T> task : tasks) {
+        results.add(call(task));
+      }
+      return results;
+    }
+    List<Future<T>> futures = new ArrayList<>(tasks.size());
+    for (Callable<T> task : tasks) {
+      futures.add(executor.submit(task));
+    }
+    try {
+      for (Future<T> future : futures) {
+        results.add(future.get());
+      }
+      return results;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while running two-party protocols", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException("Two-party protocol failed", e.getCause());
+    } finally {
+      for (Future<T> future : futures) {
+        future.cancel(true);
+      }
+    }
+  }
+
+  /**
+   * Shuts down the threads running the two-party protocols in the concurrent mode. The network is
+   * not closed.
+   */
+  @Override
+  public void close() {
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+
+  private static int opposite(int lowerChannel) {
+    switch (lowerChannel) {
+      case LOWER_RIGHT_MULTIPLIER:
+        return LOWER_LEFT_MULTIPLIER;
+      case LOWER_LEFT_MULTIPLIER:
+        return LOWER_RIGHT_MULTIPLIER;
+      case LOWER_COPE_SIGNER:
+        return LOWER_COPE_INPUTTER;
+      case LOWER_COPE_INPUTTER:
+        return LOWER_COPE_SIGNER;
+      default:
+        throw new IllegalArgumentException("Not a two-party protocol channel " + lowerChannel);
+    }
+  }
+
+  private static <T> T call(Callable<T> task) {
+    try {
+      return task.call();
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new RuntimeException("Two-party protocol failed", e);
+    }
+  }
+}
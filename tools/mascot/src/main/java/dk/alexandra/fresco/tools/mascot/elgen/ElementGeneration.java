@@ -6,6 +6,7 @@ import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.framework.util.SecretSharer;
 import dk.alexandra.fresco.framework.util.TransposeUtils;
 import dk.alexandra.fresco.tools.mascot.MascotResourcePool;
+import dk.alexandra.fresco.tools.mascot.PairwiseChannels;
 import dk.alexandra.fresco.tools.mascot.cope.CopeInputter;
 import dk.alexandra.fresco.tools.mascot.cope.CopeSigner;
 import dk.alexandra.fresco.tools.mascot.field.AuthenticatedElement;
@@ -16,6 +17,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -37,6 +39,7 @@ public class ElementGeneration {
   private final Map<Integer, CopeInputter> copeInputters;
   private final MascotResourcePool resourcePool;
   private final Network network;
+  private final PairwiseChannels channels;
   private final FieldElementUtils fieldElementUtils;
 
   /**
@@ -44,8 +47,18 @@ public class ElementGeneration {
    */
   public ElementGeneration(MascotResourcePool resourcePool, Network network,
       FieldElement macKeyShare, FieldElementPrg jointSampler) {
+    this(resourcePool, PairwiseChannels.sequential(network), macKeyShare, jointSampler);
+  }
+
+  /**
+   * Creates new {@link ElementGeneration} running the COPE protocols with the other parties as
+   * given by the channels.
+   */
+  public ElementGeneration(MascotResourcePool resourcePool, PairwiseChannels channels,
+      FieldElement macKeyShare, FieldElementPrg jointSampler) {
     this.resourcePool = resourcePool;
-    this.network = network;
+    this.channels = channels;
+    this.network = channels.getNetwork();
     this.fieldElementUtils = new FieldElementUtils(resourcePool.getFieldDefinition());
     this.macChecker = new MacCheck(resourcePool, network);
     this.macKeyShare = macKeyShare;
@@ -54,7 +67,7 @@ public class ElementGeneration {
     this.sharer = new AdditiveSecretSharer(localSampler);
     this.copeSigners = new HashMap<>();
     this.copeInputters = new HashMap<>();
-    initializeCope(resourcePool, network);
+    initializeCope(resourcePool);
   }
 
   /**
@@ -185,15 +198,16 @@ public class ElementGeneration {
 
   /**
    * Uses COPE protocol to multiply unathenticated values with each other party's (i.e., not this
-   * party's) mac key share and get a share of the result.
+   * party's) mac key share and get a share of the result. The protocols with the different
+   * parties are independent, and are run concurrently if the channels allow it.
    */
   private List<List<FieldElement>> otherPartiesMac(List<FieldElement> values) {
-    List<List<FieldElement>> perPartySignatures = new ArrayList<>();
+    List<Callable<List<FieldElement>>> perPartySignatures = new ArrayList<>();
     // note that the order in which this is run does not matter so it's fine to use values().
     for (CopeInputter copeInputter : copeInputters.values()) {
-      perPartySignatures.add(copeInputter.extend(values));
+      perPartySignatures.add(() -> copeInputter.extend(values));
     }
-    return perPartySignatures;
+    return channels.runAll(perPartySignatures);
   }
 
   /**
@@ -256,18 +270,22 @@ public class ElementGeneration {
    * Initializes COPE protocols. Implements Initialize sub-protocol of Protocol 3 (with the only
    * difference that the mac key share has already been sampled before this protocol runs).
    */
-  private void initializeCope(MascotResourcePool resourcePool, Network network) {
+  private void initializeCope(MascotResourcePool resourcePool) {
     for (int partyId = 1; partyId <= resourcePool.getNoOfParties(); partyId++) {
       if (resourcePool.getMyId() != partyId) {
         CopeSigner signer;
         CopeInputter inputter;
+        Network signerNetwork = channels.getChannel(resourcePool.getMyId(), partyId,
+            PairwiseChannels.LOWER_COPE_SIGNER);
+        Network inputterNetwork = channels.getChannel(resourcePool.getMyId(), partyId,
+            PairwiseChannels.LOWER_COPE_INPUTTER);
         // construction order matters since receive blocks and this is not parallelized
         if (resourcePool.getMyId() < partyId) {
-          signer = new CopeSigner(resourcePool, network, partyId, this.macKeyShare);
-          inputter = new CopeInputter(resourcePool, network, partyId);
+          signer = new CopeSigner(resourcePool, signerNetwork, partyId, this.macKeyShare);
+          inputter = new CopeInputter(resourcePool, inputterNetwork, partyId);
         } else {
-          inputter = new CopeInputter(resourcePool, network, partyId);
-          signer = new CopeSigner(resourcePool, network, partyId, this.macKeyShare);
+          inputter = new CopeInputter(resourcePool, inputterNetwork, partyId);
+          signer = new CopeSigner(resourcePool, signerNetwork, partyId, this.macKeyShare);
         }
         copeInputters.put(partyId, inputter);
         copeSigners.put(partyId, signer);
@@ -27,6 +27,19 @@ public interface FieldElementPrg {
     return samples;
   }
 
+  /**
+   * Generates multiple random field elements, possibly split among a number of independent
+   * streams sampled in parallel. Parties sampling jointly must use the same number of streams, as
+   * the result may depend on it.
+   *
+   * @param numSamples number of random elements to generate
+   * @param numStreams number of streams to split the sampling among
+   * @return random field elements
+   */
+  default List<FieldElement> getNextParallel(int numSamples, int numStreams) {
+    return getNext(numSamples);
+  }
+
   /**
    * Generates a matrix of random field elements.
    *
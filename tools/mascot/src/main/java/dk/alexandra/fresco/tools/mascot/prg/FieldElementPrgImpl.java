@@ -4,14 +4,22 @@ import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
 import dk.alexandra.fresco.framework.util.AesCtrDrbg;
 import dk.alexandra.fresco.framework.util.AesCtrDrbgFactory;
+import dk.alexandra.fresco.framework.util.Drbg;
 import dk.alexandra.fresco.framework.util.Drng;
 import dk.alexandra.fresco.framework.util.DrngImpl;
 import dk.alexandra.fresco.framework.util.StrictBitVector;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class FieldElementPrgImpl implements FieldElementPrg {
 
+  private final Drbg drbg;
   private final Drng drng;
-  private FieldDefinition definition;
+  private final FieldDefinition definition;
+  private final byte[] modulus;
+  private final int topByteMask;
 
   /**
    * Creates new FieldElement prg.
@@ -19,17 +27,116 @@ public class FieldElementPrgImpl implements FieldElementPrg {
    * @param seed seed to the underlying DRNG.
    */
   public FieldElementPrgImpl(StrictBitVector seed, FieldDefinition definition) {
+    this(seedDrbg(seed.toByteArray()), definition);
+  }
+
+  private FieldElementPrgImpl(Drbg drbg, FieldDefinition definition) {
     this.definition = definition;
-    byte[] bytes = seed.toByteArray();
-    if (bytes.length != AesCtrDrbg.SEED_LENGTH) {
-      this.drng = new DrngImpl(AesCtrDrbgFactory.fromDerivedSeed(bytes));
-    } else {
-      this.drng = new DrngImpl(AesCtrDrbgFactory.fromRandomSeed(bytes));
-    }
+    this.drbg = drbg;
+    this.drng = new DrngImpl(drbg);
+    int bitLength = definition.getModulus().bitLength();
+    // fixed length big-endian representation, as in FieldDefinition#serialize(List)
+    this.modulus = new byte[1 + (bitLength - 1) / Byte.SIZE];
+    byte[] bytes = definition.getModulus().toByteArray();
+    int length = Math.min(bytes.length, modulus.length);
+    System.arraycopy(bytes, bytes.length - length, modulus, modulus.length - length, length);
+    int residue = bitLength % Byte.SIZE;
+    this.topByteMask = residue == 0 ? 0xFF : (1 << residue) - 1;
   }
 
   @Override
   public FieldElement getNext() {
     return definition.createElement(drng.nextBigInteger(definition.getModulus()));
   }
+
+  @Override
+  public List<FieldElement> getNext(int numSamples) {
+    return definition.deserializeList(getNextPacked(numSamples));
+  }
+
+  @Override
+  public List<List<FieldElement>> getNext(int numRows, int numCols) {
+    List<FieldElement> samples = getNext(numRows * numCols);
+    List<List<FieldElement>> sampled = new ArrayList<>(numRows);
+    for (int i = 0; i < numRows; i++) {
+      sampled.add(samples.subList(i * numCols, (i + 1) * numCols));
+    }
+    return sampled;
+  }
+
+  /**
+   * Generates random field elements using a number of independent streams, sampled in parallel.
+   * The streams are seeded by this generator, so the result only depends on the state of this
+   * generator and the number of streams.
+   */
+  @Override
+  public List<FieldElement> getNextParallel(int numSamples, int numStreams) {
+    if (numStreams < 1) {
+      throw new IllegalArgumentException("Number of streams must be positive, was " + numStreams);
+    }
+    // seed all streams up front, such that the result does not depend on scheduling
+    List<FieldElementPrgImpl> streams = new ArrayList<>(numStreams);
+    for (int i = 0; i < numStreams; i++) {
+      byte[] seed = new byte[AesCtrDrbg.SEED_LENGTH];
+      drbg.nextBytes(seed);
+      streams.add(new FieldElementPrgImpl(AesCtrDrbgFactory.fromRandomSeed(seed), definition));
+    }
+    return IntStream.range(0, numStreams).parallel()
+        .mapToObj(i -> {
+          int from = (int) ((long) numSamples * i / numStreams);
+          int to = (int) ((long) numSamples * (i + 1) / numStreams);
+          return streams.get(i).getNext(to - from);
+        })
+        .flatMap(List::stream)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Generates random field elements in the packed form of {@link FieldDefinition#serialize(List)},
+   * i.e., as fixed length big-endian values.
+   *
+   * <p>The bytes of all elements are drawn from the underlying generator in one go. Each value
+   * is then reduced to the bit length of the modulus, and values not less than the modulus are
+   * replaced in place by fresh samples until they are, such that the elements are uniformly
+   * random.</p>
+   *
+   * @param numSamples number of random elements to generate
+   * @return the packed elements
+   */
+  public byte[] getNextPacked(int numSamples) {
+    byte[] packed = new byte[numSamples * modulus.length];
+    drbg.nextBytes(packed);
+    byte[] resample = null;
+    for (int offset = 0; offset < packed.length; offset += modulus.length) {
+      packed[offset] &= topByteMask;
+      while (!lessThanModulus(packed, offset)) {
+        if (resample == null) {
+          resample = new byte[modulus.length];
+        }
+        drbg.nextBytes(resample);
+        System.arraycopy(resample, 0, packed, offset, modulus.length);
+        packed[offset] &= topByteMask;
+      }
+    }
+    return packed;
+  }
+
+  private boolean lessThanModulus(byte[] packed, int offset) {
+    for (int i = 0; i < modulus.length; i++) {
+      int value = packed[offset + i] & 0xFF;
+      int bound = modulus[i] & 0xFF;
+      if (value != bound) {
+        return value < bound;
+      }
+    }
+    return false;
+  }
+
+  private static Drbg seedDrbg(byte[] bytes) {
+    if (bytes.length != AesCtrDrbg.SEED_LENGTH) {
+      return AesCtrDrbgFactory.fromDerivedSeed(bytes);
+    } else {
+      return AesCtrDrbgFactory.fromRandomSeed(bytes);
+    }
+  }
 }
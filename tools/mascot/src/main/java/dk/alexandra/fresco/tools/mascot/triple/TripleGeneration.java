@@ -4,6 +4,7 @@ import dk.alexandra.fresco.framework.builder.numeric.Addable;
 import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
 import dk.alexandra.fresco.framework.network.Network;
 import dk.alexandra.fresco.tools.mascot.MascotResourcePool;
+import dk.alexandra.fresco.tools.mascot.PairwiseChannels;
 import dk.alexandra.fresco.tools.mascot.elgen.ElementGeneration;
 import dk.alexandra.fresco.tools.mascot.field.AuthenticatedElement;
 import dk.alexandra.fresco.tools.mascot.field.FieldElementUtils;
@@ -13,6 +14,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -33,33 +35,48 @@ public class TripleGeneration {
   private final FieldElementPrg jointSampler;
   private final MascotResourcePool resourcePool;
   private final FieldElementUtils fieldElementUtils;
+  private final PairwiseChannels channels;
 
   /**
    * Creates new triple generation protocol.
    */
   public TripleGeneration(MascotResourcePool resourcePool, Network network,
       ElementGeneration elementGeneration, FieldElementPrg jointSampler) {
+    this(resourcePool, PairwiseChannels.sequential(network), elementGeneration, jointSampler);
+  }
+
+  /**
+   * Creates new triple generation protocol running the multiplication protocols with the other
+   * parties as given by the channels.
+   */
+  public TripleGeneration(MascotResourcePool resourcePool, PairwiseChannels channels,
+      ElementGeneration elementGeneration, FieldElementPrg jointSampler) {
     this.resourcePool = resourcePool;
+    this.channels = channels;
     this.fieldElementUtils = new FieldElementUtils(resourcePool.getFieldDefinition());
     this.leftMultipliers = new HashMap<>();
     this.rightMultipliers = new HashMap<>();
-    initializeMultipliers(resourcePool, network);
+    initializeMultipliers(resourcePool);
     this.elementGeneration = elementGeneration;
     this.jointSampler = jointSampler;
   }
 
-  private void initializeMultipliers(MascotResourcePool resourcePool, Network network) {
+  private void initializeMultipliers(MascotResourcePool resourcePool) {
     for (int partyId = 1; partyId <= resourcePool.getNoOfParties(); partyId++) {
       if (partyId != resourcePool.getMyId()) {
+        Network rightNetwork = channels.getChannel(resourcePool.getMyId(), partyId,
+            PairwiseChannels.LOWER_RIGHT_MULTIPLIER);
+        Network leftNetwork = channels.getChannel(resourcePool.getMyId(), partyId,
+            PairwiseChannels.LOWER_LEFT_MULTIPLIER);
         if (resourcePool.getMyId() < partyId) {
-          rightMultipliers.put(partyId, new MultiplyRight(resourcePool, network,
+          rightMultipliers.put(partyId, new MultiplyRight(resourcePool, rightNetwork,
               partyId));
-          leftMultipliers.put(partyId, new MultiplyLeft(resourcePool, network,
+          leftMultipliers.put(partyId, new MultiplyLeft(resourcePool, leftNetwork,
               partyId));
         } else {
-          leftMultipliers.put(partyId, new MultiplyLeft(resourcePool, network,
+          leftMultipliers.put(partyId, new MultiplyLeft(resourcePool, leftNetwork,
               partyId));
-          rightMultipliers.put(partyId, new MultiplyRight(resourcePool, network,
+          rightMultipliers.put(partyId, new MultiplyRight(resourcePool, rightNetwork,
               partyId));
         }
       }
@@ -125,21 +142,23 @@ public class TripleGeneration {
             .stretch(rightFactors, resourcePool.getNumCandidatesPerTriple());
 
     // step 2 of protocol
-    // for each value we will have two sub-factors for each other party
-    List<List<FieldElement>> subFactors = new ArrayList<>();
+    // for each value we will have two sub-factors for each other party, computed concurrently if
+    // the channels allow it
+    List<Callable<List<FieldElement>>> multiplications = new ArrayList<>();
     for (int partyId = 1; partyId <= resourcePool.getNoOfParties(); partyId++) {
       if (partyId != resourcePool.getMyId()) {
         MultiplyLeft leftMult = leftMultipliers.get(partyId);
         MultiplyRight rightMult = rightMultipliers.get(partyId);
         if (resourcePool.getMyId() < partyId) {
-          subFactors.add(rightMult.multiply(stretched));
-          subFactors.add(leftMult.multiply(leftFactorGroups));
+          multiplications.add(() -> rightMult.multiply(stretched));
+          multiplications.add(() -> leftMult.multiply(leftFactorGroups));
         } else {
-          subFactors.add(leftMult.multiply(leftFactorGroups));
-          subFactors.add(rightMult.multiply(stretched));
+          multiplications.add(() -> leftMult.multiply(leftFactorGroups));
+          multiplications.add(() -> rightMult.multiply(stretched));
         }
       }
     }
+    List<List<FieldElement>> subFactors = channels.runAll(multiplications);
 
     // step 3 or protocol
     // own part of the product
@@ -27,6 +27,13 @@ public class TestMascot extends NetworkedTest {
     return mascot.getTriples(numTriples);
   }
 
+  private List<MultiplicationTriple> runConcurrentTripleGen(MascotTestContext ctx,
+      FieldElement macKeyShare, int numTriples) {
+    try (Mascot mascot = new Mascot(ctx.getResourcePool(), ctx.getNetwork(), macKeyShare, true)) {
+      return mascot.getTriples(numTriples);
+    }
+  }
+
   private List<AuthenticatedElement> runRandomElementGeneration(MascotTestContext ctx,
       FieldElement macKeyShare, int numElements) {
     Mascot mascot = new Mascot(ctx.getResourcePool(), ctx.getNetwork(), macKeyShare);
@@ -77,6 +84,27 @@ public class TestMascot extends NetworkedTest {
     }
   }
 
+  @Test
+  public void testTripleConcurrent() {
+    initContexts(3);
+    FieldElement macKeyShareThree = getFieldDefinition().createElement(4242);
+
+    List<Callable<List<MultiplicationTriple>>> tasks = new ArrayList<>();
+    tasks.add(() -> runConcurrentTripleGen(contexts.get(1), macKeyShareOne, 16));
+    tasks.add(() -> runConcurrentTripleGen(contexts.get(2), macKeyShareTwo, 16));
+    tasks.add(() -> runConcurrentTripleGen(contexts.get(3), macKeyShareThree, 16));
+
+    List<List<MultiplicationTriple>> results = testRuntime.runPerPartyTasks(tasks);
+    for (List<MultiplicationTriple> result : results) {
+      assertEquals(16, result.size());
+    }
+    List<MultiplicationTriple> combined = Addable.sumRows(results);
+    FieldElement macKey = macKeyShareOne.add(macKeyShareTwo).add(macKeyShareThree);
+    for (MultiplicationTriple triple : combined) {
+      CustomAsserts.assertTripleIsValid(getFieldDefinition(), triple, macKey);
+    }
+  }
+
   @Test
   public void testRandomGen() {
     // set up runtime environment and get contexts
@@ -0,0 +1,205 @@
+package dk.alexandra.fresco.tools.mascot;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import dk.alexandra.fresco.framework.builder.numeric.Addable;
+import dk.alexandra.fresco.framework.builder.numeric.field.BigIntegerFieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.network.CloseableNetwork;
+import dk.alexandra.fresco.framework.network.InMemoryNetwork;
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.ModulusFinder;
+import dk.alexandra.fresco.tools.mascot.field.MultiplicationTriple;
+import dk.alexandra.fresco.tools.ot.base.DummyOt;
+import dk.alexandra.fresco.tools.ot.otextension.RotList;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestMascotState {
+
+  private static final int PRG_SEED_LENGTH = 256;
+  private final FieldDefinition definition =
+      new BigIntegerFieldDefinition(ModulusFinder.findSuitableModulus(64));
+  private final Map<Integer, CloseableNetwork> networks = InMemoryNetwork.createNetworks(2);
+  private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @After
+  public void tearDown() throws Exception {
+    executor.shutdownNow();
+    for (CloseableNetwork network : networks.values()) {
+      network.close();
+    }
+  }
+
+  private <T> List<T> runPerParty(List<Callable<T>> tasks) throws Exception {
+    List<Future<T>> futures = new ArrayList<>();
+    for (Callable<T> task : tasks) {
+      futures.add(executor.submit(task));
+    }
+    List<T> results = new ArrayList<>();
+    for (Future<T> future : futures) {
+      results.add(future.get());
+    }
+    return results;
+  }
+
+  private static byte[] seed(int myId, int use) {
+    byte[] seed = new byte[32];
+    seed[0] = (byte) myId;
+    seed[1] = (byte) use;
+    return seed;
+  }
+
+  private MascotState createState(int myId) {
+    return createState(myId, 0);
+  }
+
+  private MascotState createState(int myId, int round) {
+    int otherId = 3 - myId;
+    RotList seedOts = new RotList(new AesCtrDrbg(seed(myId, 0)), PRG_SEED_LENGTH);
+    DummyOt ot = new DummyOt(otherId, networks.get(myId));
+    if (myId == 1) {
+      seedOts.send(ot);
+      seedOts.receive(ot);
+    } else {
+      seedOts.receive(ot);
+      seedOts.send(ot);
+    }
+    Map<Integer, RotList> seedOtsMap = new HashMap<>();
+    seedOtsMap.put(otherId, seedOts);
+    byte[] setupId = MascotState.agreeOnSetupId(new AesCtrDrbg(seed(myId, 2 + round)),
+        networks.get(myId));
+    return new MascotState(myId, definition, definition.createElement(100 + myId), seedOtsMap,
+        setupId);
+  }
+
+  @Test
+  public void testSaveAndLoad() throws Exception {
+    List<Callable<MascotState>> tasks = new ArrayList<>();
+    tasks.add(() -> createState(1));
+    tasks.add(() -> createState(2));
+    MascotState state = runPerParty(tasks).get(0);
+    Path file = folder.getRoot().toPath().resolve("state");
+    state.save(file);
+    MascotState loaded = MascotState.load(file);
+    assertEquals(1, loaded.getMyId());
+    assertEquals(definition.getModulus(), loaded.getFieldDefinition().getModulus());
+    assertEquals(definition.convertToUnsigned(state.getMacKeyShare()),
+        loaded.getFieldDefinition().convertToUnsigned(loaded.getMacKeyShare()));
+    RotList original = state.getSeedOts().get(2);
+    RotList restored = loaded.getSeedOts().get(2);
+    assertEquals(original.getSentMessages(), restored.getSentMessages());
+    assertEquals(original.getLearnedMessages(), restored.getLearnedMessages());
+    assertEquals(original.getChoices(), restored.getChoices());
+    assertArrayEquals(state.getSetupId(), loaded.getSetupId());
+    if (Files.getFileStore(file).supportsFileAttributeView("posix")) {
+      assertEquals("rw-------",
+          PosixFilePermissions.toString(Files.getPosixFilePermissions(file)));
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testCorrupted() throws Exception {
+    List<Callable<MascotState>> tasks = new ArrayList<>();
+    tasks.add(() -> createState(1));
+    tasks.add(() -> createState(2));
+    Path file = folder.getRoot().toPath().resolve("state");
+    runPerParty(tasks).get(0).save(file);
+    byte[] bytes = Files.readAllBytes(file);
+    bytes[bytes.length / 2] ^= 1;
+    Files.write(file, bytes);
+    MascotState.load(file);
+  }
+
+  @Test
+  public void testAllMatch() throws Exception {
+    List<Callable<MascotState>> setup = new ArrayList<>();
+    setup.add(() -> createState(1));
+    setup.add(() -> createState(2));
+    List<MascotState> states = runPerParty(setup);
+    List<Callable<MascotState>> redo = new ArrayList<>();
+    redo.add(() -> createState(1, 1));
+    redo.add(() -> createState(2, 1));
+    MascotState other = runPerParty(redo).get(1);
+    assertEquals(Arrays.asList(true, true), allMatch(states.get(0), states.get(1)));
+    // a party restored a state from other base OTs
+    assertEquals(Arrays.asList(false, false), allMatch(states.get(0), other));
+    // a party has no state
+    assertEquals(Arrays.asList(false, false), allMatch(states.get(0), null));
+  }
+
+  private List<Boolean> allMatch(MascotState first, MascotState second) throws Exception {
+    List<Callable<Boolean>> tasks = new ArrayList<>();
+    tasks.add(() -> MascotState.allMatch(first, networks.get(1)));
+    tasks.add(() -> MascotState.allMatch(second, networks.get(2)));
+    return runPerParty(tasks);
+  }
+
+  @Test
+  public void testResume() throws Exception {
+    Path directory = folder.getRoot().toPath();
+    List<Callable<Void>> setup = new ArrayList<>();
+    for (int myId = 1; myId <= 2; myId++) {
+      int id = myId;
+      setup.add(() -> {
+        Path file = directory.resolve("state" + id);
+        MascotState state = createState(id);
+        state.save(file);
+        // party 1 does not get to persist the instance ids reserved by an earlier run
+        state.reserveInstanceIds(5, networks.get(id),
+            id == 1 ? directory.resolve("lost") : file);
+        return null;
+      });
+    }
+    runPerParty(setup);
+
+    List<Callable<List<MultiplicationTriple>>> tasks = new ArrayList<>();
+    List<Integer> instanceIds = Collections.synchronizedList(new ArrayList<>());
+    for (int myId = 1; myId <= 2; myId++) {
+      int id = myId;
+      tasks.add(() -> {
+        Path file = directory.resolve("state" + id);
+        MascotState state = MascotState.load(file);
+        int instanceId = state.reserveInstanceIds(1, networks.get(id), file);
+        instanceIds.add(instanceId);
+        Drbg drbg = new AesCtrDrbg(seed(id, 1));
+        MascotResourcePool resourcePool = new MascotResourcePoolImpl(id, 2, instanceId, drbg,
+            state.getSeedOts(), new MascotSecurityParameters(64, PRG_SEED_LENGTH, 3),
+            state.getFieldDefinition());
+        return new Mascot(resourcePool, networks.get(id), state.getMacKeyShare()).getTriples(4);
+      });
+    }
+    List<List<MultiplicationTriple>> results = runPerParty(tasks);
+    // both parties skip the ids used by the earlier run
+    assertEquals(Arrays.asList(6, 6), instanceIds);
+    FieldDefinition loadedDefinition =
+        MascotState.load(directory.resolve("state1")).getFieldDefinition();
+    FieldElement macKey = loadedDefinition.createElement(101 + 102);
+    List<MultiplicationTriple> triples = Addable.sumRows(results);
+    assertEquals(4, triples.size());
+    for (MultiplicationTriple triple : triples) {
+      CustomAsserts.assertTripleIsValid(loadedDefinition, triple, macKey);
+    }
+  }
+}
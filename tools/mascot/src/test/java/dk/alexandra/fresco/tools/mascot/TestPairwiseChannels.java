@@ -0,0 +1,40 @@
+package dk.alexandra.fresco.tools.mascot;
+
+import static org.junit.Assert.assertEquals;
+
+import dk.alexandra.fresco.framework.network.InMemoryNetwork;
+import dk.alexandra.fresco.framework.network.Network;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.Test;
+
+public class TestPairwiseChannels {
+
+  private final Network network = InMemoryNetwork.createNetworks(2).get(1);
+
+  @Test
+  public void testRunAllConcurrent() {
+    try (PairwiseChannels channels = PairwiseChannels.concurrent(network)) {
+      List<Callable<Integer>> tasks = Arrays.asList(() -> 1, () -> 2, () -> 3);
+      assertEquals(Arrays.asList(1, 2, 3), channels.runAll(tasks));
+    }
+  }
+
+  @Test(expected = RejectedExecutionException.class)
+  public void testClosedConcurrent() {
+    PairwiseChannels channels = PairwiseChannels.concurrent(network);
+    channels.close();
+    channels.runAll(Collections.singletonList(() -> 1));
+  }
+
+  @Test
+  public void testClosedSequential() {
+    PairwiseChannels channels = PairwiseChannels.sequential(network);
+    channels.close();
+    assertEquals(Collections.singletonList(1),
+        channels.runAll(Collections.singletonList(() -> 1)));
+  }
+}
@@ -0,0 +1,96 @@
+package dk.alexandra.fresco.tools.mascot.prg;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import dk.alexandra.fresco.framework.builder.numeric.field.BigIntegerFieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldDefinition;
+import dk.alexandra.fresco.framework.builder.numeric.field.FieldElement;
+import dk.alexandra.fresco.framework.builder.numeric.field.MersennePrimeFieldDefinition;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import java.math.BigInteger;
+import java.util.List;
+import org.junit.Test;
+
+public class TestFieldElementPrgImpl {
+
+  private final StrictBitVector seed = new StrictBitVector(new byte[32]);
+
+  private FieldElementPrgImpl createPrg(FieldDefinition definition) {
+    return new FieldElementPrgImpl(seed, definition);
+  }
+
+  @Test
+  public void testDeterministic() {
+    FieldDefinition definition = new BigIntegerFieldDefinition(new BigInteger("65521"));
+    List<FieldElement> first = createPrg(definition).getNext(1000);
+    List<FieldElement> second = createPrg(definition).getNext(1000);
+    assertArrayEquals(definition.serialize(first), definition.serialize(second));
+  }
+
+  @Test
+  public void testPacked() {
+    FieldDefinition definition = new MersennePrimeFieldDefinition(127, 1);
+    byte[] packed = createPrg(definition).getNextPacked(100);
+    List<FieldElement> elements = createPrg(definition).getNext(100);
+    assertEquals(100 * 16, packed.length);
+    assertArrayEquals(definition.serialize(elements), packed);
+  }
+
+  @Test
+  public void testInRange() {
+    // just above a power of two, so that about half the samples are rejected
+    BigInteger modulus = BigInteger.ONE.shiftLeft(16).add(BigInteger.ONE);
+    FieldDefinition definition = new BigIntegerFieldDefinition(modulus);
+    List<FieldElement> elements = createPrg(definition).getNext(10000);
+    assertEquals(10000, elements.size());
+    for (FieldElement element : elements) {
+      BigInteger value = definition.convertToUnsigned(element);
+      assertTrue(value.signum() >= 0 && value.compareTo(modulus) < 0);
+    }
+  }
+
+  @Test
+  public void testUniform() {
+    FieldDefinition definition = new BigIntegerFieldDefinition(new BigInteger("5"));
+    int[] counts = new int[5];
+    for (FieldElement element : createPrg(definition).getNext(50000)) {
+      counts[definition.convertToUnsigned(element).intValue()]++;
+    }
+    for (int count : counts) {
+      assertTrue("Count " + count + " too far from 10000", Math.abs(count - 10000) < 500);
+    }
+  }
+
+  @Test
+  public void testMatrix() {
+    FieldDefinition definition = new BigIntegerFieldDefinition(new BigInteger("251"));
+    List<List<FieldElement>> matrix = createPrg(definition).getNext(7, 3);
+    List<FieldElement> flat = createPrg(definition).getNext(21);
+    assertEquals(7, matrix.size());
+    for (int i = 0; i < matrix.size(); i++) {
+      assertEquals(3, matrix.get(i).size());
+      assertArrayEquals(definition.serialize(flat.subList(i * 3, (i + 1) * 3)),
+          definition.serialize(matrix.get(i)));
+    }
+  }
+
+  @Test
+  public void testParallel() {
+    FieldDefinition definition = new MersennePrimeFieldDefinition(127, 1);
+    List<FieldElement> first = createPrg(definition).getNextParallel(1001, 4);
+    List<FieldElement> second = createPrg(definition).getNextParallel(1001, 4);
+    assertEquals(1001, first.size());
+    assertArrayEquals(definition.serialize(first), definition.serialize(second));
+    List<FieldElement> sequential = createPrg(definition).getNext(1001);
+    assertNotEquals(definition.convertToUnsigned(first.get(0)),
+        definition.convertToUnsigned(sequential.get(0)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParallelNoStreams() {
+    createPrg(new BigIntegerFieldDefinition(new BigInteger("251"))).getNextParallel(10, 0);
+  }
+}
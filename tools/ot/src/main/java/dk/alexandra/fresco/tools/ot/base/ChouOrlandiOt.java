@@ -0,0 +1,181 @@
+package dk.alexandra.fresco.tools.ot.base;
+
+import dk.alexandra.fresco.framework.MaliciousException;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.Drng;
+import dk.alexandra.fresco.framework.util.DrngImpl;
+import dk.alexandra.fresco.framework.util.ExceptionConverter;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.tools.ot.otextension.PseudoOtp;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.spec.ECPoint;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Implementation of the Chou-Orlandi OT, <i>The Simplest Protocol for Oblivious Transfer</i> (<a
+ * href="https://eprint.iacr.org/2015/267.pdf">https://eprint.iacr.org/2015/267.pdf</a>), over the
+ * NIST P-256 elliptic curve.
+ *
+ * <p>A batch of OTs sent with {@link #send(List)} and received with {@link
+ * #receive(StrictBitVector)} takes a single message in each direction plus the ciphertexts,
+ * regardless of the size of the batch. The sender does a single scalar multiplication per OT and
+ * the receiver two, which is much cheaper than the modular exponentiations in a 2048-bit group of
+ * {@link NaorPinkasOt}.</p>
+ */
+public class ChouOrlandiOt implements Ot {
+
+  private static final String HASH_ALGORITHM = "SHA-256";
+  private final int otherId;
+  private final Network network;
+  private final Drng randNum;
+  private final MessageDigest hashDigest;
+  private final EcGroup group;
+
+  /**
+   * Constructs a Chou-Orlandi OT instance.
+   *
+   * @param otherId The ID of the other party
+   * @param randBit The calling party's secure randomness generator
+   * @param network The underlying network to use
+   */
+  public ChouOrlandiOt(int otherId, Drbg randBit, Network network) {
+    this.otherId = otherId;
+    this.network = network;
+    this.randNum = new DrngImpl(randBit);
+    this.hashDigest = ExceptionConverter.safe(() -> MessageDigest.getInstance(HASH_ALGORITHM),
+        "Missing secure, hash function which is dependent in this library");
+    this.group = EcGroup.secp256r1();
+  }
+
+  @Override
+  public void send(StrictBitVector messageZero, StrictBitVector messageOne) {
+    send(Collections.singletonList(new Pair<>(messageZero, messageOne)));
+  }
+
+  @Override
+  public StrictBitVector receive(boolean choiceBit) {
+    return receive(new boolean[]{choiceBit}).get(0);
+  }
+
+  @Override
+  public void send(List<Pair<StrictBitVector, StrictBitVector>> messagePairs) {
+    BigInteger secretKey = group.randomScalar(randNum);
+    ECPoint publicKey = group.multiply(group.getGenerator(), secretKey);
+    byte[] encodedPublicKey = group.encode(publicKey);
+    network.send(otherId, encodedPublicKey);
+    byte[] choicePoints = network.receive(otherId);
+    int pointLength = group.getEncodingLength();
+    if (choicePoints.length != messagePairs.size() * pointLength) {
+      throw new MaliciousException("Received an unexpected number of choice points");
+    }
+    ECPoint offset = group.negate(group.multiply(publicKey, secretKey));
+    List<byte[]> cipherTexts = new ArrayList<>(2 * messagePairs.size());
+    for (int i = 0; i < messagePairs.size(); i++) {
+      byte[] encodedChoicePoint =
+          Arrays.copyOfRange(choicePoints, i * pointLength, (i + 1) * pointLength);
+      ECPoint keyZero = group.multiply(group.decode(encodedChoicePoint), secretKey);
+      ECPoint keyOne = group.add(keyZero, offset);
+      Pair<StrictBitVector, StrictBitVector> messages = messagePairs.get(i);
+      int maxByteLength =
+          Math.max(messages.getFirst().getSize(), messages.getSecond().getSize()) / Byte.SIZE;
+      cipherTexts.add(PseudoOtp.encrypt(messages.getFirst().toByteArray(),
+          hash(i, encodedPublicKey, encodedChoicePoint, keyZero), maxByteLength));
+      cipherTexts.add(PseudoOtp.encrypt(messages.getSecond().toByteArray(),
+          hash(i, encodedPublicKey, encodedChoicePoint, keyOne), maxByteLength));
+    }
+    network.send(otherId, concatenate(cipherTexts));
+  }
+
+  @Override
+  public List<StrictBitVector> receive(StrictBitVector choiceBits) {
+    boolean[] choices = new boolean[choiceBits.getSize()];
+    for (int i = 0; i < choices.length; i++) {
+      choices[i] = choiceBits.getBit(i, false);
+    }
+    return receive(choices);
+  }
+
+  private List<StrictBitVector> receive(boolean[] choices) {
+    byte[] encodedPublicKey = network.receive(otherId);
+    ECPoint publicKey = group.decode(encodedPublicKey);
+    int pointLength = group.getEncodingLength();
+    byte[] choicePoints = new byte[choices.length * pointLength];
+    List<byte[]> keys = new ArrayList<>(choices.length);
+    for (int i = 0; i < choices.length; i++) {
+      BigInteger secretKey = group.randomScalar(randNum);
+      ECPoint choicePoint = group.multiply(group.getGenerator(), secretKey);
+      if (choices[i]) {
+        choicePoint = group.add(publicKey, choicePoint);
+      }
+      byte[] encodedChoicePoint = group.encode(choicePoint);
+      System.arraycopy(encodedChoicePoint, 0, choicePoints, i * pointLength, pointLength);
+      keys.add(hash(i, encodedPublicKey, encodedChoicePoint,
+          group.multiply(publicKey, secretKey)));
+    }
+    network.send(otherId, choicePoints);
+    List<byte[]> cipherTexts = split(network.receive(otherId), 2 * choices.length);
+    List<StrictBitVector> messages = new ArrayList<>(choices.length);
+    for (int i = 0; i < choices.length; i++) {
+      byte[] encryptedZeroMessage = cipherTexts.get(2 * i);
+      byte[] encryptedOneMessage = cipherTexts.get(2 * i + 1);
+      if (encryptedZeroMessage.length != encryptedOneMessage.length) {
+        throw new MaliciousException("The length of the two choice messages is not equal");
+      }
+      byte[] chosen = choices[i] ? encryptedOneMessage : encryptedZeroMessage;
+      messages.add(new StrictBitVector(PseudoOtp.decrypt(chosen, keys.get(i))));
+    }
+    return messages;
+  }
+
+  /**
+   * Derives the key of an OT from the shared point, bound to the index of the OT in the batch and
+   * the points sent.
+   */
+  private byte[] hash(int index, byte[] publicKey, byte[] choicePoint, ECPoint sharedPoint) {
+    hashDigest.update(ByteBuffer.allocate(Integer.BYTES).putInt(index).array());
+    hashDigest.update(publicKey);
+    hashDigest.update(choicePoint);
+    if (!sharedPoint.equals(ECPoint.POINT_INFINITY)) {
+      hashDigest.update(group.encode(sharedPoint));
+    }
+    return hashDigest.digest();
+  }
+
+  private static byte[] concatenate(List<byte[]> parts) {
+    int length = parts.stream().mapToInt(part -> Integer.BYTES + part.length).sum();
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    for (byte[] part : parts) {
+      buffer.putInt(part.length);
+      buffer.put(part);
+    }
+    return buffer.array();
+  }
+
+  private static List<byte[]> split(byte[] bytes, int count) {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    List<byte[]> parts = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      if (buffer.remaining() < Integer.BYTES) {
+        throw new MaliciousException("Received an unexpected number of ciphertexts");
+      }
+      int length = buffer.getInt();
+      if (length < 0 || length > buffer.remaining()) {
+        throw new MaliciousException("Received a malformed ciphertext");
+      }
+      byte[] part = new byte[length];
+      buffer.get(part);
+      parts.add(part);
+    }
+    if (buffer.hasRemaining()) {
+      throw new MaliciousException("Received an unexpected number of ciphertexts");
+    }
+    return parts;
+  }
+}
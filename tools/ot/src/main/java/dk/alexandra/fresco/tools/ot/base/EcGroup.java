@@ -0,0 +1,223 @@
+package dk.alexandra.fresco.tools.ot.base;
+
+import dk.alexandra.fresco.framework.MaliciousException;
+import dk.alexandra.fresco.framework.util.Drng;
+import dk.alexandra.fresco.framework.util.ExceptionConverter;
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.spec.ECFieldFp;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.util.Arrays;
+
+/**
+ * The group of points of a prime order elliptic curve in short Weierstrass form, with the curve
+ * parameters taken from the JDK.
+ *
+ * <p>Points are handled in affine form through {@link ECPoint}, but computed on in Jacobian
+ * coordinates internally, such that a scalar multiplication needs a single inversion.</p>
+ */
+class EcGroup {
+
+  private static final BigInteger TWO = BigInteger.valueOf(2);
+  private static final BigInteger THREE = BigInteger.valueOf(3);
+  private static final BigInteger EIGHT = BigInteger.valueOf(8);
+  private final BigInteger p;
+  private final BigInteger a;
+  private final BigInteger b;
+  private final BigInteger order;
+  private final ECPoint generator;
+  private final int fieldLength;
+
+  private EcGroup(ECParameterSpec spec) {
+    this.p = ((ECFieldFp) spec.getCurve().getField()).getP();
+    this.a = spec.getCurve().getA();
+    this.b = spec.getCurve().getB();
+    this.order = spec.getOrder();
+    this.generator = spec.getGenerator();
+    this.fieldLength = (p.bitLength() + Byte.SIZE - 1) / Byte.SIZE;
+  }
+
+  /**
+   * Returns the NIST P-256 group, i.e., secp256r1.
+   */
+  static EcGroup secp256r1() {
+    return named("secp256r1");
+  }
+
+  private static EcGroup named(String name) {
+    return new EcGroup(ExceptionConverter.safe(() -> {
+      AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+      parameters.init(new ECGenParameterSpec(name));
+      return parameters.getParameterSpec(ECParameterSpec.class);
+    }, "Configuration error, the elliptic curve " + name + " is needed for the OT"));
+  }
+
+  ECPoint getGenerator() {
+    return generator;
+  }
+
+  /**
+   * Samples a uniformly random non-zero scalar.
+   */
+  BigInteger randomScalar(Drng rand) {
+    return rand.nextBigInteger(order.subtract(BigInteger.ONE)).add(BigInteger.ONE);
+  }
+
+  /**
+   * Computes the sum of two points.
+   */
+  ECPoint add(ECPoint first, ECPoint second) {
+    return toAffine(addJacobian(toJacobian(first), toJacobian(second)));
+  }
+
+  /**
+   * Computes the inverse of a point.
+   */
+  ECPoint negate(ECPoint point) {
+    if (point.equals(ECPoint.POINT_INFINITY)) {
+      return point;
+    }
+    return new ECPoint(point.getAffineX(), p.subtract(point.getAffineY()).mod(p));
+  }
+
+  /**
+   * Multiplies a point by a scalar.
+   *
+   * <p>This uses a Montgomery ladder over a scalar padded to a fixed bit length by adding
+   * multiples of the order, so the sequence of point additions and doublings does not depend on
+   * the scalar. It is still not constant time, as {@link BigInteger} arithmetic and the special
+   * cases of point addition take time depending on the values, so it must not be relied on to
+   * resist timing side-channel attacks.</p>
+   */
+  ECPoint multiply(ECPoint point, BigInteger scalar) {
+    int length = order.bitLength();
+    // the scalar plus one or two times the order, such that the bit at index length is the top
+    // bit and the ladder always runs over the same bits
+    BigInteger reduced = scalar.mod(order).add(order);
+    BigInteger[] padded = {reduced.add(order), reduced};
+    byte[] bits = padded[reduced.shiftRight(length).intValue()].toByteArray();
+    // invariant: ladder[1] is ladder[0] plus the point
+    BigInteger[][] ladder = {toJacobian(point), doubleJacobian(toJacobian(point))};
+    for (int i = length - 1; i >= 0; i--) {
+      int bit = bits[bits.length - 1 - i / Byte.SIZE] >>> (i % Byte.SIZE) & 1;
+      ladder[1 - bit] = addJacobian(ladder[0], ladder[1]);
+      ladder[bit] = doubleJacobian(ladder[bit]);
+    }
+    return toAffine(ladder[0]);
+  }
+
+  /**
+   * Encodes a point as its uncompressed, fixed length encoding.
+   */
+  byte[] encode(ECPoint point) {
+    if (point.equals(ECPoint.POINT_INFINITY)) {
+      throw new IllegalArgumentException("Cannot encode the point at infinity");
+    }
+    byte[] encoding = new byte[1 + 2 * fieldLength];
+    encoding[0] = 0x04;
+    toFixedLength(point.getAffineX(), encoding, 1);
+    toFixedLength(point.getAffineY(), encoding, 1 + fieldLength);
+    return encoding;
+  }
+
+  /**
+   * Decodes a point encoded by {@link #encode(ECPoint)}, validating that it is a point of the
+   * group.
+   *
+   * @throws MaliciousException if the encoding is not of a point of the group
+   */
+  ECPoint decode(byte[] encoding) {
+    if (encoding.length != 1 + 2 * fieldLength || encoding[0] != 0x04) {
+      throw new MaliciousException("Invalid encoding of an elliptic curve point");
+    }
+    BigInteger x = new BigInteger(1, Arrays.copyOfRange(encoding, 1, 1 + fieldLength));
+    BigInteger y = new BigInteger(1,
+        Arrays.copyOfRange(encoding, 1 + fieldLength, encoding.length));
+    if (x.compareTo(p) >= 0 || y.compareTo(p) >= 0
+        || !y.multiply(y).subtract(x.multiply(x).add(a).multiply(x).add(b)).mod(p)
+        .equals(BigInteger.ZERO)) {
+      throw new MaliciousException("Received a point which is not on the curve");
+    }
+    // the curves used have prime order, so every point on the curve is in the group
+    return new ECPoint(x, y);
+  }
+
+  int getEncodingLength() {
+    return 1 + 2 * fieldLength;
+  }
+
+  private void toFixedLength(BigInteger value, byte[] output, int offset) {
+    byte[] bytes = value.toByteArray();
+    int length = Math.min(bytes.length, fieldLength);
+    System.arraycopy(bytes, bytes.length - length, output, offset + fieldLength - length, length);
+  }
+
+  private BigInteger[] toJacobian(ECPoint point) {
+    if (point.equals(ECPoint.POINT_INFINITY)) {
+      return new BigInteger[]{BigInteger.ONE, BigInteger.ONE, BigInteger.ZERO};
+    }
+    return new BigInteger[]{point.getAffineX(), point.getAffineY(), BigInteger.ONE};
+  }
+
+  private ECPoint toAffine(BigInteger[] point) {
+    if (point[2].signum() == 0) {
+      return ECPoint.POINT_INFINITY;
+    }
+    BigInteger zInverse = point[2].modInverse(p);
+    BigInteger zInverseSquared = zInverse.multiply(zInverse).mod(p);
+    return new ECPoint(point[0].multiply(zInverseSquared).mod(p),
+        point[1].multiply(zInverseSquared).multiply(zInverse).mod(p));
+  }
+
+  private BigInteger[] doubleJacobian(BigInteger[] point) {
+    if (point[2].signum() == 0 || point[1].signum() == 0) {
+      return toJacobian(ECPoint.POINT_INFINITY);
+    }
+    BigInteger x = point[0];
+    BigInteger y = point[1];
+    BigInteger z = point[2];
+    BigInteger xx = x.multiply(x).mod(p);
+    BigInteger yy = y.multiply(y).mod(p);
+    BigInteger yyyy = yy.multiply(yy).mod(p);
+    BigInteger zz = z.multiply(z).mod(p);
+    BigInteger s = TWO.multiply(x.add(yy).pow(2).subtract(xx).subtract(yyyy)).mod(p);
+    BigInteger m = THREE.multiply(xx).add(a.multiply(zz.multiply(zz))).mod(p);
+    BigInteger x3 = m.multiply(m).subtract(TWO.multiply(s)).mod(p);
+    BigInteger y3 = m.multiply(s.subtract(x3)).subtract(EIGHT.multiply(yyyy)).mod(p);
+    BigInteger z3 = y.add(z).pow(2).subtract(yy).subtract(zz).mod(p);
+    return new BigInteger[]{x3, y3, z3};
+  }
+
+  private BigInteger[] addJacobian(BigInteger[] first, BigInteger[] second) {
+    if (first[2].signum() == 0) {
+      return second;
+    }
+    if (second[2].signum() == 0) {
+      return first;
+    }
+    BigInteger z1z1 = first[2].multiply(first[2]).mod(p);
+    BigInteger z2z2 = second[2].multiply(second[2]).mod(p);
+    BigInteger u1 = first[0].multiply(z2z2).mod(p);
+    BigInteger u2 = second[0].multiply(z1z1).mod(p);
+    BigInteger s1 = first[1].multiply(second[2]).multiply(z2z2).mod(p);
+    BigInteger s2 = second[1].multiply(first[2]).multiply(z1z1).mod(p);
+    BigInteger h = u2.subtract(u1).mod(p);
+    BigInteger r = TWO.multiply(s2.subtract(s1)).mod(p);
+    if (h.signum() == 0) {
+      if (r.signum() == 0) {
+        return doubleJacobian(first);
+      }
+      return toJacobian(ECPoint.POINT_INFINITY);
+    }
+    BigInteger i = TWO.multiply(h).pow(2).mod(p);
+    BigInteger j = h.multiply(i).mod(p);
+    BigInteger v = u1.multiply(i).mod(p);
+    BigInteger x3 = r.multiply(r).subtract(j).subtract(TWO.multiply(v)).mod(p);
+    BigInteger y3 = r.multiply(v.subtract(x3)).subtract(TWO.multiply(s1).multiply(j)).mod(p);
+    BigInteger z3 = first[2].add(second[2]).pow(2).subtract(z1z1).subtract(z2z2).multiply(h)
+        .mod(p);
+    return new BigInteger[]{x3, y3, z3};
+  }
+}
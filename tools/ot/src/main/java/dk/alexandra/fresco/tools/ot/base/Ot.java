@@ -1,6 +1,9 @@
 package dk.alexandra.fresco.tools.ot.base;
 
+import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.util.StrictBitVector;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Oblivious Transfer interface for 1-out-of-2 oblivious transfer. That is, the sending party inputs
@@ -30,4 +33,35 @@ public interface Ot {
    * @return The message indicated by the choice bit
    */
   StrictBitVector receive(boolean choiceBit);
+
+  /**
+   * Send a batch of message pairs, the receiver choosing one message of each pair.
+   * <p>
+   * The default implementation runs the OTs one at a time. Implementations can override this to
+   * run all the OTs of the batch in the same rounds of communication.
+   * </p>
+   *
+   * @param messagePairs
+   *          The message pairs to send
+   */
+  default void send(List<Pair<StrictBitVector, StrictBitVector>> messagePairs) {
+    for (Pair<StrictBitVector, StrictBitVector> pair : messagePairs) {
+      send(pair.getFirst(), pair.getSecond());
+    }
+  }
+
+  /**
+   * Receive one message of each pair in a batch sent with {@link #send(List)}.
+   *
+   * @param choiceBits
+   *          Bits indicating which message of each pair to receive
+   * @return The messages indicated by the choice bits
+   */
+  default List<StrictBitVector> receive(StrictBitVector choiceBits) {
+    List<StrictBitVector> messages = new ArrayList<>(choiceBits.getSize());
+    for (int i = 0; i < choiceBits.getSize(); i++) {
+      messages.add(receive(choiceBits.getBit(i, false)));
+    }
+    return messages;
+  }
 }
@@ -0,0 +1,66 @@
+package dk.alexandra.fresco.tools.ot.base;
+
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * A static utility class splitting a batch of OTs into chunks, used by the chunked variants of the
+ * random OT interfaces. The sender and the receiver split a batch the same way, such that they
+ * agree on the size of each chunk.
+ */
+public final class OtChunks {
+
+  private OtChunks() {
+    // Should not be instantiated
+  }
+
+  /**
+   * Checks that a chunk size is a positive multiple of 8, such that a chunk of choice bits is a
+   * whole number of bytes.
+   *
+   * @param chunkSize the amount of OTs in each chunk
+   */
+  public static void checkChunkSize(int chunkSize) {
+    if (chunkSize < 1 || chunkSize % Byte.SIZE != 0) {
+      throw new IllegalArgumentException(
+          "The chunk size must be a positive multiple of 8, was " + chunkSize);
+    }
+  }
+
+  /**
+   * Splits the OTs on the sending side into chunks.
+   *
+   * @param size the total amount of OTs
+   * @param chunkSize the amount of OTs in each chunk, a positive multiple of 8
+   * @param action called with the amount of OTs in each chunk, in order. The last chunk may be
+   *     smaller
+   */
+  public static void forEachChunk(int size, int chunkSize, IntConsumer action) {
+    checkChunkSize(chunkSize);
+    for (int offset = 0; offset < size; offset += chunkSize) {
+      action.accept(Math.min(chunkSize, size - offset));
+    }
+  }
+
+  /**
+   * Splits the choice bits on the receiving side into chunks.
+   *
+   * @param choices the choice bits of all the OTs
+   * @param chunkSize the amount of OTs in each chunk, a positive multiple of 8
+   * @param action called with the choice bits of each chunk, in order. The last chunk may be
+   *     smaller
+   */
+  public static void forEachChunk(StrictBitVector choices, int chunkSize,
+      Consumer<StrictBitVector> action) {
+    checkChunkSize(chunkSize);
+    byte[] choiceBytes = choices.toByteArray();
+    int chunkBytes = chunkSize / Byte.SIZE;
+    for (int offset = 0; offset < choiceBytes.length; offset += chunkBytes) {
+      byte[] chunk = Arrays.copyOfRange(choiceBytes, offset,
+          Math.min(choiceBytes.length, offset + chunkBytes));
+      action.accept(new StrictBitVector(chunk));
+    }
+  }
+}
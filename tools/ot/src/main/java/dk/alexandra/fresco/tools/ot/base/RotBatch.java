@@ -3,6 +3,7 @@ package dk.alexandra.fresco.tools.ot.base;
 import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.util.StrictBitVector;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Complete a batch of 1-out-of-2 random OTs, where the receiver gets to pick
@@ -29,4 +30,35 @@ public interface RotBatch {
    */
   List<StrictBitVector> receive(StrictBitVector choiceBits, int messageSize);
 
+  /**
+   * Send {@code numMessages} of size {@code messageSize} each, in chunks which are handed to a
+   * consumer one at a time, such that only a single chunk needs to be kept in memory. The receiver
+   * must use the same chunk size.
+   *
+   * @param numMessages The total number of messages
+   * @param messageSize The size of the messages
+   * @param chunkSize The number of messages in each chunk, a positive multiple of 8
+   * @param consumer Called with the random messages of each chunk, in order
+   */
+  default void send(int numMessages, int messageSize, int chunkSize,
+      Consumer<List<Pair<StrictBitVector, StrictBitVector>>> consumer) {
+    OtChunks.forEachChunk(numMessages, chunkSize,
+        size -> consumer.accept(send(size, messageSize)));
+  }
+
+  /**
+   * Receive random messages based on the choice bits in {@code choiceBits}, in chunks which are
+   * handed to a consumer one at a time. The sender must use the same chunk size.
+   *
+   * @param choiceBits The bits indicating which messages to learn
+   * @param messageSize The size of all the messages
+   * @param chunkSize The number of messages in each chunk, a positive multiple of 8
+   * @param consumer Called with the chosen random messages of each chunk, in order
+   */
+  default void receive(StrictBitVector choiceBits, int messageSize, int chunkSize,
+      Consumer<List<StrictBitVector>> consumer) {
+    OtChunks.forEachChunk(choiceBits, chunkSize,
+        chunk -> consumer.accept(receive(chunk, messageSize)));
+  }
+
 }
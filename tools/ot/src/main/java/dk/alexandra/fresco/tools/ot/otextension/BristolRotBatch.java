@@ -2,9 +2,12 @@ package dk.alexandra.fresco.tools.ot.otextension;
 
 import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.tools.ot.base.OtChunks;
 import dk.alexandra.fresco.tools.ot.base.RotBatch;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -15,32 +18,73 @@ import java.util.stream.IntStream;
  * amount of bits.
  */
 public class BristolRotBatch implements RotBatch {
+  private static final int DEFAULT_EXTENSION_SIZE = 1 << 18;
   private final RotFactory rot;
   private final int comSecParam;
   private final int statSecParam;
+  private final int maxChunkSize;
 
   private RotSender sender;
   private RotReceiver receiver;
 
   /**
    * Constructs a new random batch OT protocol and constructs the internal sender and receiver
-   * objects.
+   * objects. Large batches are constructed in chunks of a size where each chunk uses about 2^18
+   * OTs from the underlying random OT extension.
    *
    * @param randomOtExtension An instance of the underlying random OT extension
    * @param comSecParam The computational security parameter
    * @param statSecParam The statistical security parameter
    */
   public BristolRotBatch(RotFactory randomOtExtension, int comSecParam, int statSecParam) {
+    this(randomOtExtension, comSecParam, statSecParam,
+        DEFAULT_EXTENSION_SIZE - comSecParam - statSecParam);
+  }
+
+  /**
+   * Constructs a new random batch OT protocol, which constructs large batches in chunks of at most
+   * a given size. This bounds the memory used by the underlying random OT extension, e.g., for
+   * its matrices, by the chunk size. The resulting messages of all chunks are still kept in memory
+   * when using {@link #send(int, int)} and {@link #receive(StrictBitVector, int)}, so only callers
+   * consuming the chunks one at a time use memory independent of the size of the batch. The other
+   * party must use the same maximal chunk size.
+   *
+   * @param randomOtExtension An instance of the underlying random OT extension
+   * @param comSecParam The computational security parameter
+   * @param statSecParam The statistical security parameter
+   * @param maxChunkSize The maximal amount of OTs to construct at a time, a positive multiple of
+   *        8. This wastes the least OTs when it is a two-power minus the security parameters
+   */
+  public BristolRotBatch(RotFactory randomOtExtension, int comSecParam, int statSecParam,
+      int maxChunkSize) {
+    OtChunks.checkChunkSize(maxChunkSize);
     this.rot = randomOtExtension;
     this.comSecParam = comSecParam;
     this.statSecParam = statSecParam;
+    this.maxChunkSize = maxChunkSize;
   }
 
   @Override
   public List<Pair<StrictBitVector, StrictBitVector>> send(int numMessages, int sizeOfEachMessage) {
+    List<Pair<StrictBitVector, StrictBitVector>> res = new ArrayList<>(numMessages);
+    send(numMessages, sizeOfEachMessage, maxChunkSize, res::addAll);
+    return res;
+  }
+
+  @Override
+  public void send(int numMessages, int sizeOfEachMessage, int chunkSize,
+      Consumer<List<Pair<StrictBitVector, StrictBitVector>>> consumer) {
+    OtChunks.checkChunkSize(chunkSize);
     if (this.sender == null) {
       this.sender = rot.createSender();
     }
+    // Only construct a single chunk of underlying random OTs at a time
+    OtChunks.forEachChunk(numMessages, Math.min(chunkSize, maxChunkSize),
+        size -> consumer.accept(sendChunk(size, sizeOfEachMessage)));
+  }
+
+  private List<Pair<StrictBitVector, StrictBitVector>> sendChunk(int numMessages,
+      int sizeOfEachMessage) {
     int amountToPreprocess = computeExtensionSize(numMessages, comSecParam, statSecParam);
     Pair<List<StrictBitVector>, List<StrictBitVector>> messages = sender.extend(amountToPreprocess);
     List<StrictBitVector> zeroMessages = messages.getFirst().parallelStream().limit(numMessages)
@@ -58,9 +102,24 @@ public class BristolRotBatch implements RotBatch {
 
   @Override
   public List<StrictBitVector> receive(StrictBitVector choiceBits, int sizeOfEachMessage) {
+    List<StrictBitVector> res = new ArrayList<>(choiceBits.getSize());
+    receive(choiceBits, sizeOfEachMessage, maxChunkSize, res::addAll);
+    return res;
+  }
+
+  @Override
+  public void receive(StrictBitVector choiceBits, int sizeOfEachMessage, int chunkSize,
+      Consumer<List<StrictBitVector>> consumer) {
+    OtChunks.checkChunkSize(chunkSize);
     if (this.receiver == null) {
       this.receiver = rot.createReceiver();
     }
+    // Only construct a single chunk of underlying random OTs at a time
+    OtChunks.forEachChunk(choiceBits, Math.min(chunkSize, maxChunkSize),
+        chunk -> consumer.accept(receiveChunk(chunk, sizeOfEachMessage)));
+  }
+
+  private List<StrictBitVector> receiveChunk(StrictBitVector choiceBits, int sizeOfEachMessage) {
     int amountToPreprocess = computeExtensionSize(choiceBits.getSize(), comSecParam, statSecParam);
     byte[] extraByteChoices = Arrays.copyOf(choiceBits.toByteArray(),
         amountToPreprocess / Byte.SIZE);
@@ -6,6 +6,7 @@ import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.util.StrictBitVector;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -50,13 +51,30 @@ public class CoteReceiver extends CoteShared {
    *         received messages
    */
   public List<StrictBitVector> extend(StrictBitVector choices) {
-    if (choices.getSize() < 1) {
+    return extend(Collections.nCopies(resources.getComputationalSecurityParameter(), choices));
+  }
+
+  /**
+   * Constructs a new batch of correlated OTs with errors, where each seed OT is used with its own
+   * choice vector rather than the same. This is the generalization needed for 1-out-of-N OT
+   * extension, where the choices of an OT are a codeword rather than a single bit.
+   *
+   * @param columnChoices
+   *          The choice vector of each seed OT to use, all of equal size
+   * @return The received messages, one for each index of the choice vectors
+   */
+  List<StrictBitVector> extend(List<StrictBitVector> columnChoices) {
+    int columns = columnChoices.size();
+    if (columnChoices.get(0).getSize() < 1) {
       throw new IllegalArgumentException(
           "The amount of OTs must be a positive integer");
     }
-    int bytesNeeded = choices.getSize() / Byte.SIZE;
+    if (columns > prgs.size()) {
+      throw new IllegalArgumentException("Not enough seed OTs for " + columns + " columns");
+    }
+    int bytesNeeded = columnChoices.get(0).getSize() / Byte.SIZE;
     final List<StrictBitVector>  tlistZero = prgs.parallelStream()
-        .limit(resources.getComputationalSecurityParameter())
+        .limit(columns)
         .map(p -> p.getFirst())
         .map(drbg -> {
           byte[] byteBuffer = new byte[bytesNeeded];
@@ -66,7 +84,7 @@ public class CoteReceiver extends CoteShared {
         .map(StrictBitVector::new)
         .collect(Collectors.toList());
     final List<StrictBitVector> ulist = prgs.parallelStream()
-        .limit(resources.getComputationalSecurityParameter())
+        .limit(columns)
         .map(p -> p.getSecond())
         .map(drbg -> {
           byte[] byteBuffer = new byte[bytesNeeded];
@@ -75,9 +93,11 @@ public class CoteReceiver extends CoteShared {
         })
         .map(StrictBitVector::new)
         .collect(Collectors.toList());
-    ulist.parallelStream().forEach(u -> u.xor(choices));
-    IntStream.range(0, resources.getComputationalSecurityParameter()).parallel()
-      .forEach(i -> ulist.get(i).xor(tlistZero.get(i)));
+    IntStream.range(0, columns).parallel()
+      .forEach(i -> {
+        ulist.get(i).xor(columnChoices.get(i));
+        ulist.get(i).xor(tlistZero.get(i));
+      });
     sendList(ulist);
     return Transpose.transpose(tlistZero);
   }
@@ -55,6 +55,18 @@ public class CoteSender extends CoteShared {
    * @param size Amount of OTs to construct
    */
   public List<StrictBitVector> extend(int size) {
+    return extend(size, resources.getComputationalSecurityParameter());
+  }
+
+  /**
+   * Constructs a new batch of correlated OTs with errors using the first {@code columns} seed OTs,
+   * such that each of the resulting OTs is correlated with the first {@code columns} bits of
+   * {@link #getDelta()}.
+   *
+   * @param size Amount of OTs to construct
+   * @param columns Amount of seed OTs to use
+   */
+  List<StrictBitVector> extend(int size, int columns) {
     if (size < 1) {
       throw new IllegalArgumentException("The amount of OTs must be a positive integer");
     }
@@ -62,9 +74,12 @@ public class CoteSender extends CoteShared {
       throw new IllegalArgumentException(
           "The amount of OTs must be a positive integer divisible by 8");
     }
+    if (columns > prgs.size()) {
+      throw new IllegalArgumentException("Not enough seed OTs for " + columns + " columns");
+    }
     int bytesNeeded = size / Byte.SIZE;
     final List<StrictBitVector> tlist = prgs.parallelStream()
-        .limit(resources.getComputationalSecurityParameter())
+        .limit(columns)
         .map(drbg -> {
           byte[] bytes = new byte[bytesNeeded];
           drbg.nextBytes(bytes);
@@ -72,8 +87,8 @@ public class CoteSender extends CoteShared {
         })
         .map(StrictBitVector::new)
         .collect(Collectors.toList());
-    final List<StrictBitVector> ulist = receiveList(resources.getComputationalSecurityParameter());
-    IntStream.range(0, resources.getComputationalSecurityParameter()).parallel()
+    final List<StrictBitVector> ulist = receiveList(columns);
+    IntStream.range(0, columns).parallel()
         .filter(i -> otChoices.getBit(i, false))
         .forEach(i -> tlist.get(i).xor(ulist.get(i)));
     return Transpose.transpose(tlist);
@@ -0,0 +1,150 @@
+package dk.alexandra.fresco.tools.ot.otextension;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Arithmetic in the field GF(2^128), defined by the reduction polynomial x^128 + x^7 + x^2 + x +
+ * 1.
+ *
+ * <p>An element is represented by two longs, the most significant first, where bit i of the
+ * resulting 128 bit integer is the coefficient of x^i. Elements are serialized as 16 bytes in
+ * big-endian order, such that the 16 bytes of a 128 bit {@link
+ * dk.alexandra.fresco.framework.util.StrictBitVector} map to an element and back.</p>
+ */
+final class Gf128 {
+
+  static final int BYTES = 16;
+  static final int BITS = 128;
+  private static final long REDUCTION = 0x87L;
+  private static final int WINDOW = 8;
+
+  private Gf128() {
+    // Not instantiable
+  }
+
+  /**
+   * Reads an element from 16 bytes.
+   */
+  static long[] fromBytes(byte[] bytes) {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    return new long[]{buffer.getLong(), buffer.getLong()};
+  }
+
+  /**
+   * Writes an element as 16 bytes.
+   */
+  static byte[] toBytes(long[] element) {
+    return ByteBuffer.allocate(BYTES).putLong(element[0]).putLong(element[1]).array();
+  }
+
+  /**
+   * Returns the coefficient of x^index of an element.
+   */
+  static boolean getBit(long[] element, int index) {
+    long word = index < Long.SIZE ? element[1] : element[0];
+    return ((word >>> (index % Long.SIZE)) & 1) == 1;
+  }
+
+  /**
+   * Multiplies an element by x in place.
+   */
+  static void multiplyByX(long[] element) {
+    long carry = element[0] >>> (Long.SIZE - 1);
+    element[0] = (element[0] << 1) | (element[1] >>> (Long.SIZE - 1));
+    element[1] = (element[1] << 1) ^ (carry * REDUCTION);
+  }
+
+  /**
+   * Computes the product of two elements.
+   */
+  static long[] multiply(long[] first, long[] second) {
+    long[] res = new long[2];
+    for (int i = BITS - 1; i >= 0; i--) {
+      multiplyByX(res);
+      if (getBit(second, i)) {
+        res[0] ^= first[0];
+        res[1] ^= first[1];
+      }
+    }
+    return res;
+  }
+
+  /**
+   * Computes an element raised to a non-negative power.
+   */
+  static long[] power(long[] element, long exponent) {
+    long[] res = new long[]{0, 1};
+    for (int i = Long.SIZE - 1 - Long.numberOfLeadingZeros(exponent); i >= 0; i--) {
+      res = multiply(res, res);
+      if (((exponent >>> i) & 1) == 1) {
+        res = multiply(res, element);
+      }
+    }
+    return res;
+  }
+
+  /**
+   * Evaluates the polynomial with coefficients {@code e_i} in a point {@code chi}, that is, it
+   * computes the sum of {@code e_i * chi^(i + 1)}.
+   *
+   * @param elements the coefficients, two longs each, in the order of {@link Gf128}
+   * @param chi the point
+   * @return the result of the evaluation
+   */
+  static long[] evaluate(long[] elements, long[] chi) {
+    FixedMultiplier multiplier = new FixedMultiplier(chi);
+    long[] res = new long[2];
+    for (int i = elements.length - 2; i >= 0; i -= 2) {
+      res[0] ^= elements[i];
+      res[1] ^= elements[i + 1];
+      multiplier.multiplyInPlace(res);
+    }
+    return res;
+  }
+
+  /**
+   * Multiplies by a fixed element using precomputed tables, which is much faster than {@link
+   * #multiply(long[], long[])} when the same element is used many times.
+   */
+  static final class FixedMultiplier {
+
+    private static final int ENTRIES = 1 << WINDOW;
+    // For each window i and each value w of the window, the product of the fixed element and
+    // w * x^(i * WINDOW)
+    private final long[] table;
+
+    FixedMultiplier(long[] element) {
+      this.table = new long[2 * ENTRIES * (BITS / WINDOW)];
+      long[] shifted = element.clone();
+      for (int window = 0; window < BITS / WINDOW; window++) {
+        int offset = 2 * ENTRIES * window;
+        for (int bit = 0; bit < WINDOW; bit++) {
+          int step = 1 << bit;
+          for (int value = step; value < 2 * step; value++) {
+            table[offset + 2 * value] = table[offset + 2 * (value - step)] ^ shifted[0];
+            table[offset + 2 * value + 1] = table[offset + 2 * (value - step) + 1] ^ shifted[1];
+          }
+          multiplyByX(shifted);
+        }
+      }
+    }
+
+    /**
+     * Multiplies an element by the fixed element in place.
+     */
+    void multiplyInPlace(long[] element) {
+      long high = 0;
+      long low = 0;
+      int mask = ENTRIES - 1;
+      for (int window = 0; window < BITS / WINDOW; window++) {
+        long word = window < Long.SIZE / WINDOW ? element[1] : element[0];
+        int value = (int) (word >>> ((window * WINDOW) % Long.SIZE)) & mask;
+        int index = 2 * (ENTRIES * window + value);
+        high ^= table[index];
+        low ^= table[index + 1];
+      }
+      element[0] = high;
+      element[1] = low;
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package dk.alexandra.fresco.tools.ot.otextension;
+
+import dk.alexandra.fresco.framework.network.Network;
+
+/**
+ * Factory for a protocol instance of 1-out-of-N random OT extension, following Kolesnikov and
+ * Kumaresan, <i>Improved OT Extension for Transferring Short Secrets</i> (<a
+ * href="https://eprint.iacr.org/2013/491.pdf">https://eprint.iacr.org/2013/491.pdf</a>).
+ *
+ * <p>This generalizes the correlated OT with errors of {@link RotFactory} such that the receiver
+ * uses a codeword of its choice, rather than its choice bit repeated, as the choices for the seed
+ * OTs. The sender gets the N messages of an OT by hashing its correlated OT XOR'ed with each of the
+ * codewords masked by its seed OT choices. The protocol is secure against a semi-honest receiver,
+ * as there is no correlation check. The seed OTs of the resource pool must number twice the
+ * computational security parameter, which must be a power of two, and N can be at most this
+ * amount.</p>
+ */
+public class OneOfNRotFactory {
+
+  private final OtExtensionResourcePool resources;
+  private final Network network;
+  private final int messages;
+
+  /**
+   * Constructs a new 1-out-of-N random OT protocol.
+   *
+   * @param resources The common resource pool for OT extension
+   * @param network The network instance
+   * @param messages The amount of messages, N, of each OT
+   */
+  public OneOfNRotFactory(OtExtensionResourcePool resources, Network network, int messages) {
+    this.resources = resources;
+    this.network = network;
+    this.messages = messages;
+  }
+
+  public OneOfNRotSender createSender() {
+    CoteSender sender = new CoteSender(resources, network);
+    return new OneOfNRotSenderImpl(sender, resources, messages);
+  }
+
+  public OneOfNRotReceiver createReceiver() {
+    CoteReceiver receiver = new CoteReceiver(resources, network);
+    return new OneOfNRotReceiverImpl(receiver, resources, messages);
+  }
+}
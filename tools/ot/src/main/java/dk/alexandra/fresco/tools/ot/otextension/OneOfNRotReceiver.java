@@ -0,0 +1,19 @@
+package dk.alexandra.fresco.tools.ot.otextension;
+
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import java.util.List;
+
+/**
+ * Protocol class for the party acting as the receiver in a 1-out-of-N random OT extension.
+ */
+public interface OneOfNRotReceiver {
+
+  /**
+   * Constructs a new batch of 1-out-of-N random OTs.
+   *
+   * @param choices
+   *          The receivers choices for this extension, each between 0 and N
+   * @return A list of the received messages, one for each choice
+   */
+  List<StrictBitVector> extend(int[] choices);
+}
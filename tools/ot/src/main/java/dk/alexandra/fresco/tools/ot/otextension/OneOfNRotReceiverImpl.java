@@ -0,0 +1,56 @@
+package dk.alexandra.fresco.tools.ot.otextension;
+
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Protocol class for the party acting as the receiver in a 1-out-of-N random OT extension, as
+ * constructed by {@link OneOfNRotFactory}. The receiver uses the codeword of its choice as the
+ * choices of the seed OTs and gets the message of its choice by hashing its correlated OT.
+ *
+ * <p>The protocol is only secure against a semi-honest receiver, as there is no correlation
+ * check.</p>
+ */
+public class OneOfNRotReceiverImpl extends OneOfNRotShared implements OneOfNRotReceiver {
+  private final CoteReceiver receiver;
+
+  /**
+   * Construct a receiving party for an instance of the 1-out-of-N random OT extension protocol.
+   *
+   * @param rec
+   *          The correlated OT with error receiver this protocol will use
+   * @param resources
+   *          The common OT extension resources
+   * @param messages
+   *          The amount of messages of each OT
+   */
+  public OneOfNRotReceiverImpl(CoteReceiver rec, OtExtensionResourcePool resources,
+      int messages) {
+    super(resources, messages);
+    this.receiver = rec;
+  }
+
+  @Override
+  public List<StrictBitVector> extend(int[] choices) {
+    int rows = paddedSize(choices.length);
+    List<StrictBitVector> codewords = new ArrayList<>(rows);
+    for (int i = 0; i < rows; i++) {
+      // Pad with arbitrary choices, whose messages are never used
+      int choice = i < choices.length ? choices[i] : 0;
+      if (choice < 0 || choice >= getMessages()) {
+        throw new IllegalArgumentException(
+            "The choices must be between 0 and " + getMessages());
+      }
+      codewords.add(getCode().encode(choice));
+    }
+    // Each seed OT uses the corresponding bit of all codewords as its choices
+    List<StrictBitVector> tlist = receiver.extend(Transpose.transpose(codewords));
+    List<StrictBitVector> res = new ArrayList<>(choices.length);
+    for (int i = 0; i < choices.length; i++) {
+      res.add(hashRow(i, tlist.get(i).toByteArray()));
+    }
+    advanceOutputs(choices.length);
+    return res;
+  }
+}
@@ -0,0 +1,19 @@
+package dk.alexandra.fresco.tools.ot.otextension;
+
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import java.util.List;
+
+/**
+ * Protocol class for the party acting as the sender in a 1-out-of-N random OT extension.
+ */
+public interface OneOfNRotSender {
+
+  /**
+   * Constructs a new batch of 1-out-of-N random OTs.
+   *
+   * @param size
+   *          The amount of random OTs to construct
+   * @return A list with an element for each OT, which is the list of the N messages of the OT
+   */
+  List<List<StrictBitVector>> extend(int size);
+}
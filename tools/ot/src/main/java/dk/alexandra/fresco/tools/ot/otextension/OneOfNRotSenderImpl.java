@@ -0,0 +1,64 @@
+package dk.alexandra.fresco.tools.ot.otextension;
+
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Protocol class for the party acting as the sender in a 1-out-of-N random OT extension, as
+ * constructed by {@link OneOfNRotFactory}. The sender gets the N messages of each OT by hashing
+ * its correlated OT XOR'ed with each of the codewords masked by its seed OT choices.
+ *
+ * <p>The protocol is only secure against a semi-honest receiver, as there is no correlation
+ * check.</p>
+ */
+public class OneOfNRotSenderImpl extends OneOfNRotShared implements OneOfNRotSender {
+  private final CoteSender sender;
+
+  /**
+   * Construct a sending party for an instance of the 1-out-of-N random OT extension protocol.
+   *
+   * @param snd
+   *          The correlated OT with error sender this protocol will use
+   * @param resources
+   *          The common OT extension resources
+   * @param messages
+   *          The amount of messages of each OT
+   */
+  public OneOfNRotSenderImpl(CoteSender snd, OtExtensionResourcePool resources, int messages) {
+    super(resources, messages);
+    this.sender = snd;
+  }
+
+  @Override
+  public List<List<StrictBitVector>> extend(int size) {
+    int columns = getCode().getLength();
+    List<StrictBitVector> qlist = sender.extend(paddedSize(size), columns);
+    // The codewords masked by the seed OT choices, which is the correlation between the receivers
+    // message and the messages of the other choices
+    byte[] delta = sender.getDelta().toByteArray();
+    List<byte[]> masks = new ArrayList<>(getMessages());
+    for (int r = 0; r < getMessages(); r++) {
+      byte[] mask = getCode().encode(r).toByteArray();
+      for (int i = 0; i < mask.length; i++) {
+        mask[i] &= delta[i];
+      }
+      masks.add(mask);
+    }
+    List<List<StrictBitVector>> res = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      byte[] row = qlist.get(i).toByteArray();
+      List<StrictBitVector> otMessages = new ArrayList<>(getMessages());
+      for (byte[] mask : masks) {
+        byte[] masked = row.clone();
+        for (int j = 0; j < masked.length; j++) {
+          masked[j] ^= mask[j];
+        }
+        otMessages.add(hashRow(i, masked));
+      }
+      res.add(otMessages);
+    }
+    advanceOutputs(size);
+    return res;
+  }
+}
@@ -0,0 +1,82 @@
+package dk.alexandra.fresco.tools.ot.otextension;
+
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+
+/**
+ * Superclass containing the common variables and methods for the sender and receiver parties of
+ * 1-out-of-N random OT extension.
+ *
+ * <p>The choices of the receiver are encoded by a Walsh-Hadamard code of length twice the
+ * computational security parameter, such that any two codewords differ in at least as many bits
+ * as the computational security parameter. Each bit of the codewords uses a seed OT.</p>
+ */
+public abstract class OneOfNRotShared {
+
+  private final OtExtensionResourcePool resources;
+  private final WalshHadamardCode code;
+  private final int messages;
+  private final MessageDigest digest;
+  private long outputCounter;
+
+  /**
+   * Constructs a 1-out-of-N random OT extension super-class.
+   *
+   * @param resources The common OT extension resources
+   * @param messages The amount of messages, N, of each OT
+   */
+  public OneOfNRotShared(OtExtensionResourcePool resources, int messages) {
+    this.resources = resources;
+    this.code = new WalshHadamardCode(2 * resources.getComputationalSecurityParameter());
+    if (messages < 2 || messages > code.getLength()) {
+      throw new IllegalArgumentException(
+          "The amount of messages must be between 2 and " + code.getLength());
+    }
+    this.messages = messages;
+    this.digest = resources.getDigest();
+  }
+
+  protected OtExtensionResourcePool getResources() {
+    return resources;
+  }
+
+  protected WalshHadamardCode getCode() {
+    return code;
+  }
+
+  protected int getMessages() {
+    return messages;
+  }
+
+  /**
+   * Rounds the amount of OTs up to the amount of correlated OTs with errors to construct, which
+   * must be a two-power, as required by the transposition.
+   */
+  protected static int paddedSize(int size) {
+    if (size < 1) {
+      throw new IllegalArgumentException("The amount of OTs must be a positive integer");
+    }
+    return Math.max(Byte.SIZE, Integer.highestOneBit(size - 1) << 1);
+  }
+
+  /**
+   * Hashes a row of the correlated OTs with errors to a random OT message. The OTs are numbered
+   * consecutively over all calls, such that no two OTs are hashed with the same index.
+   *
+   * @param index the index of the OT among the OTs of the current call
+   * @param row the row, possibly XOR'ed with a masked codeword
+   * @return the random OT message
+   */
+  protected StrictBitVector hashRow(int index, byte[] row) {
+    digest.update(ByteBuffer.allocate(Long.BYTES).putLong(outputCounter + index).array());
+    return new StrictBitVector(digest.digest(row));
+  }
+
+  /**
+   * Marks a number of OTs as hashed, such that their indices are not reused.
+   */
+  protected void advanceOutputs(int amount) {
+    outputCounter += amount;
+  }
+}
@@ -19,7 +19,6 @@ import java.util.List;
  * </p>
  */
 public class RotList {
-  private final int amount;
   private final List<Pair<StrictBitVector, StrictBitVector>> sendMessages;
   private final List<StrictBitVector> learnedMessages;
   private final StrictBitVector choices;
@@ -37,7 +36,6 @@ public class RotList {
    *          The amount of OTs to construct
    */
   public RotList(Drbg rand, int amount) {
-    this.amount = amount;
     sendMessages = new ArrayList<>(amount);
     learnedMessages = new ArrayList<>(amount);
     for (int i = 0; i < amount; i++) {
@@ -48,6 +46,40 @@ public class RotList {
     choices = new StrictBitVector(amount, rand);
   }
 
+  private RotList(List<Pair<StrictBitVector, StrictBitVector>> sendMessages,
+      List<StrictBitVector> learnedMessages, StrictBitVector choices) {
+    this.sendMessages = sendMessages;
+    this.learnedMessages = learnedMessages;
+    this.choices = choices;
+    this.sent = true;
+    this.received = true;
+  }
+
+  /**
+   * Recreates a list of random OTs which has already been both sent and received, e.g., from
+   * messages persisted by a previous run, such that the OTs need not be redone.
+   * <p>
+   * The OTs must be the same as those the other party restores, and OT extension instances based
+   * on them must use instance ids not used with them before.
+   * </p>
+   *
+   * @param sendMessages
+   *          The random messages used for the sender in the list of OTs
+   * @param learnedMessages
+   *          The random messages learned as the receiver in the list of OTs
+   * @param choices
+   *          The random choices used as the receiver in the list of OTs
+   * @return The restored list of OTs
+   */
+  public static RotList restore(List<Pair<StrictBitVector, StrictBitVector>> sendMessages,
+      List<StrictBitVector> learnedMessages, StrictBitVector choices) {
+    int amount = sendMessages.size();
+    if (learnedMessages.size() != amount || choices.getSize() != amount) {
+      throw new IllegalArgumentException("The number of sent and received OTs must be equal");
+    }
+    return new RotList(new ArrayList<>(sendMessages), new ArrayList<>(learnedMessages), choices);
+  }
+
   /**
    * Sends the prepared random OTs using {@code ot} as the underlying OT
    * functionality.
@@ -62,9 +94,7 @@ public class RotList {
     if (sent == true) {
       throw new IllegalStateException("Seed OTs have already been sent.");
     }
-    for (Pair<StrictBitVector, StrictBitVector> pair : sendMessages) {
-      ot.send(pair.getFirst(), pair.getSecond());
-    }
+    ot.send(sendMessages);
     sent = true;
   }
 
@@ -82,10 +112,7 @@ public class RotList {
     if (received == true) {
       throw new IllegalStateException("Seed OTs have already been received.");
     }
-    for (int i = 0; i < amount; i++) {
-      StrictBitVector message = ot.receive(choices.getBit(i, false));
-      learnedMessages.add(message);
-    }
+    learnedMessages.addAll(ot.receive(choices));
     received = true;
   }
 
@@ -1,7 +1,9 @@
 package dk.alexandra.fresco.tools.ot.otextension;
 
 import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.tools.ot.base.OtChunks;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Protocol class for the party acting as the receiver in an random OT extension
@@ -19,4 +21,22 @@ public interface RotReceiver {
    *         received messages
    */
   List<StrictBitVector> extend(StrictBitVector choices);
+
+  /**
+   * Constructs random OTs in chunks, handing each chunk to a consumer before the next chunk is
+   * constructed. Only the OTs of a single chunk, and the intermediate values used to construct
+   * them, are kept in memory at a time. The sender must use the same chunk size.
+   *
+   * @param choices
+   *          The receivers choices for all the OTs
+   * @param chunkSize
+   *          The amount of random OTs in each chunk, which must be a positive multiple of 8. The
+   *          last chunk may be smaller
+   * @param consumer
+   *          Called with the list of received messages of each chunk, in order
+   */
+  default void extend(StrictBitVector choices, int chunkSize,
+      Consumer<List<StrictBitVector>> consumer) {
+    OtChunks.forEachChunk(choices, chunkSize, chunk -> consumer.accept(extend(chunk)));
+  }
 }
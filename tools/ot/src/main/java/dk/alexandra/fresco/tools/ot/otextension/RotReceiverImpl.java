@@ -30,6 +30,21 @@ public class RotReceiverImpl extends RotSharedImpl implements RotReceiver {
 
   @Override
   public List<StrictBitVector> extend(StrictBitVector choices) {
+    List<StrictBitVector> tlist = extendCorrelated(choices);
+    // Remove the correlation of the OTs by hashing
+    List<StrictBitVector> vvec = hashBitVector(tlist, choices.getSize());
+    return vvec;
+  }
+
+  /**
+   * Constructs a batch of correlated OTs, which have been through the correlation check but have
+   * not been hashed.
+   *
+   * @param choices The receivers choices for this extension
+   * @return The received messages, of which only the first {@code choices.getSize()} are to be
+   *         used
+   */
+  List<StrictBitVector> extendCorrelated(StrictBitVector choices) {
     // The underlying scheme requires computational security parameter plus lambda security
     // parameter extra OTs
     int minOts = choices.getSize() + resources.getComputationalSecurityParameter() + resources
@@ -50,9 +65,7 @@ public class RotReceiverImpl extends RotSharedImpl implements RotReceiver {
     network.send(resources.getOtherId(), xvec.toByteArray());
     StrictBitVector tvec = computeInnerProduct(chiList, tlist);
     network.send(resources.getOtherId(), tvec.toByteArray());
-    // Remove the correlation of the OTs by hashing
-    List<StrictBitVector> vvec = hashBitVector(tlist, choices.getSize());
-    return vvec;
+    return tlist;
   }
 
   /**
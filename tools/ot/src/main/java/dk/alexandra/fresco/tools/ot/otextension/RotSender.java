@@ -2,7 +2,9 @@ package dk.alexandra.fresco.tools.ot.otextension;
 
 import dk.alexandra.fresco.framework.util.Pair;
 import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.tools.ot.base.OtChunks;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Protocol class for the party acting as the sender in a random OT extension.
@@ -19,4 +21,23 @@ public interface RotSender {
    *         messages
    */
   Pair<List<StrictBitVector>, List<StrictBitVector>> extend(int size);
+
+  /**
+   * Constructs random OTs in chunks, handing each chunk to a consumer before the next chunk is
+   * constructed. Only the OTs of a single chunk, and the intermediate values used to construct
+   * them, are kept in memory at a time. The receiver must use the same chunk size.
+   *
+   * @param size
+   *          The total amount of random OTs to construct
+   * @param chunkSize
+   *          The amount of random OTs in each chunk, which must be a positive multiple of 8. The
+   *          last chunk may be smaller
+   * @param consumer
+   *          Called with the pair of lists of choice-zero and choice-one messages of each chunk,
+   *          in order
+   */
+  default void extend(int size, int chunkSize,
+      Consumer<Pair<List<StrictBitVector>, List<StrictBitVector>>> consumer) {
+    OtChunks.forEachChunk(size, chunkSize, chunk -> consumer.accept(extend(chunk)));
+  }
 }
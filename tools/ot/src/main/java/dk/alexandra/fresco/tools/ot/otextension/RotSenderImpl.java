@@ -33,6 +33,33 @@ public class RotSenderImpl extends RotSharedImpl implements RotSender {
 
   @Override
   public Pair<List<StrictBitVector>, List<StrictBitVector>> extend(int size) {
+    List<StrictBitVector> qlist = extendCorrelated(size);
+    StrictBitVector delta = sender.getDelta();
+    // Remove the correlated of the first "size" messages by hashing for
+    // choice-zero
+    List<StrictBitVector> vlistZero = hashBitVector(qlist, size);
+    // XOR the correlated into all the values from the underlying correlated OT
+    // with error to compute the choice-one message
+    for (int i = 0; i < size; i++) {
+      qlist.get(i).xor(delta);
+    }
+    // Remove the correlated for the choice-one as well
+    List<StrictBitVector> vlistOne = hashBitVector(qlist, size);
+    Pair<List<StrictBitVector>, List<StrictBitVector>> res =
+        new Pair<>(vlistZero, vlistOne);
+    return res;
+  }
+
+  /**
+   * Constructs a batch of correlated OTs, which have passed the correlation check but have not
+   * been hashed. That is, the first {@code size} elements of the returned list are the choice-zero
+   * messages, and the choice-one messages are these XOR'ed with the delta of the underlying
+   * correlated OT with errors sender.
+   *
+   * @param size The amount of correlated OTs to construct
+   * @return The choice-zero messages, of which only the first {@code size} are to be used
+   */
+  List<StrictBitVector> extendCorrelated(int size) {
     // The underlying scheme requires computational security parameter plus lambda security
     // parameter extra OTs
     int minOts = size + resources.getComputationalSecurityParameter() + resources
@@ -63,18 +90,6 @@ public class RotSenderImpl extends RotSharedImpl implements RotSender {
       throw new MaliciousException(
           "Correlation check failed for the sender in the random OT extension");
     }
-    // Remove the correlated of the first "size" messages by hashing for
-    // choice-zero
-    List<StrictBitVector> vlistZero = hashBitVector(qlist, size);
-    // XOR the correlated into all the values from the underlying correlated OT
-    // with error to compute the choice-one message
-    for (int i = 0; i < size; i++) {
-      qlist.get(i).xor(delta);
-    }
-    // Remove the correlated for the choice-one as well
-    List<StrictBitVector> vlistOne = hashBitVector(qlist, size);
-    Pair<List<StrictBitVector>, List<StrictBitVector>> res =
-        new Pair<>(vlistZero, vlistOne);
-    return res;
+    return qlist;
   }
 }
@@ -0,0 +1,126 @@
+package dk.alexandra.fresco.tools.ot.otextension;
+
+/**
+ * Parameters of the learning parity with noise (LPN) instance used by silent random OT, see
+ * {@link SilentRotFactory}.
+ *
+ * <p>Each iteration of the protocol expands {@code baseOts} correlated OTs, the LPN secret, with
+ * a noise vector of {@code noiseWeight} blocks of {@code blockSize} entries each, with exactly one
+ * noisy entry per block (regular noise). Each output of the iteration is the XOR of
+ * {@code sparsity} random base OTs and the noise. The correlated OTs needed by the next iteration
+ * are reserved from the output, so an iteration yields {@link #getOutputOts()} minus {@link
+ * #getReservedOts()} random OTs.</p>
+ *
+ * <p>The noise of a block is agreed on using a GGM tree of depth {@link #getTreeDepth()}, of
+ * which only the first {@code blockSize} leaves are used if the block size is not a power of
+ * two.</p>
+ *
+ * <p>An iteration is computed as a whole, so each party holds all of its outputs at once as 16
+ * byte blocks, independently of the amount of OTs requested.</p>
+ */
+public class SilentOtParameters {
+
+  /**
+   * The amount of correlated OTs used for the consistency check of the noise vector, equal to the
+   * bit length of the field the check is done in.
+   */
+  static final int CHECK_OTS = Gf128.BITS;
+  private static final int MAX_BLOCK_SIZE = 1 << 24;
+  private final int baseOts;
+  private final int noiseWeight;
+  private final int blockSize;
+  private final int treeDepth;
+  private final int sparsity;
+
+  /**
+   * Constructs a new set of parameters.
+   *
+   * @param baseOts the length of the LPN secret, i.e., the amount of correlated OTs expanded
+   * @param noiseWeight the amount of noisy entries, i.e., the amount of blocks
+   * @param blockSize the amount of entries in a block
+   * @param sparsity the amount of base OTs each output depends on
+   */
+  public SilentOtParameters(int baseOts, int noiseWeight, int blockSize, int sparsity) {
+    if (baseOts < 1 || noiseWeight < 1 || sparsity < 1) {
+      throw new IllegalArgumentException("The LPN parameters must be positive");
+    }
+    if (blockSize < 2 || blockSize > MAX_BLOCK_SIZE) {
+      throw new IllegalArgumentException(
+          "The block size must be between 2 and " + MAX_BLOCK_SIZE);
+    }
+    if ((long) noiseWeight * blockSize > Integer.MAX_VALUE / 2) {
+      throw new IllegalArgumentException("Too many outputs in a single iteration");
+    }
+    this.baseOts = baseOts;
+    this.noiseWeight = noiseWeight;
+    this.blockSize = blockSize;
+    this.treeDepth = Integer.SIZE - Integer.numberOfLeadingZeros(blockSize - 1);
+    this.sparsity = sparsity;
+    if (getOutputOts() <= getReservedOts()) {
+      throw new IllegalArgumentException(
+          "An iteration must output more OTs than it needs for the next iteration");
+    }
+  }
+
+  /**
+   * Returns the parameters of Ferret (Yang et al., CCS 2020) for 128 bits of computational
+   * security, with n = 10,168,320 outputs, k = 452,000 base OTs, t = 1,280 noisy entries, i.e.,
+   * blocks of 7,944 entries, and 10 base OTs per output. An iteration yields about 9.7 million
+   * random OTs.
+   *
+   * <p>Each party holds the outputs of an iteration as 16 byte blocks, about 163 MB, and the
+   * receiver also holds a choice bit per output as a byte, about 10 MB. This is needed even when
+   * only a few OTs are requested.</p>
+   *
+   * @return the default parameters
+   */
+  public static SilentOtParameters defaultParameters() {
+    return new SilentOtParameters(452_000, 1_280, 7_944, 10);
+  }
+
+  public int getBaseOts() {
+    return baseOts;
+  }
+
+  public int getNoiseWeight() {
+    return noiseWeight;
+  }
+
+  public int getBlockSize() {
+    return blockSize;
+  }
+
+  /**
+   * Returns the depth of the GGM tree used for the noise of a block, i.e., the logarithm of the
+   * block size rounded up.
+   *
+   * @return the depth of a tree
+   */
+  public int getTreeDepth() {
+    return treeDepth;
+  }
+
+  public int getSparsity() {
+    return sparsity;
+  }
+
+  /**
+   * Returns the amount of correlated OTs output by an iteration.
+   *
+   * @return the amount of outputs
+   */
+  public int getOutputOts() {
+    return noiseWeight * blockSize;
+  }
+
+  /**
+   * Returns the amount of correlated OTs an iteration consumes, which are reserved from the output
+   * of the previous iteration. These are the LPN secret, one OT per level of the tree of each
+   * block and the OTs of the consistency check.
+   *
+   * @return the amount of correlated OTs consumed by an iteration
+   */
+  public int getReservedOts() {
+    return baseOts + noiseWeight * treeDepth + CHECK_OTS;
+  }
+}
@@ -0,0 +1,56 @@
+package dk.alexandra.fresco.tools.ot.otextension;
+
+import dk.alexandra.fresco.framework.network.Network;
+
+/**
+ * Factory for a protocol instance of silent random OT, based on a pseudorandom correlation
+ * generator from the learning parity with noise (LPN) assumption. This follows Ferret, <i>Fast
+ * Extension for coRRElated oT with small communication</i> (<a
+ * href="https://eprint.iacr.org/2020/924.pdf">https://eprint.iacr.org/2020/924.pdf</a>), with
+ * regular noise and a random local linear code.
+ *
+ * <p>Each iteration expands a set of correlated OTs into a much larger set. The parties agree on
+ * a sparse noise vector using GGM trees of which the receiver learns all but one leaf, with a
+ * consistency check against a malicious sender. Each then locally multiplies its base OTs by a
+ * public sparse matrix and adds its share of the noise. Communication is linear in the amount of
+ * noisy entries, rather than in the amount of OTs as in the random OT extension of {@link
+ * RotFactory}. Correlated OTs for the next iteration are reserved from the output, and the first
+ * iteration gets its correlated OTs from the random OT extension.</p>
+ *
+ * <p>The sender and receiver are used as those of {@link RotFactory}, except that the receiver
+ * sends one bit per OT to turn the random choices of the correlated OTs into its chosen ones. The
+ * parameters should be {@link SilentOtParameters#defaultParameters()} unless security is not a
+ * concern, and the resource pool must use a computational security parameter of 128 and an
+ * instance id not used by any other OT extension with the same seed OTs.</p>
+ */
+public class SilentRotFactory extends RotFactory {
+
+  private final OtExtensionResourcePool resources;
+  private final Network network;
+  private final SilentOtParameters parameters;
+
+  /**
+   * Constructs a new silent random OT protocol.
+   *
+   * @param resources The common resource pool for OT extension
+   * @param network The network instance
+   * @param parameters The LPN parameters
+   */
+  public SilentRotFactory(OtExtensionResourcePool resources, Network network,
+      SilentOtParameters parameters) {
+    super(resources, network);
+    this.resources = resources;
+    this.network = network;
+    this.parameters = parameters;
+  }
+
+  @Override
+  public RotSender createSender() {
+    return new SilentRotSender(resources, network, parameters);
+  }
+
+  @Override
+  public RotReceiver createReceiver() {
+    return new SilentRotReceiver(resources, network, parameters);
+  }
+}
@@ -0,0 +1,205 @@
+package dk.alexandra.fresco.tools.ot.otextension;
+
+import dk.alexandra.fresco.framework.MaliciousException;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Protocol class for the party acting as the receiver in silent random OT, see {@link
+ * SilentRotFactory}.
+ */
+public class SilentRotReceiver extends SilentRotShared implements RotReceiver {
+
+  private final CoteReceiver coteReceiver;
+  // The blocks and random choices of the correlated OTs of the current iteration
+  private long[] blocks;
+  private boolean[] choices;
+  // The blocks and random choices of the correlated OTs reserved for the next iteration
+  private long[] baseBlocks;
+  private boolean[] baseChoices;
+  private int position;
+  private int available;
+
+  /**
+   * Constructs a receiving party for an instance of the silent random OT protocol.
+   *
+   * @param resources The common OT extension resources
+   * @param network The network to use
+   * @param parameters The LPN parameters
+   */
+  public SilentRotReceiver(OtExtensionResourcePool resources, Network network,
+      SilentOtParameters parameters) {
+    super(resources, network, parameters);
+    this.coteReceiver = new CoteReceiver(resources, network);
+  }
+
+  @Override
+  public List<StrictBitVector> extend(StrictBitVector chosen) {
+    int size = chosen.getSize();
+    if (size < 1) {
+      throw new IllegalArgumentException("The amount of OTs must be a positive integer");
+    }
+    long[] correlated = new long[2 * size];
+    StrictBitVector corrections = new StrictBitVector(size);
+    int taken = 0;
+    while (taken < size) {
+      if (position == available) {
+        iterate();
+      }
+      int amount = Math.min(size - taken, available - position);
+      System.arraycopy(blocks, 2 * position, correlated, 2 * taken, 2 * amount);
+      for (int i = 0; i < amount; i++) {
+        corrections.setBit(taken + i, choices[position + i] ^ chosen.getBit(taken + i, false),
+            false);
+      }
+      position += amount;
+      taken += amount;
+    }
+    getNetwork().send(getResources().getOtherId(), corrections.toByteArray());
+    List<StrictBitVector> messages = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      messages.add(hashOutput(i, correlated[2 * i], correlated[2 * i + 1]));
+    }
+    advanceOutputs(size);
+    return messages;
+  }
+
+  /**
+   * Runs an iteration of the protocol, producing a new batch of correlated OTs from the ones
+   * reserved by the previous iteration. The first iteration uses correlated OTs from the random OT
+   * extension.
+   */
+  private void iterate() {
+    SilentOtParameters parameters = getParameters();
+    if (baseBlocks == null) {
+      setup();
+      RotReceiverImpl bootstrap = new RotReceiverImpl(coteReceiver, getResources(), getNetwork());
+      StrictBitVector bootstrapChoices = new StrictBitVector(
+          roundUpToBytes(parameters.getReservedOts()), getResources().getRandomGenerator());
+      baseBlocks = toBlocks(bootstrap.extendCorrelated(bootstrapChoices),
+          parameters.getReservedOts());
+      baseChoices = new boolean[parameters.getReservedOts()];
+      for (int i = 0; i < baseChoices.length; i++) {
+        baseChoices[i] = bootstrapChoices.getBit(i, false);
+      }
+    }
+    int iteration = nextIteration();
+    int treeOffset = parameters.getBaseOts();
+    int depths = parameters.getTreeDepth();
+    int checkOffset = treeOffset + parameters.getNoiseWeight() * depths;
+    int blockSize = parameters.getBlockSize();
+    // The path to the noisy entry of a tree is the negation of the choice bits of the OTs of the
+    // tree, so the receiver corrects the random choice bits to reach a uniformly random entry of
+    // the block, which may have fewer entries than the tree has leaves
+    int[] positions = samplePositions();
+    StrictBitVector corrections = new StrictBitVector(
+        roundUpToBytes(parameters.getNoiseWeight() * depths));
+    boolean[] treeChoices = new boolean[parameters.getNoiseWeight() * depths];
+    for (int tree = 0; tree < parameters.getNoiseWeight(); tree++) {
+      for (int depth = 0; depth < depths; depth++) {
+        int index = tree * depths + depth;
+        treeChoices[index] = (positions[tree] >>> (depths - 1 - depth) & 1) == 0;
+        corrections.setBit(index, treeChoices[index] ^ baseChoices[treeOffset + index], false);
+      }
+    }
+    getNetwork().send(getResources().getOtherId(), corrections.toByteArray());
+    int treeMessageLength = Gf128.BYTES * (1 + 2 * depths);
+    byte[] message = getNetwork().receive(getResources().getOtherId());
+    if (message.length != parameters.getNoiseWeight() * treeMessageLength) {
+      throw new MaliciousException("Received an unexpected amount of tree messages");
+    }
+    long[] leaves = new long[2 * parameters.getOutputOts()];
+    boolean[] noise = new boolean[parameters.getOutputOts()];
+    int[] noisyIndices = new int[parameters.getNoiseWeight()];
+    for (int tree = 0; tree < parameters.getNoiseWeight(); tree++) {
+      int treeOffsetInMessage = tree * treeMessageLength;
+      // The receiver learns the sibling of the path at each level
+      byte[] level = new byte[Gf128.BYTES];
+      int path = 0;
+      for (int depth = 0; depth < depths; depth++) {
+        level = expand(level);
+        // The children of the unknown node on the path are garbage
+        Arrays.fill(level, 2 * path * Gf128.BYTES, (2 * path + 2) * Gf128.BYTES, (byte) 0);
+        int ot = treeOffset + tree * depths + depth;
+        boolean choice = treeChoices[tree * depths + depth];
+        long tweak = ((long) iteration << Integer.SIZE) | ot;
+        byte[] mask = hashBlock(tweak, baseBlocks[2 * ot], baseBlocks[2 * ot + 1]);
+        int sumOffset = treeOffsetInMessage + (choice ? 2 + 2 * depth : 1 + 2 * depth)
+            * Gf128.BYTES;
+        byte[] sibling = sumChildren(level, choice);
+        for (int i = 0; i < Gf128.BYTES; i++) {
+          sibling[i] ^= message[sumOffset + i] ^ mask[i];
+        }
+        int siblingIndex = 2 * path + (choice ? 1 : 0);
+        System.arraycopy(sibling, 0, level, siblingIndex * Gf128.BYTES, Gf128.BYTES);
+        path = 2 * path + (choice ? 0 : 1);
+      }
+      // The punctured leaf is zero in level, so the sum of the used leaves plus the correction is
+      // the punctured leaf plus delta
+      byte[] punctured = Arrays.copyOfRange(message, treeOffsetInMessage,
+          treeOffsetInMessage + Gf128.BYTES);
+      for (int node = 0; node < blockSize * Gf128.BYTES; node += Gf128.BYTES) {
+        for (int i = 0; i < Gf128.BYTES; i++) {
+          punctured[i] ^= level[node + i];
+        }
+      }
+      System.arraycopy(punctured, 0, level, path * Gf128.BYTES, Gf128.BYTES);
+      ByteBuffer.wrap(level, 0, blockSize * Gf128.BYTES).asLongBuffer()
+          .get(leaves, 2 * tree * blockSize, 2 * blockSize);
+      noisyIndices[tree] = tree * blockSize + path;
+      noise[noisyIndices[tree]] = true;
+    }
+    check(leaves, noisyIndices, checkOffset);
+    encode(baseBlocks, baseChoices, leaves, noise);
+    blocks = leaves;
+    choices = noise;
+    available = parameters.getOutputOts() - parameters.getReservedOts();
+    position = 0;
+    baseBlocks = Arrays.copyOfRange(leaves, 2 * available, leaves.length);
+    baseChoices = Arrays.copyOfRange(noise, available, noise.length);
+  }
+
+  /**
+   * Runs the consistency check of Ferret, verifying that the blocks received are consistent with
+   * a single noisy entry per block.
+   *
+   * <p>With a random challenge chi, the sum of {@code (v_i XOR w_i) * chi^(i + 1)} is {@code
+   * delta} times the sum of {@code chi^(j + 1)} over the noisy indices j. The receiver sends this
+   * sum of powers masked by the choice bits of 128 correlated OTs, which lets the sender compute
+   * its side of the equation without learning the noisy indices.</p>
+   */
+  private void check(long[] leaves, int[] noisyIndices, int checkOffset) {
+    long[] chi = tossChallenge();
+    long[] indices = new long[2];
+    for (int index : noisyIndices) {
+      long[] power = Gf128.power(chi, index + 1L);
+      indices[0] ^= power[0];
+      indices[1] ^= power[1];
+    }
+    long[] sum = new long[2];
+    long[] maskedIndices = indices.clone();
+    for (int i = Gf128.BITS - 1; i >= 0; i--) {
+      Gf128.multiplyByX(sum);
+      int ot = checkOffset + i;
+      sum[0] ^= baseBlocks[2 * ot];
+      sum[1] ^= baseBlocks[2 * ot + 1];
+      if (baseChoices[ot]) {
+        int word = i < Long.SIZE ? 1 : 0;
+        maskedIndices[word] ^= 1L << (i % Long.SIZE);
+      }
+    }
+    getNetwork().send(getResources().getOtherId(), Gf128.toBytes(maskedIndices));
+    long[] value = Gf128.evaluate(leaves, chi);
+    value[0] ^= sum[0];
+    value[1] ^= sum[1];
+    byte[] expected = getNetwork().receive(getResources().getOtherId());
+    if (!MessageDigest.isEqual(expected, hashCheck(value))) {
+      throw new MaliciousException("Consistency check failed for the receiver in silent OT");
+    }
+  }
+}
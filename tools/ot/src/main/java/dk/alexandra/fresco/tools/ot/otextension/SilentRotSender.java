@@ -0,0 +1,183 @@
+package dk.alexandra.fresco.tools.ot.otextension;
+
+import dk.alexandra.fresco.framework.MaliciousException;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Protocol class for the party acting as the sender in silent random OT, see {@link
+ * SilentRotFactory}.
+ */
+public class SilentRotSender extends SilentRotShared implements RotSender {
+
+  private final CoteSender coteSender;
+  private final long[] delta;
+  // The blocks of the correlated OTs of the current iteration
+  private long[] blocks;
+  // The blocks of the correlated OTs reserved for the next iteration
+  private long[] baseBlocks;
+  private int position;
+  private int available;
+
+  /**
+   * Constructs a sending party for an instance of the silent random OT protocol.
+   *
+   * @param resources The common OT extension resources
+   * @param network The network to use
+   * @param parameters The LPN parameters
+   */
+  public SilentRotSender(OtExtensionResourcePool resources, Network network,
+      SilentOtParameters parameters) {
+    super(resources, network, parameters);
+    this.coteSender = new CoteSender(resources, network);
+    this.delta = Gf128.fromBytes(coteSender.getDelta().toByteArray());
+  }
+
+  @Override
+  public Pair<List<StrictBitVector>, List<StrictBitVector>> extend(int size) {
+    if (size < 1) {
+      throw new IllegalArgumentException("The amount of OTs must be a positive integer");
+    }
+    long[] correlated = new long[2 * size];
+    int taken = 0;
+    while (taken < size) {
+      if (position == available) {
+        iterate();
+      }
+      int amount = Math.min(size - taken, available - position);
+      System.arraycopy(blocks, 2 * position, correlated, 2 * taken, 2 * amount);
+      position += amount;
+      taken += amount;
+    }
+    // The receiver sends the difference between its chosen and its random choices
+    byte[] correctionBytes = getNetwork().receive(getResources().getOtherId());
+    if (correctionBytes.length != (size + Byte.SIZE - 1) / Byte.SIZE) {
+      throw new MaliciousException("Received an unexpected amount of choice corrections");
+    }
+    StrictBitVector corrections = new StrictBitVector(correctionBytes);
+    List<StrictBitVector> zeroMessages = new ArrayList<>(size);
+    List<StrictBitVector> oneMessages = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      long high = correlated[2 * i];
+      long low = correlated[2 * i + 1];
+      StrictBitVector plain = hashOutput(i, high, low);
+      StrictBitVector shifted = hashOutput(i, high ^ delta[0], low ^ delta[1]);
+      boolean swap = corrections.getBit(i, false);
+      zeroMessages.add(swap ? shifted : plain);
+      oneMessages.add(swap ? plain : shifted);
+    }
+    advanceOutputs(size);
+    return new Pair<>(zeroMessages, oneMessages);
+  }
+
+  /**
+   * Runs an iteration of the protocol, producing a new batch of correlated OTs from the ones
+   * reserved by the previous iteration. The first iteration uses correlated OTs from the random OT
+   * extension.
+   */
+  private void iterate() {
+    SilentOtParameters parameters = getParameters();
+    if (baseBlocks == null) {
+      setup();
+      RotSenderImpl bootstrap = new RotSenderImpl(coteSender, getResources(), getNetwork());
+      baseBlocks = toBlocks(
+          bootstrap.extendCorrelated(roundUpToBytes(parameters.getReservedOts())),
+          parameters.getReservedOts());
+    }
+    int iteration = nextIteration();
+    int treeOffset = parameters.getBaseOts();
+    int depths = parameters.getTreeDepth();
+    int checkOffset = treeOffset + parameters.getNoiseWeight() * depths;
+    int blockSize = parameters.getBlockSize();
+    // The receiver sends the difference between the choice bits it needs to reach its noisy
+    // entries and the random choice bits of the correlated OTs of the trees
+    byte[] correctionBytes = getNetwork().receive(getResources().getOtherId());
+    if (correctionBytes.length
+        != roundUpToBytes(parameters.getNoiseWeight() * depths) / Byte.SIZE) {
+      throw new MaliciousException("Received an unexpected amount of tree corrections");
+    }
+    StrictBitVector corrections = new StrictBitVector(correctionBytes);
+    long[] leaves = new long[2 * parameters.getOutputOts()];
+    int treeMessageLength = Gf128.BYTES * (1 + 2 * depths);
+    ByteBuffer message = ByteBuffer.allocate(parameters.getNoiseWeight() * treeMessageLength);
+    for (int tree = 0; tree < parameters.getNoiseWeight(); tree++) {
+      byte[] level = new byte[Gf128.BYTES];
+      getResources().getRandomGenerator().nextBytes(level);
+      byte[] treeMessage = new byte[treeMessageLength];
+      for (int depth = 0; depth < depths; depth++) {
+        level = expand(level);
+        // Send the sums of the left and right children, such that the receiver learns one of them
+        // depending on its corrected choice bit in the correlated OT of this level
+        int ot = treeOffset + tree * depths + depth;
+        long tweak = ((long) iteration << Integer.SIZE) | ot;
+        long high = baseBlocks[2 * ot];
+        long low = baseBlocks[2 * ot + 1];
+        byte[] plain = hashBlock(tweak, high, low);
+        byte[] shifted = hashBlock(tweak, high ^ delta[0], low ^ delta[1]);
+        boolean swap = corrections.getBit(tree * depths + depth, false);
+        xor(treeMessage, (1 + 2 * depth) * Gf128.BYTES, sumChildren(level, false),
+            swap ? shifted : plain);
+        xor(treeMessage, (2 + 2 * depth) * Gf128.BYTES, sumChildren(level, true),
+            swap ? plain : shifted);
+      }
+      // Only the first blockSize leaves of the tree are used
+      ByteBuffer.wrap(level, 0, blockSize * Gf128.BYTES).asLongBuffer()
+          .get(leaves, 2 * tree * blockSize, 2 * blockSize);
+      // Send delta XOR the sum of the leaves, such that the receiver can compute the leaf it does
+      // not know plus delta
+      long[] correction = delta.clone();
+      for (int i = 2 * tree * blockSize; i < 2 * (tree + 1) * blockSize; i += 2) {
+        correction[0] ^= leaves[i];
+        correction[1] ^= leaves[i + 1];
+      }
+      System.arraycopy(Gf128.toBytes(correction), 0, treeMessage, 0, Gf128.BYTES);
+      message.put(treeMessage);
+    }
+    getNetwork().send(getResources().getOtherId(), message.array());
+    check(leaves, checkOffset);
+    encode(baseBlocks, null, leaves, null);
+    blocks = leaves;
+    available = parameters.getOutputOts() - parameters.getReservedOts();
+    position = 0;
+    baseBlocks = Arrays.copyOfRange(leaves, 2 * available, leaves.length);
+  }
+
+  /**
+   * Runs the consistency check of Ferret, which lets the receiver verify that the blocks it has
+   * received are consistent with a single noisy entry per block.
+   */
+  private void check(long[] leaves, int checkOffset) {
+    long[] chi = tossChallenge();
+    byte[] maskedIndices = getNetwork().receive(getResources().getOtherId());
+    if (maskedIndices.length != Gf128.BYTES) {
+      throw new MaliciousException("Received a malformed consistency check");
+    }
+    long[] indices = Gf128.fromBytes(maskedIndices);
+    long[] sum = new long[2];
+    for (int i = Gf128.BITS - 1; i >= 0; i--) {
+      Gf128.multiplyByX(sum);
+      int ot = checkOffset + i;
+      sum[0] ^= baseBlocks[2 * ot];
+      sum[1] ^= baseBlocks[2 * ot + 1];
+      if (Gf128.getBit(indices, i)) {
+        sum[0] ^= delta[0];
+        sum[1] ^= delta[1];
+      }
+    }
+    long[] value = Gf128.evaluate(leaves, chi);
+    value[0] ^= sum[0];
+    value[1] ^= sum[1];
+    getNetwork().send(getResources().getOtherId(), hashCheck(value));
+  }
+
+  private static void xor(byte[] target, int offset, byte[] first, byte[] second) {
+    for (int i = 0; i < first.length; i++) {
+      target[offset + i] = (byte) (first[i] ^ second[i]);
+    }
+  }
+}
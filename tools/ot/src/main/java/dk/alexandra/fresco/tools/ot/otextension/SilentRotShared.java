@@ -0,0 +1,306 @@
+package dk.alexandra.fresco.tools.ot.otextension;
+
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.AesCtrDrbgFactory;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.ExceptionConverter;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.tools.cointossing.CoinTossing;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Superclass containing the common variables and methods for the sender and receiver parties of
+ * silent random OT.
+ *
+ * <p>Correlated OTs are kept as 128 bit blocks, two longs each, in the order of {@link Gf128}.
+ * The sender holds a block {@code v} for each OT and the receiver holds a choice bit {@code u} and
+ * the block {@code w = v XOR u * delta}, where {@code delta} is the sender's global correlation.</p>
+ */
+public abstract class SilentRotShared {
+
+  private static final int PRG_KEY_BYTES = 16;
+  private static final int SEED_BYTES = 32;
+  private static final int CODE_CHUNK_SIZE = 1 << 16;
+  private final OtExtensionResourcePool resources;
+  private final Network network;
+  private final SilentOtParameters parameters;
+  private final MessageDigest digest;
+  private Cipher prgLeft;
+  private Cipher prgRight;
+  private byte[] codeSeed;
+  private int iteration;
+  private long outputCounter;
+
+  /**
+   * Constructs a silent random OT super-class.
+   *
+   * @param resources The common OT extension resources
+   * @param network The network to use
+   * @param parameters The LPN parameters
+   */
+  public SilentRotShared(OtExtensionResourcePool resources, Network network,
+      SilentOtParameters parameters) {
+    if (resources.getComputationalSecurityParameter() != Gf128.BITS) {
+      throw new IllegalArgumentException(
+          "Silent OT requires a computational security parameter of " + Gf128.BITS);
+    }
+    this.resources = resources;
+    this.network = network;
+    this.parameters = parameters;
+    this.digest = ExceptionConverter.safe(() -> MessageDigest.getInstance("SHA-256"),
+        "Configuration error, SHA-256 is needed for OT extension");
+  }
+
+  protected OtExtensionResourcePool getResources() {
+    return resources;
+  }
+
+  protected Network getNetwork() {
+    return network;
+  }
+
+  protected SilentOtParameters getParameters() {
+    return parameters;
+  }
+
+  /**
+   * Agrees on the public parameters of the protocol, that is, the keys of the PRG used to expand
+   * the trees and the seed of the LPN code. Must be called once before the first iteration.
+   */
+  protected void setup() {
+    byte[] seed = resources.getCoinTossing().toss(8 * (2 * PRG_KEY_BYTES + SEED_BYTES))
+        .toByteArray();
+    prgLeft = initCipher(Arrays.copyOfRange(seed, 0, PRG_KEY_BYTES));
+    prgRight = initCipher(Arrays.copyOfRange(seed, PRG_KEY_BYTES, 2 * PRG_KEY_BYTES));
+    codeSeed = Arrays.copyOfRange(seed, 2 * PRG_KEY_BYTES, seed.length);
+  }
+
+  private static Cipher initCipher(byte[] key) {
+    return ExceptionConverter.safe(() -> {
+      Cipher cipher = Cipher.getInstance("AES/ECB/NoPadding");
+      cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"));
+      return cipher;
+    }, "Configuration error, AES is needed for silent OT");
+  }
+
+  /**
+   * Starts a new iteration and returns its number.
+   */
+  protected int nextIteration() {
+    return iteration++;
+  }
+
+  /**
+   * Expands each node of a level of a GGM tree into two children, using the fixed-key AES based
+   * PRG {@code G(s) = (AES_0(s) XOR s, AES_1(s) XOR s)}.
+   *
+   * @param level the nodes of a level, 16 bytes each
+   * @return the nodes of the next level, where the children of a node are next to each other
+   */
+  protected byte[] expand(byte[] level) {
+    byte[] left = ExceptionConverter.safe(() -> prgLeft.doFinal(level),
+        "Could not expand the tree");
+    byte[] right = ExceptionConverter.safe(() -> prgRight.doFinal(level),
+        "Could not expand the tree");
+    byte[] children = new byte[2 * level.length];
+    for (int node = 0; node < level.length; node += Gf128.BYTES) {
+      for (int i = 0; i < Gf128.BYTES; i++) {
+        children[2 * node + i] = (byte) (left[node + i] ^ level[node + i]);
+        children[2 * node + Gf128.BYTES + i] = (byte) (right[node + i] ^ level[node + i]);
+      }
+    }
+    return children;
+  }
+
+  /**
+   * Computes the XOR of the nodes of a level which are left children, or right children.
+   *
+   * @param level the nodes of a level, 16 bytes each
+   * @param right whether to sum the right children
+   * @return the sum
+   */
+  protected static byte[] sumChildren(byte[] level, boolean right) {
+    byte[] sum = new byte[Gf128.BYTES];
+    for (int node = right ? Gf128.BYTES : 0; node < level.length; node += 2 * Gf128.BYTES) {
+      for (int i = 0; i < Gf128.BYTES; i++) {
+        sum[i] ^= level[node + i];
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * Multiplies the base OTs by the LPN code and adds the result to the noise, that is, each
+   * output is XOR'ed with {@link SilentOtParameters#getSparsity()} pseudorandomly chosen base OTs.
+   * Both parties choose the same base OTs in every iteration. The outputs are encoded in parallel
+   * chunks, each choosing its base OTs from a PRG derived from the code seed and the chunk.
+   *
+   * @param baseBlocks the blocks of the base OTs
+   * @param baseChoices the choice bits of the base OTs, or null for the sender
+   * @param blocks the blocks of the noise, which are updated to the blocks of the output
+   * @param choices the choice bits of the noise, which are updated to the choices of the output,
+   *        or null for the sender
+   */
+  protected void encode(long[] baseBlocks, boolean[] baseChoices, long[] blocks,
+      boolean[] choices) {
+    int outputs = blocks.length / 2;
+    int chunks = (outputs + CODE_CHUNK_SIZE - 1) / CODE_CHUNK_SIZE;
+    IntStream.range(0, chunks).parallel().forEach(chunk -> {
+      byte[] chunkSeed = ByteBuffer.allocate(codeSeed.length + Integer.BYTES)
+          .put(codeSeed).putInt(chunk).array();
+      IndexSampler sampler = new IndexSampler(AesCtrDrbgFactory.fromDerivedSeed(chunkSeed),
+          parameters.getBaseOts());
+      int end = Math.min(outputs, (chunk + 1) * CODE_CHUNK_SIZE);
+      for (int i = chunk * CODE_CHUNK_SIZE; i < end; i++) {
+        long high = blocks[2 * i];
+        long low = blocks[2 * i + 1];
+        boolean choice = choices != null && choices[i];
+        for (int j = 0; j < parameters.getSparsity(); j++) {
+          int index = sampler.next();
+          high ^= baseBlocks[2 * index];
+          low ^= baseBlocks[2 * index + 1];
+          if (choices != null) {
+            choice ^= baseChoices[index];
+          }
+        }
+        blocks[2 * i] = high;
+        blocks[2 * i + 1] = low;
+        if (choices != null) {
+          choices[i] = choice;
+        }
+      }
+    });
+  }
+
+  /**
+   * Hashes a block along with a tweak to 16 bytes, used to mask the messages of the OTs of the
+   * trees.
+   */
+  protected byte[] hashBlock(long tweak, long high, long low) {
+    digest.update(ByteBuffer.allocate(Long.BYTES + Gf128.BYTES)
+        .putLong(tweak).putLong(high).putLong(low).array());
+    return Arrays.copyOf(digest.digest(), Gf128.BYTES);
+  }
+
+  /**
+   * Hashes a 128 bit element of the consistency check.
+   */
+  protected byte[] hashCheck(long[] element) {
+    return digest.digest(Gf128.toBytes(element));
+  }
+
+  /**
+   * Hashes an output correlated OT to a random OT message, removing the correlation. The outputs
+   * are numbered consecutively, such that no two outputs are hashed with the same index.
+   *
+   * @param index the index of the output among the outputs of the current call
+   * @param high the most significant half of the block
+   * @param low the least significant half of the block
+   * @return the random OT message
+   */
+  protected StrictBitVector hashOutput(int index, long high, long low) {
+    digest.update(ByteBuffer.allocate(Long.BYTES + Gf128.BYTES)
+        .putLong(outputCounter + index).putLong(high).putLong(low).array());
+    return new StrictBitVector(digest.digest());
+  }
+
+  /**
+   * Marks a number of outputs as hashed, such that their indices are not reused.
+   */
+  protected void advanceOutputs(int amount) {
+    outputCounter += amount;
+  }
+
+  /**
+   * Agrees on a fresh random challenge for the consistency check. This uses a new instance of coin
+   * tossing, such that the challenge is not known to any party before it has sent the messages
+   * being checked.
+   *
+   * @return the challenge
+   */
+  protected long[] tossChallenge() {
+    CoinTossing ct = new CoinTossing(resources.getMyId(), resources.getOtherId(),
+        resources.getRandomGenerator());
+    ct.initialize(network);
+    return Gf128.fromBytes(ct.toss(Gf128.BITS).toByteArray());
+  }
+
+  /**
+   * Samples the position of the noisy entry within each block uniformly at random.
+   *
+   * @return the positions, one for each block
+   */
+  protected int[] samplePositions() {
+    IndexSampler sampler =
+        new IndexSampler(resources.getRandomGenerator(), parameters.getBlockSize());
+    int[] positions = new int[parameters.getNoiseWeight()];
+    for (int i = 0; i < positions.length; i++) {
+      positions[i] = sampler.next();
+    }
+    return positions;
+  }
+
+  /**
+   * Converts a list of 128 bit vectors to blocks.
+   */
+  protected static long[] toBlocks(List<StrictBitVector> vectors, int size) {
+    long[] blocks = new long[2 * size];
+    for (int i = 0; i < size; i++) {
+      long[] block = Gf128.fromBytes(vectors.get(i).toByteArray());
+      blocks[2 * i] = block[0];
+      blocks[2 * i + 1] = block[1];
+    }
+    return blocks;
+  }
+
+  /**
+   * Rounds an amount of bits up to a whole amount of bytes, as needed by the random OT extension.
+   */
+  protected static int roundUpToBytes(int bits) {
+    return (bits + Byte.SIZE - 1) / Byte.SIZE * Byte.SIZE;
+  }
+
+  /**
+   * Samples uniformly random indices from a DRBG, using Lemire's multiply-and-shift method with
+   * rejection on 32 bit values.
+   */
+  private static class IndexSampler {
+
+    private static final int BUFFER_SIZE = 1 << 12;
+    private static final long MASK = 0xFFFFFFFFL;
+    private final Drbg drbg;
+    private final long bound;
+    private final long threshold;
+    private final long[] buffer;
+    private int position;
+
+    IndexSampler(Drbg drbg, int bound) {
+      this.drbg = drbg;
+      this.bound = bound;
+      this.threshold = (1L << Integer.SIZE) % bound;
+      this.buffer = new long[BUFFER_SIZE];
+      this.position = 2 * BUFFER_SIZE;
+    }
+
+    int next() {
+      long product;
+      do {
+        if (position == 2 * BUFFER_SIZE) {
+          drbg.nextLongs(buffer);
+          position = 0;
+        }
+        long word = buffer[position / 2];
+        long value = (position % 2 == 0 ? word : word >>> Integer.SIZE) & MASK;
+        position++;
+        product = value * bound;
+      } while ((product & MASK) < threshold);
+      return (int) (product >>> Integer.SIZE);
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package dk.alexandra.fresco.tools.ot.otextension;
+
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+
+/**
+ * The Walsh-Hadamard code of a length {@code 2^m}, which encodes an {@code m} bit message {@code
+ * r} as the codeword whose {@code j}'th bit is the inner product of {@code r} and {@code j}. It has
+ * {@code 2^m} codewords of pairwise Hamming distance {@code 2^(m-1)}.
+ */
+final class WalshHadamardCode {
+
+  private final int length;
+
+  /**
+   * Constructs the code of a given length.
+   *
+   * @param length the length of the codewords, which must be a power of two and at least 8
+   */
+  WalshHadamardCode(int length) {
+    if (length < Byte.SIZE || (length & (length - 1)) != 0) {
+      throw new IllegalArgumentException("The length of the code must be a power of two of at "
+          + "least 8");
+    }
+    this.length = length;
+  }
+
+  /**
+   * Returns the length of the codewords, which is also the amount of codewords.
+   */
+  int getLength() {
+    return length;
+  }
+
+  /**
+   * Encodes a message, where bit {@code j} of the codeword is the one read by {@code
+   * getBit(j, false)}.
+   *
+   * @param message the message, between 0 and the length of the code
+   * @return a new bit vector holding the codeword
+   */
+  StrictBitVector encode(int message) {
+    if (message < 0 || message >= length) {
+      throw new IllegalArgumentException("The message must be between 0 and " + length);
+    }
+    StrictBitVector codeword = new StrictBitVector(length);
+    for (int j = 0; j < length; j++) {
+      codeword.setBit(j, Integer.bitCount(message & j) % 2 == 1, false);
+    }
+    return codeword;
+  }
+}
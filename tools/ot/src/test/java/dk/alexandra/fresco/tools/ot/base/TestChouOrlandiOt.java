@@ -0,0 +1,233 @@
+package dk.alexandra.fresco.tools.ot.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import dk.alexandra.fresco.framework.MaliciousException;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.network.socket.SocketNetwork;
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.DrngImpl;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.tools.helper.HelperForTests;
+import dk.alexandra.fresco.tools.helper.RuntimeForTests;
+import dk.alexandra.fresco.tools.ot.otextension.CheatingNetworkDecorator;
+import dk.alexandra.fresco.tools.ot.otextension.RotList;
+import java.io.Closeable;
+import java.math.BigInteger;
+import java.security.spec.ECPoint;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestChouOrlandiOt {
+
+  private RuntimeForTests testRuntime;
+  private final int messageLength = 1024;
+
+  @Before
+  public void initializeRuntime() {
+    this.testRuntime = new RuntimeForTests();
+  }
+
+  @After
+  public void shutdown() {
+    testRuntime.shutdown();
+  }
+
+  private static CheatingNetworkDecorator createNetwork(int myId) {
+    return new CheatingNetworkDecorator(new SocketNetwork(
+        RuntimeForTests.defaultNetworkConfiguration(myId, Arrays.asList(1, 2))));
+  }
+
+  private List<Pair<StrictBitVector, StrictBitVector>> createMessages(int amount, Drbg rand) {
+    List<Pair<StrictBitVector, StrictBitVector>> messages = new ArrayList<>(amount);
+    for (int i = 0; i < amount; i++) {
+      messages.add(new Pair<>(new StrictBitVector(messageLength, rand),
+          new StrictBitVector(messageLength, rand)));
+    }
+    return messages;
+  }
+
+  private List<Pair<StrictBitVector, StrictBitVector>> otSend(int amount, boolean batched,
+      boolean cheat) throws Exception {
+    CheatingNetworkDecorator network = createNetwork(1);
+    try {
+      Drbg rand = new AesCtrDrbg(HelperForTests.seedOne);
+      Ot otSender = new ChouOrlandiOt(2, rand, network);
+      List<Pair<StrictBitVector, StrictBitVector>> messages = createMessages(amount, rand);
+      if (cheat) {
+        // corrupt the public key
+        network.cheatInNextMessage(0, 20);
+      }
+      if (batched) {
+        otSender.send(messages);
+      } else {
+        for (Pair<StrictBitVector, StrictBitVector> pair : messages) {
+          otSender.send(pair.getFirst(), pair.getSecond());
+        }
+      }
+      return messages;
+    } finally {
+      ((Closeable) network).close();
+    }
+  }
+
+  private List<StrictBitVector> otReceive(StrictBitVector choices, boolean batched)
+      throws Exception {
+    Network network = createNetwork(2);
+    try {
+      Drbg rand = new AesCtrDrbg(HelperForTests.seedTwo);
+      Ot otReceiver = new ChouOrlandiOt(1, rand, network);
+      if (batched) {
+        return otReceiver.receive(choices);
+      }
+      List<StrictBitVector> messages = new ArrayList<>(choices.getSize());
+      for (int i = 0; i < choices.getSize(); i++) {
+        messages.add(otReceiver.receive(choices.getBit(i, false)));
+      }
+      return messages;
+    } finally {
+      ((Closeable) network).close();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void testOt(boolean batched) {
+    int amount = 128;
+    StrictBitVector choices = new StrictBitVector(amount, new AesCtrDrbg(HelperForTests.seedThree));
+    Callable<List<?>> partyOneOt = () -> otSend(amount, batched, false);
+    Callable<List<?>> partyTwoOt = () -> otReceive(choices, batched);
+    List<List<?>> results = testRuntime.runPerPartyTasks(Arrays.asList(partyOneOt, partyTwoOt));
+    assertEquals(amount, results.get(0).size());
+    assertEquals(amount, results.get(1).size());
+    for (int i = 0; i < amount; i++) {
+      Pair<StrictBitVector, StrictBitVector> sent =
+          (Pair<StrictBitVector, StrictBitVector>) results.get(0).get(i);
+      StrictBitVector received = (StrictBitVector) results.get(1).get(i);
+      if (choices.getBit(i, false)) {
+        assertEquals(sent.getSecond(), received);
+        assertNotEquals(sent.getFirst(), received);
+      } else {
+        assertEquals(sent.getFirst(), received);
+        assertNotEquals(sent.getSecond(), received);
+      }
+    }
+  }
+
+  @Test
+  public void testBatchedOt() {
+    testOt(true);
+  }
+
+  @Test
+  public void testSingleOts() {
+    testOt(false);
+  }
+
+  @Test
+  public void testRotList() {
+    Callable<RotList> partyOne = () -> {
+      Network network = createNetwork(1);
+      try {
+        RotList rotList = new RotList(new AesCtrDrbg(HelperForTests.seedOne), 128);
+        Ot ot = new ChouOrlandiOt(2, new AesCtrDrbg(HelperForTests.seedThree), network);
+        rotList.send(ot);
+        rotList.receive(ot);
+        return rotList;
+      } finally {
+        ((Closeable) network).close();
+      }
+    };
+    Callable<RotList> partyTwo = () -> {
+      Network network = createNetwork(2);
+      try {
+        RotList rotList = new RotList(new AesCtrDrbg(HelperForTests.seedTwo), 128);
+        Ot ot = new ChouOrlandiOt(1, new AesCtrDrbg(new byte[32]), network);
+        rotList.receive(ot);
+        rotList.send(ot);
+        return rotList;
+      } finally {
+        ((Closeable) network).close();
+      }
+    };
+    List<RotList> results = testRuntime.runPerPartyTasks(Arrays.asList(partyOne, partyTwo));
+    for (int sender = 0; sender < 2; sender++) {
+      RotList sending = results.get(sender);
+      RotList receiving = results.get(1 - sender);
+      for (int i = 0; i < 128; i++) {
+        Pair<StrictBitVector, StrictBitVector> pair = sending.getSentMessages().get(i);
+        StrictBitVector expected =
+            receiving.getChoices().getBit(i, false) ? pair.getSecond() : pair.getFirst();
+        assertEquals(expected, receiving.getLearnedMessages().get(i));
+      }
+    }
+  }
+
+  @Test
+  public void testCheatingSender() {
+    StrictBitVector choices = new StrictBitVector(8, new AesCtrDrbg(HelperForTests.seedThree));
+    Callable<List<?>> partyOneOt = () -> otSend(8, true, true);
+    Callable<List<?>> partyTwoOt = () -> otReceive(choices, true);
+    List<Object> results = new ArrayList<>(
+        testRuntime.runPerPartyTasks(Arrays.asList(partyOneOt, partyTwoOt)));
+    // the receiver rejects the public key which is no longer a point on the curve
+    assertTrue(results.get(1) instanceof MaliciousException);
+  }
+
+  @Test
+  public void testGroup() {
+    EcGroup group = EcGroup.secp256r1();
+    DrngImpl rand = new DrngImpl(new AesCtrDrbg(HelperForTests.seedOne));
+    BigInteger first = group.randomScalar(rand);
+    BigInteger second = group.randomScalar(rand);
+    ECPoint generator = group.getGenerator();
+    // (a + b) G = aG + bG
+    assertEquals(group.multiply(generator, first.add(second)),
+        group.add(group.multiply(generator, first), group.multiply(generator, second)));
+    // a (bG) = b (aG)
+    assertEquals(group.multiply(group.multiply(generator, second), first),
+        group.multiply(group.multiply(generator, first), second));
+    ECPoint point = group.multiply(generator, first);
+    assertEquals(point, group.add(point, group.add(point, group.negate(point))));
+    assertEquals(group.multiply(point, BigInteger.valueOf(2)), group.add(point, point));
+    assertEquals(ECPoint.POINT_INFINITY, group.add(point, group.negate(point)));
+    assertEquals(point, group.decode(group.encode(point)));
+  }
+
+  @Test
+  public void testGroupMultiplyEdgeCases() {
+    EcGroup group = EcGroup.secp256r1();
+    BigInteger order = new BigInteger(
+        "FFFFFFFF00000000FFFFFFFFFFFFFFFFBCE6FAADA7179E84F3B9CAC2FC632551", 16);
+    ECPoint generator = group.getGenerator();
+    ECPoint sum = ECPoint.POINT_INFINITY;
+    for (int i = 0; i < 5; i++) {
+      assertEquals(sum, group.multiply(generator, BigInteger.valueOf(i)));
+      sum = group.add(sum, generator);
+    }
+    assertEquals(ECPoint.POINT_INFINITY, group.multiply(generator, order));
+    assertEquals(group.negate(generator),
+        group.multiply(generator, order.subtract(BigInteger.ONE)));
+    BigInteger large = order.multiply(BigInteger.valueOf(5)).add(BigInteger.valueOf(3));
+    assertEquals(group.multiply(generator, BigInteger.valueOf(3)),
+        group.multiply(generator, large));
+    assertEquals(ECPoint.POINT_INFINITY,
+        group.multiply(ECPoint.POINT_INFINITY, BigInteger.valueOf(7)));
+  }
+
+  @Test(expected = MaliciousException.class)
+  public void testDecodeInvalidPoint() {
+    EcGroup group = EcGroup.secp256r1();
+    byte[] encoding = group.encode(group.getGenerator());
+    encoding[encoding.length - 1] ^= 1;
+    group.decode(encoding);
+  }
+}
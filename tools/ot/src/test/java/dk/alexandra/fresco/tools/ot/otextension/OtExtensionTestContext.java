@@ -35,11 +35,30 @@ public class OtExtensionTestContext {
    */
   public OtExtensionTestContext(int myId, int otherId, int kbitLength,
       int lambdaSecurityParam) {
+    this(myId, otherId, kbitLength, lambdaSecurityParam, kbitLength);
+  }
+
+  /**
+   * Initialize the test context using specific parameters and a specific amount of seed OTs.
+   *
+   * @param myId
+   *          The ID of the calling party
+   * @param otherId
+   *          The ID of the other party
+   * @param kbitLength
+   *          The computational security parameter
+   * @param lambdaSecurityParam
+   *          The statistical security parameter
+   * @param seedOtAmount
+   *          The amount of seed OTs
+   */
+  public OtExtensionTestContext(int myId, int otherId, int kbitLength,
+      int lambdaSecurityParam, int seedOtAmount) {
     this.network = new CheatingNetworkDecorator(
         new SocketNetwork(RuntimeForTests.defaultNetworkConfiguration(myId, Arrays.asList(1, 2))));
     DummyOt dummyOt = new DummyOt(otherId, network);
     Drbg rand = new AesCtrDrbg(HelperForTests.seedOne);
-    this.seedOts = new RotList(rand, kbitLength);
+    this.seedOts = new RotList(rand, seedOtAmount);
     if (myId < otherId) {
       this.seedOts.send(dummyOt);
       this.seedOts.receive(dummyOt);
@@ -167,6 +167,61 @@ public class TestFunctionalBristolOt {
     return messages;
   }
 
+  private List<?> bristolRotBatchSendInChunks(OtExtensionTestContext ctx, int batchSize,
+      int maxChunkSize, int chunkSize) {
+    OtExtensionResourcePool resources = ctx.createResources(1);
+    BristolRotBatch rotBatchSender =
+        new BristolRotBatch(new RotFactory(resources, ctx.getNetwork()),
+            resources.getComputationalSecurityParameter(), resources.getLambdaSecurityParam(),
+            maxChunkSize);
+    List<Pair<StrictBitVector, StrictBitVector>> messages = new ArrayList<>();
+    List<Integer> chunkSizes = new ArrayList<>();
+    rotBatchSender.send(batchSize, messageLength, chunkSize, chunk -> {
+      chunkSizes.add(chunk.size());
+      messages.addAll(chunk);
+    });
+    return Arrays.asList(messages, chunkSizes);
+  }
+
+  private List<StrictBitVector> bristolRotBatchReceiveInChunks(OtExtensionTestContext ctx,
+      StrictBitVector choices, int maxChunkSize, int chunkSize) {
+    OtExtensionResourcePool resources = ctx.createResources(1);
+    BristolRotBatch rotBatchReceiver =
+        new BristolRotBatch(new RotFactory(resources, ctx.getNetwork()),
+            resources.getComputationalSecurityParameter(), resources.getLambdaSecurityParam(),
+            maxChunkSize);
+    List<StrictBitVector> messages = new ArrayList<>();
+    rotBatchReceiver.receive(choices, messageLength, chunkSize, messages::addAll);
+    return messages;
+  }
+
+  /**
+   * Verify that OTs constructed in chunks, smaller than the requested chunks, are correct and
+   * handed to the consumer in chunks of the smallest of the two sizes.
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testBristolRotInChunks() {
+    int extendSize = 1000;
+    Callable<List<?>> partyOneExtend =
+        () -> bristolRotBatchSendInChunks(senderContext, extendSize, 320, 400);
+    Drbg rand = new AesCtrDrbg(HelperForTests.seedThree);
+    StrictBitVector choices = new StrictBitVector(extendSize, rand);
+    Callable<List<?>> partyTwoExtend =
+        () -> bristolRotBatchReceiveInChunks(receiverContext, choices, 320, 400);
+    List<List<?>> extendResults =
+        testRuntime.runPerPartyTasks(Arrays.asList(partyOneExtend, partyTwoExtend));
+    List<?> senderResults = extendResults.get(0);
+    HelperForTests.verifyOts((List<Pair<StrictBitVector, StrictBitVector>>) senderResults.get(0),
+        (List<StrictBitVector>) extendResults.get(1), choices);
+    assertEquals(Arrays.asList(320, 320, 320, 40), senderResults.get(1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBristolRotIllegalChunkSize() {
+    new BristolRotBatch(null, kbitLength, lambdaSecurityParam, 100);
+  }
+
   @SuppressWarnings("unchecked")
   @Test
   public void testBristolRotTwice() {
@@ -0,0 +1,162 @@
+package dk.alexandra.fresco.tools.ot.otextension;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.tools.helper.HelperForTests;
+import dk.alexandra.fresco.tools.helper.RuntimeForTests;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestFunctionalOneOfNRot {
+  private RuntimeForTests testRuntime;
+  private OneOfNRotSender rotSender;
+  private Network senderNetwork;
+  private OneOfNRotReceiver rotReceiver;
+  private Network receiverNetwork;
+  private int kbitLength = 128;
+  private int lambdaSecurityParam = 64;
+  private int messages = 4;
+
+  /**
+   * Initializes the test runtime and constructs a 1-out-of-4 random OT sender and receiver.
+   */
+  @Before
+  public void initializeRuntime() {
+    this.testRuntime = new RuntimeForTests();
+    Callable<List<?>> partyOneTask = () -> setup(1, 2);
+    Callable<List<?>> partyTwoTask = () -> setup(2, 1);
+    List<List<?>> results = testRuntime
+        .runPerPartyTasks(Arrays.asList(partyOneTask, partyTwoTask));
+    rotSender = ((OneOfNRotFactory) results.get(0).get(0)).createSender();
+    senderNetwork = (Network) results.get(0).get(1);
+    rotReceiver = ((OneOfNRotFactory) results.get(1).get(0)).createReceiver();
+    receiverNetwork = (Network) results.get(1).get(1);
+  }
+
+  /**
+   * Shuts down the network and test runtime.
+   *
+   * @throws IOException
+   *           Thrown if the network fails to shut down
+   */
+  @After
+  public void shutdown() throws IOException {
+    ((Closeable) senderNetwork).close();
+    ((Closeable) receiverNetwork).close();
+    testRuntime.shutdown();
+  }
+
+  private List<?> setup(int myId, int otherId) {
+    OtExtensionTestContext ctx = new OtExtensionTestContext(myId, otherId, kbitLength,
+        lambdaSecurityParam, 2 * kbitLength);
+    OtExtensionResourcePool resources = ctx.createResources(1);
+    Network network = ctx.getNetwork();
+    List<Object> res = new ArrayList<>(2);
+    res.add(new OneOfNRotFactory(resources, network, messages));
+    res.add(network);
+    return res;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void runExtension(int size, byte[] seed) {
+    byte[] randomBytes = new byte[size];
+    new AesCtrDrbg(seed).nextBytes(randomBytes);
+    int[] choices = new int[size];
+    for (int i = 0; i < size; i++) {
+      choices[i] = Byte.toUnsignedInt(randomBytes[i]) % messages;
+    }
+    Callable<List<?>> partyOneExtend = () -> rotSender.extend(size);
+    Callable<List<?>> partyTwoExtend = () -> rotReceiver.extend(choices);
+    List<List<?>> extendResults = testRuntime.runPerPartyTasks(Arrays.asList(
+        partyOneExtend, partyTwoExtend));
+    List<List<StrictBitVector>> senderResults = (List<List<StrictBitVector>>) extendResults.get(0);
+    List<StrictBitVector> receiverResults = (List<StrictBitVector>) extendResults.get(1);
+    assertEquals(size, senderResults.size());
+    assertEquals(size, receiverResults.size());
+    for (int i = 0; i < size; i++) {
+      for (int r = 0; r < messages; r++) {
+        if (r == choices[i]) {
+          assertEquals(senderResults.get(i).get(r), receiverResults.get(i));
+        } else {
+          assertNotEquals(senderResults.get(i).get(r), receiverResults.get(i));
+        }
+      }
+    }
+  }
+
+  /***** POSITIVE TESTS. *****/
+
+  @Test
+  public void testOneOfFourRot() {
+    runExtension(1000, HelperForTests.seedThree);
+  }
+
+  /**
+   * Verify that several extensions give correct and distinct OTs.
+   */
+  @Test
+  public void testSeveralExtensions() {
+    runExtension(3, HelperForTests.seedTwo);
+    runExtension(256, HelperForTests.seedThree);
+  }
+
+  @Test
+  public void testCodeDistance() {
+    WalshHadamardCode code = new WalshHadamardCode(2 * kbitLength);
+    for (int r = 1; r < code.getLength(); r++) {
+      StrictBitVector difference = code.encode(0);
+      difference.xor(code.encode(r));
+      int distance = 0;
+      for (int j = 0; j < code.getLength(); j++) {
+        distance += difference.getBit(j, false) ? 1 : 0;
+      }
+      assertEquals(kbitLength, distance);
+    }
+  }
+
+  /***** NEGATIVE TESTS. *****/
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooFewSeedOts() {
+    new OneOfNRotFactory(createResourcesWithoutNetwork(kbitLength), null, messages)
+        .createSender().extend(8);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooManyMessages() {
+    new OneOfNRotSenderImpl(null, createResourcesWithoutNetwork(2 * kbitLength),
+        2 * kbitLength + 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalChoice() {
+    rotReceiver.extend(new int[]{0, messages});
+  }
+
+  private OtExtensionResourcePool createResourcesWithoutNetwork(int seedOtAmount) {
+    Drbg rand = new AesCtrDrbg(HelperForTests.seedOne);
+    List<Pair<StrictBitVector, StrictBitVector>> sent = new ArrayList<>(seedOtAmount);
+    List<StrictBitVector> learned = new ArrayList<>(seedOtAmount);
+    for (int i = 0; i < seedOtAmount; i++) {
+      sent.add(new Pair<>(new StrictBitVector(kbitLength, rand),
+          new StrictBitVector(kbitLength, rand)));
+      learned.add(new StrictBitVector(kbitLength, rand));
+    }
+    RotList seedOts = RotList.restore(sent, learned, new StrictBitVector(seedOtAmount, rand));
+    return new OtExtensionResourcePoolImpl(1, 2, kbitLength, lambdaSecurityParam, 1, rand, null,
+        seedOts);
+  }
+}
@@ -176,6 +176,49 @@ public class TestFunctionalOtExtension {
     HelperForTests.verifyOts(senderResults, receiverResults, choices);
   }
 
+  private List<Pair<StrictBitVector, StrictBitVector>> extendRotSenderInChunks(int size,
+      int chunkSize) {
+    RotSender rotSender = new RotSenderImpl(coteSender.getSender(),
+        senderResources, senderNetwork);
+    List<Pair<StrictBitVector, StrictBitVector>> res = new ArrayList<>(size);
+    rotSender.extend(size, chunkSize, messages -> {
+      for (int i = 0; i < messages.getFirst().size(); i++) {
+        res.add(new Pair<>(messages.getFirst().get(i), messages.getSecond().get(i)));
+      }
+    });
+    return res;
+  }
+
+  private List<StrictBitVector> extendRotReceiverInChunks(StrictBitVector choices,
+      int chunkSize) {
+    RotReceiver rotReceiver = new RotReceiverImpl(coteReceiver.getReceiver(),
+        receiverResources, receiverNetwork);
+    List<StrictBitVector> res = new ArrayList<>(choices.getSize());
+    rotReceiver.extend(choices, chunkSize, res::addAll);
+    return res;
+  }
+
+  /**
+   * Verify that random OTs constructed in chunks are correct.
+   */
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testRotInChunks() {
+    int extendSize = 1800;
+    int chunkSize = 512;
+    Callable<List<?>> partyOneExtend = () -> extendRotSenderInChunks(extendSize, chunkSize);
+    StrictBitVector choices = new StrictBitVector(extendSize,
+        new AesCtrDrbg(HelperForTests.seedThree));
+    Callable<List<?>> partyTwoExtend = () -> extendRotReceiverInChunks(choices, chunkSize);
+    List<List<?>> extendResults = testRuntime.runPerPartyTasks(Arrays.asList(
+        partyOneExtend, partyTwoExtend));
+    List<Pair<StrictBitVector, StrictBitVector>> senderResults =
+        (List<Pair<StrictBitVector, StrictBitVector>>) extendResults.get(0);
+    List<StrictBitVector> receiverResults = (List<StrictBitVector>) extendResults
+        .get(1);
+    HelperForTests.verifyOts(senderResults, receiverResults, choices);
+  }
+
   /***** NEGATIVE TESTS. *****/
 
   /**
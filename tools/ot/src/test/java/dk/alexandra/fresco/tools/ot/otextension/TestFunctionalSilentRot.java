@@ -0,0 +1,164 @@
+package dk.alexandra.fresco.tools.ot.otextension;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import dk.alexandra.fresco.framework.MaliciousException;
+import dk.alexandra.fresco.framework.network.Network;
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.util.Pair;
+import dk.alexandra.fresco.framework.util.StrictBitVector;
+import dk.alexandra.fresco.tools.helper.HelperForTests;
+import dk.alexandra.fresco.tools.helper.RuntimeForTests;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestFunctionalSilentRot {
+  private RuntimeForTests testRuntime;
+  private RotSender rotSender;
+  private Network senderNetwork;
+  private RotReceiver rotReceiver;
+  private Network receiverNetwork;
+  private int kbitLength = 128;
+  private int lambdaSecurityParam = 64;
+  // Small and insecure parameters, yielding 2000 - 448 = 1552 OTs per iteration, with blocks that
+  // are not a power of two such that only part of each tree is used
+  private SilentOtParameters parameters = new SilentOtParameters(256, 8, 250, 10);
+
+  /**
+   * Initializes the test runtime and constructs a silent random OT sender and receiver.
+   */
+  @Before
+  public void initializeRuntime() {
+    this.testRuntime = new RuntimeForTests();
+    Callable<List<?>> partyOneTask = () -> setup(1, 2);
+    Callable<List<?>> partyTwoTask = () -> setup(2, 1);
+    List<List<?>> results = testRuntime
+        .runPerPartyTasks(Arrays.asList(partyOneTask, partyTwoTask));
+    rotSender = ((RotFactory) results.get(0).get(0)).createSender();
+    senderNetwork = (Network) results.get(0).get(1);
+    rotReceiver = ((RotFactory) results.get(1).get(0)).createReceiver();
+    receiverNetwork = (Network) results.get(1).get(1);
+  }
+
+  /**
+   * Shuts down the network and test runtime.
+   *
+   * @throws IOException
+   *           Thrown if the network fails to shut down
+   */
+  @After
+  public void shutdown() throws IOException {
+    ((Closeable) senderNetwork).close();
+    ((Closeable) receiverNetwork).close();
+    testRuntime.shutdown();
+  }
+
+  private List<?> setup(int myId, int otherId) {
+    OtExtensionTestContext ctx = new OtExtensionTestContext(myId, otherId, kbitLength,
+        lambdaSecurityParam);
+    OtExtensionResourcePool resources = ctx.createResources(1);
+    Network network = ctx.getNetwork();
+    List<Object> res = new ArrayList<>(2);
+    res.add(new SilentRotFactory(resources, network, parameters));
+    res.add(network);
+    return res;
+  }
+
+  private List<Pair<StrictBitVector, StrictBitVector>> extendSender(int size) {
+    Pair<List<StrictBitVector>, List<StrictBitVector>> messages = rotSender.extend(size);
+    List<Pair<StrictBitVector, StrictBitVector>> res = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      res.add(new Pair<>(messages.getFirst().get(i), messages.getSecond().get(i)));
+    }
+    return res;
+  }
+
+  private List<StrictBitVector> extendReceiver(StrictBitVector choices) throws IOException {
+    try {
+      return rotReceiver.extend(choices);
+    } catch (MaliciousException e) {
+      // Let the sender stop waiting for the receiver
+      ((Closeable) receiverNetwork).close();
+      throw e;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void runExtension(int size, byte[] seed) {
+    Callable<List<?>> partyOneExtend = () -> extendSender(size);
+    StrictBitVector choices = new StrictBitVector(size, new AesCtrDrbg(seed));
+    Callable<List<?>> partyTwoExtend = () -> extendReceiver(choices);
+    List<List<?>> extendResults = testRuntime.runPerPartyTasks(Arrays.asList(
+        partyOneExtend, partyTwoExtend));
+    List<Pair<StrictBitVector, StrictBitVector>> senderResults =
+        (List<Pair<StrictBitVector, StrictBitVector>>) extendResults.get(0);
+    List<StrictBitVector> receiverResults = (List<StrictBitVector>) extendResults.get(1);
+    HelperForTests.verifyOts(senderResults, receiverResults, choices);
+  }
+
+  /***** POSITIVE TESTS. *****/
+
+  @Test
+  public void testSilentRot() {
+    runExtension(1024, HelperForTests.seedThree);
+  }
+
+  /**
+   * Verify that extensions spanning several iterations of the protocol give correct OTs.
+   */
+  @Test
+  public void testSeveralIterations() {
+    runExtension(1000, HelperForTests.seedTwo);
+    runExtension(4000, HelperForTests.seedThree);
+  }
+
+  /***** NEGATIVE TESTS. *****/
+
+  /**
+   * Test that a sender who flips a bit in the correction of the leaves of a tree makes the
+   * consistency check of the receiver fail.
+   */
+  @Test
+  public void testCheatingInSilentRot() {
+    // Use up the first iteration, such that the next message of the sender is the messages of the
+    // trees of the second iteration
+    runExtension(1552, HelperForTests.seedThree);
+    ((CheatingNetworkDecorator) senderNetwork).cheatInNextMessage(0, 0);
+    Callable<List<?>> partyOneExtend = () -> extendSender(8);
+    StrictBitVector choices = new StrictBitVector(8, new AesCtrDrbg(HelperForTests.seedTwo));
+    Callable<List<?>> partyTwoExtend = () -> extendReceiver(choices);
+    List<?> extendResults = testRuntime
+        .runPerPartyTasks(Arrays.asList(partyOneExtend, partyTwoExtend));
+    assertTrue(extendResults.get(1) instanceof MaliciousException);
+    assertEquals("Consistency check failed for the receiver in silent OT",
+        ((MaliciousException) extendResults.get(1)).getMessage());
+  }
+
+  @Test
+  public void testParameters() {
+    SilentOtParameters defaults = SilentOtParameters.defaultParameters();
+    assertEquals(10_168_320, defaults.getOutputOts());
+    assertEquals(13, defaults.getTreeDepth());
+    assertEquals(8, parameters.getTreeDepth());
+    assertEquals(13, new SilentOtParameters(256, 8, 8192, 10).getTreeDepth());
+    assertEquals(14, new SilentOtParameters(256, 8, 8193, 10).getTreeDepth());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooFewOutputs() {
+    new SilentOtParameters(2048, 8, 256, 10);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBlockSizeTooSmall() {
+    new SilentOtParameters(1, 8, 1, 10);
+  }
+}
@@ -0,0 +1,70 @@
+package dk.alexandra.fresco.tools.ot.otextension;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import dk.alexandra.fresco.framework.util.AesCtrDrbg;
+import dk.alexandra.fresco.framework.util.Drbg;
+import dk.alexandra.fresco.tools.helper.HelperForTests;
+import org.junit.Test;
+
+public class TestGf128 {
+
+  private final Drbg rand = new AesCtrDrbg(HelperForTests.seedOne);
+
+  private long[] randomElement() {
+    byte[] bytes = new byte[Gf128.BYTES];
+    rand.nextBytes(bytes);
+    return Gf128.fromBytes(bytes);
+  }
+
+  @Test
+  public void testReduction() {
+    // x^127 * x = x^128 = x^7 + x^2 + x + 1
+    long[] res = Gf128.multiply(new long[]{Long.MIN_VALUE, 0}, new long[]{0, 2});
+    assertArrayEquals(new long[]{0, 0x87}, res);
+  }
+
+  @Test
+  public void testMultiplyByOne() {
+    long[] element = randomElement();
+    assertArrayEquals(element, Gf128.multiply(element, new long[]{0, 1}));
+    assertArrayEquals(element, Gf128.multiply(new long[]{0, 1}, element));
+  }
+
+  @Test
+  public void testMultiplyIsCommutativeAndDistributive() {
+    long[] first = randomElement();
+    long[] second = randomElement();
+    long[] third = randomElement();
+    assertArrayEquals(Gf128.multiply(first, second), Gf128.multiply(second, first));
+    long[] sum = new long[]{second[0] ^ third[0], second[1] ^ third[1]};
+    long[] left = Gf128.multiply(first, sum);
+    long[] firstProduct = Gf128.multiply(first, second);
+    long[] secondProduct = Gf128.multiply(first, third);
+    assertArrayEquals(new long[]{firstProduct[0] ^ secondProduct[0],
+        firstProduct[1] ^ secondProduct[1]}, left);
+  }
+
+  @Test
+  public void testFixedMultiplier() {
+    long[] fixed = randomElement();
+    Gf128.FixedMultiplier multiplier = new Gf128.FixedMultiplier(fixed);
+    for (int i = 0; i < 10; i++) {
+      long[] element = randomElement();
+      long[] expected = Gf128.multiply(element, fixed);
+      multiplier.multiplyInPlace(element);
+      assertArrayEquals(expected, element);
+    }
+  }
+
+  @Test
+  public void testPowerAndEvaluate() {
+    long[] chi = randomElement();
+    long[] cubed = Gf128.multiply(Gf128.multiply(chi, chi), chi);
+    assertArrayEquals(cubed, Gf128.power(chi, 3));
+    assertArrayEquals(new long[]{0, 1}, Gf128.power(chi, 0));
+    // 1 * chi + 0 * chi^2 + 1 * chi^3
+    long[] evaluated = Gf128.evaluate(new long[]{0, 1, 0, 0, 0, 1}, chi);
+    assertArrayEquals(new long[]{chi[0] ^ cubed[0], chi[1] ^ cubed[1]}, evaluated);
+  }
+}